@@ -5,14 +5,18 @@ import com.bm_nttdata.credit_ms.entity.Credit;
 import com.bm_nttdata.credit_ms.mapper.CreditMapper;
 import com.bm_nttdata.credit_ms.mapper.DailyCreditBalanceMapper;
 import com.bm_nttdata.credit_ms.mapper.OperationResponseMapper;
+import com.bm_nttdata.credit_ms.mapper.PaymentQuoteMapper;
 import com.bm_nttdata.credit_ms.model.ApiResponseDto;
 import com.bm_nttdata.credit_ms.model.BalanceUpdateRequestDto;
 import com.bm_nttdata.credit_ms.model.CreditBalanceResponseDto;
 import com.bm_nttdata.credit_ms.model.CreditRequestDto;
 import com.bm_nttdata.credit_ms.model.CreditResponseDto;
 import com.bm_nttdata.credit_ms.model.DailyBalanceDto;
+import com.bm_nttdata.credit_ms.model.DailyBalanceStatsDto;
 import com.bm_nttdata.credit_ms.model.PaymentCreditProductRequestDto;
+import com.bm_nttdata.credit_ms.model.PaymentQuoteDto;
 import com.bm_nttdata.credit_ms.service.CreditService;
+import com.bm_nttdata.credit_ms.service.DailyBalanceService;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import java.time.LocalDate;
 import java.util.List;
@@ -39,12 +43,18 @@ public class CreditApiDelegateImpl implements CreditApiDelegate {
     @Autowired
     private CreditMapper creditMapper;
 
+    @Autowired
+    private DailyBalanceService dailyBalanceService;
+
     @Autowired
     private DailyCreditBalanceMapper creditBalanceMapper;
 
     @Autowired
     private OperationResponseMapper responseMapper;
 
+    @Autowired
+    private PaymentQuoteMapper paymentQuoteMapper;
+
     @Override
     public ResponseEntity<List<CreditResponseDto>> getAllCredits(String customerId) {
 
@@ -100,6 +110,14 @@ public class CreditApiDelegateImpl implements CreditApiDelegate {
         return ResponseEntity.ok(dailyBalances);
     }
 
+    @Override
+    public ResponseEntity<DailyBalanceStatsDto> getCreditDailyBalanceStats(
+            String id, LocalDate searchMonth) {
+        log.info("Getting daily balance statistics for credit: {}", id);
+        return ResponseEntity.ok(creditBalanceMapper.dailyBalanceStatsToDto(
+                dailyBalanceService.getMonthlyStats(id, searchMonth)));
+    }
+
     @Override
     public ResponseEntity<ApiResponseDto> paymentCredit(
             PaymentCreditProductRequestDto paymentCreditProductRequest) {
@@ -123,11 +141,19 @@ public class CreditApiDelegateImpl implements CreditApiDelegate {
                 responseMapper.entityOperationResponseToApiResponseDto(operationResponse));
     }
 
+    @Override
+    public ResponseEntity<PaymentQuoteDto> getCreditPaymentQuote(String id) {
+
+        log.info("Getting payment quote for credit: {}", id);
+        return ResponseEntity.ok(paymentQuoteMapper.paymentDetailsToPaymentQuoteDto(
+                creditService.getPaymentQuote(id)));
+    }
+
     @Override
     public ResponseEntity<CreditBalanceResponseDto> getCreditBalance(String id) {
 
         log.info("Getting balance for credit: {}", id);
-        Credit account = creditService.getCreditById(id);
+        Credit account = creditService.getCreditBalance(id);
         return ResponseEntity.ok(
                 creditMapper.creditEntityToCreditBalanceResponseDto(account));
     }
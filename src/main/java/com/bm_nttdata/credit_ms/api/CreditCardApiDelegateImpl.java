@@ -5,6 +5,7 @@ import com.bm_nttdata.credit_ms.entity.CreditCard;
 import com.bm_nttdata.credit_ms.mapper.CreditCardMapper;
 import com.bm_nttdata.credit_ms.mapper.DailyCreditBalanceMapper;
 import com.bm_nttdata.credit_ms.mapper.OperationResponseMapper;
+import com.bm_nttdata.credit_ms.mapper.PaymentQuoteMapper;
 import com.bm_nttdata.credit_ms.model.ApiResponseDto;
 import com.bm_nttdata.credit_ms.model.BalanceUpdateRequestDto;
 import com.bm_nttdata.credit_ms.model.ChargueCreditCardRequestDto;
@@ -12,8 +13,11 @@ import com.bm_nttdata.credit_ms.model.CreditCardBalanceResponseDto;
 import com.bm_nttdata.credit_ms.model.CreditCardRequestDto;
 import com.bm_nttdata.credit_ms.model.CreditCardResponseDto;
 import com.bm_nttdata.credit_ms.model.DailyBalanceDto;
+import com.bm_nttdata.credit_ms.model.DailyBalanceStatsDto;
 import com.bm_nttdata.credit_ms.model.PaymentCreditProductRequestDto;
+import com.bm_nttdata.credit_ms.model.PaymentQuoteDto;
 import com.bm_nttdata.credit_ms.service.CreditCardService;
+import com.bm_nttdata.credit_ms.service.DailyBalanceService;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import java.time.LocalDate;
 import java.util.List;
@@ -43,6 +47,12 @@ public class CreditCardApiDelegateImpl implements CreditCardApiDelegate {
     @Autowired
     private OperationResponseMapper responseMapper;
 
+    @Autowired
+    private PaymentQuoteMapper paymentQuoteMapper;
+
+    @Autowired
+    private DailyBalanceService dailyBalanceService;
+
     @Autowired
     private DailyCreditBalanceMapper creditBalanceMapper;
 
@@ -103,6 +113,14 @@ public class CreditCardApiDelegateImpl implements CreditCardApiDelegate {
         return ResponseEntity.ok(dailyCardBalances);
     }
 
+    @Override
+    public ResponseEntity<DailyBalanceStatsDto> getCreditCardDailyBalanceStats(
+            String id, LocalDate searchMonth) {
+        log.info("Getting daily balance statistics for credit card: {}", id);
+        return ResponseEntity.ok(creditBalanceMapper.dailyBalanceStatsToDto(
+                dailyBalanceService.getMonthlyStats(id, searchMonth)));
+    }
+
     @Override
     public ResponseEntity<ApiResponseDto> chargeCreditCard(
             String id, ChargueCreditCardRequestDto chargueCreditCardRequest) {
@@ -139,11 +157,19 @@ public class CreditCardApiDelegateImpl implements CreditCardApiDelegate {
                 responseMapper.entityOperationResponseToApiResponseDto(operationResponse));
     }
 
+    @Override
+    public ResponseEntity<PaymentQuoteDto> getCreditCardPaymentQuote(String id) {
+
+        log.info("Obtaining credit card payment quote: {}", id);
+        return ResponseEntity.ok(paymentQuoteMapper.paymentDetailsToPaymentQuoteDto(
+                creditCardService.getPaymentQuote(id)));
+    }
+
     @Override
     public ResponseEntity<CreditCardBalanceResponseDto> getCreditCardBalance(String id) {
 
         log.info("Obtaining credit card balance: {}", id);
-        CreditCard creditCard = creditCardService.getCreditCardById(id);
+        CreditCard creditCard = creditCardService.getCreditCardBalance(id);
 
         return ResponseEntity.ok(
                 creditCardMapper.creditCardEntityToCreditCardBalanceResponseDto(creditCard));
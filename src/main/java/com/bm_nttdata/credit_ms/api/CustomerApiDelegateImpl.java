@@ -0,0 +1,58 @@
+package com.bm_nttdata.credit_ms.api;
+
+import com.bm_nttdata.credit_ms.mapper.CustomerMapper;
+import com.bm_nttdata.credit_ms.model.CustomerDebtsDto;
+import com.bm_nttdata.credit_ms.model.CustomerPortfolioDto;
+import com.bm_nttdata.credit_ms.model.CustomersDebtsRequestDto;
+import com.bm_nttdata.credit_ms.service.CustomerDebtService;
+import com.bm_nttdata.credit_ms.service.CustomerPortfolioService;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Implementación del delegado de la API de clientes.
+ * Maneja las peticiones HTTP que consultan todos los productos de crédito de un cliente,
+ * delegando la lógica de negocio a los servicios correspondientes.
+ */
+@Slf4j
+@Component
+public class CustomerApiDelegateImpl implements CustomerApiDelegate {
+
+    @Autowired
+    private CustomerDebtService customerDebtService;
+
+    @Autowired
+    private CustomerPortfolioService customerPortfolioService;
+
+    @Autowired
+    private CustomerMapper customerMapper;
+
+    @Override
+    public ResponseEntity<CustomerDebtsDto> getCustomerDebts(String customerId) {
+
+        log.info("Getting credit and credit card debts of customer: {}", customerId);
+        return ResponseEntity.ok(customerMapper.customerDebtsToCustomerDebtsDto(
+                customerDebtService.getCustomerDebts(customerId)));
+    }
+
+    @Override
+    public ResponseEntity<Map<String, Boolean>> getCustomersDebts(
+            CustomersDebtsRequestDto customersDebtsRequestDto) {
+
+        log.info("Getting credit and credit card debts of {} customers",
+                customersDebtsRequestDto.getCustomerIds().size());
+        return ResponseEntity.ok(
+                customerDebtService.getCustomersDebts(customersDebtsRequestDto.getCustomerIds()));
+    }
+
+    @Override
+    public ResponseEntity<CustomerPortfolioDto> getCustomerPortfolio(String customerId) {
+
+        log.info("Getting credit portfolio of customer: {}", customerId);
+        return ResponseEntity.ok(customerMapper.customerPortfolioToCustomerPortfolioDto(
+                customerPortfolioService.getCustomerPortfolio(customerId)));
+    }
+}
@@ -0,0 +1,41 @@
+package com.bm_nttdata.credit_ms.api;
+
+import com.bm_nttdata.credit_ms.dto.OperationResponseDto;
+import com.bm_nttdata.credit_ms.mapper.OperationResponseMapper;
+import com.bm_nttdata.credit_ms.model.ApiResponseDto;
+import com.bm_nttdata.credit_ms.service.DailyBalanceService;
+import java.time.LocalDate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Implementación del delegado de la API de saldos diarios.
+ * Maneja las peticiones HTTP de mantenimiento de los saldos diarios,
+ * delegando la lógica de negocio al servicio correspondiente.
+ */
+@Slf4j
+@Component
+public class DailyBalanceApiDelegateImpl implements DailyBalanceApiDelegate {
+
+    @Autowired
+    private DailyBalanceService dailyBalanceService;
+
+    @Autowired
+    private OperationResponseMapper responseMapper;
+
+    @Override
+    public ResponseEntity<ApiResponseDto> backfillDailyBalances(
+            LocalDate startDate, LocalDate endDate) {
+
+        log.info("Backfilling daily balances from {} to {}", startDate, endDate);
+        long processed = dailyBalanceService.backfillDailyBalances(startDate, endDate);
+        OperationResponseDto operationResponse = OperationResponseDto.builder()
+                .status("SUCCESS")
+                .message("Daily balances backfilled: " + processed)
+                .build();
+        return ResponseEntity.ok(
+                responseMapper.entityOperationResponseToApiResponseDto(operationResponse));
+    }
+}
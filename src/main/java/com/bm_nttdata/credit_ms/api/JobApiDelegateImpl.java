@@ -0,0 +1,45 @@
+package com.bm_nttdata.credit_ms.api;
+
+import com.bm_nttdata.credit_ms.mapper.JobMapper;
+import com.bm_nttdata.credit_ms.model.JobStatusDto;
+import com.bm_nttdata.credit_ms.scheduler.JobRegistry;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Implementación del delegado de la API de tareas programadas.
+ * Maneja las peticiones HTTP de consulta y ejecución manual de las tareas programadas,
+ * delegando en el registro de tareas.
+ */
+@Slf4j
+@Component
+public class JobApiDelegateImpl implements JobApiDelegate {
+
+    @Autowired
+    private JobRegistry jobRegistry;
+
+    @Autowired
+    private JobMapper jobMapper;
+
+    @Override
+    public ResponseEntity<List<JobStatusDto>> getJobs() {
+
+        log.info("Querying scheduled jobs");
+        return ResponseEntity.ok(jobRegistry.getJobs().stream()
+                .map(jobMapper::jobDetailsToJobStatusDto)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public ResponseEntity<JobStatusDto> runJob(String jobName) {
+
+        log.info("Triggering scheduled job: {}", jobName);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(jobMapper.jobDetailsToJobStatusDto(jobRegistry.trigger(jobName)));
+    }
+}
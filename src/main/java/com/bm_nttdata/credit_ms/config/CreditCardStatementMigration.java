@@ -0,0 +1,46 @@
+package com.bm_nttdata.credit_ms.config;
+
+import com.bm_nttdata.credit_ms.entity.CreditCardStatement;
+import com.bm_nttdata.credit_ms.repository.CreditCardStatementRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migración de los estados de cuenta de tarjetas de crédito.
+ * Las cuotas creadas antes de existir los estados de cuenta no pertenecen a ninguno; si la
+ * colección de estados de cuenta está vacía al arrancar la aplicación, se crean a partir de
+ * las cuotas no pagadas con una única agregación que escribe en el servidor mediante $merge.
+ * La migración es idempotente.
+ */
+@Slf4j
+@Component
+public class CreditCardStatementMigration implements ApplicationRunner {
+
+    @Autowired
+    private CreditCardStatementRepository statementRepository;
+
+    /**
+     * Crea los estados de cuenta de las cuotas no pagadas si aún no existe ninguno.
+     *
+     * @param args Argumentos de arranque de la aplicación
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+
+        try {
+            if (statementRepository.count() > 0) {
+                return;
+            }
+            long migrated = statementRepository.backfillStatements();
+            if (migrated > 0) {
+                log.info("Migrated {} {} documents from unpaid installments",
+                        migrated, CreditCardStatement.class.getSimpleName());
+            }
+        } catch (Exception e) {
+            log.error("Error creating credit card statements: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.bm_nttdata.credit_ms.config;
+
+import com.bm_nttdata.credit_ms.entity.Credit;
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migración de los campos monetarios almacenados como texto a Decimal128.
+ * Los campos que se comparan o incrementan en el servidor deben ser numéricos; los documentos
+ * escritos antes de declararlos como Decimal128 se convierten al arrancar la aplicación.
+ * La migración es idempotente: solo actualiza los documentos que aún guardan texto.
+ * Se ejecuta al terminar de crear los beans, antes de que el servidor web acepte
+ * solicitudes, ya que las consultas que comparan estos campos con Decimal128 no encuentran
+ * los documentos que guardan texto. Un error detiene el arranque en lugar de dejar la
+ * aplicación atendiendo con datos sin migrar.
+ */
+@Slf4j
+@Component
+public class DecimalFieldMigration implements SmartInitializingSingleton {
+
+    private static final Map<Class<?>, List<String>> DECIMAL_FIELDS =
+            Map.of(Credit.class, List.of("balance"),
+                    CreditCard.class, List.of("availableCredit"));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Convierte a Decimal128 los campos registrados que aún se almacenan como texto.
+     *
+     * @throws IllegalStateException si algún campo no pudo migrarse
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+
+        DECIMAL_FIELDS.forEach((entityType, fields) -> fields.forEach(field -> {
+            try {
+                long migrated = mongoTemplate.updateMulti(
+                        new Query(Criteria.where(field).type(JsonSchemaObject.Type.STRING)),
+                        AggregationUpdate.from(List.of(context -> new Document("$set",
+                                new Document(field, new Document("$toDecimal", "$" + field))))),
+                        entityType).getModifiedCount();
+                if (migrated > 0) {
+                    log.info("Migrated {} {} documents: {} stored as Decimal128",
+                            migrated, entityType.getSimpleName(), field);
+                }
+            } catch (Exception e) {
+                log.error("Error migrating {} of {} to Decimal128: {}",
+                        field, entityType.getSimpleName(), e.getMessage());
+                throw new IllegalStateException("Error migrating " + field + " of "
+                        + entityType.getSimpleName() + " to Decimal128", e);
+            }
+        }));
+    }
+}
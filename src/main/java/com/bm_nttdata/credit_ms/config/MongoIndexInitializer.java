@@ -0,0 +1,67 @@
+package com.bm_nttdata.credit_ms.config;
+
+import com.bm_nttdata.credit_ms.entity.Credit;
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import com.bm_nttdata.credit_ms.entity.CreditCardInstallment;
+import com.bm_nttdata.credit_ms.entity.CreditCardStatement;
+import com.bm_nttdata.credit_ms.entity.CreditPaymentSchedule;
+import com.bm_nttdata.credit_ms.entity.DailyCreditBalance;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inicializador de los índices declarados en las entidades de MongoDB.
+ * Crea al arrancar la aplicación los índices anotados en las entidades registradas.
+ * Un índice que no puede crearse, por ejemplo un índice único sobre datos duplicados,
+ * se registra como error sin impedir el arranque del servicio.
+ */
+@Slf4j
+@Component
+public class MongoIndexInitializer implements ApplicationRunner {
+
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(
+            Credit.class,
+            CreditCard.class,
+            CreditCardInstallment.class,
+            CreditCardStatement.class,
+            CreditPaymentSchedule.class,
+            DailyCreditBalance.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Crea los índices declarados en las entidades registradas.
+     *
+     * @param args Argumentos de arranque de la aplicación
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+
+        MongoPersistentEntityIndexResolver indexResolver =
+                new MongoPersistentEntityIndexResolver(
+                        mongoTemplate.getConverter().getMappingContext());
+
+        for (Class<?> entityType : INDEXED_ENTITIES) {
+            IndexOperations indexOperations = mongoTemplate.indexOps(entityType);
+
+            for (IndexDefinition index : indexResolver.resolveIndexFor(entityType)) {
+                try {
+                    indexOperations.ensureIndex(index);
+                } catch (Exception e) {
+                    log.error("Error creating index {} on {}: {}",
+                            index.getIndexKeys(), entityType.getSimpleName(), e.getMessage());
+                }
+            }
+        }
+        log.info("Mongo indexes verified for {} entities", INDEXED_ENTITIES.size());
+    }
+}
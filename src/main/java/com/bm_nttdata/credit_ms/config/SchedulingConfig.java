@@ -0,0 +1,45 @@
+package com.bm_nttdata.credit_ms.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Configuración de la ejecución de tareas programadas.
+ * Las tareas se ejecutan en un grupo de hilos dedicado en lugar del programador de un único
+ * hilo por defecto, de modo que una tarea lenta no retrasa el inicio de las demás.
+ */
+@Configuration
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    @Value("${credit.scheduler.pool-size:4}")
+    private int poolSize;
+
+    @Value("${credit.scheduler.shutdown-await-seconds:30}")
+    private int shutdownAwaitSeconds;
+
+    /**
+     * Programador de tareas compartido por las tareas programadas y sus ejecuciones manuales.
+     *
+     * @return Programador de tareas con un grupo de hilos dedicado
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("credit-job-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(shutdownAwaitSeconds);
+        return scheduler;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+
+        taskRegistrar.setTaskScheduler(taskScheduler());
+    }
+}
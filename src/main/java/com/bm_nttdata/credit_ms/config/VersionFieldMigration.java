@@ -0,0 +1,59 @@
+package com.bm_nttdata.credit_ms.config;
+
+import com.bm_nttdata.credit_ms.entity.Credit;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migración del campo de versión de las entidades versionadas.
+ * Un documento sin versión se interpretaría como nuevo al guardarse y su actualización
+ * fallaría; los documentos escritos antes de versionar la entidad reciben la versión
+ * inicial al arrancar la aplicación. La migración es idempotente.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class VersionFieldMigration implements ApplicationRunner {
+
+    private static final String VERSION_FIELD = "version";
+
+    private static final List<Class<?>> VERSIONED_ENTITIES = List.of(Credit.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Asigna la versión inicial a los documentos de las entidades versionadas que no la tienen.
+     *
+     * @param args Argumentos de arranque de la aplicación
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+
+        for (Class<?> entityType : VERSIONED_ENTITIES) {
+            try {
+                long migrated = mongoTemplate.updateMulti(
+                        new Query(Criteria.where(VERSION_FIELD).exists(false)),
+                        new Update().set(VERSION_FIELD, 0L),
+                        entityType).getModifiedCount();
+                if (migrated > 0) {
+                    log.info("Migrated {} {} documents: initial version assigned",
+                            migrated, entityType.getSimpleName());
+                }
+            } catch (Exception e) {
+                log.error("Error assigning initial version to {}: {}",
+                        entityType.getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
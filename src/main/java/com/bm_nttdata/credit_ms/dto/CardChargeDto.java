@@ -0,0 +1,22 @@
+package com.bm_nttdata.credit_ms.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clase para representar un cargo autorizado a una tarjeta de crédito
+ * cuyas cuotas deben registrarse.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardChargeDto {
+
+    private BigDecimal installmentAmount;
+    private int totalInstallments;
+
+}
@@ -0,0 +1,35 @@
+package com.bm_nttdata.credit_ms.dto;
+
+import com.bm_nttdata.credit_ms.enums.CardStatusEnum;
+import com.bm_nttdata.credit_ms.enums.CreditTypeEnum;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clase para representar una tarjeta de crédito dentro del portafolio de un cliente,
+ * con su crédito disponible, su próximo pago y sus cuotas vencidas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditCardPortfolioDetailsDto {
+
+    private String id;
+    private String cardNumber;
+    private CreditTypeEnum cardType;
+    private CardStatusEnum status;
+    private BigDecimal creditLimit;
+    private BigDecimal availableCredit;
+    private int paymentDate;
+    private LocalDate nextPaymentDate;
+    private BigDecimal nextPaymentAmount;
+    private long overdueInstallments;
+    private BigDecimal overdueAmount;
+    private long daysOverdue;
+
+}
@@ -0,0 +1,34 @@
+package com.bm_nttdata.credit_ms.dto;
+
+import com.bm_nttdata.credit_ms.enums.CreditStatusEnum;
+import com.bm_nttdata.credit_ms.enums.CreditTypeEnum;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clase para representar un crédito dentro del portafolio de un cliente,
+ * con su saldo, su próximo pago y sus cuotas vencidas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditPortfolioDetailsDto {
+
+    private String id;
+    private CreditTypeEnum creditType;
+    private CreditStatusEnum status;
+    private BigDecimal amount;
+    private BigDecimal balance;
+    private Double interestRate;
+    private LocalDate nextPaymentDate;
+    private BigDecimal nextPaymentAmount;
+    private long overdueInstallments;
+    private BigDecimal overdueAmount;
+    private long daysOverdue;
+
+}
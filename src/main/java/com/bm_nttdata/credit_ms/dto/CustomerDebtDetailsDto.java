@@ -0,0 +1,23 @@
+package com.bm_nttdata.credit_ms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clase para representar las deudas vencidas de un cliente
+ * en sus créditos y tarjetas de crédito.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerDebtDetailsDto {
+
+    private String customerId;
+    private Boolean hasCreditDebts;
+    private Boolean hasCreditCardDebts;
+    private Boolean hasDebts;
+
+}
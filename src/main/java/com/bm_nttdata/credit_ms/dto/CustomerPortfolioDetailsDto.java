@@ -0,0 +1,24 @@
+package com.bm_nttdata.credit_ms.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clase para representar el portafolio de un cliente: sus créditos y tarjetas de crédito
+ * con el resumen de sus cuotas no pagadas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerPortfolioDetailsDto {
+
+    private String customerId;
+    private Boolean hasDebts;
+    private List<CreditPortfolioDetailsDto> credits;
+    private List<CreditCardPortfolioDetailsDto> creditCards;
+
+}
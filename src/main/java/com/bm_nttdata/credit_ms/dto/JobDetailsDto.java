@@ -0,0 +1,32 @@
+package com.bm_nttdata.credit_ms.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clase para representar el estado de una tarea programada registrada
+ * y el resultado de su última ejecución.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobDetailsDto {
+
+    private String name;
+    private String description;
+    private boolean running;
+    private String lastStatus;
+    private LocalDateTime lastStartedAt;
+    private LocalDateTime lastFinishedAt;
+    private long lastDurationMillis;
+    private long lastItems;
+    private String lastError;
+    private long executions;
+    private long failures;
+    private long skipped;
+
+}
@@ -19,5 +19,6 @@ public class PaymentDetailsDto {
     private BigDecimal paymentAmount;
     private BigDecimal paymentFee;
     private BigDecimal totalPayment;
+    private int paidOverdueInstallments;
 
 }
@@ -10,11 +10,24 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 /**
  * Representa una entidad de crédito en el sistema bancario.
  * Esta clase maneja el almacenamiento y gestión de la información de créditos.
+ * Los documentos están versionados: una escritura basada en una versión desactualizada
+ * falla en lugar de sobrescribir cambios concurrentes.
+ * El saldo se almacena como Decimal128 para operar con él numéricamente en las agregaciones.
+ * En el cronograma compacto solo se almacenan las cuotas próximas a vencer; el número de
+ * cuotas almacenadas y el vencimiento de la siguiente por almacenar indican hasta dónde se
+ * extendió el cronograma, y este último se elimina cuando el cronograma está completo.
+ * La fecha de vencimiento de la cuota vencida más antigua se mantiene al marcar cuotas
+ * vencidas y al pagarlas, de modo que el saldo obtiene los días de retraso sin leer
+ * el cronograma.
  */
 @Data
 @Builder
@@ -24,17 +37,26 @@ import org.springframework.data.mongodb.core.mapping.Document;
 public class Credit {
     @Id
     private String id;
+    @Indexed
     private String customerId;
     private CreditTypeEnum creditType;
     private BigDecimal amount;
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal balance;
     private Integer term;
     private Double interestRate;
+    @Indexed
     private CreditStatusEnum status;
     private int paymentDay;
     private LocalDate nextPaymentDate;
     private BigDecimal nextPaymentAmount;
     private int nextPaymentInstallment;
+    private LocalDate overdueSince;
+    private Integer materializedInstallments;
+    @Indexed(sparse = true)
+    private LocalDate nextMaterializationDueDate;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    @Version
+    private Long version;
 }
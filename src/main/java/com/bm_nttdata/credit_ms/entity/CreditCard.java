@@ -3,17 +3,25 @@ package com.bm_nttdata.credit_ms.entity;
 import com.bm_nttdata.credit_ms.enums.CardStatusEnum;
 import com.bm_nttdata.credit_ms.enums.CreditTypeEnum;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 /**
  * Representa una entidad de tarjeta de crédito en el sistema bancario.
  * Esta clase gestiona la información de tarjetas de crédito y sus atributos relacionados.
+ * El crédito disponible se almacena como Decimal128 para actualizarlo de forma atómica.
+ * La fecha y el capital del próximo estado de cuenta pendiente y la fecha de vencimiento del
+ * estado de cuenta vencido más antiguo se recalculan desde los estados de cuenta al
+ * registrar cargos y pagos y al marcar estados de cuenta vencidos.
  */
 @Data
 @Builder
@@ -24,13 +32,20 @@ public class CreditCard {
 
     @Id
     private String id;
+    @Indexed
     private String customerId;
     private String cardNumber;
     private CreditTypeEnum cardType;
     private BigDecimal creditLimit;
     private Double interestRate;
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal availableCredit;
     private int paymentDate;
+    private LocalDate nextPaymentDate;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal nextPaymentAmount;
+    private LocalDate overdueSince;
+    @Indexed
     private CardStatusEnum status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -9,17 +9,31 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
  * Representa una cuota de tarjeta de crédito en el sistema bancario.
  * Esta clase gestiona la información de cuotas para compras con tarjeta de crédito.
+ * Los índices parciales solo incluyen las cuotas pendientes o vencidas, de modo que no
+ * crecen con el histórico de cuotas pagadas.
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "credit_card_installment")
+@CompoundIndexes({
+    @CompoundIndex(name = "card_status_idx",
+            def = "{'creditCardId': 1, 'status': 1}"),
+    @CompoundIndex(name = "card_open_due_date_idx",
+            def = "{'creditCardId': 1, 'dueDate': 1}",
+            partialFilter = "{'status': {'$in': ['PENDING', 'OVERDUE']}}"),
+    @CompoundIndex(name = "open_status_due_date_idx",
+            def = "{'status': 1, 'dueDate': 1}",
+            partialFilter = "{'status': {'$in': ['PENDING', 'OVERDUE']}}")
+})
 public class CreditCardInstallment {
 
     @Id
@@ -0,0 +1,56 @@
+package com.bm_nttdata.credit_ms.entity;
+
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+/**
+ * Representa el estado de cuenta de un ciclo de facturación de una tarjeta de crédito.
+ * Agrupa las cuotas de la tarjeta que vencen en una misma fecha de pago, con su capital
+ * total, y pasa por los mismos estados que sus cuotas. Su ID combina el ID de la tarjeta y
+ * la fecha de vencimiento, de modo que cada ciclo tiene un único estado de cuenta.
+ * El capital se almacena como Decimal128 para incrementarlo de forma atómica al registrar
+ * nuevos cargos.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "credit_card_statements")
+@CompoundIndexes({
+    @CompoundIndex(name = "card_open_due_date_idx",
+            def = "{'creditCardId': 1, 'dueDate': 1}",
+            partialFilter = "{'status': {'$in': ['PENDING', 'OVERDUE']}}"),
+    @CompoundIndex(name = "open_status_due_date_idx",
+            def = "{'status': 1, 'dueDate': 1}",
+            partialFilter = "{'status': {'$in': ['PENDING', 'OVERDUE']}}")
+})
+public class CreditCardStatement {
+
+    @Id
+    private String id;
+    private String creditCardId;
+    private LocalDate dueDate;
+    private List<String> installmentIds;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal principalDue;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal interestDue;
+    private long daysOverdue;
+    private InstallmentStatusEnum status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+}
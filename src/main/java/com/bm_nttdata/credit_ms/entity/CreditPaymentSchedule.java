@@ -9,17 +9,31 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
  * Representa un cronograma de pagos de créditos o tarjetas de credito en el sistema bancario.
  * Esta clase gestiona la información del calendario de pagos para créditos.
+ * Los índices parciales solo incluyen las cuotas pendientes o vencidas, de modo que no
+ * crecen con el histórico de cuotas pagadas.
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "credit_payment_schedule")
+@CompoundIndexes({
+    @CompoundIndex(name = "credit_status_idx",
+            def = "{'creditId': 1, 'status': 1}"),
+    @CompoundIndex(name = "credit_open_due_date_idx",
+            def = "{'creditId': 1, 'dueDate': 1}",
+            partialFilter = "{'status': {'$in': ['PENDING', 'OVERDUE']}}"),
+    @CompoundIndex(name = "open_status_due_date_idx",
+            def = "{'status': 1, 'dueDate': 1}",
+            partialFilter = "{'status': {'$in': ['PENDING', 'OVERDUE']}}")
+})
 public class CreditPaymentSchedule {
 
     @Id
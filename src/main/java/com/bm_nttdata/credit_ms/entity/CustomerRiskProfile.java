@@ -0,0 +1,40 @@
+package com.bm_nttdata.credit_ms.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+/**
+ * Representa el perfil de riesgo de un cliente en todos sus productos de crédito.
+ * Resume los créditos con saldo pendiente, el saldo total de los créditos, el crédito
+ * utilizado de las tarjetas y las cuotas vencidas por tipo de producto, de modo que las
+ * validaciones por cliente lean un único documento por su ID.
+ * El perfil se mantiene con incrementos atómicos en cada operación que modifica estos
+ * valores; los montos se almacenan como Decimal128 para poder incrementarlos en el servidor.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "customer_risk_profiles")
+public class CustomerRiskProfile {
+
+    @Id
+    private String customerId;
+    private long openCredits;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal creditBalance;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal cardExposure;
+    private long overdueCreditInstallments;
+    private long overdueCardInstallments;
+    private LocalDateTime rebuiltAt;
+    private LocalDateTime updatedAt;
+}
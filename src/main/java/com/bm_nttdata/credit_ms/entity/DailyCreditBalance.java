@@ -7,18 +7,22 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
  * Clase que representa una entidad de balance diario en el sistema bancario.
  * Esta clase maneja el almacenamiento y gestión de los balances diarios
  * de créditos y tarjetas de créditos.
+ * Cada producto de crédito tiene como máximo un saldo diario por fecha.
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "daily_credit_balances")
+@CompoundIndex(name = "credit_product_date_idx",
+        def = "{'creditProductId': 1, 'date': 1}", unique = true)
 public class DailyCreditBalance {
 
     @Id
@@ -0,0 +1,44 @@
+package com.bm_nttdata.credit_ms.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+/**
+ * Clase que representa las estadísticas de saldo diario de un producto de crédito en un mes.
+ * Se actualiza de forma incremental con cada saldo registrado. El último saldo queda
+ * pendiente de acumular hasta que se registra un día posterior, de modo que volver a
+ * registrar el mismo día reemplaza su valor en lugar de contarlo dos veces.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "monthly_balance_stats")
+public class MonthlyBalanceStats {
+
+    @Id
+    private String id;
+    private String creditProductId;
+    private String month;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal sum;
+    private long count;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal min;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal max;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal last;
+    private LocalDate lastDate;
+    private LocalDateTime updatedAt;
+
+}
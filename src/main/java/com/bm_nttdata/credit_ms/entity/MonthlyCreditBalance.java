@@ -0,0 +1,35 @@
+package com.bm_nttdata.credit_ms.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+/**
+ * Clase que representa los saldos diarios de un producto de crédito durante un mes.
+ * Agrupa en un único documento los saldos del mes en un arreglo fijo de 31 posiciones,
+ * donde la posición i corresponde al día i + 1; los días sin saldo registrado son nulos.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "monthly_credit_balances")
+public class MonthlyCreditBalance {
+
+    @Id
+    private String id;
+    private String creditProductId;
+    private String month;
+    @Field(targetType = FieldType.DECIMAL128)
+    private List<BigDecimal> balances;
+    private LocalDateTime updatedAt;
+
+}
@@ -0,0 +1,46 @@
+package com.bm_nttdata.credit_ms.entity;
+
+import com.bm_nttdata.credit_ms.enums.PartitionStatusEnum;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Representa una partición de la ejecución diaria de una tarea programada.
+ * Cada partición cubre un rango de identificadores de créditos y de tarjetas de crédito,
+ * y es reclamada por una única instancia mediante un arrendamiento con vencimiento.
+ * Los puntos de control guardan el último identificador procesado de cada rango para
+ * reanudar la partición tras un reinicio.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "scheduler_partitions")
+public class SchedulerPartition {
+
+    @Id
+    private String id;
+    private String jobName;
+    private LocalDate executionDate;
+    private int partitionIndex;
+    private int totalPartitions;
+    private String creditLowerId;
+    private String creditUpperId;
+    private String cardLowerId;
+    private String cardUpperId;
+    private String creditCheckpointId;
+    private String cardCheckpointId;
+    private PartitionStatusEnum status;
+    private String owner;
+    private LocalDateTime leaseExpiresAt;
+    private int attempts;
+    private long processedItems;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,65 @@
+package com.bm_nttdata.credit_ms.enums;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Enumeración que representa los estados de una partición de una tarea programada.
+ * Define si una partición se encuentra Pendiente, En ejecución, Completada o Fallida tras
+ * agotar sus intentos.
+ */
+public enum PartitionStatusEnum {
+    PENDING("PENDING"),
+    RUNNING("RUNNING"),
+    COMPLETED("COMPLETED"),
+    FAILED("FAILED");
+
+    public final String value;
+
+    /**
+     * Constructor del enum PartitionStatusEnum.
+     *
+     * @param value Valor string que representa el tipo de estatus
+     */
+    PartitionStatusEnum(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Obtiene el valor string del tipo de estatus.
+     *
+     * @return El valor string asociado al tipo de estatus
+     */
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Retorna la representación en string del tipo de estatus.
+     *
+     * @return String que representa el tipo de estatus
+     */
+    @Override
+    public String toString() {
+        return String.valueOf(value);
+    }
+
+    /**
+     * Convierte un valor string a su correspondiente enum PartitionStatusEnum.
+     *
+     * @param value Valor string a convertir
+     * @return El enum PartitionStatusEnum correspondiente al valor
+     * @throws IllegalArgumentException si el valor no corresponde a ningún tipo de estatus válido
+     */
+    @JsonCreator
+    public static PartitionStatusEnum fromValue(String value) {
+        for (PartitionStatusEnum b : PartitionStatusEnum.values()) {
+            if (b.value.equals(value)) {
+                return b;
+            }
+        }
+        throw new IllegalArgumentException("Unexpected value '" + value + "'");
+    }
+
+}
@@ -15,7 +15,7 @@ import org.mapstruct.Mapping;
  * Interfaz de mapeo para la conversión entre entidades y DTOs relacionados con tarjetas de crédito.
  * Utiliza MapStruct para la implementación automática de las conversiones.
  */
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = OverdueDaysMapper.class)
 public interface CreditCardMapper {
 
     /**
@@ -37,12 +37,16 @@ public interface CreditCardMapper {
 
     /**
      * Convierte una entidad de tarjeta de crédito a un DTO de respuesta de balance.
-     * El campo 'id' de la entidad se mapea al campo 'creditCardId' del DTO.
+     * El campo 'id' de la entidad se mapea al campo 'creditCardId' del DTO, el campo
+     * 'paymentDate' al campo 'paymentDay', y el campo 'daysOverdue' se calcula desde la
+     * fecha del estado de cuenta vencido más antiguo.
      *
      * @param creditCard Entidad de tarjeta de crédito a convertir
      * @return DTO con la información de balance de la tarjeta de crédito
      */
     @Mapping(target = "creditCardId", source = "id")
+    @Mapping(target = "paymentDay", source = "paymentDate")
+    @Mapping(target = "daysOverdue", source = "overdueSince", qualifiedByName = "daysOverdue")
     CreditCardBalanceResponseDto creditCardEntityToCreditCardBalanceResponseDto(
             CreditCard creditCard);
 
@@ -14,7 +14,7 @@ import org.mapstruct.Mapping;
  * Interfaz de mapeo para la conversión entre entidades y DTOs relacionados con créditos.
  * Utiliza MapStruct para la implementación automática de las conversiones.
  */
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = OverdueDaysMapper.class)
 public interface CreditMapper {
 
     /**
@@ -38,17 +38,17 @@ public interface CreditMapper {
      * Realiza los siguientes mapeos específicos:
      * - El campo 'amount' se mapea a 'originalAmount'
      * - El campo 'balance' se mapea a 'currentBalance'
-     * - El campo 'nextPaymentDate' se mantiene con el mismo nombre
-     * - Los campos 'nextPaymentAmount' y 'daysOverdue' se ignoran en el mapeo
+     * - Los campos 'nextPaymentAmount' y 'nextPaymentDate' se mantienen con el mismo nombre
+     * - El campo 'daysOverdue' se calcula desde la fecha de la cuota vencida más antigua
      *
      * @param credit Entidad de crédito a convertir
      * @return DTO con la información de balance del crédito
      */
     @Mapping(target = "originalAmount", source = "amount")
     @Mapping(target = "currentBalance", source = "balance")
-    @Mapping(target = "nextPaymentAmount", ignore = true)
+    @Mapping(target = "nextPaymentAmount", source = "nextPaymentAmount")
     @Mapping(target = "nextPaymentDate", source = "nextPaymentDate")
-    @Mapping(target = "daysOverdue", ignore = true)
+    @Mapping(target = "daysOverdue", source = "overdueSince", qualifiedByName = "daysOverdue")
     CreditBalanceResponseDto creditEntityToCreditBalanceResponseDto(Credit credit);
 
     /**
@@ -0,0 +1,60 @@
+package com.bm_nttdata.credit_ms.mapper;
+
+import com.bm_nttdata.credit_ms.dto.CreditCardPortfolioDetailsDto;
+import com.bm_nttdata.credit_ms.dto.CreditPortfolioDetailsDto;
+import com.bm_nttdata.credit_ms.dto.CustomerDebtDetailsDto;
+import com.bm_nttdata.credit_ms.dto.CustomerPortfolioDetailsDto;
+import com.bm_nttdata.credit_ms.model.CustomerDebtsDto;
+import com.bm_nttdata.credit_ms.model.CustomerPortfolioDto;
+import com.bm_nttdata.credit_ms.model.PortfolioCreditCardDto;
+import com.bm_nttdata.credit_ms.model.PortfolioCreditDto;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+/**
+ * Interfaz de mapeo para la conversión de la información de productos de un cliente
+ * a DTOs de la API.
+ * Utiliza MapStruct para la implementación automática de las conversiones.
+ */
+@Mapper(componentModel = "spring")
+public interface CustomerMapper {
+
+    /**
+     * Convierte las deudas vencidas de un cliente a un DTO de respuesta.
+     *
+     * @param customerDebts Deudas vencidas del cliente
+     * @return DTO con las deudas vencidas del cliente
+     */
+    CustomerDebtsDto customerDebtsToCustomerDebtsDto(CustomerDebtDetailsDto customerDebts);
+
+    /**
+     * Convierte el portafolio de un cliente a un DTO de respuesta.
+     *
+     * @param customerPortfolio Portafolio del cliente
+     * @return DTO con los créditos y tarjetas de crédito del cliente
+     */
+    CustomerPortfolioDto customerPortfolioToCustomerPortfolioDto(
+            CustomerPortfolioDetailsDto customerPortfolio);
+
+    /**
+     * Convierte un crédito del portafolio a un DTO de respuesta.
+     * El campo 'id' se mapea al campo 'creditId' del DTO.
+     *
+     * @param credit Crédito del portafolio
+     * @return DTO con la información del crédito
+     */
+    @Mapping(target = "creditId", source = "id")
+    PortfolioCreditDto creditPortfolioToPortfolioCreditDto(CreditPortfolioDetailsDto credit);
+
+    /**
+     * Convierte una tarjeta de crédito del portafolio a un DTO de respuesta.
+     * El campo 'id' se mapea al campo 'creditCardId' y 'paymentDate' a 'paymentDay' del DTO.
+     *
+     * @param creditCard Tarjeta de crédito del portafolio
+     * @return DTO con la información de la tarjeta de crédito
+     */
+    @Mapping(target = "creditCardId", source = "id")
+    @Mapping(target = "paymentDay", source = "paymentDate")
+    PortfolioCreditCardDto creditCardPortfolioToPortfolioCreditCardDto(
+            CreditCardPortfolioDetailsDto creditCard);
+}
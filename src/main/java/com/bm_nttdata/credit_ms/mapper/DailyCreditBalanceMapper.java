@@ -1,7 +1,11 @@
 package com.bm_nttdata.credit_ms.mapper;
 
 import com.bm_nttdata.credit_ms.entity.DailyCreditBalance;
+import com.bm_nttdata.credit_ms.entity.MonthlyBalanceStats;
 import com.bm_nttdata.credit_ms.model.DailyBalanceDto;
+import com.bm_nttdata.credit_ms.model.DailyBalanceStatsDto;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -20,4 +24,32 @@ public interface DailyCreditBalanceMapper {
     @Mapping(target = "balanceAmount", source = "balance")
     @Mapping(target = "balanceDate", source = "date")
     DailyBalanceDto dailyBalanceToDto(DailyCreditBalance dailyCreditBalance);
+
+    /**
+     * Convierte las estadísticas mensuales de saldo diario a DailyBalanceStatsDto.
+     * El saldo promedio se calcula como la suma de saldos entre el número de días.
+     *
+     * @param stats Estadísticas mensuales de saldo diario
+     * @return DTO con las estadísticas del mes
+     */
+    @Mapping(target = "days", source = "count")
+    @Mapping(target = "averageBalance", expression = "java(averageBalance(stats))")
+    @Mapping(target = "minBalance", source = "min")
+    @Mapping(target = "maxBalance", source = "max")
+    @Mapping(target = "lastBalance", source = "last")
+    @Mapping(target = "lastBalanceDate", source = "lastDate")
+    DailyBalanceStatsDto dailyBalanceStatsToDto(MonthlyBalanceStats stats);
+
+    /**
+     * Calcula el saldo diario promedio de unas estadísticas mensuales.
+     *
+     * @param stats Estadísticas mensuales de saldo diario
+     * @return Saldo promedio con dos decimales, o null si no hay días registrados
+     */
+    default BigDecimal averageBalance(MonthlyBalanceStats stats) {
+        if (stats.getCount() == 0 || stats.getSum() == null) {
+            return null;
+        }
+        return stats.getSum().divide(BigDecimal.valueOf(stats.getCount()), 2, RoundingMode.HALF_UP);
+    }
 }
@@ -0,0 +1,37 @@
+package com.bm_nttdata.credit_ms.mapper;
+
+import com.bm_nttdata.credit_ms.dto.JobDetailsDto;
+import com.bm_nttdata.credit_ms.model.JobStatusDto;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import org.mapstruct.Mapper;
+
+/**
+ * Interfaz de mapeo para la conversión del estado de las tareas programadas a DTOs de la API.
+ * Utiliza MapStruct para la implementación automática de las conversiones.
+ */
+@Mapper(componentModel = "spring")
+public interface JobMapper {
+
+    /**
+     * Convierte el estado de una tarea programada a un DTO de respuesta.
+     *
+     * @param jobDetails Estado de la tarea programada
+     * @return DTO con el estado de la tarea
+     */
+    JobStatusDto jobDetailsToJobStatusDto(JobDetailsDto jobDetails);
+
+    /**
+     * Convierte un LocalDateTime a OffsetDateTime en UTC.
+     *
+     * @param localDateTime Fecha y hora local
+     * @return Fecha y hora con zona horaria UTC
+     */
+    default OffsetDateTime map(LocalDateTime localDateTime) {
+        if (localDateTime == null) {
+            return null;
+        }
+        return localDateTime.atOffset(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,30 @@
+package com.bm_nttdata.credit_ms.mapper;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import org.mapstruct.Named;
+import org.springframework.stereotype.Component;
+
+/**
+ * Conversión compartida por los mapeadores de créditos y tarjetas de crédito para obtener
+ * los días de retraso de un producto desde la fecha de su cuota vencida más antigua.
+ */
+@Component
+public class OverdueDaysMapper {
+
+    /**
+     * Calcula los días de retraso a la fecha actual desde la fecha de vencimiento de la
+     * cuota vencida más antigua.
+     *
+     * @param overdueSince Fecha de vencimiento de la cuota vencida más antigua, o nula si
+     *                     no hay cuotas vencidas
+     * @return Días de retraso
+     */
+    @Named("daysOverdue")
+    public Integer daysOverdue(LocalDate overdueSince) {
+        if (overdueSince == null) {
+            return 0;
+        }
+        return (int) ChronoUnit.DAYS.between(overdueSince, LocalDate.now());
+    }
+}
@@ -0,0 +1,21 @@
+package com.bm_nttdata.credit_ms.mapper;
+
+import com.bm_nttdata.credit_ms.dto.PaymentDetailsDto;
+import com.bm_nttdata.credit_ms.model.PaymentQuoteDto;
+import org.mapstruct.Mapper;
+
+/**
+ * Interfaz de mapeo para la conversión del detalle de un pago a DTOs de cotización API.
+ * Utiliza MapStruct para la implementación automática de las conversiones.
+ */
+@Mapper(componentModel = "spring")
+public interface PaymentQuoteMapper {
+
+    /**
+     * Convierte el detalle de un pago a un DTO de cotización.
+     *
+     * @param paymentDetails DTO con el detalle del pago a convertir
+     * @return DTO con la cotización del pago
+     */
+    PaymentQuoteDto paymentDetailsToPaymentQuoteDto(PaymentDetailsDto paymentDetails);
+}
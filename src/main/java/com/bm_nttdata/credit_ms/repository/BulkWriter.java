@@ -0,0 +1,35 @@
+package com.bm_nttdata.credit_ms.repository;
+
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Escritor masivo de entidades en MongoDB.
+ * Agrupa las inserciones y actualizaciones de varias entidades en una única operación,
+ * de modo que su costo en viajes a la base de datos no depende del número de entidades.
+ */
+public interface BulkWriter {
+
+    /**
+     * Inserta entidades nuevas en una única operación masiva desordenada.
+     * Las entidades sin identificador reciben uno antes de insertarse.
+     *
+     * @param entities Entidades a insertar
+     * @param entityType Tipo de las entidades
+     * @param <T> Tipo de las entidades
+     * @return Entidades insertadas, con su identificador asignado
+     */
+    <T> List<T> insertAll(Collection<T> entities, Class<T> entityType);
+
+    /**
+     * Aplica una misma actualización a un conjunto de entidades identificadas por su ID
+     * en una única operación.
+     *
+     * @param ids IDs de las entidades a actualizar
+     * @param update Actualización a aplicar
+     * @param entityType Tipo de las entidades
+     * @return Número de entidades actualizadas
+     */
+    long updateAllById(Collection<String> ids, Update update, Class<?> entityType);
+}
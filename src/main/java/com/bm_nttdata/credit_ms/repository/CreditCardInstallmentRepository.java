@@ -3,6 +3,7 @@ package com.bm_nttdata.credit_ms.repository;
 import com.bm_nttdata.credit_ms.entity.CreditCardInstallment;
 import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
@@ -13,7 +14,8 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface CreditCardInstallmentRepository
-        extends MongoRepository<CreditCardInstallment, String> {
+        extends MongoRepository<CreditCardInstallment, String>,
+        CreditCardInstallmentRepositoryCustom {
 
     /**
      * Busca las cuotas de una tarjeta de crédito por su ID y estado.
@@ -27,15 +29,15 @@ public interface CreditCardInstallmentRepository
 
     /**
      * Busca las cuotas de una tarjeta de crédito que tienen fecha de vencimiento anterior
-     * a la especificada y que no están en el estado indicado.
+     * a la especificada y que están en alguno de los estados indicados.
      *
      * @param creditCardId ID de la tarjeta de crédito
      * @param dueDate Fecha de vencimiento límite
-     * @param statusEnum Estado que se excluirá de la búsqueda
+     * @param statuses Estados de las cuotas a buscar
      * @return Lista de cuotas que coinciden con los criterios de búsqueda
      */
-    List<CreditCardInstallment> findByCreditCardIdAndDueDateLessThanAndStatusNot(
-            String creditCardId, LocalDate dueDate, InstallmentStatusEnum statusEnum);
+    List<CreditCardInstallment> findByCreditCardIdAndDueDateLessThanAndStatusIn(
+            String creditCardId, LocalDate dueDate, Collection<InstallmentStatusEnum> statuses);
 
     /**
      * Busca si existen pagos de tarjetas de créditos con estatus de vencidos.
@@ -0,0 +1,61 @@
+package com.bm_nttdata.credit_ms.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Operaciones personalizadas del repositorio de cuotas de tarjetas de crédito.
+ * Agrupa las actualizaciones masivas y las agregaciones ejecutadas directamente en MongoDB.
+ */
+public interface CreditCardInstallmentRepositoryCustom {
+
+    /**
+     * Marca como vencidas las cuotas no pagadas con fecha de vencimiento anterior a una fecha,
+     * recalculando sus días de retraso y su interés moratorio en el servidor, junto con los
+     * estados de cuenta de sus ciclos, y recalcula el resumen de cobro de las tarjetas con
+     * estados de cuenta no pagados.
+     *
+     * @param currentDate Fecha de referencia del cálculo
+     * @param dailyInterestRate Tasa de interés moratorio diaria
+     * @return Número de cuotas actualizadas
+     */
+    long markOverdueInstallments(LocalDate currentDate, BigDecimal dailyInterestRate);
+
+    /**
+     * Marca como vencidas las cuotas pendientes con una fecha de vencimiento,
+     * recalculando sus días de retraso y su interés moratorio en el servidor, junto con los
+     * estados de cuenta de ese ciclo, y recalcula el resumen de cobro de sus tarjetas.
+     *
+     * @param dueDate Fecha de vencimiento de las cuotas
+     * @param currentDate Fecha de referencia del cálculo
+     * @param dailyInterestRate Tasa de interés moratorio diaria
+     * @return Número de cuotas actualizadas
+     */
+    long markOverdueInstallmentsDueOn(
+            LocalDate dueDate, LocalDate currentDate, BigDecimal dailyInterestRate);
+
+    /**
+     * Cuenta las cuotas pendientes agrupadas por fecha de vencimiento.
+     *
+     * @return Número de cuotas pendientes por fecha de vencimiento
+     */
+    Map<LocalDate, Long> countPendingByDueDate();
+
+    /**
+     * Cuenta por cliente las cuotas pendientes con fecha de vencimiento anterior a una fecha,
+     * es decir, las cuotas que pasarán a vencidas al marcar las cuotas vencidas a esa fecha.
+     *
+     * @param currentDate Fecha de referencia
+     * @return Número de cuotas por ID de cliente
+     */
+    Map<String, Long> countPendingOverdueByCustomer(LocalDate currentDate);
+
+    /**
+     * Cuenta por cliente las cuotas pendientes con una fecha de vencimiento.
+     *
+     * @param dueDate Fecha de vencimiento
+     * @return Número de cuotas por ID de cliente
+     */
+    Map<String, Long> countPendingDueOnByCustomer(LocalDate dueDate);
+}
@@ -11,7 +11,8 @@ import org.springframework.stereotype.Repository;
  * Proporciona operaciones de acceso a datos para la entidad CreditCard.
  */
 @Repository
-public interface CreditCardRepository extends MongoRepository<CreditCard, String> {
+public interface CreditCardRepository
+        extends MongoRepository<CreditCard, String>, CreditCardRepositoryCustom {
 
     /**
      * Busca todas las tarjetas de crédito asociadas a un cliente.
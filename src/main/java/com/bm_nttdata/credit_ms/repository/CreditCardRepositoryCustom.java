@@ -0,0 +1,72 @@
+package com.bm_nttdata.credit_ms.repository;
+
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Operaciones personalizadas del repositorio de tarjetas de crédito.
+ * Agrupa las actualizaciones atómicas del crédito disponible ejecutadas directamente
+ * en MongoDB, sin leer ni reescribir el documento completo.
+ */
+public interface CreditCardRepositoryCustom {
+
+    /**
+     * Autoriza un cargo descontando del crédito disponible en una única operación atómica,
+     * solo si la tarjeta cuenta con el crédito requerido.
+     *
+     * @param id ID de la tarjeta de crédito
+     * @param requiredCredit Crédito disponible mínimo exigido para autorizar el cargo
+     * @param chargeAmount Monto a descontar del crédito disponible
+     * @return Tarjeta de crédito actualizada, o vacío si no existe o no tiene crédito suficiente
+     */
+    Optional<CreditCard> authorizeCharge(
+            String id, BigDecimal requiredCredit, BigDecimal chargeAmount);
+
+    /**
+     * Incrementa el crédito disponible de una tarjeta en una única operación atómica.
+     * Se usa para registrar pagos y revertir cargos autorizados.
+     *
+     * @param id ID de la tarjeta de crédito
+     * @param amount Monto a sumar al crédito disponible
+     * @return Tarjeta de crédito actualizada, o vacío si no existe
+     */
+    Optional<CreditCard> increaseAvailableCredit(String id, BigDecimal amount);
+
+    /**
+     * Aplica en una única operación masiva variaciones al crédito disponible de varias tarjetas.
+     *
+     * @param deltas Variación del crédito disponible por ID de tarjeta
+     * @return IDs de las tarjetas cuya variación no pudo aplicarse
+     */
+    Set<String> applyAvailableCreditDeltas(Map<String, BigDecimal> deltas);
+
+    /**
+     * Obtiene el ID del cliente titular de una tarjeta de crédito, sin leer el resto de sus
+     * campos.
+     *
+     * @param id ID de la tarjeta de crédito
+     * @return ID del cliente, o vacío si la tarjeta no existe
+     */
+    Optional<String> findCustomerIdById(String id);
+
+    /**
+     * Obtiene una tarjeta de crédito con solo los campos de su saldo: límite, crédito
+     * disponible, día de pago y resumen de cobro.
+     *
+     * @param id ID de la tarjeta de crédito
+     * @return Tarjeta de crédito con los campos del saldo, o vacío si no existe
+     */
+    Optional<CreditCard> findBalanceById(String id);
+
+    /**
+     * Recorre mediante un cursor las tarjetas de crédito ACTIVAS, con solo su crédito
+     * disponible y su día de pago, sin cargarlas todas en memoria.
+     *
+     * @param consumer Receptor de cada tarjeta de crédito
+     */
+    void forEachActiveCardCredit(Consumer<CreditCard> consumer);
+}
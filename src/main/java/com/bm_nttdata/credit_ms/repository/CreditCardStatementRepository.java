@@ -0,0 +1,31 @@
+package com.bm_nttdata.credit_ms.repository;
+
+import com.bm_nttdata.credit_ms.entity.CreditCardStatement;
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para la gestión de estados de cuenta de tarjetas de crédito en MongoDB.
+ * Proporciona operaciones de acceso a datos para la entidad CreditCardStatement.
+ */
+@Repository
+public interface CreditCardStatementRepository
+        extends MongoRepository<CreditCardStatement, String>,
+        CreditCardStatementRepositoryCustom {
+
+    /**
+     * Busca los estados de cuenta de una tarjeta de crédito que tienen fecha de vencimiento
+     * anterior a la especificada y que están en alguno de los estados indicados.
+     *
+     * @param creditCardId ID de la tarjeta de crédito
+     * @param dueDate Fecha de vencimiento límite
+     * @param statuses Estados de los estados de cuenta a buscar
+     * @return Lista de estados de cuenta que coinciden con los criterios de búsqueda
+     */
+    List<CreditCardStatement> findByCreditCardIdAndDueDateLessThanAndStatusIn(
+            String creditCardId, LocalDate dueDate, Collection<InstallmentStatusEnum> statuses);
+}
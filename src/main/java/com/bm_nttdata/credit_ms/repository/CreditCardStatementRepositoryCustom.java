@@ -0,0 +1,38 @@
+package com.bm_nttdata.credit_ms.repository;
+
+import com.bm_nttdata.credit_ms.entity.CreditCardInstallment;
+import java.util.Collection;
+
+/**
+ * Operaciones personalizadas del repositorio de estados de cuenta de tarjetas de crédito.
+ * Agrupa las actualizaciones incrementales y masivas ejecutadas directamente en MongoDB.
+ */
+public interface CreditCardStatementRepositoryCustom {
+
+    /**
+     * Agrega cuotas recién creadas a los estados de cuenta de sus ciclos en una única
+     * operación masiva: por cada tarjeta y fecha de vencimiento agrega los IDs de las cuotas
+     * e incrementa el capital, creando el estado de cuenta si aún no existe.
+     *
+     * @param installments Cuotas creadas, con su ID asignado
+     */
+    void addInstallments(Collection<CreditCardInstallment> installments);
+
+    /**
+     * Crea los estados de cuenta de las cuotas no pagadas que aún no tienen uno, agrupándolas
+     * por tarjeta y fecha de vencimiento en el servidor. Los estados de cuenta existentes no
+     * se modifican.
+     *
+     * @return Número de estados de cuenta de tarjetas de crédito
+     */
+    long backfillStatements();
+
+    /**
+     * Recalcula en el servidor el resumen de cobro de varias tarjetas de crédito desde sus
+     * estados de cuenta no pagados: la fecha y el capital del próximo estado de cuenta
+     * pendiente y la fecha desde la que tienen estados de cuenta vencidos.
+     *
+     * @param creditCardIds IDs de las tarjetas de crédito
+     */
+    void refreshBillingSummaries(Collection<String> creditCardIds);
+}
@@ -3,6 +3,7 @@ package com.bm_nttdata.credit_ms.repository;
 import com.bm_nttdata.credit_ms.entity.CreditPaymentSchedule;
 import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
@@ -11,19 +12,20 @@ import org.springframework.data.mongodb.repository.MongoRepository;
  * Proporciona operaciones de acceso a datos para la entidad CreditPaymentSchedule.
  */
 public interface CreditPaymentScheduleRepository
-        extends MongoRepository<CreditPaymentSchedule, String> {
+        extends MongoRepository<CreditPaymentSchedule, String>,
+        CreditPaymentScheduleRepositoryCustom {
 
     /**
      * Busca los cronogramas de pago de un crédito que tienen fecha de vencimiento anterior
-     * a la especificada y que no están en el estado enviado.
+     * a la especificada y que están en alguno de los estados enviados.
      *
      * @param creditId ID del crédito
      * @param dueDate Fecha de vencimiento límite
-     * @param status Estado de pago que se excluirá de la búsqueda
+     * @param statuses Estados de pago de los cronogramas a buscar
      * @return Lista de cronogramas de pago que coinciden con los criterios de búsqueda
      */
-    List<CreditPaymentSchedule> findByCreditIdAndDueDateLessThanAndStatusNot(
-            String creditId, LocalDate dueDate, InstallmentStatusEnum status);
+    List<CreditPaymentSchedule> findByCreditIdAndDueDateLessThanAndStatusIn(
+            String creditId, LocalDate dueDate, Collection<InstallmentStatusEnum> statuses);
 
     /**
      * Busca si existen pagos de créditos con estatus de vencidos.
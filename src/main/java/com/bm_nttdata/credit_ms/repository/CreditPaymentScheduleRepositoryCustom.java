@@ -0,0 +1,95 @@
+package com.bm_nttdata.credit_ms.repository;
+
+import com.bm_nttdata.credit_ms.dto.PaymentDetailsDto;
+import com.bm_nttdata.credit_ms.entity.CreditPaymentSchedule;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Operaciones personalizadas del repositorio de cronogramas de pago de créditos.
+ * Agrupa las actualizaciones masivas y las agregaciones ejecutadas directamente en MongoDB.
+ */
+public interface CreditPaymentScheduleRepositoryCustom {
+
+    /**
+     * Marca como vencidas las cuotas no pagadas con fecha de vencimiento anterior a una fecha,
+     * recalculando sus días de retraso y su interés moratorio en el servidor, y recalcula la
+     * fecha desde la que tienen cuotas vencidas los créditos con cuotas vencidas.
+     *
+     * @param currentDate Fecha de referencia del cálculo
+     * @param dailyInterestRate Tasa de interés moratorio diaria
+     * @return Número de cuotas actualizadas
+     */
+    long markOverdueInstallments(LocalDate currentDate, BigDecimal dailyInterestRate);
+
+    /**
+     * Marca como vencidas las cuotas pendientes con una fecha de vencimiento,
+     * recalculando sus días de retraso y su interés moratorio en el servidor, y recalcula la
+     * fecha desde la que tienen cuotas vencidas sus créditos.
+     *
+     * @param dueDate Fecha de vencimiento de las cuotas
+     * @param currentDate Fecha de referencia del cálculo
+     * @param dailyInterestRate Tasa de interés moratorio diaria
+     * @return Número de cuotas actualizadas
+     */
+    long markOverdueInstallmentsDueOn(
+            LocalDate dueDate, LocalDate currentDate, BigDecimal dailyInterestRate);
+
+    /**
+     * Cuenta las cuotas pendientes agrupadas por fecha de vencimiento.
+     *
+     * @return Número de cuotas pendientes por fecha de vencimiento
+     */
+    Map<LocalDate, Long> countPendingByDueDate();
+
+    /**
+     * Cotiza en el servidor el pago de las cuotas no pagadas con vencimiento anterior a una
+     * fecha: suma sus montos y su interés moratorio sin transferir las cuotas.
+     *
+     * @param creditId ID del crédito
+     * @param dueDate Fecha de vencimiento límite
+     * @param currentDate Fecha de referencia del cálculo de días de retraso
+     * @param dailyInterestRate Tasa de interés moratorio diaria
+     * @return Detalle del pago, o vacío si no hay cuotas no pagadas
+     */
+    Optional<PaymentDetailsDto> quoteOpenInstallments(
+            String creditId, LocalDate dueDate, LocalDate currentDate,
+            BigDecimal dailyInterestRate);
+
+    /**
+     * Cuenta por cliente las cuotas pendientes con fecha de vencimiento anterior a una fecha,
+     * es decir, las cuotas que pasarán a vencidas al marcar las cuotas vencidas a esa fecha.
+     *
+     * @param currentDate Fecha de referencia
+     * @return Número de cuotas por ID de cliente
+     */
+    Map<String, Long> countPendingOverdueByCustomer(LocalDate currentDate);
+
+    /**
+     * Cuenta por cliente las cuotas pendientes con una fecha de vencimiento.
+     *
+     * @param dueDate Fecha de vencimiento
+     * @return Número de cuotas por ID de cliente
+     */
+    Map<String, Long> countPendingDueOnByCustomer(LocalDate dueDate);
+
+    /**
+     * Inserta en una única operación masiva las cuotas que aún no existen, identificando
+     * cada cuota por su crédito y su número, de modo que almacenar de nuevo las mismas
+     * cuotas no genera duplicados.
+     *
+     * @param installments Cuotas a insertar
+     */
+    void insertMissingInstallments(Collection<CreditPaymentSchedule> installments);
+
+    /**
+     * Recalcula en el servidor la fecha desde la que tienen cuotas vencidas varios créditos,
+     * eliminándola de los créditos sin cuotas vencidas.
+     *
+     * @param creditIds IDs de los créditos
+     */
+    void refreshOverdueSince(Collection<String> creditIds);
+}
@@ -3,7 +3,9 @@ package com.bm_nttdata.credit_ms.repository;
 import com.bm_nttdata.credit_ms.entity.Credit;
 import com.bm_nttdata.credit_ms.enums.CreditStatusEnum;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,7 +14,8 @@ import org.springframework.stereotype.Repository;
  * Proporciona operaciones de acceso a datos para la entidad Credit.
  */
 @Repository
-public interface CreditRepository extends MongoRepository<Credit, String> {
+public interface CreditRepository
+        extends MongoRepository<Credit, String>, CreditRepositoryCustom {
 
     /**
      * Busca todos los créditos asociados a un cliente.
@@ -38,4 +41,15 @@ public interface CreditRepository extends MongoRepository<Credit, String> {
      * @return Número de créditos que cumplen con los criterios
      */
     long countByCustomerIdAndAmountGreaterThan(String id, BigDecimal amount);
+
+    /**
+     * Busca los créditos con cronograma compacto cuya siguiente cuota por almacenar vence
+     * hasta una fecha.
+     *
+     * @param dueDate Fecha de vencimiento límite
+     * @param pageable Tamaño del lote a obtener
+     * @return Lote de créditos con cuotas por almacenar
+     */
+    List<Credit> findByNextMaterializationDueDateLessThanEqual(
+            LocalDate dueDate, Pageable pageable);
 }
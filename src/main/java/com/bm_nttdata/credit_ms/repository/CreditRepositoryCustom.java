@@ -0,0 +1,54 @@
+package com.bm_nttdata.credit_ms.repository;
+
+import com.bm_nttdata.credit_ms.dto.CustomerPortfolioDetailsDto;
+import com.bm_nttdata.credit_ms.entity.Credit;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Operaciones personalizadas del repositorio de créditos.
+ * Agrupa las actualizaciones parciales ejecutadas directamente en MongoDB, que modifican solo
+ * los campos afectados en lugar de reescribir el documento completo.
+ */
+public interface CreditRepositoryCustom {
+
+    /**
+     * Registra el pago de una cuota actualizando el saldo, la próxima fecha y cuota de pago y
+     * la fecha de actualización del crédito, solo si su versión no cambió desde que fue leído.
+     *
+     * @param credit Crédito leído, con la versión sobre la que se aplica el pago
+     * @param amount Monto pagado
+     * @return Crédito actualizado, o vacío si no existe o su versión cambió
+     */
+    Optional<Credit> applyPayment(Credit credit, BigDecimal amount);
+
+    /**
+     * Obtiene un crédito con solo los campos de su saldo: montos, próximo pago y fecha
+     * de la cuota vencida más antigua.
+     *
+     * @param id ID del crédito
+     * @return Crédito con los campos del saldo, o vacío si no existe
+     */
+    Optional<Credit> findBalanceById(String id);
+
+    /**
+     * Obtiene en una única agregación los créditos y tarjetas de crédito de un cliente con el
+     * resumen de sus cuotas no pagadas: próximo pago, cuotas vencidas y días de retraso.
+     *
+     * @param customerId ID del cliente
+     * @param currentDate Fecha de referencia del cálculo de días de retraso
+     * @return Portafolio del cliente, con listas vacías si no tiene productos
+     */
+    CustomerPortfolioDetailsDto findCustomerPortfolio(String customerId, LocalDate currentDate);
+
+    /**
+     * Registra en una única operación masiva hasta qué cuota se almacenó el cronograma
+     * compacto de cada crédito, eliminando el vencimiento de la siguiente cuota por almacenar
+     * de los cronogramas completos.
+     *
+     * @param credits Créditos con su número de cuotas almacenadas y su siguiente vencimiento
+     */
+    void updateMaterializedInstallments(Collection<Credit> credits);
+}
@@ -0,0 +1,14 @@
+package com.bm_nttdata.credit_ms.repository;
+
+import com.bm_nttdata.credit_ms.entity.CustomerRiskProfile;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para la gestión de los perfiles de riesgo de clientes en MongoDB.
+ * Proporciona operaciones de acceso a datos para la entidad CustomerRiskProfile.
+ */
+@Repository
+public interface CustomerRiskProfileRepository
+        extends MongoRepository<CustomerRiskProfile, String>, CustomerRiskProfileRepositoryCustom {
+}
@@ -0,0 +1,76 @@
+package com.bm_nttdata.credit_ms.repository;
+
+import com.bm_nttdata.credit_ms.entity.CustomerRiskProfile;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operaciones personalizadas del repositorio de perfiles de riesgo de clientes.
+ * Los incrementos solo modifican perfiles existentes: un perfil que aún no existe se calcula
+ * completo desde los productos del cliente la primera vez que se consulta, por lo que ya
+ * incluye esos cambios.
+ */
+public interface CustomerRiskProfileRepositoryCustom {
+
+    /**
+     * Incrementa el número de créditos con saldo pendiente y el saldo total de créditos de
+     * un cliente.
+     *
+     * @param customerId ID del cliente
+     * @param openCredits Variación del número de créditos con saldo pendiente
+     * @param creditBalance Variación del saldo total de créditos
+     */
+    void incrementCredits(String customerId, long openCredits, BigDecimal creditBalance);
+
+    /**
+     * Incrementa el crédito utilizado de las tarjetas de crédito de un cliente.
+     *
+     * @param customerId ID del cliente
+     * @param cardExposure Variación del crédito utilizado
+     */
+    void incrementCardExposure(String customerId, BigDecimal cardExposure);
+
+    /**
+     * Incrementa el número de cuotas vencidas de créditos de varios clientes en una única
+     * operación masiva.
+     *
+     * @param overdueByCustomer Variación de cuotas vencidas por ID de cliente
+     */
+    void incrementOverdueCreditInstallments(Map<String, Long> overdueByCustomer);
+
+    /**
+     * Incrementa el número de cuotas vencidas de tarjetas de crédito de varios clientes en
+     * una única operación masiva.
+     *
+     * @param overdueByCustomer Variación de cuotas vencidas por ID de cliente
+     */
+    void incrementOverdueCardInstallments(Map<String, Long> overdueByCustomer);
+
+    /**
+     * Calcula los perfiles de riesgo de un grupo de clientes desde sus créditos, tarjetas
+     * de crédito y cuotas, con una agregación por colección para todo el grupo.
+     *
+     * @param customerIds IDs de los clientes
+     * @return Perfil calculado de cada cliente, incluidos los clientes sin productos
+     */
+    List<CustomerRiskProfile> computeProfiles(Collection<String> customerIds);
+
+    /**
+     * Reemplaza o crea perfiles de riesgo en una única operación masiva.
+     *
+     * @param profiles Perfiles a guardar
+     */
+    void replaceProfiles(Collection<CustomerRiskProfile> profiles);
+
+    /**
+     * Obtiene los IDs de clientes con perfil de riesgo posteriores a un ID, en orden,
+     * para recorrer todos los perfiles por lotes.
+     *
+     * @param lastCustomerId Último ID del lote anterior, o null para el primer lote
+     * @param limit Número máximo de IDs
+     * @return IDs de clientes con perfil de riesgo
+     */
+    List<String> findCustomerIdsAfter(String lastCustomerId, int limit);
+}
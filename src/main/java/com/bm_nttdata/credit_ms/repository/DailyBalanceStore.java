@@ -0,0 +1,62 @@
+package com.bm_nttdata.credit_ms.repository;
+
+import com.bm_nttdata.credit_ms.entity.DailyCreditBalance;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Almacén de saldos diarios de los productos de crédito.
+ * Abstrae la disposición física de los saldos en MongoDB, ya sea un documento por
+ * producto y día o un documento por producto y mes.
+ */
+public interface DailyBalanceStore {
+
+    /**
+     * Escribe un lote de saldos diarios sobre la clave natural producto y fecha,
+     * reemplazando los saldos existentes.
+     *
+     * @param balances Saldos diarios a escribir
+     * @return Número de saldos diarios procesados
+     */
+    int write(List<DailyCreditBalance> balances);
+
+    /**
+     * Registra los saldos diarios de un lote que aún no existen, conservando los existentes.
+     *
+     * @param balances Saldos diarios a registrar
+     * @return Saldos diarios efectivamente registrados
+     */
+    List<DailyCreditBalance> insertMissing(List<DailyCreditBalance> balances);
+
+    /**
+     * Obtiene los saldos diarios registrados de un producto durante un mes.
+     *
+     * @param productId Identificador del producto de crédito
+     * @param month Mes de consulta
+     * @return Lista de saldos diarios ordenada por fecha
+     */
+    List<DailyCreditBalance> findMonth(String productId, YearMonth month);
+
+    /**
+     * Cuenta los saldos diarios registrados por día en un rango de fechas.
+     *
+     * @param startDate Fecha inicial del rango
+     * @param endDate Fecha final del rango
+     * @return Número de saldos diarios por fecha
+     */
+    Map<LocalDate, Long> countByDay(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Obtiene el último saldo registrado antes de un día para un conjunto de productos.
+     *
+     * @param productIds Identificadores de los productos
+     * @param day Día de referencia, exclusivo
+     * @param notBefore Fecha mínima del saldo a considerar
+     * @return Último saldo registrado por identificador de producto
+     */
+    Map<String, BigDecimal> findLastBalancesBefore(
+            List<String> productIds, LocalDate day, LocalDate notBefore);
+}
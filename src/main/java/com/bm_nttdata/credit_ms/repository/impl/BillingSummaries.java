@@ -0,0 +1,214 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import com.bm_nttdata.credit_ms.util.Constants;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Construcción de las agregaciones que recalculan el resumen de cobro almacenado en los
+ * créditos y tarjetas de crédito: la fecha desde la que el producto tiene cuotas vencidas y,
+ * en las tarjetas, la fecha y el monto del próximo estado de cuenta pendiente.
+ * Cada agregación obtiene con $lookup las cuotas o estados de cuenta no pagados del producto
+ * y escribe el resumen en el producto con $merge, sin devolver documentos a la aplicación.
+ * Los productos se obtienen con un criterio sobre el producto o agrupando las cuotas que
+ * cambiaron de estado.
+ */
+final class BillingSummaries {
+
+    private static final String PRODUCT_ID = "productId";
+
+    private static final String OPEN = "open";
+
+    private BillingSummaries() {
+    }
+
+    /**
+     * Construye la agregación que recalcula la fecha desde la que tienen cuotas vencidas
+     * los créditos que cumplen un criterio. Se ejecuta sobre la colección de créditos.
+     *
+     * @param creditCriteria Criterio de los créditos a actualizar
+     * @return Agregación que actualiza los créditos
+     */
+    static Aggregation creditSummary(Criteria creditCriteria) {
+
+        return aggregation(productsMatching(creditCriteria), creditSummaryStages());
+    }
+
+    /**
+     * Construye la agregación que recalcula la fecha desde la que tienen cuotas vencidas
+     * los créditos de las cuotas que cumplen un criterio. Se ejecuta sobre la colección del
+     * cronograma de pagos.
+     *
+     * @param installmentCriteria Criterio de las cuotas cuyos créditos se actualizan
+     * @return Agregación que actualiza los créditos
+     */
+    static Aggregation creditSummaryByInstallments(Criteria installmentCriteria) {
+
+        return aggregation(productsByInstallments(installmentCriteria, "creditId"),
+                creditSummaryStages());
+    }
+
+    /**
+     * Construye la agregación que recalcula el resumen de cobro de las tarjetas de crédito
+     * que cumplen un criterio. Se ejecuta sobre la colección de tarjetas de crédito.
+     *
+     * @param cardCriteria Criterio de las tarjetas de crédito a actualizar
+     * @return Agregación que actualiza las tarjetas de crédito
+     */
+    static Aggregation cardSummary(Criteria cardCriteria) {
+
+        return aggregation(productsMatching(cardCriteria), cardSummaryStages());
+    }
+
+    /**
+     * Construye la agregación que recalcula el resumen de cobro de las tarjetas de crédito
+     * de los estados de cuenta que cumplen un criterio. Se ejecuta sobre la colección de
+     * estados de cuenta.
+     *
+     * @param statementCriteria Criterio de los estados de cuenta cuyas tarjetas se actualizan
+     * @return Agregación que actualiza las tarjetas de crédito
+     */
+    static Aggregation cardSummaryByStatements(Criteria statementCriteria) {
+
+        return aggregation(productsByInstallments(statementCriteria, "creditCardId"),
+                cardSummaryStages());
+    }
+
+    private static Aggregation aggregation(
+            List<AggregationOperation> productStages, List<Document> summaryStages) {
+
+        List<AggregationOperation> operations = new ArrayList<>(productStages);
+        summaryStages.forEach(stage -> operations.add(context -> stage));
+
+        return Aggregation.newAggregation(operations);
+    }
+
+    /**
+     * Construye las etapas que obtienen los productos que cumplen un criterio, con su ID
+     * como texto para relacionarlos con sus cuotas.
+     *
+     * @param productCriteria Criterio de los productos
+     * @return Etapas de match y project
+     */
+    private static List<AggregationOperation> productsMatching(Criteria productCriteria) {
+
+        Document projectStage = new Document("$project",
+                new Document(PRODUCT_ID, new Document("$toString", "$_id")));
+
+        return List.of(
+                Aggregation.match(productCriteria),
+                context -> projectStage);
+    }
+
+    /**
+     * Construye las etapas que obtienen, una vez por producto, los productos de las cuotas
+     * que cumplen un criterio. El ID del producto se convierte a ObjectId para que $merge
+     * lo encuentre en su colección.
+     *
+     * @param installmentCriteria Criterio de las cuotas
+     * @param productField Campo del ID del producto en las cuotas
+     * @return Etapas de match, group y project
+     */
+    private static List<AggregationOperation> productsByInstallments(
+            Criteria installmentCriteria, String productField) {
+
+        Document groupStage = new Document("$group", new Document("_id", "$" + productField));
+        Document projectStage = new Document("$project", new Document()
+                .append("_id", new Document("$convert", new Document()
+                        .append("input", "$_id")
+                        .append("to", "objectId")
+                        .append("onError", "$_id")))
+                .append(PRODUCT_ID, "$_id"));
+
+        return List.of(
+                Aggregation.match(installmentCriteria),
+                context -> groupStage,
+                context -> projectStage);
+    }
+
+    private static List<Document> creditSummaryStages() {
+
+        Document summary = new Document("overdueSince",
+                firstField(InstallmentStatusEnum.OVERDUE, "dueDate"));
+
+        return summaryStages("credit_payment_schedule", "creditId",
+                List.of(InstallmentStatusEnum.OVERDUE.name()), summary, "credits");
+    }
+
+    private static List<Document> cardSummaryStages() {
+
+        Document summary = new Document()
+                .append("overdueSince", firstField(InstallmentStatusEnum.OVERDUE, "dueDate"))
+                .append("nextPaymentDate", firstField(InstallmentStatusEnum.PENDING, "dueDate"))
+                .append("nextPaymentAmount",
+                        firstField(InstallmentStatusEnum.PENDING, "principalDue"));
+
+        return summaryStages("credit_card_statements", "creditCardId",
+                Constants.OPEN_INSTALLMENT_STATUSES.stream().map(Enum::name).toList(),
+                summary, "credit_cards");
+    }
+
+    /**
+     * Construye las etapas que obtienen las cuotas no pagadas de cada producto ordenadas por
+     * fecha de vencimiento, calculan el resumen y lo escriben en el producto.
+     *
+     * @param installmentCollection Colección de las cuotas del producto
+     * @param productField Campo del ID del producto en las cuotas
+     * @param statuses Estados de las cuotas consideradas
+     * @param summary Campos del resumen calculados sobre las cuotas
+     * @param productCollection Colección del producto
+     * @return Etapas de lookup, project y merge
+     */
+    private static List<Document> summaryStages(
+            String installmentCollection, String productField, List<String> statuses,
+            Document summary, String productCollection) {
+
+        Document lookupStage = new Document("$lookup", new Document()
+                .append("from", installmentCollection)
+                .append("let", new Document(PRODUCT_ID, "$" + PRODUCT_ID))
+                .append("pipeline", List.of(
+                        new Document("$match", new Document()
+                                .append("status", new Document("$in", statuses))
+                                .append("$expr", new Document("$eq",
+                                        Arrays.asList("$" + productField, "$$" + PRODUCT_ID)))),
+                        new Document("$sort", new Document("dueDate", 1))))
+                .append("as", OPEN));
+        Document mergeStage = new Document("$merge", new Document()
+                .append("into", productCollection)
+                .append("on", "_id")
+                .append("whenMatched", "merge")
+                .append("whenNotMatched", "discard"));
+
+        return List.of(
+                lookupStage,
+                new Document("$project", new Document(summary)),
+                mergeStage);
+    }
+
+    /**
+     * Construye la expresión que obtiene un campo de la primera cuota con un estado, o nulo
+     * si no hay ninguna, de modo que $merge limpie el valor anterior.
+     *
+     * @param status Estado de la cuota
+     * @param field Campo a obtener
+     * @return Expresión del campo
+     */
+    private static Document firstField(InstallmentStatusEnum status, String field) {
+
+        Document first = new Document("$first", new Document("$filter", new Document()
+                .append("input", "$" + OPEN)
+                .append("cond", new Document("$eq",
+                        Arrays.asList("$$this.status", status.name())))));
+
+        return new Document("$ifNull", Arrays.asList(
+                new Document("$getField", new Document()
+                        .append("field", field).append("input", first)),
+                null));
+    }
+}
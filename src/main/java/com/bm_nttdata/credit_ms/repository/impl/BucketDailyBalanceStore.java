@@ -0,0 +1,290 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import com.bm_nttdata.credit_ms.entity.DailyCreditBalance;
+import com.bm_nttdata.credit_ms.entity.MonthlyCreditBalance;
+import com.bm_nttdata.credit_ms.repository.DailyBalanceStore;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Almacén de saldos diarios con un documento por producto y mes.
+ * Cada documento contiene un arreglo fijo de 31 saldos; registrar un día actualiza
+ * únicamente su posición y consultar un mes lee un único documento. Se activa con
+ * credit.daily-balance.layout=bucket; los meses sin documento mensual se leen de la
+ * disposición de un documento por día.
+ */
+@Primary
+@Repository
+@ConditionalOnProperty(name = "credit.daily-balance.layout", havingValue = "bucket")
+public class BucketDailyBalanceStore implements DailyBalanceStore {
+
+    private static final int SLOTS = 31;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DocumentDailyBalanceStore documentStore;
+
+    @Override
+    public int write(List<DailyCreditBalance> balances) {
+
+        if (balances.isEmpty()) {
+            return 0;
+        }
+
+        createMissingBuckets(balances);
+        return updateSlots(balances, false);
+    }
+
+    @Override
+    public List<DailyCreditBalance> insertMissing(List<DailyCreditBalance> balances) {
+
+        if (balances.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> bucketIds = balances.stream()
+                .map(BucketDailyBalanceStore::bucketId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<String, List<BigDecimal>> existingSlots = mongoTemplate.find(
+                        Query.query(Criteria.where("id").in(bucketIds)),
+                        MonthlyCreditBalance.class)
+                .stream()
+                .collect(Collectors.toMap(MonthlyCreditBalance::getId,
+                        MonthlyCreditBalance::getBalances));
+
+        List<DailyCreditBalance> missing = balances.stream()
+                .filter(balance -> {
+                    List<BigDecimal> slots = existingSlots.get(bucketId(balance));
+                    int slot = balance.getDate().getDayOfMonth() - 1;
+                    return slots == null || slot >= slots.size() || slots.get(slot) == null;
+                })
+                .collect(Collectors.toList());
+
+        if (missing.isEmpty()) {
+            return missing;
+        }
+
+        // Las posiciones vacías se determinan con la lectura previa y se escriben solo si
+        // siguen vacías, por lo que una escritura concurrente del mismo día no se sobrescribe
+        createMissingBuckets(missing);
+        updateSlots(missing, true);
+        return missing;
+    }
+
+    @Override
+    public List<DailyCreditBalance> findMonth(String productId, YearMonth month) {
+
+        MonthlyCreditBalance bucket = mongoTemplate.findById(
+                bucketId(productId, month), MonthlyCreditBalance.class);
+
+        if (bucket == null) {
+            return documentStore.findMonth(productId, month);
+        }
+
+        List<DailyCreditBalance> dailyBalances = new ArrayList<>();
+        List<BigDecimal> balances = bucket.getBalances();
+        for (int slot = 0; slot < Math.min(balances.size(), month.lengthOfMonth()); slot++) {
+            if (balances.get(slot) != null) {
+                LocalDate date = month.atDay(slot + 1);
+                dailyBalances.add(DailyCreditBalance.builder()
+                        .id(productId + ":" + date)
+                        .creditProductId(productId)
+                        .date(date)
+                        .balance(balances.get(slot))
+                        .build());
+            }
+        }
+        return dailyBalances;
+    }
+
+    @Override
+    public Map<LocalDate, Long> countByDay(LocalDate startDate, LocalDate endDate) {
+
+        List<String> months = monthsBetween(startDate, endDate)
+                .map(YearMonth::toString)
+                .collect(Collectors.toList());
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("month").in(months)),
+                Aggregation.unwind("balances", "slot"),
+                Aggregation.match(Criteria.where("balances").ne(null)),
+                Aggregation.group("month", "slot").count().as("count"));
+
+        Map<LocalDate, Long> countByDay = new HashMap<>();
+        mongoTemplate.aggregate(aggregation,
+                        mongoTemplate.getCollectionName(MonthlyCreditBalance.class),
+                        Document.class)
+                .getMappedResults()
+                .forEach(document -> {
+                    Document key = document.get("_id", Document.class);
+                    YearMonth month = YearMonth.parse(key.getString("month"));
+                    int slot = ((Number) key.get("slot")).intValue();
+
+                    if (slot < month.lengthOfMonth()) {
+                        LocalDate date = month.atDay(slot + 1);
+                        if (!date.isBefore(startDate) && !date.isAfter(endDate)) {
+                            countByDay.put(date, ((Number) document.get("count")).longValue());
+                        }
+                    }
+                });
+        return countByDay;
+    }
+
+    @Override
+    public Map<String, BigDecimal> findLastBalancesBefore(
+            List<String> productIds, LocalDate day, LocalDate notBefore) {
+
+        List<String> bucketIds = monthsBetween(notBefore, day)
+                .flatMap(month -> productIds.stream()
+                        .map(productId -> bucketId(productId, month)))
+                .collect(Collectors.toList());
+
+        List<MonthlyCreditBalance> buckets = mongoTemplate.find(
+                Query.query(Criteria.where("id").in(bucketIds)), MonthlyCreditBalance.class);
+        buckets.sort(Comparator.comparing(MonthlyCreditBalance::getMonth));
+
+        // Los meses se recorren en orden, de modo que prevalece el saldo más reciente
+        Map<String, BigDecimal> lastBalances = new HashMap<>();
+        for (MonthlyCreditBalance bucket : buckets) {
+            YearMonth month = YearMonth.parse(bucket.getMonth());
+            List<BigDecimal> balances = bucket.getBalances();
+
+            for (int slot = 0; slot < Math.min(balances.size(), month.lengthOfMonth()); slot++) {
+                LocalDate date = month.atDay(slot + 1);
+                if (balances.get(slot) != null
+                        && !date.isBefore(notBefore) && date.isBefore(day)) {
+                    lastBalances.put(bucket.getCreditProductId(), balances.get(slot));
+                }
+            }
+        }
+        return lastBalances;
+    }
+
+    /**
+     * Crea con el arreglo completo de posiciones vacías los documentos mensuales del lote
+     * que aún no existen; los documentos existentes no se modifican.
+     *
+     * @param balances Saldos diarios del lote
+     */
+    private void createMissingBuckets(List<DailyCreditBalance> balances) {
+
+        Map<String, DailyCreditBalance> bucketBalances = new LinkedHashMap<>();
+        balances.forEach(balance -> bucketBalances.putIfAbsent(bucketId(balance), balance));
+
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.UNORDERED, MonthlyCreditBalance.class);
+
+        bucketBalances.forEach((id, balance) -> bulkOperations.upsert(
+                Query.query(Criteria.where("id").is(id)),
+                new Update()
+                        .setOnInsert("creditProductId", balance.getCreditProductId())
+                        .setOnInsert("month", YearMonth.from(balance.getDate()).toString())
+                        .setOnInsert("balances", Arrays.asList(new Decimal128[SLOTS]))));
+
+        BulkWriteSupport.executeUpserts(bulkOperations, bucketBalances.size());
+    }
+
+    /**
+     * Escribe la posición de cada día del lote en su documento mensual.
+     *
+     * @param balances Saldos diarios del lote
+     * @param onlyEmpty true para escribir solo las posiciones que siguen vacías
+     * @return Número de posiciones escritas
+     */
+    private int updateSlots(List<DailyCreditBalance> balances, boolean onlyEmpty) {
+
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.UNORDERED, MonthlyCreditBalance.class);
+
+        for (DailyCreditBalance balance : balances) {
+            int slot = balance.getDate().getDayOfMonth() - 1;
+            Criteria criteria = Criteria.where("id").is(bucketId(balance));
+            if (onlyEmpty) {
+                criteria = criteria.and("balances." + slot).is(null);
+            }
+            bulkOperations.updateOne(Query.query(criteria), slotUpdate(balance, slot));
+        }
+
+        return BulkWriteSupport.executeUpserts(bulkOperations, balances.size());
+    }
+
+    /**
+     * Construye la actualización de la posición de un día en el documento mensual.
+     *
+     * @param balance Saldo diario a registrar
+     * @param slot Posición del día en el arreglo de saldos
+     * @return Actualización de la posición
+     */
+    private Update slotUpdate(DailyCreditBalance balance, int slot) {
+
+        Decimal128 value = balance.getBalance() == null
+                ? null
+                : new Decimal128(balance.getBalance());
+
+        return new Update()
+                .set("balances." + slot, value)
+                .currentDate("updatedAt");
+    }
+
+    /**
+     * Genera los meses comprendidos entre dos fechas, ambos inclusive.
+     *
+     * @param startDate Fecha inicial
+     * @param endDate Fecha final
+     * @return Flujo de meses ordenados
+     */
+    private Stream<YearMonth> monthsBetween(LocalDate startDate, LocalDate endDate) {
+
+        YearMonth lastMonth = YearMonth.from(endDate);
+        return Stream.iterate(YearMonth.from(startDate),
+                month -> !month.isAfter(lastMonth), month -> month.plusMonths(1));
+    }
+
+    /**
+     * Genera el identificador del documento mensual que contiene un saldo diario.
+     *
+     * @param balance Saldo diario
+     * @return Identificador del documento mensual
+     */
+    private static String bucketId(DailyCreditBalance balance) {
+
+        return bucketId(balance.getCreditProductId(), YearMonth.from(balance.getDate()));
+    }
+
+    /**
+     * Genera el identificador del documento mensual de un producto.
+     *
+     * @param productId Identificador del producto de crédito
+     * @param month Mes del documento
+     * @return Identificador del documento mensual
+     */
+    private static String bucketId(String productId, YearMonth month) {
+
+        return productId + ":" + month;
+    }
+}
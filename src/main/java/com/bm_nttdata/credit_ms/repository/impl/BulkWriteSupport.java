@@ -0,0 +1,78 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+
+/**
+ * Utilidades para la ejecución de operaciones masivas desordenadas en MongoDB.
+ */
+@Slf4j
+final class BulkWriteSupport {
+
+    private BulkWriteSupport() {
+    }
+
+    /**
+     * Ejecuta una operación masiva de upserts.
+     * Un error en una operación no detiene el resto del lote; los conflictos de clave única
+     * entre escrituras concurrentes del mismo registro se consideran procesados.
+     *
+     * @param bulkOperations Operación masiva preparada
+     * @param size Número de operaciones del lote
+     * @return Número de registros procesados
+     */
+    static int executeUpserts(BulkOperations bulkOperations, int size) {
+
+        try {
+            BulkWriteResult result = bulkOperations.execute();
+            return result.getMatchedCount() + result.getUpserts().size();
+        } catch (BulkOperationException e) {
+            long failed = e.getErrors().stream()
+                    .filter(error -> ErrorCategory.fromErrorCode(error.getCode())
+                            != ErrorCategory.DUPLICATE_KEY)
+                    .count();
+
+            if (failed > 0) {
+                log.error("Error saving {} of {} records in batch: {}",
+                        failed, size, e.getMessage());
+            }
+            return (int) (size - failed);
+        }
+    }
+
+    /**
+     * Ejecuta una operación masiva de upserts que solo insertan registros inexistentes.
+     * Un error en una operación no detiene el resto del lote.
+     *
+     * @param bulkOperations Operación masiva preparada
+     * @param size Número de operaciones del lote
+     * @return Posiciones en el lote de las operaciones que insertaron un registro
+     */
+    static List<Integer> executeInserts(BulkOperations bulkOperations, int size) {
+
+        BulkWriteResult result;
+        try {
+            result = bulkOperations.execute();
+        } catch (BulkOperationException e) {
+            long failed = e.getErrors().stream()
+                    .filter(error -> ErrorCategory.fromErrorCode(error.getCode())
+                            != ErrorCategory.DUPLICATE_KEY)
+                    .count();
+
+            if (failed > 0) {
+                log.error("Error inserting {} of {} records in batch: {}",
+                        failed, size, e.getMessage());
+            }
+            result = e.getResult();
+        }
+        return result.getUpserts().stream()
+                .map(BulkWriteUpsert::getIndex)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,104 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import com.bm_nttdata.credit_ms.entity.CreditCardInstallment;
+import com.bm_nttdata.credit_ms.entity.CreditCardStatement;
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import com.bm_nttdata.credit_ms.repository.CreditCardInstallmentRepositoryCustom;
+import com.bm_nttdata.credit_ms.util.Constants;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Implementación de las operaciones personalizadas del repositorio de cuotas de tarjetas
+ * de crédito.
+ * Las actualizaciones de cuotas vencidas se aplican también a los estados de cuenta de los
+ * mismos ciclos, que comparten con sus cuotas el estado y la fecha de vencimiento, y
+ * recalculan el resumen de cobro de las tarjetas de esos estados de cuenta.
+ */
+public class CreditCardInstallmentRepositoryCustomImpl
+        implements CreditCardInstallmentRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public long markOverdueInstallments(LocalDate currentDate, BigDecimal dailyInterestRate) {
+
+        // Corrige las tarjetas cuyos estados de cuenta se pagaron sin actualizar la tarjeta
+        mongoTemplate.aggregate(BillingSummaries.cardSummary(new Criteria().orOperator(
+                        Criteria.where("overdueSince").ne(null),
+                        Criteria.where("nextPaymentDate").lt(currentDate))),
+                CreditCard.class, Document.class);
+        long updated = mongoTemplate.updateMulti(
+                OverdueUpdates.overdueQuery(currentDate),
+                OverdueUpdates.overdueUpdate(
+                        currentDate, dailyInterestRate, "totalAmount", "totalInterest"),
+                CreditCardInstallment.class).getModifiedCount();
+        mongoTemplate.updateMulti(
+                OverdueUpdates.overdueQuery(currentDate),
+                OverdueUpdates.overdueUpdate(
+                        currentDate, dailyInterestRate, "principalDue", "interestDue"),
+                CreditCardStatement.class);
+        mongoTemplate.aggregate(BillingSummaries.cardSummaryByStatements(
+                        Criteria.where("status").in(Constants.OPEN_INSTALLMENT_STATUSES)),
+                CreditCardStatement.class, Document.class);
+        return updated;
+    }
+
+    @Override
+    public long markOverdueInstallmentsDueOn(
+            LocalDate dueDate, LocalDate currentDate, BigDecimal dailyInterestRate) {
+
+        long updated = mongoTemplate.updateMulti(
+                OverdueUpdates.pendingDueOnQuery(dueDate),
+                OverdueUpdates.overdueUpdate(
+                        currentDate, dailyInterestRate, "totalAmount", "totalInterest"),
+                CreditCardInstallment.class).getModifiedCount();
+        mongoTemplate.updateMulti(
+                OverdueUpdates.pendingDueOnQuery(dueDate),
+                OverdueUpdates.overdueUpdate(
+                        currentDate, dailyInterestRate, "principalDue", "interestDue"),
+                CreditCardStatement.class);
+        mongoTemplate.aggregate(BillingSummaries.cardSummaryByStatements(
+                        Criteria.where("status").is(InstallmentStatusEnum.OVERDUE)
+                                .and("dueDate").is(dueDate)),
+                CreditCardStatement.class, Document.class);
+        return updated;
+    }
+
+    @Override
+    public Map<LocalDate, Long> countPendingByDueDate() {
+
+        return OverdueUpdates.toCountByDueDate(mongoTemplate.aggregate(
+                        OverdueUpdates.pendingByDueDateAggregation(),
+                        CreditCardInstallment.class, Document.class)
+                .getMappedResults());
+    }
+
+    @Override
+    public Map<String, Long> countPendingOverdueByCustomer(LocalDate currentDate) {
+
+        return countByCustomer(OverdueUpdates.pendingOverdueCriteria(currentDate));
+    }
+
+    @Override
+    public Map<String, Long> countPendingDueOnByCustomer(LocalDate dueDate) {
+
+        return countByCustomer(OverdueUpdates.pendingDueOnCriteria(dueDate));
+    }
+
+    private Map<String, Long> countByCustomer(Criteria installmentCriteria) {
+
+        return OverdueCustomers.toCountByCustomer(mongoTemplate.aggregate(
+                        OverdueCustomers.installmentCountsByCustomerAggregation(
+                                installmentCriteria, "creditCardId", "credit_cards"),
+                        CreditCardInstallment.class, Document.class)
+                .getMappedResults());
+    }
+}
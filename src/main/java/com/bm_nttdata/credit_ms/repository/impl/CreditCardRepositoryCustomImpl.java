@@ -0,0 +1,126 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import com.bm_nttdata.credit_ms.enums.CardStatusEnum;
+import com.bm_nttdata.credit_ms.repository.CreditCardRepositoryCustom;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Implementación de las operaciones personalizadas del repositorio de tarjetas de crédito.
+ * El crédito disponible se almacena como Decimal128 para poder compararlo e incrementarlo
+ * en el servidor.
+ */
+@Slf4j
+public class CreditCardRepositoryCustomImpl implements CreditCardRepositoryCustom {
+
+    private static final String AVAILABLE_CREDIT = "availableCredit";
+
+    private static final int CURSOR_BATCH_SIZE = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<CreditCard> authorizeCharge(
+            String id, BigDecimal requiredCredit, BigDecimal chargeAmount) {
+
+        Query query = new Query(Criteria.where("_id").is(id)
+                .and(AVAILABLE_CREDIT).gte(new Decimal128(requiredCredit)));
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query, incrementAvailableCredit(chargeAmount.negate()),
+                FindAndModifyOptions.options().returnNew(true), CreditCard.class));
+    }
+
+    @Override
+    public Optional<CreditCard> increaseAvailableCredit(String id, BigDecimal amount) {
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(id)),
+                incrementAvailableCredit(amount),
+                FindAndModifyOptions.options().returnNew(true), CreditCard.class));
+    }
+
+    @Override
+    public Set<String> applyAvailableCreditDeltas(Map<String, BigDecimal> deltas) {
+
+        if (deltas.isEmpty()) {
+            return Set.of();
+        }
+
+        List<String> ids = new ArrayList<>(deltas.keySet());
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.UNORDERED, CreditCard.class);
+        ids.forEach(id -> bulkOperations.updateOne(
+                new Query(Criteria.where("_id").is(id)), incrementAvailableCredit(deltas.get(id))));
+
+        try {
+            bulkOperations.execute();
+            return Set.of();
+        } catch (BulkOperationException e) {
+            Set<String> failed = new HashSet<>();
+            e.getErrors().forEach(error -> failed.add(ids.get(error.getIndex())));
+            log.error("Error applying {} of {} available credit updates: {}",
+                    failed.size(), ids.size(), e.getMessage());
+            return failed;
+        }
+    }
+
+    @Override
+    public Optional<String> findCustomerIdById(String id) {
+
+        Query query = new Query(Criteria.where("_id").is(id));
+        query.fields().include("customerId");
+
+        return Optional.ofNullable(mongoTemplate.findOne(query, CreditCard.class))
+                .map(CreditCard::getCustomerId);
+    }
+
+    @Override
+    public Optional<CreditCard> findBalanceById(String id) {
+
+        Query query = new Query(Criteria.where("_id").is(id));
+        query.fields().include("creditLimit", AVAILABLE_CREDIT, "paymentDate",
+                "nextPaymentDate", "nextPaymentAmount", "overdueSince");
+
+        return Optional.ofNullable(mongoTemplate.findOne(query, CreditCard.class));
+    }
+
+    @Override
+    public void forEachActiveCardCredit(Consumer<CreditCard> consumer) {
+
+        Query query = new Query(Criteria.where("status").is(CardStatusEnum.ACTIVE))
+                .cursorBatchSize(CURSOR_BATCH_SIZE);
+        query.fields().include(AVAILABLE_CREDIT, "paymentDate");
+
+        try (Stream<CreditCard> creditCards = mongoTemplate.stream(query, CreditCard.class)) {
+            creditCards.forEach(consumer);
+        }
+    }
+
+    private Update incrementAvailableCredit(BigDecimal amount) {
+
+        return new Update()
+                .inc(AVAILABLE_CREDIT, new Decimal128(amount))
+                .set("updatedAt", LocalDateTime.now());
+    }
+}
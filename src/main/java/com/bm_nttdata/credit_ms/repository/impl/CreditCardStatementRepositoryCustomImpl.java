@@ -0,0 +1,151 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import com.bm_nttdata.credit_ms.entity.CreditCardInstallment;
+import com.bm_nttdata.credit_ms.entity.CreditCardStatement;
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import com.bm_nttdata.credit_ms.repository.CreditCardStatementRepositoryCustom;
+import com.bm_nttdata.credit_ms.util.Constants;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Implementación de las operaciones personalizadas del repositorio de estados de cuenta
+ * de tarjetas de crédito.
+ * El ID de cada estado de cuenta se forma con el ID de la tarjeta y la fecha de vencimiento
+ * en formato ISO, de modo que los cargos de un mismo ciclo se acumulan con un upsert sobre
+ * el mismo documento.
+ */
+public class CreditCardStatementRepositoryCustomImpl
+        implements CreditCardStatementRepositoryCustom {
+
+    private static final String STATEMENT_COLLECTION = "credit_card_statements";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void addInstallments(Collection<CreditCardInstallment> installments) {
+
+        if (installments.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<CreditCardInstallment>> installmentsByStatement = installments.stream()
+                .collect(Collectors.groupingBy(installment -> statementId(
+                        installment.getCreditCardId(), installment.getDueDate())));
+
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.UNORDERED, CreditCardStatement.class);
+        LocalDateTime now = LocalDateTime.now();
+        installmentsByStatement.forEach((statementId, statementInstallments) -> {
+            CreditCardInstallment first = statementInstallments.get(0);
+            BigDecimal principal = statementInstallments.stream()
+                    .map(CreditCardInstallment::getTotalAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+            Update update = new Update()
+                    .setOnInsert("creditCardId", first.getCreditCardId())
+                    .setOnInsert("dueDate", first.getDueDate())
+                    .setOnInsert("interestDue", new Decimal128(BigDecimal.ZERO))
+                    .setOnInsert("daysOverdue", 0L)
+                    .setOnInsert("status", InstallmentStatusEnum.PENDING)
+                    .setOnInsert("createdAt", now)
+                    .inc("principalDue", new Decimal128(principal))
+                    .set("updatedAt", now);
+            update.push("installmentIds").each(statementInstallments.stream()
+                    .map(CreditCardInstallment::getId)
+                    .toArray());
+
+            bulkOperations.upsert(new Query(Criteria.where("_id").is(statementId)), update);
+        });
+        bulkOperations.execute();
+    }
+
+    @Override
+    public long backfillStatements() {
+
+        String timezone = ZoneId.systemDefault().getId();
+        Document groupStage = new Document("$group", new Document()
+                .append("_id", new Document("creditCardId", "$creditCardId")
+                        .append("dueDate", "$dueDate"))
+                .append("installmentIds", new Document("$push",
+                        new Document("$toString", "$_id")))
+                .append("principalDue", new Document("$sum",
+                        new Document("$toDecimal", "$totalAmount")))
+                .append("interestDue", new Document("$sum", new Document("$toDecimal",
+                        new Document("$ifNull", Arrays.asList("$totalInterest", 0)))))
+                .append("daysOverdue", new Document("$max", "$daysOverdue"))
+                .append("overdue", new Document("$max", new Document("$cond", Arrays.asList(
+                        new Document("$eq", Arrays.asList(
+                                "$status", InstallmentStatusEnum.OVERDUE.name())),
+                        1, 0)))));
+        Document projectStage = new Document("$project", new Document()
+                .append("_id", new Document("$concat", Arrays.asList(
+                        "$_id.creditCardId", ":",
+                        new Document("$dateToString", new Document()
+                                .append("format", "%Y-%m-%d")
+                                .append("date", "$_id.dueDate")
+                                .append("timezone", timezone)))))
+                .append("creditCardId", "$_id.creditCardId")
+                .append("dueDate", "$_id.dueDate")
+                .append("installmentIds", 1)
+                .append("principalDue", 1)
+                .append("interestDue", 1)
+                .append("daysOverdue", new Document("$ifNull", Arrays.asList("$daysOverdue", 0)))
+                .append("status", new Document("$cond", Arrays.asList(
+                        new Document("$eq", Arrays.asList("$overdue", 1)),
+                        InstallmentStatusEnum.OVERDUE.name(),
+                        InstallmentStatusEnum.PENDING.name())))
+                .append("createdAt", "$$NOW")
+                .append("updatedAt", "$$NOW"));
+        Document mergeStage = new Document("$merge", new Document()
+                .append("into", STATEMENT_COLLECTION)
+                .append("on", "_id")
+                .append("whenMatched", "keepExisting")
+                .append("whenNotMatched", "insert"));
+
+        mongoTemplate.aggregate(Aggregation.newAggregation(
+                        Aggregation.match(Criteria.where("status")
+                                .in(Constants.OPEN_INSTALLMENT_STATUSES)),
+                        context -> groupStage,
+                        context -> projectStage,
+                        context -> mergeStage),
+                CreditCardInstallment.class, Document.class);
+
+        return mongoTemplate.count(new Query(), CreditCardStatement.class);
+    }
+
+    @Override
+    public void refreshBillingSummaries(Collection<String> creditCardIds) {
+
+        if (creditCardIds.isEmpty()) {
+            return;
+        }
+
+        mongoTemplate.aggregate(BillingSummaries.cardSummary(
+                        Criteria.where("_id").in(creditCardIds)),
+                CreditCard.class, Document.class);
+    }
+
+    private static String statementId(String creditCardId, LocalDate dueDate) {
+
+        return creditCardId + ":" + dueDate;
+    }
+}
@@ -0,0 +1,144 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import com.bm_nttdata.credit_ms.dto.PaymentDetailsDto;
+import com.bm_nttdata.credit_ms.entity.Credit;
+import com.bm_nttdata.credit_ms.entity.CreditPaymentSchedule;
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import com.bm_nttdata.credit_ms.repository.CreditPaymentScheduleRepositoryCustom;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.BasicUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Implementación de las operaciones personalizadas del repositorio de cronogramas de pago
+ * de créditos.
+ * Las actualizaciones de cuotas vencidas recalculan además la fecha desde la que sus
+ * créditos tienen cuotas vencidas, almacenada en el crédito para consultar su saldo.
+ */
+public class CreditPaymentScheduleRepositoryCustomImpl
+        implements CreditPaymentScheduleRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public long markOverdueInstallments(LocalDate currentDate, BigDecimal dailyInterestRate) {
+
+        long updated = mongoTemplate.updateMulti(
+                OverdueUpdates.overdueQuery(currentDate),
+                OverdueUpdates.overdueUpdate(
+                        currentDate, dailyInterestRate, "installmentAmount", "interest"),
+                CreditPaymentSchedule.class).getModifiedCount();
+        refreshSummaries(BillingSummaries.creditSummaryByInstallments(
+                Criteria.where("status").is(InstallmentStatusEnum.OVERDUE)
+                        .and("dueDate").lt(currentDate)), CreditPaymentSchedule.class);
+        // Corrige los créditos cuyas cuotas vencidas se pagaron sin actualizar el crédito
+        refreshSummaries(BillingSummaries.creditSummary(Criteria.where("overdueSince").ne(null)),
+                Credit.class);
+        return updated;
+    }
+
+    @Override
+    public long markOverdueInstallmentsDueOn(
+            LocalDate dueDate, LocalDate currentDate, BigDecimal dailyInterestRate) {
+
+        long updated = mongoTemplate.updateMulti(
+                OverdueUpdates.pendingDueOnQuery(dueDate),
+                OverdueUpdates.overdueUpdate(
+                        currentDate, dailyInterestRate, "installmentAmount", "interest"),
+                CreditPaymentSchedule.class).getModifiedCount();
+        refreshSummaries(BillingSummaries.creditSummaryByInstallments(
+                Criteria.where("status").is(InstallmentStatusEnum.OVERDUE)
+                        .and("dueDate").is(dueDate)), CreditPaymentSchedule.class);
+        return updated;
+    }
+
+    @Override
+    public Map<LocalDate, Long> countPendingByDueDate() {
+
+        return OverdueUpdates.toCountByDueDate(mongoTemplate.aggregate(
+                        OverdueUpdates.pendingByDueDateAggregation(),
+                        CreditPaymentSchedule.class, Document.class)
+                .getMappedResults());
+    }
+
+    @Override
+    public Optional<PaymentDetailsDto> quoteOpenInstallments(
+            String creditId, LocalDate dueDate, LocalDate currentDate,
+            BigDecimal dailyInterestRate) {
+
+        return PaymentQuotes.toPaymentDetails(mongoTemplate.aggregate(
+                        PaymentQuotes.quoteAggregation("creditId", creditId, dueDate, currentDate,
+                                dailyInterestRate, "installmentAmount"),
+                        CreditPaymentSchedule.class, Document.class)
+                .getUniqueMappedResult());
+    }
+
+    @Override
+    public Map<String, Long> countPendingOverdueByCustomer(LocalDate currentDate) {
+
+        return countByCustomer(OverdueUpdates.pendingOverdueCriteria(currentDate));
+    }
+
+    @Override
+    public Map<String, Long> countPendingDueOnByCustomer(LocalDate dueDate) {
+
+        return countByCustomer(OverdueUpdates.pendingDueOnCriteria(dueDate));
+    }
+
+    private Map<String, Long> countByCustomer(Criteria installmentCriteria) {
+
+        return OverdueCustomers.toCountByCustomer(mongoTemplate.aggregate(
+                        OverdueCustomers.installmentCountsByCustomerAggregation(
+                                installmentCriteria, "creditId", "credits"),
+                        CreditPaymentSchedule.class, Document.class)
+                .getMappedResults());
+    }
+
+    @Override
+    public void insertMissingInstallments(Collection<CreditPaymentSchedule> installments) {
+
+        if (installments.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.UNORDERED, CreditPaymentSchedule.class);
+        installments.forEach(installment -> {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(installment, document);
+            document.remove("_id");
+            bulkOperations.upsert(
+                    new Query(Criteria.where("creditId").is(installment.getCreditId())
+                            .and("installmentNumber").is(installment.getInstallmentNumber())),
+                    new BasicUpdate(new Document("$setOnInsert", document)));
+        });
+        bulkOperations.execute();
+    }
+
+    @Override
+    public void refreshOverdueSince(Collection<String> creditIds) {
+
+        if (creditIds.isEmpty()) {
+            return;
+        }
+
+        refreshSummaries(BillingSummaries.creditSummary(Criteria.where("_id").in(creditIds)),
+                Credit.class);
+    }
+
+    private void refreshSummaries(Aggregation aggregation, Class<?> inputType) {
+
+        mongoTemplate.aggregate(aggregation, inputType, Document.class);
+    }
+}
@@ -0,0 +1,87 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import com.bm_nttdata.credit_ms.dto.CustomerPortfolioDetailsDto;
+import com.bm_nttdata.credit_ms.entity.Credit;
+import com.bm_nttdata.credit_ms.repository.CreditRepositoryCustom;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Implementación de las operaciones personalizadas del repositorio de créditos.
+ * Las actualizaciones se condicionan a la versión leída e incrementan la versión, igual que
+ * el guardado de un documento versionado. El portafolio del cliente se obtiene con una
+ * agregación que parte de los créditos e incorpora sus tarjetas de crédito.
+ */
+public class CreditRepositoryCustomImpl implements CreditRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<Credit> applyPayment(Credit credit, BigDecimal amount) {
+
+        Query query = new Query(Criteria.where("_id").is(credit.getId())
+                .and("version").is(credit.getVersion()));
+        Update update = new Update()
+                .set("balance", credit.getBalance().subtract(amount))
+                .set("nextPaymentDate", credit.getNextPaymentDate().plusMonths(1))
+                .inc("nextPaymentInstallment", 1)
+                .set("updatedAt", LocalDateTime.now())
+                .inc("version", 1);
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query, update, FindAndModifyOptions.options().returnNew(true), Credit.class));
+    }
+
+    @Override
+    public Optional<Credit> findBalanceById(String id) {
+
+        Query query = new Query(Criteria.where("_id").is(id));
+        query.fields().include("amount", "balance", "nextPaymentDate", "nextPaymentAmount",
+                "overdueSince");
+
+        return Optional.ofNullable(mongoTemplate.findOne(query, Credit.class));
+    }
+
+    @Override
+    public CustomerPortfolioDetailsDto findCustomerPortfolio(
+            String customerId, LocalDate currentDate) {
+
+        return mongoTemplate.aggregate(
+                        CustomerPortfolios.portfolioAggregation(customerId, currentDate),
+                        Credit.class, CustomerPortfolioDetailsDto.class)
+                .getUniqueMappedResult();
+    }
+
+    @Override
+    public void updateMaterializedInstallments(Collection<Credit> credits) {
+
+        if (credits.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOperations =
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Credit.class);
+        credits.forEach(credit -> {
+            Update update = new Update()
+                    .set("materializedInstallments", credit.getMaterializedInstallments());
+            if (credit.getNextMaterializationDueDate() == null) {
+                update.unset("nextMaterializationDueDate");
+            } else {
+                update.set("nextMaterializationDueDate", credit.getNextMaterializationDueDate());
+            }
+            bulkOperations.updateOne(new Query(Criteria.where("_id").is(credit.getId())), update);
+        });
+        bulkOperations.execute();
+    }
+}
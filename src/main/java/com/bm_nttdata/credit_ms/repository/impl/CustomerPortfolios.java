@@ -0,0 +1,204 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import com.bm_nttdata.credit_ms.util.Constants;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+
+/**
+ * Construcción de la agregación que obtiene el portafolio de un cliente en una sola consulta.
+ * Parte de los créditos del cliente, agrega sus tarjetas de crédito con $unionWith y obtiene
+ * con $lookup el resumen de las cuotas no pagadas de cada producto; $facet separa los
+ * productos por tipo y produce siempre un único documento, aunque el cliente no tenga
+ * productos.
+ */
+final class CustomerPortfolios {
+
+    private static final String PRODUCT_TYPE = "productType";
+
+    private static final String CREDIT = "CREDIT";
+
+    private static final String CREDIT_CARD = "CREDIT_CARD";
+
+    private static final String PRODUCT_ID = "productId";
+
+    private static final String SUMMARY = "installmentSummary";
+
+    private static final String OVERDUE = "overdue";
+
+    private static final String PENDING = "pending";
+
+    private static final String AMOUNT = "amount";
+
+    private CustomerPortfolios() {
+    }
+
+    /**
+     * Construye la agregación del portafolio de un cliente, que se ejecuta sobre la colección
+     * de créditos.
+     *
+     * @param customerId ID del cliente
+     * @param currentDate Fecha de referencia del cálculo de días de retraso
+     * @return Agregación que produce un único documento con los créditos del cliente en
+     *         credits y sus tarjetas de crédito en creditCards
+     */
+    static Aggregation portfolioAggregation(String customerId, LocalDate currentDate) {
+
+        List<Document> creditStages = productStages(customerId, CREDIT,
+                new Document()
+                        .append("creditType", 1)
+                        .append("status", 1)
+                        .append("amount", 1)
+                        .append("balance", 1)
+                        .append("interestRate", 1),
+                "credit_payment_schedule", "creditId", "installmentAmount", currentDate);
+        List<Document> creditCardStages = productStages(customerId, CREDIT_CARD,
+                new Document()
+                        .append("cardNumber", 1)
+                        .append("cardType", 1)
+                        .append("status", 1)
+                        .append("creditLimit", 1)
+                        .append("availableCredit", 1)
+                        .append("paymentDate", 1),
+                "credit_card_installment", "creditCardId", "totalAmount", currentDate);
+
+        Document unionWithStage = new Document("$unionWith", new Document()
+                .append("coll", "credit_cards")
+                .append("pipeline", creditCardStages));
+        Document facetStage = new Document("$facet", new Document()
+                .append("credits", productFacet(CREDIT))
+                .append("creditCards", productFacet(CREDIT_CARD)));
+
+        List<AggregationOperation> operations = new ArrayList<>();
+        creditStages.forEach(stage -> operations.add(context -> stage));
+        operations.add(context -> unionWithStage);
+        operations.add(context -> facetStage);
+
+        return Aggregation.newAggregation(operations);
+    }
+
+    /**
+     * Construye las etapas que obtienen los productos de un tipo de un cliente con el resumen
+     * de sus cuotas no pagadas incorporado en cada producto.
+     *
+     * @param customerId ID del cliente
+     * @param productType Tipo de producto con el que se marca cada documento
+     * @param productFields Campos del producto incluidos en el portafolio
+     * @param installmentCollection Colección de las cuotas del producto
+     * @param productField Campo del ID del producto en las cuotas
+     * @param amountField Campo del monto de la cuota
+     * @param currentDate Fecha de referencia del cálculo de días de retraso
+     * @return Etapas de match, project, lookup, replaceWith y unset
+     */
+    private static List<Document> productStages(
+            String customerId, String productType, Document productFields,
+            String installmentCollection, String productField, String amountField,
+            LocalDate currentDate) {
+
+        Document lookupStage = new Document("$lookup", new Document()
+                .append("from", installmentCollection)
+                .append("let", new Document(PRODUCT_ID, new Document("$toString", "$_id")))
+                .append("pipeline", summaryPipeline(productField, amountField, currentDate))
+                .append("as", SUMMARY));
+        Document emptySummary = new Document()
+                .append("overdueInstallments", 0)
+                .append("overdueAmount", new Decimal128(BigDecimal.ZERO))
+                .append("daysOverdue", 0);
+        Document mergeStage = new Document("$replaceWith", new Document("$mergeObjects",
+                Arrays.asList("$$ROOT", emptySummary, new Document("$first", "$" + SUMMARY))));
+
+        return List.of(
+                new Document("$match", new Document("customerId", customerId)),
+                new Document("$project", new Document(productFields)
+                        .append(PRODUCT_TYPE, new Document("$literal", productType))),
+                lookupStage,
+                mergeStage,
+                new Document("$unset", SUMMARY));
+    }
+
+    /**
+     * Construye el pipeline que resume las cuotas no pagadas de un producto: el número, el
+     * monto y los días de retraso de las cuotas vencidas, y la fecha y el monto de la cuota
+     * pendiente más próxima.
+     * Agrupa primero las cuotas por fecha de vencimiento y estado sobre el índice por producto
+     * y estado, de modo que el resumen recorre a lo sumo una entrada por fecha de pago.
+     *
+     * @param productField Campo del ID del producto en las cuotas
+     * @param amountField Campo del monto de la cuota
+     * @param currentDate Fecha de referencia del cálculo de días de retraso
+     * @return Pipeline que produce un documento de resumen, o ninguno si no hay cuotas
+     *         no pagadas
+     */
+    private static List<Document> summaryPipeline(
+            String productField, String amountField, LocalDate currentDate) {
+
+        Date current = Date.from(currentDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Document isOverdue = new Document("$eq",
+                Arrays.asList("$_id.status", InstallmentStatusEnum.OVERDUE.name()));
+        Document isPending = new Document("$eq",
+                Arrays.asList("$_id.status", InstallmentStatusEnum.PENDING.name()));
+
+        Document installmentMatch = new Document("$match", new Document()
+                .append("status", new Document("$in", Constants.OPEN_INSTALLMENT_STATUSES
+                        .stream().map(Enum::name).toList()))
+                .append("$expr", new Document("$eq",
+                        Arrays.asList("$" + productField, "$$" + PRODUCT_ID))));
+        Document dueDateGroup = new Document("$group", new Document()
+                .append("_id", new Document("dueDate", "$dueDate").append("status", "$status"))
+                .append(AMOUNT, new Document("$sum", new Document("$toDecimal", "$" + amountField)))
+                .append("count", new Document("$sum", 1)));
+        Document summaryGroup = new Document("$group", new Document("_id", null)
+                .append("overdueInstallments", new Document("$sum",
+                        new Document("$cond", Arrays.asList(isOverdue, "$count", 0))))
+                .append("overdueAmount", new Document("$sum",
+                        new Document("$cond", Arrays.asList(isOverdue, "$" + AMOUNT, 0))))
+                .append(OVERDUE, new Document("$min",
+                        new Document("$cond", Arrays.asList(isOverdue, "$_id.dueDate", null))))
+                .append(PENDING, new Document("$push", new Document("$cond", Arrays.asList(
+                        isPending,
+                        new Document("dueDate", "$_id.dueDate").append(AMOUNT, "$" + AMOUNT),
+                        null)))));
+        Document nextPending = new Document("$first", new Document("$filter", new Document()
+                .append("input", "$" + PENDING)
+                .append("cond", new Document("$ne", Arrays.asList("$$this", null)))));
+        Document summaryProject = new Document("$project", new Document()
+                .append("_id", 0)
+                .append("overdueInstallments", 1)
+                .append("overdueAmount", 1)
+                .append("nextPaymentDate", new Document("$getField", new Document()
+                        .append("field", "dueDate").append("input", nextPending)))
+                .append("nextPaymentAmount", new Document("$getField", new Document()
+                        .append("field", AMOUNT).append("input", nextPending)))
+                .append("daysOverdue", new Document("$ifNull", Arrays.asList(
+                        new Document("$dateDiff", new Document()
+                                .append("startDate", "$" + OVERDUE)
+                                .append("endDate", current)
+                                .append("unit", "day")
+                                .append("timezone", ZoneId.systemDefault().getId())),
+                        0))));
+
+        return List.of(
+                installmentMatch,
+                dueDateGroup,
+                new Document("$sort", new Document("_id.dueDate", 1)),
+                summaryGroup,
+                summaryProject);
+    }
+
+    private static List<Document> productFacet(String productType) {
+
+        return List.of(
+                new Document("$match", new Document(PRODUCT_TYPE, productType)),
+                new Document("$sort", new Document("_id", 1)),
+                new Document("$unset", PRODUCT_TYPE));
+    }
+}
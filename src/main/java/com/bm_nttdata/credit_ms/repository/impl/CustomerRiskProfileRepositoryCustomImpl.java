@@ -0,0 +1,213 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import com.bm_nttdata.credit_ms.entity.Credit;
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import com.bm_nttdata.credit_ms.entity.CustomerRiskProfile;
+import com.bm_nttdata.credit_ms.repository.CustomerRiskProfileRepositoryCustom;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Implementación de las operaciones personalizadas del repositorio de perfiles de riesgo.
+ * El saldo de los créditos y el crédito disponible de las tarjetas se almacenan como
+ * Decimal128, pero el límite de las tarjetas se almacena como texto, por lo que las
+ * agregaciones convierten los montos con $toDecimal antes de sumarlos.
+ */
+public class CustomerRiskProfileRepositoryCustomImpl
+        implements CustomerRiskProfileRepositoryCustom {
+
+    private static final String OPEN_CREDITS = "openCredits";
+
+    private static final String CREDIT_BALANCE = "creditBalance";
+
+    private static final String CARD_EXPOSURE = "cardExposure";
+
+    private static final String OVERDUE_CREDIT_INSTALLMENTS = "overdueCreditInstallments";
+
+    private static final String OVERDUE_CARD_INSTALLMENTS = "overdueCardInstallments";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void incrementCredits(String customerId, long openCredits, BigDecimal creditBalance) {
+
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(customerId)),
+                new Update()
+                        .inc(OPEN_CREDITS, openCredits)
+                        .inc(CREDIT_BALANCE, new Decimal128(creditBalance))
+                        .set("updatedAt", LocalDateTime.now()),
+                CustomerRiskProfile.class);
+    }
+
+    @Override
+    public void incrementCardExposure(String customerId, BigDecimal cardExposure) {
+
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(customerId)),
+                new Update()
+                        .inc(CARD_EXPOSURE, new Decimal128(cardExposure))
+                        .set("updatedAt", LocalDateTime.now()),
+                CustomerRiskProfile.class);
+    }
+
+    @Override
+    public void incrementOverdueCreditInstallments(Map<String, Long> overdueByCustomer) {
+
+        incrementOverdue(OVERDUE_CREDIT_INSTALLMENTS, overdueByCustomer);
+    }
+
+    @Override
+    public void incrementOverdueCardInstallments(Map<String, Long> overdueByCustomer) {
+
+        incrementOverdue(OVERDUE_CARD_INSTALLMENTS, overdueByCustomer);
+    }
+
+    @Override
+    public List<CustomerRiskProfile> computeProfiles(Collection<String> customerIds) {
+
+        Map<String, CustomerRiskProfile> profiles = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (String customerId : new LinkedHashSet<>(customerIds)) {
+            profiles.put(customerId, CustomerRiskProfile.builder()
+                    .customerId(customerId)
+                    .creditBalance(BigDecimal.ZERO)
+                    .cardExposure(BigDecimal.ZERO)
+                    .rebuiltAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        if (profiles.isEmpty()) {
+            return List.of();
+        }
+
+        aggregate(creditTotalsAggregation(profiles.keySet()), Credit.class).forEach(result -> {
+            CustomerRiskProfile profile = profiles.get(result.getString("_id"));
+            profile.setOpenCredits(((Number) result.get(OPEN_CREDITS)).longValue());
+            profile.setCreditBalance(
+                    result.get(CREDIT_BALANCE, Decimal128.class).bigDecimalValue());
+        });
+        aggregate(cardExposureAggregation(profiles.keySet()), CreditCard.class).forEach(result ->
+                profiles.get(result.getString("_id")).setCardExposure(
+                        result.get(CARD_EXPOSURE, Decimal128.class).bigDecimalValue()));
+        OverdueCustomers.toCountByCustomer(aggregate(OverdueCustomers.overdueCountsAggregation(
+                        profiles.keySet(), "credit_payment_schedule", "creditId"), Credit.class))
+                .forEach((customerId, count) ->
+                        profiles.get(customerId).setOverdueCreditInstallments(count));
+        OverdueCustomers.toCountByCustomer(aggregate(OverdueCustomers.overdueCountsAggregation(
+                        profiles.keySet(), "credit_card_installment", "creditCardId"),
+                        CreditCard.class))
+                .forEach((customerId, count) ->
+                        profiles.get(customerId).setOverdueCardInstallments(count));
+
+        return List.copyOf(profiles.values());
+    }
+
+    @Override
+    public void replaceProfiles(Collection<CustomerRiskProfile> profiles) {
+
+        if (profiles.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.UNORDERED, CustomerRiskProfile.class);
+        profiles.forEach(profile -> bulkOperations.replaceOne(
+                new Query(Criteria.where("_id").is(profile.getCustomerId())),
+                profile, FindAndReplaceOptions.options().upsert()));
+        bulkOperations.execute();
+    }
+
+    @Override
+    public List<String> findCustomerIdsAfter(String lastCustomerId, int limit) {
+
+        Query query = lastCustomerId == null
+                ? new Query()
+                : new Query(Criteria.where("_id").gt(lastCustomerId));
+        query.fields().include("_id");
+        query.with(Sort.by("_id")).limit(limit);
+
+        return mongoTemplate.find(query, CustomerRiskProfile.class).stream()
+                .map(CustomerRiskProfile::getCustomerId)
+                .toList();
+    }
+
+    private void incrementOverdue(String field, Map<String, Long> overdueByCustomer) {
+
+        if (overdueByCustomer.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.UNORDERED, CustomerRiskProfile.class);
+        LocalDateTime now = LocalDateTime.now();
+        overdueByCustomer.forEach((customerId, count) -> bulkOperations.updateOne(
+                new Query(Criteria.where("_id").is(customerId)),
+                new Update().inc(field, count).set("updatedAt", now)));
+        bulkOperations.execute();
+    }
+
+    private List<Document> aggregate(Aggregation aggregation, Class<?> inputType) {
+
+        return mongoTemplate.aggregate(aggregation, inputType, Document.class)
+                .getMappedResults();
+    }
+
+    /**
+     * Construye la agregación del número de créditos con saldo pendiente y del saldo total
+     * de créditos por cliente.
+     *
+     * @param customerIds IDs de los clientes
+     * @return Agregación con un documento por cliente con créditos
+     */
+    private static Aggregation creditTotalsAggregation(Collection<String> customerIds) {
+
+        Document balance = new Document("$toDecimal", "$balance");
+        Document groupStage = new Document("$group", new Document("_id", "$customerId")
+                .append(OPEN_CREDITS, new Document("$sum", new Document("$cond", Arrays.asList(
+                        new Document("$gt", Arrays.asList(balance, 0)), 1, 0))))
+                .append(CREDIT_BALANCE, new Document("$sum", balance)));
+
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("customerId").in(customerIds)),
+                context -> groupStage);
+    }
+
+    /**
+     * Construye la agregación del crédito utilizado de las tarjetas por cliente: el límite
+     * menos el crédito disponible de cada tarjeta.
+     *
+     * @param customerIds IDs de los clientes
+     * @return Agregación con un documento por cliente con tarjetas de crédito
+     */
+    private static Aggregation cardExposureAggregation(Collection<String> customerIds) {
+
+        Document groupStage = new Document("$group", new Document("_id", "$customerId")
+                .append(CARD_EXPOSURE, new Document("$sum", new Document("$subtract",
+                        Arrays.asList(
+                                new Document("$toDecimal", "$creditLimit"),
+                                new Document("$toDecimal", "$availableCredit"))))));
+
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("customerId").in(customerIds)),
+                context -> groupStage);
+    }
+}
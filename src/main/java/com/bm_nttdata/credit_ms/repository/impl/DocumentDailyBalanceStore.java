@@ -0,0 +1,130 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import com.bm_nttdata.credit_ms.entity.DailyCreditBalance;
+import com.bm_nttdata.credit_ms.repository.DailyBalanceStore;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Almacén de saldos diarios con un documento por producto y día.
+ * Es la disposición por defecto y la fuente de lectura de los meses que aún no
+ * existen en la disposición mensual.
+ */
+@Repository
+public class DocumentDailyBalanceStore implements DailyBalanceStore {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public int write(List<DailyCreditBalance> balances) {
+
+        if (balances.isEmpty()) {
+            return 0;
+        }
+
+        BulkOperations bulkOperations = upserts(balances,
+                balance -> new Update().set("balance", balance.getBalance()));
+
+        return BulkWriteSupport.executeUpserts(bulkOperations, balances.size());
+    }
+
+    @Override
+    public List<DailyCreditBalance> insertMissing(List<DailyCreditBalance> balances) {
+
+        if (balances.isEmpty()) {
+            return List.of();
+        }
+
+        BulkOperations bulkOperations = upserts(balances,
+                balance -> new Update().setOnInsert("balance", balance.getBalance()));
+
+        return BulkWriteSupport.executeInserts(bulkOperations, balances.size()).stream()
+                .map(balances::get)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<DailyCreditBalance> findMonth(String productId, YearMonth month) {
+
+        // Los límites se consultan como LocalDate para que se conviertan en la misma zona
+        // horaria con la que se escriben los saldos y se agrupan en countByDay
+        Query query = Query.query(Criteria.where("creditProductId").is(productId)
+                        .and("date").gte(month.atDay(1)).lte(month.atEndOfMonth()))
+                .with(Sort.by(Sort.Direction.ASC, "date"));
+
+        return mongoTemplate.find(query, DailyCreditBalance.class);
+    }
+
+    @Override
+    public Map<LocalDate, Long> countByDay(LocalDate startDate, LocalDate endDate) {
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("date").gte(startDate).lte(endDate)),
+                Aggregation.group("date").count().as("count"));
+
+        return mongoTemplate.aggregate(aggregation, DailyCreditBalance.class, Document.class)
+                .getMappedResults()
+                .stream()
+                .collect(Collectors.toMap(
+                        document -> document.getDate("_id").toInstant()
+                                .atZone(ZoneId.systemDefault()).toLocalDate(),
+                        document -> ((Number) document.get("count")).longValue()));
+    }
+
+    @Override
+    public Map<String, BigDecimal> findLastBalancesBefore(
+            List<String> productIds, LocalDate day, LocalDate notBefore) {
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("creditProductId").in(productIds)
+                        .and("date").gte(notBefore).lt(day)),
+                Aggregation.sort(Sort.Direction.ASC, "creditProductId", "date"),
+                Aggregation.group("creditProductId").last("balance").as("balance"));
+
+        return mongoTemplate
+                .aggregate(aggregation, DailyCreditBalance.class, DailyCreditBalance.class)
+                .getMappedResults()
+                .stream()
+                .filter(balance -> balance.getBalance() != null)
+                .collect(Collectors.toMap(
+                        DailyCreditBalance::getId, DailyCreditBalance::getBalance));
+    }
+
+    /**
+     * Prepara un upsert por saldo diario sobre la clave natural producto y fecha.
+     *
+     * @param balances Saldos diarios del lote
+     * @param updateFactory Función que construye la actualización de cada saldo
+     * @return Operación masiva preparada
+     */
+    private BulkOperations upserts(
+            List<DailyCreditBalance> balances, Function<DailyCreditBalance, Update> updateFactory) {
+
+        BulkOperations bulkOperations =
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyCreditBalance.class);
+
+        for (DailyCreditBalance balance : balances) {
+            Query query = Query.query(Criteria.where("creditProductId")
+                    .is(balance.getCreditProductId()).and("date").is(balance.getDate()));
+            bulkOperations.upsert(query, updateFactory.apply(balance));
+        }
+        return bulkOperations;
+    }
+}
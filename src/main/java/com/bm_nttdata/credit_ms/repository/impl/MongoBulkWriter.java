@@ -0,0 +1,80 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import com.bm_nttdata.credit_ms.repository.BulkWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Implementación del escritor masivo sobre MongoTemplate.
+ * Las inserciones se envían como un único insertMany desordenado y las actualizaciones como
+ * un único updateMany filtrado por el conjunto de IDs.
+ */
+@Repository
+public class MongoBulkWriter implements BulkWriter {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public <T> List<T> insertAll(Collection<T> entities, Class<T> entityType) {
+
+        if (entities.isEmpty()) {
+            return List.of();
+        }
+
+        List<T> documents = new ArrayList<>(entities);
+        documents.forEach(this::assignId);
+
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityType)
+                .insert(documents)
+                .execute();
+        return documents;
+    }
+
+    @Override
+    public long updateAllById(Collection<String> ids, Update update, Class<?> entityType) {
+
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        return mongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(ids)), update, entityType)
+                .getModifiedCount();
+    }
+
+    /**
+     * Asigna un ObjectId a una entidad sin identificador, para que la entidad insertada
+     * conserve el identificador generado.
+     *
+     * @param entity Entidad a insertar
+     */
+    private void assignId(Object entity) {
+
+        MongoPersistentEntity<?> persistentEntity = mongoTemplate.getConverter()
+                .getMappingContext().getRequiredPersistentEntity(entity.getClass());
+        MongoPersistentProperty idProperty = persistentEntity.getIdProperty();
+        if (idProperty == null) {
+            return;
+        }
+
+        PersistentPropertyAccessor<Object> accessor =
+                persistentEntity.getPropertyAccessor(entity);
+        if (accessor.getProperty(idProperty) == null
+                && idProperty.getType().equals(String.class)) {
+            accessor.setProperty(idProperty, new ObjectId().toHexString());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import com.bm_nttdata.credit_ms.entity.DailyCreditBalance;
+import com.bm_nttdata.credit_ms.entity.MonthlyBalanceStats;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Almacén de las estadísticas mensuales de saldo diario.
+ * Cada saldo registrado actualiza las estadísticas del mes con una actualización por
+ * pipeline: el último saldo pendiente se acumula ponderado por los días que estuvo vigente
+ * y el nuevo saldo queda como último saldo pendiente.
+ */
+@Repository
+public class MonthlyBalanceStatsStore {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private static final Decimal128 ZERO = Decimal128.parse("0");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Actualiza las estadísticas mensuales con un lote de saldos diarios.
+     * Los saldos anteriores al último día registrado del mes se ignoran.
+     *
+     * @param balances Saldos diarios registrados
+     * @return Número de estadísticas actualizadas
+     */
+    public int record(List<DailyCreditBalance> balances) {
+
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.UNORDERED, MonthlyBalanceStats.class);
+        int size = 0;
+
+        for (DailyCreditBalance balance : balances) {
+            if (balance.getBalance() == null) {
+                continue;
+            }
+            YearMonth month = YearMonth.from(balance.getDate());
+            bulkOperations.upsert(
+                    Query.query(Criteria.where("id")
+                            .is(statsId(balance.getCreditProductId(), month))),
+                    statsUpdate(balance, month));
+            size++;
+        }
+
+        return size == 0 ? 0 : BulkWriteSupport.executeUpserts(bulkOperations, size);
+    }
+
+    /**
+     * Obtiene las estadísticas de un producto para un mes.
+     *
+     * @param productId Identificador del producto de crédito
+     * @param month Mes de consulta
+     * @return Estadísticas del mes, o null si no existen
+     */
+    public MonthlyBalanceStats find(String productId, YearMonth month) {
+
+        return mongoTemplate.findById(statsId(productId, month), MonthlyBalanceStats.class);
+    }
+
+    /**
+     * Construye la actualización por pipeline de las estadísticas con un saldo diario.
+     *
+     * @param balance Saldo diario registrado
+     * @param month Mes de las estadísticas
+     * @return Actualización por pipeline
+     */
+    private AggregationUpdate statsUpdate(DailyCreditBalance balance, YearMonth month) {
+
+        Date date = toDate(balance.getDate());
+        Decimal128 value = new Decimal128(balance.getBalance());
+
+        Document hasLast = new Document("$ne", Arrays.asList(
+                new Document("$type", "$lastDate"), "missing"));
+        Document daysSinceLast = new Document("$toLong", new Document("$round", Arrays.asList(
+                new Document("$divide", Arrays.asList(
+                        new Document("$subtract", Arrays.asList(date, "$lastDate")),
+                        MILLIS_PER_DAY)), 0)));
+        Document foldDays = new Document("$cond", Arrays.asList(
+                new Document("$and", Arrays.asList(
+                        hasLast, new Document("$gt", Arrays.asList(date, "$lastDate")))),
+                daysSinceLast, 0L));
+        Document isLatest = new Document("$or", Arrays.asList(
+                new Document("$not", List.of(hasLast)),
+                new Document("$gte", Arrays.asList(date, "$lastDate"))));
+        Document folded = new Document("$gt", Arrays.asList("$foldDays", 0));
+
+        Document foldStage = new Document("$set", new Document("foldDays", foldDays));
+        Document statsStage = new Document("$set", new Document()
+                .append("creditProductId", balance.getCreditProductId())
+                .append("month", month.toString())
+                .append("sum", new Document("$add", Arrays.asList(
+                        new Document("$ifNull", Arrays.asList("$sum", ZERO)),
+                        new Document("$multiply", Arrays.asList(
+                                new Document("$ifNull", Arrays.asList("$last", ZERO)),
+                                "$foldDays")))))
+                .append("count", new Document("$add", Arrays.asList(
+                        new Document("$ifNull", Arrays.asList("$count", 0L)), "$foldDays")))
+                .append("min", new Document("$cond", Arrays.asList(
+                        folded, new Document("$min", Arrays.asList("$min", "$last")), "$min")))
+                .append("max", new Document("$cond", Arrays.asList(
+                        folded, new Document("$max", Arrays.asList("$max", "$last")), "$max")))
+                .append("last", new Document("$cond", Arrays.asList(isLatest, value, "$last")))
+                .append("lastDate", new Document("$cond",
+                        Arrays.asList(isLatest, date, "$lastDate")))
+                .append("updatedAt", "$$NOW"));
+        Document cleanupStage = new Document("$unset", "foldDays");
+
+        List<AggregationOperation> pipeline = List.of(
+                context -> foldStage, context -> statsStage, context -> cleanupStage);
+        return AggregationUpdate.from(pipeline);
+    }
+
+    /**
+     * Convierte una fecha al instante de inicio del día, como se almacenan las fechas.
+     *
+     * @param date Fecha a convertir
+     * @return Fecha de inicio del día en la zona horaria del sistema
+     */
+    private static Date toDate(LocalDate date) {
+
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Genera el identificador de las estadísticas mensuales de un producto.
+     *
+     * @param productId Identificador del producto de crédito
+     * @param month Mes de las estadísticas
+     * @return Identificador de las estadísticas
+     */
+    private static String statsId(String productId, YearMonth month) {
+
+        return productId + ":" + month;
+    }
+}
@@ -0,0 +1,121 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Construcción de las agregaciones que cuentan las cuotas vencidas de los clientes en un
+ * tipo de producto de crédito.
+ * Las cuotas guardan el ID de su producto como texto, mientras que el _id de los productos
+ * es un ObjectId; las agregaciones convierten el ID en el lado que permite usar el índice
+ * de la colección consultada con $lookup.
+ */
+final class OverdueCustomers {
+
+    private static final String PRODUCT_ID = "productId";
+
+    private static final String OVERDUE = "overdue";
+
+    private static final String PRODUCT = "product";
+
+    private static final String COUNT = "count";
+
+    private OverdueCustomers() {
+    }
+
+    /**
+     * Construye la agregación que cuenta las cuotas vencidas de un grupo de clientes.
+     * Parte de los productos de los clientes, usando el índice por cliente, y por cada
+     * producto obtiene con $lookup sus cuotas vencidas sobre el índice por producto y estado.
+     *
+     * @param customerIds IDs de los clientes
+     * @param installmentCollection Colección de las cuotas del producto
+     * @param productField Campo del ID del producto en las cuotas
+     * @return Agregación que produce un documento por cliente con productos, con su ID en _id
+     *         y su número de cuotas vencidas en count
+     */
+    static Aggregation overdueCountsAggregation(
+            Collection<String> customerIds, String installmentCollection, String productField) {
+
+        Document installmentMatch = new Document("$match", new Document()
+                .append("status", InstallmentStatusEnum.OVERDUE.name())
+                .append("$expr", new Document("$eq",
+                        Arrays.asList("$" + productField, "$$" + PRODUCT_ID))));
+        Document lookupStage = new Document("$lookup", new Document()
+                .append("from", installmentCollection)
+                .append("let", new Document(PRODUCT_ID, new Document("$toString", "$_id")))
+                .append("pipeline", List.of(
+                        installmentMatch,
+                        new Document("$project", new Document("_id", 1))))
+                .append("as", OVERDUE));
+        Document groupStage = new Document("$group", new Document("_id", "$customerId")
+                .append(COUNT, new Document("$sum", new Document("$size", "$" + OVERDUE))));
+
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("customerId").in(customerIds)),
+                Aggregation.project("customerId"),
+                context -> lookupStage,
+                context -> groupStage);
+    }
+
+    /**
+     * Construye la agregación que cuenta por cliente las cuotas que cumplen un criterio, por
+     * ejemplo las cuotas pendientes que están por pasar a vencidas.
+     * Agrupa las cuotas por producto y obtiene el cliente de cada producto con $lookup sobre
+     * el _id de la colección de productos.
+     *
+     * @param installmentCriteria Criterio de las cuotas a contar
+     * @param productField Campo del ID del producto en las cuotas
+     * @param productCollection Colección de los productos
+     * @return Agregación que produce un documento por cliente, con su ID en _id y su número
+     *         de cuotas en count
+     */
+    static Aggregation installmentCountsByCustomerAggregation(
+            Criteria installmentCriteria, String productField, String productCollection) {
+
+        Document productIdStage = new Document("$set", new Document(PRODUCT_ID,
+                new Document("$convert", new Document()
+                        .append("input", "$_id")
+                        .append("to", "objectId")
+                        .append("onError", "$_id"))));
+        Document lookupStage = new Document("$lookup", new Document()
+                .append("from", productCollection)
+                .append("localField", PRODUCT_ID)
+                .append("foreignField", "_id")
+                .append("as", PRODUCT));
+        Document unwindStage = new Document("$unwind", "$" + PRODUCT);
+        Document groupStage = new Document("$group", new Document()
+                .append("_id", "$" + PRODUCT + ".customerId")
+                .append(COUNT, new Document("$sum", "$" + COUNT)));
+
+        return Aggregation.newAggregation(
+                Aggregation.match(installmentCriteria),
+                Aggregation.group(productField).count().as(COUNT),
+                context -> productIdStage,
+                context -> lookupStage,
+                context -> unwindStage,
+                context -> groupStage);
+    }
+
+    /**
+     * Convierte el resultado de una agregación de conteo por cliente en un mapa.
+     *
+     * @param results Documentos con el ID del cliente en _id y el conteo en count
+     * @return Conteo por ID de cliente
+     */
+    static Map<String, Long> toCountByCustomer(List<Document> results) {
+
+        return results.stream()
+                .filter(document -> document.getString("_id") != null)
+                .collect(Collectors.toMap(
+                        document -> document.getString("_id"),
+                        document -> ((Number) document.get(COUNT)).longValue()));
+    }
+}
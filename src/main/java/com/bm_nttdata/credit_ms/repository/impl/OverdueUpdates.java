@@ -0,0 +1,139 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import com.bm_nttdata.credit_ms.util.Constants;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Construcción de las consultas y actualizaciones masivas de cuotas vencidas.
+ * El interés moratorio se calcula en el servidor como monto de la cuota por tasa diaria
+ * por días de retraso, igual que en el cálculo de la cuota a pagar.
+ */
+final class OverdueUpdates {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private OverdueUpdates() {
+    }
+
+    /**
+     * Construye la consulta de cuotas no pagadas vencidas a una fecha.
+     *
+     * @param currentDate Fecha de referencia
+     * @return Consulta de cuotas vencidas
+     */
+    static Query overdueQuery(LocalDate currentDate) {
+
+        return Query.query(Criteria.where("status")
+                .in(Constants.OPEN_INSTALLMENT_STATUSES)
+                .and("dueDate").lt(currentDate));
+    }
+
+    /**
+     * Construye la consulta de cuotas pendientes con una fecha de vencimiento.
+     *
+     * @param dueDate Fecha de vencimiento
+     * @return Consulta de cuotas pendientes
+     */
+    static Query pendingDueOnQuery(LocalDate dueDate) {
+
+        return Query.query(pendingDueOnCriteria(dueDate));
+    }
+
+    /**
+     * Construye el criterio de cuotas pendientes con una fecha de vencimiento.
+     *
+     * @param dueDate Fecha de vencimiento
+     * @return Criterio de cuotas pendientes
+     */
+    static Criteria pendingDueOnCriteria(LocalDate dueDate) {
+
+        return Criteria.where("status").is(InstallmentStatusEnum.PENDING)
+                .and("dueDate").is(dueDate);
+    }
+
+    /**
+     * Construye el criterio de cuotas pendientes vencidas a una fecha, es decir, las cuotas
+     * que la actualización de vencidas cambia de estado.
+     *
+     * @param currentDate Fecha de referencia
+     * @return Criterio de cuotas pendientes vencidas
+     */
+    static Criteria pendingOverdueCriteria(LocalDate currentDate) {
+
+        return Criteria.where("status").is(InstallmentStatusEnum.PENDING)
+                .and("dueDate").lt(currentDate);
+    }
+
+    /**
+     * Construye la agregación que cuenta las cuotas pendientes por fecha de vencimiento.
+     *
+     * @return Agregación de cuotas pendientes agrupadas por fecha de vencimiento
+     */
+    static Aggregation pendingByDueDateAggregation() {
+
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("status").is(InstallmentStatusEnum.PENDING)),
+                Aggregation.group("dueDate").count().as("count"));
+    }
+
+    /**
+     * Convierte el resultado de la agregación de cuotas pendientes en un mapa por fecha.
+     *
+     * @param results Resultados de la agregación
+     * @return Número de cuotas pendientes por fecha de vencimiento
+     */
+    static Map<LocalDate, Long> toCountByDueDate(List<Document> results) {
+
+        return results.stream()
+                .filter(document -> document.getDate("_id") != null)
+                .collect(Collectors.toMap(
+                        document -> document.getDate("_id").toInstant()
+                                .atZone(ZoneId.systemDefault()).toLocalDate(),
+                        document -> ((Number) document.get("count")).longValue()));
+    }
+
+    /**
+     * Construye la actualización por pipeline de una cuota vencida.
+     *
+     * @param currentDate Fecha de referencia
+     * @param dailyInterestRate Tasa de interés moratorio diaria
+     * @param amountField Campo del monto de la cuota
+     * @param interestField Campo del interés moratorio
+     * @return Actualización por pipeline
+     */
+    static AggregationUpdate overdueUpdate(
+            LocalDate currentDate, BigDecimal dailyInterestRate,
+            String amountField, String interestField) {
+
+        Date current = Date.from(currentDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Document daysOverdue = new Document("$toLong", new Document("$round", Arrays.asList(
+                new Document("$divide", Arrays.asList(
+                        new Document("$subtract", Arrays.asList(current, "$dueDate")),
+                        MILLIS_PER_DAY)), 0)));
+
+        Document setStage = new Document("$set", new Document()
+                .append("daysOverdue", daysOverdue)
+                .append(interestField, new Document("$multiply", Arrays.asList(
+                        new Document("$toDecimal", "$" + amountField),
+                        new Decimal128(dailyInterestRate),
+                        daysOverdue)))
+                .append("status", InstallmentStatusEnum.OVERDUE.name())
+                .append("updatedAt", "$$NOW"));
+
+        return AggregationUpdate.from(List.of(context -> setStage));
+    }
+}
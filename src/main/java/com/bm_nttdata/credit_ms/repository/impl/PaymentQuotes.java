@@ -0,0 +1,102 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import com.bm_nttdata.credit_ms.dto.PaymentDetailsDto;
+import com.bm_nttdata.credit_ms.util.Constants;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Optional;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Construcción de la agregación que cotiza el pago de las cuotas no pagadas de un producto.
+ * El servidor suma los montos de las cuotas, calcula los días de retraso con $dateDiff y el
+ * interés moratorio como monto de la cuota por tasa diaria por días de retraso, igual que el
+ * cálculo en memoria del pago, y retorna solo los totales.
+ */
+final class PaymentQuotes {
+
+    private static final String AMOUNT = "quoteAmount";
+
+    private static final String DAYS_OVERDUE = "quoteDaysOverdue";
+
+    private PaymentQuotes() {
+    }
+
+    /**
+     * Construye la agregación de cotización de las cuotas no pagadas con vencimiento anterior
+     * a una fecha.
+     *
+     * @param productField Campo del ID del producto de crédito
+     * @param productId ID del producto de crédito
+     * @param dueDate Fecha de vencimiento límite
+     * @param currentDate Fecha de referencia del cálculo de días de retraso
+     * @param dailyInterestRate Tasa de interés moratorio diaria
+     * @param amountField Campo del monto de la cuota
+     * @return Agregación que produce un único documento con los totales
+     */
+    static Aggregation quoteAggregation(
+            String productField, String productId, LocalDate dueDate, LocalDate currentDate,
+            BigDecimal dailyInterestRate, String amountField) {
+
+        Date current = Date.from(currentDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Document setStage = new Document("$set", new Document()
+                .append(AMOUNT, new Document("$toDecimal", "$" + amountField))
+                .append(DAYS_OVERDUE, new Document("$dateDiff", new Document()
+                        .append("startDate", "$dueDate")
+                        .append("endDate", current)
+                        .append("unit", "day")
+                        .append("timezone", ZoneId.systemDefault().getId()))));
+
+        Document lateInterest = new Document("$cond", Arrays.asList(
+                new Document("$gt", Arrays.asList("$" + DAYS_OVERDUE, 0)),
+                new Document("$multiply", Arrays.asList(
+                        "$" + AMOUNT, new Decimal128(dailyInterestRate), "$" + DAYS_OVERDUE)),
+                new Decimal128(BigDecimal.ZERO)));
+        Document groupStage = new Document("$group", new Document("_id", null)
+                .append("paymentAmount", new Document("$sum", "$" + AMOUNT))
+                .append("paymentFee", new Document("$sum", lateInterest)));
+
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria.where(productField).is(productId)
+                        .and("dueDate").lt(dueDate)
+                        .and("status").in(Constants.OPEN_INSTALLMENT_STATUSES)),
+                context -> setStage,
+                context -> groupStage);
+    }
+
+    /**
+     * Convierte el resultado de la agregación de cotización en el detalle del pago.
+     *
+     * @param result Documento de totales, o null si no hay cuotas no pagadas
+     * @return Detalle del pago, o vacío si no hay cuotas no pagadas
+     */
+    static Optional<PaymentDetailsDto> toPaymentDetails(Document result) {
+
+        if (result == null) {
+            return Optional.empty();
+        }
+
+        BigDecimal paymentAmount = toBigDecimal(result.get("paymentAmount"));
+        BigDecimal paymentFee = toBigDecimal(result.get("paymentFee"));
+
+        return Optional.of(PaymentDetailsDto.builder()
+                .paymentAmount(paymentAmount)
+                .paymentFee(paymentFee)
+                .totalPayment(paymentAmount.add(paymentFee))
+                .build());
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+
+        if (value instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue();
+        }
+        return value == null ? BigDecimal.ZERO : new BigDecimal(value.toString());
+    }
+}
@@ -1,108 +1,210 @@
 package com.bm_nttdata.credit_ms.scheduler;
 
-import com.bm_nttdata.credit_ms.entity.Credit;
-import com.bm_nttdata.credit_ms.entity.CreditCard;
-import com.bm_nttdata.credit_ms.entity.DailyCreditBalance;
-import com.bm_nttdata.credit_ms.enums.CardStatusEnum;
-import com.bm_nttdata.credit_ms.enums.CreditStatusEnum;
-import com.bm_nttdata.credit_ms.repository.CreditCardRepository;
-import com.bm_nttdata.credit_ms.repository.CreditRepository;
-import com.bm_nttdata.credit_ms.repository.DailyCreditBalanceRepository;
-import java.math.BigDecimal;
+import com.bm_nttdata.credit_ms.service.CreditCardInstallmentService;
+import com.bm_nttdata.credit_ms.service.CreditPaymentScheduleService;
+import com.bm_nttdata.credit_ms.service.CustomerRiskProfileService;
+import com.bm_nttdata.credit_ms.service.DailyBalanceService;
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 /**
  * Programador de tareas para la gestión de créditos.
- * Esta clase maneja las operaciones programadas relacionadas con el registro de saldos diarios.
+ * Esta clase maneja las operaciones programadas relacionadas con el registro de saldos diarios,
+ * la actualización de cuotas vencidas, la extensión de los cronogramas compactos y la
+ * reconciliación de los perfiles de riesgo.
+ * Las tareas se ejecutan de forma particionada entre todas las réplicas activas y se
+ * reanudan al iniciar la aplicación si la ejecución del día quedó incompleta.
+ * Cada tarea se ejecuta a través del registro de tareas, que evita ejecuciones superpuestas,
+ * permite lanzarlas manualmente y publica sus métricas.
  */
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class CreditScheduler {
 
-    private final CreditRepository creditRepository;
+    private static final String DAILY_BALANCE_JOB = "daily-balance";
 
-    private final CreditCardRepository creditCardRepository;
+    private static final String OVERDUE_SWEEP_JOB = "overdue-sweep";
 
-    private final DailyCreditBalanceRepository dailyCreditBalanceRepository;
+    private static final String RISK_PROFILE_RECONCILE_JOB = "risk-profile-reconcile";
+
+    private static final String PAYMENT_SCHEDULE_JOB = "payment-schedule-materialize";
+
+    private final DailyBalanceService dailyBalanceService;
+
+    private final SchedulerPartitionCoordinator partitionCoordinator;
+
+    private final TaskScheduler taskScheduler;
+
+    private final CreditPaymentScheduleService paymentScheduleService;
+
+    private final CreditCardInstallmentService cardInstallmentService;
+
+    private final JobRegistry jobRegistry;
+
+    private final CustomerRiskProfileService riskProfileService;
+
+    /**
+     * Registra las tareas programadas en el registro de tareas.
+     */
+    @PostConstruct
+    public void registerJobs() {
+
+        jobRegistry.register(DAILY_BALANCE_JOB,
+                "Records the daily balances of active credits and credit cards",
+                this::runDailyBalances);
+        jobRegistry.register(OVERDUE_SWEEP_JOB,
+                "Marks unpaid installments past their due date as overdue",
+                this::runOverdueSweep);
+        jobRegistry.register(RISK_PROFILE_RECONCILE_JOB,
+                "Recomputes the customer risk profiles from their credit products",
+                this::runRiskProfileReconcile);
+        jobRegistry.register(PAYMENT_SCHEDULE_JOB,
+                "Stores the compact credit schedule installments entering the horizon",
+                this::runPaymentScheduleMaterialization);
+    }
+
+    /**
+     * Reanuda el registro de saldos diarios al iniciar la aplicación.
+     * Si la ejecución del día no fue planificada o quedó incompleta, por ejemplo por un
+     * despliegue o una caída durante la medianoche, se programa su ejecución inmediata.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeDailyBalances() {
+
+        try {
+            LocalDate currentDay = LocalDate.now();
+            if (dailyBalanceService.requiresFullSnapshot(currentDay)
+                    && partitionCoordinator.isPending(DAILY_BALANCE_JOB, currentDay)) {
+                log.info("Daily balance recording pending for today, resuming");
+                taskScheduler.schedule(this::recordDailyBalances, Instant.now());
+            }
+        } catch (Exception e) {
+            log.error("Error when resuming daily balances: {}", e.getMessage());
+        }
+    }
 
     /**
      * Registra los saldos diarios de todos las créditos ACTIVOS.
      * Se ejecuta automáticamente todos los días a medianoche.
-     * Obtiene todos los créditos ACTIVOS y registra sus saldos actuales.
+     * Cada réplica reclama particiones de créditos y tarjetas de crédito ACTIVOS
+     * y registra sus saldos actuales.
      */
     @Scheduled(cron = "0 0 0 * * *")
     public void recordDailyBalances() {
 
-        log.info("starts daily balance recording process");
+        jobRegistry.run(DAILY_BALANCE_JOB);
+    }
 
-        try {
-            // Credits
-            LocalDate currentDay = LocalDate.now();
-            List<Credit> credits =
-                    creditRepository.findByStatus(CreditStatusEnum.ACTIVE);
-
-            for (Credit credit : credits) {
-                try {
-                    recordCreditDailyBalance(credit.getId(), credit.getBalance(), currentDay);
-
-                } catch (Exception e) {
-                    log.error(
-                            "Error processing the daily balance for the account {} - {}: {}",
-                            credit.getId(), credit.getCreditType().getValue(), e.getMessage());
-                }
-            }
+    /**
+     * Marca como vencidas las cuotas de créditos y tarjetas de crédito no pagadas cuya fecha
+     * de vencimiento ya pasó, recalculando sus días de retraso e interés moratorio.
+     * Se ejecuta automáticamente todos los días después de medianoche mediante
+     * actualizaciones masivas en el servidor, por lo que las consultas de pago no escriben.
+     */
+    @Scheduled(cron = "${credit.scheduler.overdue-sweep.cron:0 30 0 * * *}")
+    public void markOverdueInstallments() {
 
-            // Credit-Cards
-            List<CreditCard> creditCards =
-                    creditCardRepository.findByStatus(CardStatusEnum.ACTIVE);
-
-            for (CreditCard creditCard : creditCards) {
-                try {
-                    recordCreditDailyBalance(
-                            creditCard.getId(), creditCard.getAvailableCredit(), currentDay);
-
-                } catch (Exception e) {
-                    log.error(
-                            "Error processing the daily balance for the account {} - {}: {}",
-                            creditCard.getId(),
-                            creditCard.getCardType().getValue(),
-                            e.getMessage());
-                }
-            }
+        jobRegistry.run(OVERDUE_SWEEP_JOB);
+    }
 
-            log.info("Daily balance recording process completed");
+    /**
+     * Almacena las cuotas de los cronogramas compactos de créditos que entran en el horizonte
+     * configurado, de modo que las cuotas próximas a vencer existan antes de cotizarse.
+     * Se ejecuta automáticamente todos los días antes del barrido de cuotas vencidas.
+     */
+    @Scheduled(cron = "${credit.scheduler.payment-schedule.cron:0 15 0 * * *}")
+    public void materializePaymentSchedules() {
 
-        } catch (Exception e) {
-            log.error("Error when processing daily balances: {}", e.getMessage());
-        }
+        jobRegistry.run(PAYMENT_SCHEDULE_JOB);
     }
 
     /**
-     * Registra el saldo diario de un crédito específico.
+     * Recalcula los perfiles de riesgo de los clientes desde sus productos de crédito,
+     * corrigiendo los incrementos que no pudieron aplicarse.
+     * Se ejecuta automáticamente todos los días después del barrido de cuotas vencidas.
+     */
+    @Scheduled(cron = "${credit.scheduler.risk-profile-reconcile.cron:0 0 3 * * *}")
+    public void reconcileRiskProfiles() {
+
+        jobRegistry.run(RISK_PROFILE_RECONCILE_JOB);
+    }
+
+    /**
+     * Registra los saldos diarios de las particiones reclamadas por esta réplica.
      *
-     * @param creditProductId  El producto de crédito cuyo saldo se va a registrar
-     * @param currentBalance  El saldo que se va a registrar
-     * @param date La fecha del registro
+     * @return Número de saldos registrados
      */
-    private void recordCreditDailyBalance(
-            String creditProductId, BigDecimal currentBalance, LocalDate date) {
+    private long runDailyBalances() {
 
-        try {
-            DailyCreditBalance dailyBalance = DailyCreditBalance.builder()
-                    .creditProductId(creditProductId)
-                    .date(date)
-                    .balance(currentBalance)
-                    .build();
-            dailyCreditBalanceRepository.save(dailyBalance);
-        } catch (Exception e) {
-            log.error("Database error while saving the daily balance: {}", e.getMessage());
-            throw new RuntimeException("Error saving daily balance", e);
+        log.info("starts daily balance recording process");
+
+        LocalDate currentDay = LocalDate.now();
+        if (!dailyBalanceService.requiresFullSnapshot(currentDay)) {
+            log.info("Daily balances recorded on change, full snapshot skipped");
+            return 0;
         }
+
+        long recorded = partitionCoordinator.runPartitioned(
+                DAILY_BALANCE_JOB, currentDay,
+                partition -> dailyBalanceService.recordDailyBalances(currentDay, partition));
+
+        log.info("Daily balance recording process completed: {} balances", recorded);
+        return recorded;
+    }
+
+    /**
+     * Marca como vencidas las cuotas no pagadas de créditos y tarjetas de crédito.
+     *
+     * @return Número de cuotas actualizadas
+     */
+    private long runOverdueSweep() {
+
+        log.info("starts overdue installment sweep");
+
+        long creditInstallments = paymentScheduleService.markOverdueInstallments();
+        long cardInstallments = cardInstallmentService.markOverdueInstallments();
+
+        log.info("Overdue installment sweep completed: {} credit installments, "
+                + "{} credit card installments", creditInstallments, cardInstallments);
+        return creditInstallments + cardInstallments;
+    }
+
+    /**
+     * Almacena las cuotas de los cronogramas compactos que entran en el horizonte.
+     *
+     * @return Número de cuotas almacenadas
+     */
+    private long runPaymentScheduleMaterialization() {
+
+        log.info("starts payment schedule materialization");
+
+        long materialized = paymentScheduleService.materializeInstallments();
+
+        log.info("Payment schedule materialization completed: {} installments", materialized);
+        return materialized;
+    }
+
+    /**
+     * Recalcula los perfiles de riesgo existentes.
+     *
+     * @return Número de perfiles recalculados
+     */
+    private long runRiskProfileReconcile() {
+
+        log.info("starts risk profile reconciliation");
+
+        long reconciled = riskProfileService.reconcileProfiles();
+
+        log.info("Risk profile reconciliation completed: {} profiles", reconciled);
+        return reconciled;
     }
 }
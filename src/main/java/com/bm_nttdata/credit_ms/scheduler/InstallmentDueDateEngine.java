@@ -0,0 +1,260 @@
+package com.bm_nttdata.credit_ms.scheduler;
+
+import com.bm_nttdata.credit_ms.repository.CreditCardInstallmentRepository;
+import com.bm_nttdata.credit_ms.repository.CreditPaymentScheduleRepository;
+import com.bm_nttdata.credit_ms.service.CustomerRiskProfileService;
+import com.bm_nttdata.credit_ms.util.Constants;
+import com.bm_nttdata.credit_ms.util.HierarchicalTimingWheel;
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Motor de vencimientos de cuotas de créditos y tarjetas de crédito.
+ * Mantiene en una rueda de temporización jerárquica las fechas de vencimiento que tienen
+ * cuotas PENDIENTES, junto con el número de cuotas de cada fecha. Al comenzar el día
+ * siguiente a una fecha de vencimiento marca como vencidas sus cuotas mediante una única
+ * actualización masiva, sin recorrer la colección. La rueda se carga al iniciar la
+ * aplicación, se actualiza al crear y pagar cuotas y se reconcilia periódicamente con
+ * la base de datos.
+ */
+@Slf4j
+@Component
+public class InstallmentDueDateEngine {
+
+    private static final String RECONCILE_JOB = "due-date-reconcile";
+
+    /**
+     * Tipo de cuota gestionada por el motor.
+     */
+    public enum InstallmentKind {
+        CREDIT,
+        CREDIT_CARD
+    }
+
+    @Value("${credit.due-date.tick-millis:60000}")
+    private long tickMillis;
+
+    @Value("${credit.due-date.wheel-size:60}")
+    private int wheelSize;
+
+    @Autowired
+    private CreditPaymentScheduleRepository paymentScheduleRepository;
+
+    @Autowired
+    private CreditCardInstallmentRepository cardInstallmentRepository;
+
+    @Autowired
+    private JobRegistry jobRegistry;
+
+    @Autowired
+    private CustomerRiskProfileService riskProfileService;
+
+    private final Map<DueBoundary, Long> pendingCounts = new HashMap<>();
+
+    private HierarchicalTimingWheel<DueBoundary> wheel;
+
+    /**
+     * Registra la reconciliación de la rueda en el registro de tareas.
+     */
+    @PostConstruct
+    public void registerJobs() {
+
+        jobRegistry.register(RECONCILE_JOB,
+                "Reloads the due date engine from the pending installments", this::reload);
+    }
+
+    /**
+     * Carga las fechas de vencimiento pendientes al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+
+        jobRegistry.run(RECONCILE_JOB);
+    }
+
+    /**
+     * Reconcilia periódicamente la rueda con las cuotas pendientes de la base de datos,
+     * corrigiendo las diferencias por escrituras de otras instancias o fallos previos.
+     */
+    @Scheduled(cron = "${credit.due-date.reconcile-cron:0 0 * * * *}")
+    public void reconcile() {
+
+        jobRegistry.run(RECONCILE_JOB);
+    }
+
+    /**
+     * Reconstruye la rueda a partir de las cuotas pendientes agrupadas por fecha de
+     * vencimiento. Las fechas ya vencidas se marcan de inmediato.
+     *
+     * @return Número de fechas de vencimiento cargadas
+     */
+    public long reload() {
+
+        Map<DueBoundary, Long> counts = new HashMap<>();
+        paymentScheduleRepository.countPendingByDueDate().forEach((dueDate, count) ->
+                counts.put(new DueBoundary(InstallmentKind.CREDIT, dueDate), count));
+        cardInstallmentRepository.countPendingByDueDate().forEach((dueDate, count) ->
+                counts.put(new DueBoundary(InstallmentKind.CREDIT_CARD, dueDate), count));
+
+        HierarchicalTimingWheel<DueBoundary> loadedWheel = new HierarchicalTimingWheel<>(
+                tickMillis, wheelSize, System.currentTimeMillis());
+        List<DueBoundary> expired = new ArrayList<>();
+
+        counts.forEach((boundary, count) -> {
+            if (!loadedWheel.schedule(boundary, boundary.deadlineMillis())) {
+                expired.add(boundary);
+            }
+        });
+        expired.forEach(counts::remove);
+
+        synchronized (this) {
+            wheel = loadedWheel;
+            pendingCounts.clear();
+            pendingCounts.putAll(counts);
+        }
+
+        log.info("Due date engine loaded: {} due dates scheduled, {} already due",
+                counts.size(), expired.size());
+        expired.forEach(this::fire);
+        return counts.size() + expired.size();
+    }
+
+    /**
+     * Registra las fechas de vencimiento de cuotas PENDIENTES recién creadas.
+     *
+     * @param kind Tipo de cuota
+     * @param dueDates Fechas de vencimiento, una por cuota
+     */
+    public void register(InstallmentKind kind, Collection<LocalDate> dueDates) {
+
+        List<DueBoundary> expired = new ArrayList<>();
+
+        synchronized (this) {
+            if (wheel == null) {
+                return;
+            }
+            for (LocalDate dueDate : dueDates) {
+                DueBoundary boundary = new DueBoundary(kind, dueDate);
+                if (pendingCounts.merge(boundary, 1L, Long::sum) == 1L
+                        && !wheel.schedule(boundary, boundary.deadlineMillis())) {
+                    pendingCounts.remove(boundary);
+                    expired.add(boundary);
+                }
+            }
+        }
+
+        expired.forEach(this::fire);
+    }
+
+    /**
+     * Libera las fechas de vencimiento de cuotas PENDIENTES que dejaron de estarlo,
+     * por ejemplo al ser pagadas. Las fechas sin cuotas pendientes se cancelan.
+     *
+     * @param kind Tipo de cuota
+     * @param dueDates Fechas de vencimiento, una por cuota
+     */
+    public synchronized void release(InstallmentKind kind, Collection<LocalDate> dueDates) {
+
+        if (wheel == null) {
+            return;
+        }
+        for (LocalDate dueDate : dueDates) {
+            DueBoundary boundary = new DueBoundary(kind, dueDate);
+            Long count = pendingCounts.computeIfPresent(boundary, (key, value) -> value - 1);
+            if (count != null && count <= 0) {
+                pendingCounts.remove(boundary);
+                wheel.cancel(boundary);
+            }
+        }
+    }
+
+    /**
+     * Avanza la rueda hasta el instante actual y marca como vencidas las cuotas de las
+     * fechas de vencimiento alcanzadas.
+     */
+    @Scheduled(fixedDelayString = "${credit.due-date.tick-millis:60000}")
+    public void advance() {
+
+        List<DueBoundary> expired;
+
+        synchronized (this) {
+            if (wheel == null) {
+                return;
+            }
+            expired = wheel.advance(System.currentTimeMillis());
+            expired.forEach(pendingCounts::remove);
+        }
+
+        expired.forEach(this::fire);
+    }
+
+    /**
+     * Marca como vencidas las cuotas pendientes de una fecha de vencimiento alcanzada y suma
+     * las cuotas de cada cliente a su perfil de riesgo.
+     * Si la actualización falla, la siguiente reconciliación vuelve a intentarlo.
+     *
+     * @param boundary Fecha de vencimiento alcanzada
+     */
+    private void fire(DueBoundary boundary) {
+
+        try {
+            LocalDate currentDate = LocalDate.now();
+            Map<String, Long> overdueByCustomer;
+            long updated;
+
+            if (boundary.getKind() == InstallmentKind.CREDIT) {
+                overdueByCustomer = paymentScheduleRepository
+                        .countPendingDueOnByCustomer(boundary.getDueDate());
+                updated = paymentScheduleRepository.markOverdueInstallmentsDueOn(
+                        boundary.getDueDate(), currentDate, Constants.DAILY_LATE_PAYMENT_INTEREST);
+            } else {
+                overdueByCustomer = cardInstallmentRepository
+                        .countPendingDueOnByCustomer(boundary.getDueDate());
+                updated = cardInstallmentRepository.markOverdueInstallmentsDueOn(
+                        boundary.getDueDate(), currentDate, Constants.DAILY_LATE_PAYMENT_INTEREST);
+            }
+            riskProfileService.recordOverdueInstallments(boundary.getKind(), overdueByCustomer);
+
+            log.info("Due date {} of {} installments reached: {} installments overdue",
+                    boundary.getDueDate(), boundary.getKind(), updated);
+        } catch (Exception e) {
+            log.error("Error marking installments due on {} as overdue: {}",
+                    boundary.getDueDate(), e.getMessage());
+        }
+    }
+
+    /**
+     * Fecha de vencimiento de un tipo de cuota programada en la rueda.
+     */
+    @Data
+    static class DueBoundary {
+
+        private final InstallmentKind kind;
+        private final LocalDate dueDate;
+
+        /**
+         * Instante en que las cuotas de esta fecha pasan a estar vencidas: el inicio del
+         * día siguiente a la fecha de vencimiento.
+         *
+         * @return Instante de vencimiento en milisegundos
+         */
+        long deadlineMillis() {
+            return dueDate.plusDays(1)
+                    .atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+    }
+}
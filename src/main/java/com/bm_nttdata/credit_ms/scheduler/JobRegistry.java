@@ -0,0 +1,253 @@
+package com.bm_nttdata.credit_ms.scheduler;
+
+import com.bm_nttdata.credit_ms.dto.JobDetailsDto;
+import com.bm_nttdata.credit_ms.exception.ApiInvalidRequestException;
+import com.bm_nttdata.credit_ms.exception.BusinessRuleException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registro de las tareas programadas de la aplicación.
+ * Cada tarea se registra con un nombre y se ejecuta a través del registro, que impide
+ * ejecuciones superpuestas de una misma tarea en la instancia, permite lanzarla manualmente
+ * y publica en Micrometer la duración, el número de elementos procesados, los fallos y las
+ * ejecuciones omitidas de cada tarea.
+ */
+@Slf4j
+@Component
+public class JobRegistry {
+
+    private static final String JOB_TAG = "job";
+
+    private final Map<String, RegisteredJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    /**
+     * Registra una tarea programada.
+     *
+     * @param jobName Nombre único de la tarea
+     * @param description Descripción de la tarea
+     * @param task Tarea a ejecutar, que retorna el número de elementos procesados
+     */
+    public void register(String jobName, String description, LongSupplier task) {
+
+        if (jobs.containsKey(jobName)) {
+            throw new IllegalStateException("Job already registered: " + jobName);
+        }
+
+        RegisteredJob job = new RegisteredJob(jobName, description, task);
+        job.duration = Timer.builder("credit.job.duration")
+                .description("Duration of scheduled job executions")
+                .tag(JOB_TAG, jobName)
+                .register(meterRegistry);
+        job.items = Counter.builder("credit.job.items")
+                .description("Items processed by scheduled jobs")
+                .tag(JOB_TAG, jobName)
+                .register(meterRegistry);
+        job.failureCounter = Counter.builder("credit.job.failures")
+                .description("Failed scheduled job executions")
+                .tag(JOB_TAG, jobName)
+                .register(meterRegistry);
+        job.skippedCounter = Counter.builder("credit.job.skipped")
+                .description("Scheduled job executions skipped because a run was in progress")
+                .tag(JOB_TAG, jobName)
+                .register(meterRegistry);
+        Gauge.builder("credit.job.running", job.running, running -> running.get() ? 1 : 0)
+                .description("Whether the scheduled job is running")
+                .tag(JOB_TAG, jobName)
+                .register(meterRegistry);
+
+        jobs.put(jobName, job);
+        log.info("Registered scheduled job: {}", jobName);
+    }
+
+    /**
+     * Ejecuta una tarea en el hilo actual. Si la tarea ya se está ejecutando,
+     * la ejecución se omite.
+     *
+     * @param jobName Nombre de la tarea
+     * @return true si la tarea se ejecutó, false si se omitió
+     */
+    public boolean run(String jobName) {
+
+        RegisteredJob job = getRegisteredJob(jobName);
+        if (!job.running.compareAndSet(false, true)) {
+            skip(job);
+            return false;
+        }
+        execute(job);
+        return true;
+    }
+
+    /**
+     * Lanza manualmente la ejecución inmediata de una tarea en el grupo de hilos de tareas.
+     *
+     * @param jobName Nombre de la tarea
+     * @return Estado de la tarea tras ser lanzada
+     * @throws ApiInvalidRequestException si la tarea no está registrada
+     * @throws BusinessRuleException si la tarea ya se está ejecutando
+     */
+    public JobDetailsDto trigger(String jobName) {
+
+        RegisteredJob job = getRegisteredJob(jobName);
+        if (!job.running.compareAndSet(false, true)) {
+            skip(job);
+            throw new BusinessRuleException("Job is already running: " + jobName);
+        }
+
+        log.info("Manual execution of job {} requested", jobName);
+        try {
+            taskScheduler.schedule(() -> execute(job), Instant.now());
+        } catch (Exception e) {
+            job.running.set(false);
+            throw e;
+        }
+        return toDetails(job);
+    }
+
+    /**
+     * Obtiene el estado de todas las tareas registradas.
+     *
+     * @return Lista con el estado de las tareas ordenada por nombre
+     */
+    public List<JobDetailsDto> getJobs() {
+
+        return jobs.values().stream()
+                .map(this::toDetails)
+                .sorted((a, b) -> a.getName().compareTo(b.getName()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Obtiene el estado de una tarea registrada.
+     *
+     * @param jobName Nombre de la tarea
+     * @return Estado de la tarea
+     * @throws ApiInvalidRequestException si la tarea no está registrada
+     */
+    public JobDetailsDto getJob(String jobName) {
+
+        return toDetails(getRegisteredJob(jobName));
+    }
+
+    private RegisteredJob getRegisteredJob(String jobName) {
+
+        RegisteredJob job = jobs.get(jobName);
+        if (job == null) {
+            throw new ApiInvalidRequestException("Unknown job: " + jobName);
+        }
+        return job;
+    }
+
+    /**
+     * Ejecuta una tarea cuyo indicador de ejecución ya fue adquirido, registrando su
+     * resultado y sus métricas, y libera el indicador al terminar.
+     *
+     * @param job Tarea a ejecutar
+     */
+    private void execute(RegisteredJob job) {
+
+        long start = System.nanoTime();
+        job.lastStartedAt = LocalDateTime.now();
+        job.executions.incrementAndGet();
+        log.info("Job {} started", job.name);
+
+        try {
+            long processed = job.task.getAsLong();
+            job.items.increment(processed);
+            job.lastItems = processed;
+            job.lastStatus = "SUCCESS";
+            job.lastError = null;
+            log.info("Job {} completed: {} items", job.name, processed);
+        } catch (Exception e) {
+            job.failureCounter.increment();
+            job.failures.incrementAndGet();
+            job.lastItems = 0;
+            job.lastStatus = "FAILED";
+            job.lastError = e.getMessage();
+            log.error("Job {} failed: {}", job.name, e.getMessage());
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            job.duration.record(Duration.ofNanos(elapsed));
+            job.lastDurationMillis = Duration.ofNanos(elapsed).toMillis();
+            job.lastFinishedAt = LocalDateTime.now();
+            job.running.set(false);
+        }
+    }
+
+    private void skip(RegisteredJob job) {
+
+        job.skippedCounter.increment();
+        job.skipped.incrementAndGet();
+        log.warn("Job {} is still running, execution skipped", job.name);
+    }
+
+    private JobDetailsDto toDetails(RegisteredJob job) {
+
+        return JobDetailsDto.builder()
+                .name(job.name)
+                .description(job.description)
+                .running(job.running.get())
+                .lastStatus(job.lastStatus)
+                .lastStartedAt(job.lastStartedAt)
+                .lastFinishedAt(job.lastFinishedAt)
+                .lastDurationMillis(job.lastDurationMillis)
+                .lastItems(job.lastItems)
+                .lastError(job.lastError)
+                .executions(job.executions.get())
+                .failures(job.failures.get())
+                .skipped(job.skipped.get())
+                .build();
+    }
+
+    /**
+     * Tarea registrada junto con su estado de ejecución y sus métricas.
+     */
+    private static final class RegisteredJob {
+
+        private final String name;
+        private final String description;
+        private final LongSupplier task;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private final AtomicLong executions = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private Timer duration;
+        private Counter items;
+        private Counter failureCounter;
+        private Counter skippedCounter;
+        private volatile String lastStatus;
+        private volatile LocalDateTime lastStartedAt;
+        private volatile LocalDateTime lastFinishedAt;
+        private volatile long lastDurationMillis;
+        private volatile long lastItems;
+        private volatile String lastError;
+
+        private RegisteredJob(String name, String description, LongSupplier task) {
+            this.name = name;
+            this.description = description;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package com.bm_nttdata.credit_ms.scheduler;
+
+import com.bm_nttdata.credit_ms.entity.Credit;
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import com.bm_nttdata.credit_ms.entity.SchedulerPartition;
+import com.bm_nttdata.credit_ms.enums.PartitionStatusEnum;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coordinador de la ejecución particionada de tareas programadas entre réplicas.
+ * Divide el espacio de identificadores de créditos y tarjetas de crédito en rangos
+ * persistidos en MongoDB; cada instancia viva reclama particiones mediante un
+ * arrendamiento con vencimiento y procesa únicamente su rango. Las particiones de una
+ * instancia caída se vuelven a reclamar cuando su arrendamiento vence y se reanudan
+ * desde su último punto de control.
+ * La espera por particiones retenidas por otras instancias se limita a unos pocos periodos
+ * de arrendamiento: las particiones que sigan sin completarse las reclama la siguiente
+ * ejecución de la tarea o la instancia que tome su arrendamiento vencido.
+ * Una partición cuyo procesamiento falla queda pendiente con su arrendamiento vigente, de
+ * modo que no puede reclamarse de nuevo hasta que venza; tras maxAttempts intentos fallidos
+ * se marca como fallida y deja de reclamarse.
+ */
+@Slf4j
+@Component
+public class SchedulerPartitionCoordinator {
+
+    private static final int SAMPLES_PER_PARTITION = 64;
+
+    private static final String MAX_OBJECT_ID = "ffffffffffffffffffffffff";
+
+    private static final List<PartitionStatusEnum> TERMINAL_STATUSES =
+            List.of(PartitionStatusEnum.COMPLETED, PartitionStatusEnum.FAILED);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${credit.scheduler.partitions:16}")
+    private int totalPartitions;
+
+    @Value("${credit.scheduler.partition.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${credit.scheduler.partition.poll-seconds:15}")
+    private long pollSeconds;
+
+    @Value("${credit.scheduler.partition.max-wait-leases:3}")
+    private long maxWaitLeases;
+
+    @Value("${credit.scheduler.partition.max-attempts:3}")
+    private int maxAttempts;
+
+    private final String instanceId = resolveInstanceId();
+
+    /**
+     * Ejecuta una tarea de forma particionada para una fecha.
+     * Reclama particiones hasta que todas estén completadas o fallidas, esperando a lo sumo
+     * maxWaitLeases periodos de arrendamiento sin completar ninguna partición a que venzan
+     * los arrendamientos de las particiones retenidas por otras instancias o en espera de
+     * reintento.
+     *
+     * @param jobName Nombre de la tarea programada
+     * @param executionDate Fecha de ejecución de la tarea
+     * @param processor Procesador de una partición que retorna el número de elementos procesados
+     * @return Número de elementos procesados por esta instancia
+     */
+    public long runPartitioned(
+            String jobName, LocalDate executionDate, ToLongFunction<SchedulerPartition> processor) {
+
+        planPartitions(jobName, executionDate);
+
+        LocalDateTime deadline = waitDeadline();
+        long processed = 0;
+        int claimed = 0;
+
+        while (LocalDateTime.now().isBefore(deadline)) {
+            Optional<SchedulerPartition> partition = claimPartition(jobName, executionDate);
+
+            if (partition.isPresent()) {
+                claimed++;
+                OptionalLong partitionItems = processPartition(partition.get(), processor);
+                if (partitionItems.isPresent()) {
+                    processed += partitionItems.getAsLong();
+                    deadline = waitDeadline();
+                }
+                continue;
+            }
+
+            if (isCompleted(jobName, executionDate)) {
+                log.info("Job {} for {} finished: instance {} processed {} partitions, {} items",
+                        jobName, executionDate, instanceId, claimed, processed);
+                long failed = countFailed(jobName, executionDate);
+                if (failed > 0) {
+                    log.warn("Job {} for {} finished with {} failed partitions",
+                            jobName, executionDate, failed);
+                }
+                return processed;
+            }
+
+            try {
+                Thread.sleep(pollSeconds * 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Job {} for {} interrupted while waiting for partitions",
+                        jobName, executionDate);
+                return processed;
+            }
+        }
+
+        log.warn("Job {} for {} not completed after waiting {} leases; instance {} processed "
+                        + "{} items, remaining partitions are left to the next run",
+                jobName, executionDate, maxWaitLeases, instanceId, processed);
+        return processed;
+    }
+
+    private long countFailed(String jobName, LocalDate executionDate) {
+
+        return mongoTemplate.count(
+                Query.query(Criteria.where("jobName").is(jobName)
+                        .and("executionDate").is(executionDate)
+                        .and("status").is(PartitionStatusEnum.FAILED)),
+                SchedulerPartition.class);
+    }
+
+    private LocalDateTime waitDeadline() {
+
+        return LocalDateTime.now().plusSeconds(leaseSeconds * maxWaitLeases);
+    }
+
+    /**
+     * Verifica si la ejecución de una tarea para una fecha está pendiente.
+     * Una ejecución está pendiente si aún no fue planificada o si alguna de sus
+     * particiones no está completada ni fallida.
+     *
+     * @param jobName Nombre de la tarea programada
+     * @param executionDate Fecha de ejecución de la tarea
+     * @return true si la ejecución no ha sido completada
+     */
+    public boolean isPending(String jobName, LocalDate executionDate) {
+
+        Query planQuery = Query.query(Criteria.where("jobName").is(jobName)
+                .and("executionDate").is(executionDate));
+
+        return !mongoTemplate.exists(planQuery, SchedulerPartition.class)
+                || !isCompleted(jobName, executionDate);
+    }
+
+    /**
+     * Registra el último identificador procesado de una partición y renueva su arrendamiento.
+     * Al reanudar la partición, el procesamiento continúa a partir de este identificador.
+     *
+     * @param partition Partición reclamada
+     * @param checkpointField Campo de punto de control del rango procesado
+     * @param lastProcessedId Último identificador procesado del rango
+     * @return true si el arrendamiento sigue perteneciendo a esta instancia
+     */
+    public boolean checkpoint(
+            SchedulerPartition partition, String checkpointField, String lastProcessedId) {
+
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(Criteria.where("id").is(partition.getId())
+                .and("owner").is(instanceId)
+                .and("status").is(PartitionStatusEnum.RUNNING));
+        Update update = new Update()
+                .set(checkpointField, lastProcessedId)
+                .set("leaseExpiresAt", now.plusSeconds(leaseSeconds))
+                .set("updatedAt", now);
+
+        return mongoTemplate.updateFirst(query, update, SchedulerPartition.class)
+                .getMatchedCount() == 1;
+    }
+
+    /**
+     * Procesa una partición reclamada y registra su resultado.
+     * Si el procesamiento falla, la partición queda pendiente con un arrendamiento vigente
+     * para reintentarla cuando venza, o fallida si agotó sus intentos.
+     *
+     * @param partition Partición reclamada
+     * @param processor Procesador de la partición
+     * @return Número de elementos procesados, o vacío si el procesamiento falló
+     */
+    private OptionalLong processPartition(
+            SchedulerPartition partition, ToLongFunction<SchedulerPartition> processor) {
+
+        log.info("Processing partition {} (attempt {})",
+                partition.getId(), partition.getAttempts());
+
+        try {
+            long processed = processor.applyAsLong(partition);
+            updateOwnedPartition(partition, new Update()
+                    .set("status", PartitionStatusEnum.COMPLETED)
+                    .set("processedItems", processed)
+                    .unset("leaseExpiresAt"));
+            return OptionalLong.of(processed);
+        } catch (Exception e) {
+            if (partition.getAttempts() >= maxAttempts) {
+                log.error("Error processing partition {}, giving up after {} attempts: {}",
+                        partition.getId(), partition.getAttempts(), e.getMessage());
+                updateOwnedPartition(partition, new Update()
+                        .set("status", PartitionStatusEnum.FAILED)
+                        .unset("owner")
+                        .unset("leaseExpiresAt"));
+            } else {
+                log.error("Error processing partition {} (attempt {}): {}",
+                        partition.getId(), partition.getAttempts(), e.getMessage());
+                updateOwnedPartition(partition, new Update()
+                        .set("status", PartitionStatusEnum.PENDING)
+                        .set("leaseExpiresAt", LocalDateTime.now().plusSeconds(leaseSeconds))
+                        .unset("owner"));
+            }
+            return OptionalLong.empty();
+        }
+    }
+
+    /**
+     * Crea las particiones de una tarea para una fecha, si aún no existen.
+     * Los límites de los rangos se obtienen a partir de una muestra de identificadores;
+     * la inserción ordenada garantiza que solo el plan de una instancia sea persistido.
+     *
+     * @param jobName Nombre de la tarea programada
+     * @param executionDate Fecha de ejecución de la tarea
+     */
+    private void planPartitions(String jobName, LocalDate executionDate) {
+
+        Query planQuery = Query.query(Criteria.where("jobName").is(jobName)
+                .and("executionDate").is(executionDate));
+
+        if (mongoTemplate.exists(planQuery, SchedulerPartition.class)) {
+            return;
+        }
+
+        List<String> creditBoundaries = sampleBoundaries(Credit.class);
+        List<String> cardBoundaries = sampleBoundaries(CreditCard.class);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<SchedulerPartition> partitions = IntStream.range(0, totalPartitions)
+                .mapToObj(i -> SchedulerPartition.builder()
+                        .id(jobName + ":" + executionDate + ":" + i)
+                        .jobName(jobName)
+                        .executionDate(executionDate)
+                        .partitionIndex(i)
+                        .totalPartitions(totalPartitions)
+                        .creditLowerId(i == 0 ? null : creditBoundaries.get(i - 1))
+                        .creditUpperId(i == totalPartitions - 1 ? null : creditBoundaries.get(i))
+                        .cardLowerId(i == 0 ? null : cardBoundaries.get(i - 1))
+                        .cardUpperId(i == totalPartitions - 1 ? null : cardBoundaries.get(i))
+                        .status(PartitionStatusEnum.PENDING)
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build())
+                .collect(Collectors.toList());
+
+        try {
+            mongoTemplate.insert(partitions, SchedulerPartition.class);
+            log.info("Job {} for {} planned in {} partitions by instance {}",
+                    jobName, executionDate, totalPartitions, instanceId);
+        } catch (DuplicateKeyException e) {
+            log.info("Job {} for {} already planned by another instance", jobName, executionDate);
+        }
+    }
+
+    /**
+     * Calcula los límites de los rangos de identificadores de una colección de productos.
+     * Toma una muestra aleatoria de identificadores y selecciona sus cuantiles, de forma que
+     * cada partición cubra aproximadamente el mismo número de productos.
+     *
+     * @param productType Clase del producto de crédito
+     * @return Lista de totalPartitions - 1 límites ordenados
+     */
+    private List<String> sampleBoundaries(Class<?> productType) {
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.sample((long) totalPartitions * SAMPLES_PER_PARTITION),
+                Aggregation.project("_id"),
+                Aggregation.sort(Sort.Direction.ASC, "_id"));
+
+        List<String> sampleIds = mongoTemplate.aggregate(aggregation, productType, Document.class)
+                .getMappedResults()
+                .stream()
+                .map(document -> document.get("_id").toString())
+                .collect(Collectors.toList());
+
+        // Sin muestra, la primera partición cubre toda la colección y el resto queda vacío
+        List<String> boundaries = new ArrayList<>(totalPartitions - 1);
+        for (int i = 1; i < totalPartitions; i++) {
+            boundaries.add(sampleIds.isEmpty()
+                    ? MAX_OBJECT_ID
+                    : sampleIds.get(i * sampleIds.size() / totalPartitions));
+        }
+        return boundaries;
+    }
+
+    /**
+     * Reclama una partición no terminada sin arrendamiento o con arrendamiento vencido.
+     *
+     * @param jobName Nombre de la tarea programada
+     * @param executionDate Fecha de ejecución de la tarea
+     * @return Partición reclamada, si existe alguna disponible
+     */
+    private Optional<SchedulerPartition> claimPartition(String jobName, LocalDate executionDate) {
+
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(new Criteria().andOperator(
+                        Criteria.where("jobName").is(jobName)
+                                .and("executionDate").is(executionDate)
+                                .and("status").nin(TERMINAL_STATUSES),
+                        new Criteria().orOperator(
+                                Criteria.where("leaseExpiresAt").isNull(),
+                                Criteria.where("leaseExpiresAt").lt(now))))
+                .with(Sort.by(Sort.Direction.ASC, "partitionIndex"));
+        Update update = new Update()
+                .set("owner", instanceId)
+                .set("status", PartitionStatusEnum.RUNNING)
+                .set("leaseExpiresAt", now.plusSeconds(leaseSeconds))
+                .set("updatedAt", now)
+                .inc("attempts", 1);
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(
+                query, update, FindAndModifyOptions.options().returnNew(true),
+                SchedulerPartition.class));
+    }
+
+    /**
+     * Verifica si todas las particiones de una tarea para una fecha están completadas o
+     * fallidas.
+     *
+     * @param jobName Nombre de la tarea programada
+     * @param executionDate Fecha de ejecución de la tarea
+     * @return true si no quedan particiones por procesar
+     */
+    private boolean isCompleted(String jobName, LocalDate executionDate) {
+
+        return !mongoTemplate.exists(
+                Query.query(Criteria.where("jobName").is(jobName)
+                        .and("executionDate").is(executionDate)
+                        .and("status").nin(TERMINAL_STATUSES)),
+                SchedulerPartition.class);
+    }
+
+    /**
+     * Actualiza una partición solo si sigue perteneciendo a esta instancia.
+     *
+     * @param partition Partición reclamada
+     * @param update Actualización a aplicar
+     */
+    private void updateOwnedPartition(SchedulerPartition partition, Update update) {
+
+        Query query = Query.query(Criteria.where("id").is(partition.getId())
+                .and("owner").is(instanceId));
+
+        if (mongoTemplate.updateFirst(query, update.set("updatedAt", LocalDateTime.now()),
+                SchedulerPartition.class).getMatchedCount() == 0) {
+            log.warn("Partition {} lease was lost by instance {}", partition.getId(), instanceId);
+        }
+    }
+
+    /**
+     * Genera el identificador de esta instancia a partir del nombre del host.
+     *
+     * @return Identificador único de la instancia
+     */
+    private static String resolveInstanceId() {
+
+        String hostName;
+        try {
+            hostName = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            hostName = "unknown-host";
+        }
+        return hostName + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -1,8 +1,9 @@
 package com.bm_nttdata.credit_ms.service;
 
+import com.bm_nttdata.credit_ms.dto.CardChargeDto;
 import com.bm_nttdata.credit_ms.dto.PaymentDetailsDto;
-import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * Servicio que gestiona las operaciones relacionadas con las cuotas de tarjetas de crédito.
@@ -31,6 +32,15 @@ public interface CreditCardInstallmentService {
             BigDecimal installmentAmount, int totalInstallments,
             String creditCardId, int paymentDate);
 
+    /**
+     * Crea en una única escritura masiva las cuotas de varios cargos de una tarjeta de crédito.
+     *
+     * @param creditCardId ID de la tarjeta de crédito
+     * @param paymentDate Día de pago mensual
+     * @param charges Cargos cuyas cuotas deben crearse
+     */
+    void createChargeBatch(String creditCardId, int paymentDate, List<CardChargeDto> charges);
+
     /**
      * Procesa el pago mensual de una tarjeta de crédito.
      *
@@ -43,12 +53,18 @@ public interface CreditCardInstallmentService {
             BigDecimal installmentAmount, String creditCardId, int paymentDate);
 
     /**
-     * Verifica si existen cuotas vencidas para una tarjeta de crédito.
+     * Marca como vencidas las cuotas no pagadas cuya fecha de vencimiento ya pasó y
+     * recalcula sus días de retraso e interés moratorio.
      *
-     * @param creditId identificador de tarjeta de crédito
-     * @param status estatus de la cuota
-     * @return resultado si la tarjeta de credito cuenta con deudas vencidas
+     * @return Número de cuotas actualizadas
      */
-    boolean getCustomerCreditCardDebts(String creditId, InstallmentStatusEnum status);
+    long markOverdueInstallments();
 
+    /**
+     * Recalcula el resumen de cobro de una tarjeta de crédito desde sus estados de cuenta
+     * no pagados, después de registrar cargos o pagar estados de cuenta.
+     *
+     * @param creditCardId ID de la tarjeta de crédito
+     */
+    void refreshBillingSummary(String creditCardId);
 }
@@ -1,6 +1,7 @@
 package com.bm_nttdata.credit_ms.service;
 
 import com.bm_nttdata.credit_ms.dto.OperationResponseDto;
+import com.bm_nttdata.credit_ms.dto.PaymentDetailsDto;
 import com.bm_nttdata.credit_ms.entity.CreditCard;
 import com.bm_nttdata.credit_ms.entity.DailyCreditBalance;
 import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
@@ -34,6 +35,14 @@ public interface CreditCardService {
      */
     CreditCard getCreditCardById(String id);
 
+    /**
+     * Obtiene una tarjeta de crédito con solo los campos de su saldo.
+     *
+     * @param id ID de la tarjeta de crédito
+     * @return Tarjeta de crédito con los campos del saldo
+     */
+    CreditCard getCreditCardBalance(String id);
+
     /**
      * Crea una nueva tarjeta de crédito.
      *
@@ -59,6 +68,14 @@ public interface CreditCardService {
     OperationResponseDto paymentCreditCard(
             PaymentCreditProductRequestDto paymentCreditProductRequest);
 
+    /**
+     * Cotiza el pago de las cuotas no pagadas del mes en curso de una tarjeta de crédito.
+     *
+     * @param id ID de la tarjeta de crédito
+     * @return Detalle a pagar en el mes
+     */
+    PaymentDetailsDto getPaymentQuote(String id);
+
     /**
      * Actualiza el saldo de una tarjeta de crédito.
      *
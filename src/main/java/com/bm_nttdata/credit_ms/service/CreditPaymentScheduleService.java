@@ -2,7 +2,6 @@ package com.bm_nttdata.credit_ms.service;
 
 import com.bm_nttdata.credit_ms.dto.PaymentDetailsDto;
 import com.bm_nttdata.credit_ms.entity.Credit;
-import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
 import java.math.BigDecimal;
 
 /**
@@ -22,14 +21,32 @@ public interface CreditPaymentScheduleService {
      */
     PaymentDetailsDto calculateMonthlyPayment(String creditId, int installmentNumber);
 
+    /**
+     * Prepara el cronograma de pagos de un crédito aún no guardado.
+     * En el cronograma compacto registra en el crédito cuántas cuotas se almacenarán al
+     * crearlo y el vencimiento de la siguiente cuota por almacenar.
+     *
+     * @param credit Crédito con su plazo y fecha de creación
+     */
+    void initializePaymentSchedule(Credit credit);
+
     /**
      * Crea un cronograma de pagos para un crédito.
-     * Genera las cuotas mensuales para todo el período del crédito.
+     * Genera las cuotas mensuales para todo el período del crédito, o solo las próximas a
+     * vencer en el cronograma compacto.
      *
      * @param credit Crédito para el cual se creará el cronograma
      */
     void createPaymentSchedule(Credit credit);
 
+    /**
+     * Almacena las cuotas de los cronogramas compactos que vencen dentro del horizonte
+     * configurado.
+     *
+     * @return Número de cuotas almacenadas
+     */
+    long materializeInstallments();
+
     /**
      * Procesa el pago de una cuota mensual.
      * Verifica que el monto del pago coincida con la deuda total y actualiza el estado
@@ -43,11 +60,18 @@ public interface CreditPaymentScheduleService {
     PaymentDetailsDto payMonthlyInstallment(BigDecimal paymentAmount, String id, int paymentDay);
 
     /**
-     * Verifica si existen cuotas vencidas para un crédito.
+     * Marca como vencidas las cuotas no pagadas cuya fecha de vencimiento ya pasó y
+     * recalcula sus días de retraso e interés moratorio.
+     *
+     * @return Número de cuotas actualizadas
+     */
+    long markOverdueInstallments();
+
+    /**
+     * Recalcula la fecha desde la que un crédito tiene cuotas vencidas, después de pagar
+     * cuotas vencidas.
      *
-     * @param creditId identificador de crédito
-     * @param status estatus de la cuota
-     * @return resultado si el credito cuenta con deudas vencidas
+     * @param creditId ID del crédito
      */
-    boolean getCustomerCreditDebts(String creditId, InstallmentStatusEnum status);
+    void refreshOverdueSince(String creditId);
 }
@@ -1,6 +1,7 @@
 package com.bm_nttdata.credit_ms.service;
 
 import com.bm_nttdata.credit_ms.dto.OperationResponseDto;
+import com.bm_nttdata.credit_ms.dto.PaymentDetailsDto;
 import com.bm_nttdata.credit_ms.entity.Credit;
 import com.bm_nttdata.credit_ms.entity.DailyCreditBalance;
 import com.bm_nttdata.credit_ms.model.BalanceUpdateRequestDto;
@@ -32,6 +33,14 @@ public interface CreditService {
      */
     Credit getCreditById(String id);
 
+    /**
+     * Obtiene un crédito con solo los campos de su saldo.
+     *
+     * @param id ID del crédito
+     * @return Crédito con los campos del saldo
+     */
+    Credit getCreditBalance(String id);
+
     /**
      * Crea un nuevo crédito.
      *
@@ -48,6 +57,14 @@ public interface CreditService {
      */
     OperationResponseDto paymentCredit(PaymentCreditProductRequestDto paymentCreditProductRequest);
 
+    /**
+     * Cotiza el pago de las cuotas no pagadas del mes en curso de un crédito.
+     *
+     * @param id ID del crédito
+     * @return Detalle a pagar en el mes
+     */
+    PaymentDetailsDto getPaymentQuote(String id);
+
     /**
      * Actualiza el saldo de un crédito.
      *
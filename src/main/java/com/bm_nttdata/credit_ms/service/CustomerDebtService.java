@@ -0,0 +1,28 @@
+package com.bm_nttdata.credit_ms.service;
+
+import com.bm_nttdata.credit_ms.dto.CustomerDebtDetailsDto;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio que verifica las deudas vencidas de los clientes en todos sus productos de crédito.
+ */
+public interface CustomerDebtService {
+
+    /**
+     * Verifica si un cliente tiene cuotas vencidas en sus créditos y en sus tarjetas de crédito.
+     *
+     * @param customerId identificador del cliente
+     * @return Deudas vencidas del cliente por tipo de producto
+     */
+    CustomerDebtDetailsDto getCustomerDebts(String customerId);
+
+    /**
+     * Verifica si un grupo de clientes tiene cuotas vencidas en sus créditos o en sus tarjetas
+     * de crédito, con un número de consultas independiente del número de clientes.
+     *
+     * @param customerIds identificadores de los clientes
+     * @return Indicador de deuda vencida por cliente, en el orden recibido
+     */
+    Map<String, Boolean> getCustomersDebts(List<String> customerIds);
+}
@@ -0,0 +1,18 @@
+package com.bm_nttdata.credit_ms.service;
+
+import com.bm_nttdata.credit_ms.dto.CustomerPortfolioDetailsDto;
+
+/**
+ * Servicio que obtiene el portafolio de productos de crédito de los clientes.
+ */
+public interface CustomerPortfolioService {
+
+    /**
+     * Obtiene los créditos y tarjetas de crédito de un cliente con sus saldos, próximos pagos
+     * y cuotas vencidas.
+     *
+     * @param customerId identificador del cliente
+     * @return Portafolio del cliente
+     */
+    CustomerPortfolioDetailsDto getCustomerPortfolio(String customerId);
+}
@@ -0,0 +1,67 @@
+package com.bm_nttdata.credit_ms.service;
+
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import com.bm_nttdata.credit_ms.entity.CustomerRiskProfile;
+import com.bm_nttdata.credit_ms.scheduler.InstallmentDueDateEngine.InstallmentKind;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Servicio que mantiene el perfil de riesgo de los clientes.
+ * Las operaciones sobre créditos, tarjetas de crédito y cuotas registran aquí sus cambios,
+ * y las validaciones por cliente consultan el perfil en lugar de recorrer sus productos.
+ */
+public interface CustomerRiskProfileService {
+
+    /**
+     * Obtiene el perfil de riesgo de un cliente, calculándolo desde sus productos si aún
+     * no existe.
+     *
+     * @param customerId ID del cliente
+     * @return Perfil de riesgo del cliente
+     */
+    CustomerRiskProfile getProfile(String customerId);
+
+    /**
+     * Obtiene los perfiles de riesgo de un grupo de clientes, calculando en un solo lote los
+     * que aún no existen.
+     *
+     * @param customerIds IDs de los clientes
+     * @return Perfil de riesgo por ID de cliente
+     */
+    Map<String, CustomerRiskProfile> getProfiles(Collection<String> customerIds);
+
+    /**
+     * Registra un cambio en los créditos de un cliente.
+     *
+     * @param customerId ID del cliente
+     * @param openCredits Variación del número de créditos con saldo pendiente
+     * @param creditBalance Variación del saldo total de créditos
+     */
+    void recordCreditChange(String customerId, long openCredits, BigDecimal creditBalance);
+
+    /**
+     * Registra un cambio en el crédito utilizado de una tarjeta de crédito.
+     *
+     * @param creditCard Tarjeta de crédito, con su ID y, si se conoce, el ID del cliente
+     * @param cardExposure Variación del crédito utilizado
+     */
+    void recordCardExposureChange(CreditCard creditCard, BigDecimal cardExposure);
+
+    /**
+     * Registra un cambio en el número de cuotas vencidas de varios clientes.
+     *
+     * @param kind Tipo de cuota
+     * @param overdueByCustomer Variación de cuotas vencidas por ID de cliente
+     */
+    void recordOverdueInstallments(InstallmentKind kind, Map<String, Long> overdueByCustomer);
+
+    /**
+     * Recalcula desde los productos de los clientes todos los perfiles de riesgo existentes,
+     * corrigiendo las diferencias que dejen las actualizaciones fallidas o concurrentes.
+     *
+     * @return Número de perfiles recalculados
+     */
+    long reconcileProfiles();
+}
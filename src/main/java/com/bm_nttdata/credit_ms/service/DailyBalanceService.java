@@ -0,0 +1,76 @@
+package com.bm_nttdata.credit_ms.service;
+
+import com.bm_nttdata.credit_ms.entity.DailyCreditBalance;
+import com.bm_nttdata.credit_ms.entity.MonthlyBalanceStats;
+import com.bm_nttdata.credit_ms.entity.SchedulerPartition;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Servicio que gestiona el registro de saldos diarios de los productos de crédito.
+ * Centraliza la generación de las fotografías de saldo de créditos y tarjetas de crédito.
+ * En modo completo se registra el saldo de todos los productos cada día; en modo delta
+ * solo se registran los cambios de saldo y una fotografía completa el primer día del mes.
+ */
+public interface DailyBalanceService {
+
+    /**
+     * Registra el saldo diario de los créditos y tarjetas de crédito ACTIVOS de una partición.
+     * Los productos se recorren mediante un cursor y se escriben en lotes.
+     *
+     * @param date Fecha del registro
+     * @param partition Partición con los rangos de identificadores a procesar
+     * @return Número de productos procesados
+     */
+    long recordDailyBalances(LocalDate date, SchedulerPartition partition);
+
+    /**
+     * Indica si en una fecha corresponde registrar el saldo de todos los productos.
+     *
+     * @param date Fecha del registro
+     * @return true en modo completo o, en modo delta, el primer día del mes
+     */
+    boolean requiresFullSnapshot(LocalDate date);
+
+    /**
+     * Registra el cambio de saldo de un producto de crédito.
+     * En modo delta se guarda como saldo del día siguiente, que es el valor que registraría
+     * la fotografía completa de medianoche; en modo completo no realiza ninguna acción.
+     *
+     * @param productId Identificador del producto de crédito
+     * @param balance Nuevo saldo del producto
+     */
+    void recordBalanceChange(String productId, BigDecimal balance);
+
+    /**
+     * Completa los saldos diarios faltantes de un rango de fechas.
+     * Para cada día incompleto registra el último saldo conocido de los productos
+     * sin registro, sin modificar los saldos ya existentes.
+     *
+     * @param startDate Fecha inicial del rango
+     * @param endDate Fecha final del rango
+     * @return Número de saldos diarios registrados
+     */
+    long backfillDailyBalances(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Obtiene los saldos diarios registrados de un producto durante un mes.
+     *
+     * @param productId Identificador del producto de crédito
+     * @param searchMonth Fecha dentro del mes de consulta
+     * @return Lista de saldos diarios del producto
+     */
+    List<DailyCreditBalance> getMonthlyBalances(String productId, LocalDate searchMonth);
+
+    /**
+     * Obtiene las estadísticas de saldo diario de un producto durante un mes.
+     * Las estadísticas se mantienen de forma incremental, por lo que la consulta lee un
+     * único documento.
+     *
+     * @param productId Identificador del producto de crédito
+     * @param searchMonth Fecha dentro del mes de consulta
+     * @return Estadísticas de saldo diario del mes
+     */
+    MonthlyBalanceStats getMonthlyStats(String productId, LocalDate searchMonth);
+}
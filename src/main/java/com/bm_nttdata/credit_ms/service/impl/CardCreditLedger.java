@@ -0,0 +1,688 @@
+package com.bm_nttdata.credit_ms.service.impl;
+
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import com.bm_nttdata.credit_ms.enums.CardStatusEnum;
+import com.bm_nttdata.credit_ms.exception.ServiceException;
+import com.bm_nttdata.credit_ms.repository.CreditCardRepository;
+import com.bm_nttdata.credit_ms.scheduler.JobRegistry;
+import com.bm_nttdata.credit_ms.util.CardCreditTable;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Libro en memoria del crédito disponible de las tarjetas de crédito ACTIVAS.
+ * Se habilita con la propiedad credit.card-ledger.enabled, que debe tener el mismo valor en
+ * todas las réplicas. Mantiene el crédito disponible en punto fijo en tablas de arreglos
+ * primitivos repartidas en franjas con bloqueo propio, de modo que autorizar un cargo o un
+ * pago no consulta la base de datos ni bloquea las operaciones de otras franjas. Las
+ * variaciones se acumulan por tarjeta y se escriben en MongoDB en lotes de incrementos cada
+ * credit.card-ledger.flush-millis.
+ * El libro se carga desde MongoDB antes de atender peticiones y se reconstruye con la tarea
+ * card-ledger-rebuild, que también es el procedimiento de recuperación tras una caída: las
+ * variaciones aún no escritas al caer la instancia, como máximo las de un intervalo de
+ * escritura, se pierden.
+ * El libro autoriza cargos sin consultar la base de datos, por lo que solo se usa mientras
+ * una única réplica está en ejecución. Cada réplica publica un latido en MongoDB y el libro
+ * se activa únicamente en la réplica que obtiene el arrendamiento exclusivo sin que haya
+ * otras réplicas vivas. Con varias réplicas el libro queda desactivado y todas autorizan en
+ * la base de datos con actualizaciones condicionales: la réplica que retiene el
+ * arrendamiento lo detecta al renovarlo, escribe sus variaciones pendientes, vacía el libro
+ * y libera el arrendamiento, y la réplica que arranca espera esa liberación antes de atender
+ * peticiones; si no se produce en dos periodos de arrendamiento, no arranca. El libro
+ * también queda desactivado si su carga inicial falla; la tarea card-ledger-rebuild vuelve
+ * a activarlo cuando la instancia es la única réplica.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "credit.card-ledger.enabled", havingValue = "true")
+public class CardCreditLedger {
+
+    /**
+     * Resultado de una operación sobre una tarjeta que no está en el libro.
+     */
+    public static final long ABSENT = Long.MIN_VALUE;
+
+    /**
+     * Resultado de un cargo rechazado por falta de crédito disponible.
+     */
+    public static final long INSUFFICIENT_CREDIT = Long.MIN_VALUE + 1;
+
+    private static final int SCALE = 4;
+
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L};
+
+    private static final int STRIPES = 16;
+
+    private static final long LEASE_POLL_MILLIS = 1_000L;
+
+    private static final String REBUILD_JOB = "card-ledger-rebuild";
+
+    private static final String LEASE_COLLECTION = "card_ledger_leases";
+
+    private static final String LEASE_ID = "card-ledger";
+
+    private static final String REPLICA_COLLECTION = "card_ledger_replicas";
+
+    @Autowired
+    private CreditCardRepository creditCardRepository;
+
+    @Autowired
+    private JobRegistry jobRegistry;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${credit.card-ledger.lease-seconds:30}")
+    private long leaseSeconds;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Object flushLock = new Object();
+
+    private final Object[] stripeLocks = new Object[STRIPES];
+
+    private final CardCreditTable[] tables = new CardCreditTable[STRIPES];
+
+    private volatile Set<String> registeredDuringRebuild;
+
+    private volatile LocalDateTime leaseRenewedAt;
+
+    private LocalDateTime heartbeatAt;
+
+    /**
+     * Construye el libro vacío, sin tarjetas en ninguna franja.
+     */
+    public CardCreditLedger() {
+
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            stripeLocks[stripe] = new Object();
+            tables[stripe] = new CardCreditTable(0);
+        }
+    }
+
+    /**
+     * Publica el latido de la réplica, registra la reconstrucción del libro y, si la
+     * instancia es la única réplica, reclama el arrendamiento y carga el crédito disponible
+     * de las tarjetas ACTIVAS antes de que la aplicación atienda peticiones. En otro caso,
+     * espera a que la réplica que retiene el arrendamiento desactive su libro.
+     *
+     * @throws IllegalStateException si otra réplica retiene el arrendamiento y no lo libera
+     */
+    @PostConstruct
+    public void initialize() {
+
+        heartbeat(LocalDateTime.now());
+        jobRegistry.register(REBUILD_JOB,
+                "Rebuilds the in-memory card credit ledger from the database", this::rebuild);
+
+        if (!acquireLease()) {
+            log.warn("Card credit ledger disabled on instance {}: other replicas are running, "
+                    + "card credit is authorized in the database", instanceId);
+            awaitLeaseRelease();
+            return;
+        }
+
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Card credit ledger load failed, card credit is authorized in the "
+                    + "database: {}", e.getMessage());
+            disable();
+        }
+    }
+
+    /**
+     * Reconstruye el libro a partir de las tarjetas ACTIVAS de la base de datos, después de
+     * escribir las variaciones pendientes. Si las variaciones no pueden escribirse, el libro
+     * actual se conserva.
+     * Las tarjetas se leen con un cursor sin bloquear el libro, que sigue autorizando
+     * operaciones mientras tanto; las escrituras en la base de datos se detienen durante la
+     * carga, y al terminar cada franja nueva reemplaza a la anterior aplicando sus
+     * variaciones y las tarjetas registradas durante la carga. Si el libro estaba
+     * desactivado, la reconstrucción vuelve a reclamar el arrendamiento.
+     *
+     * @return Número de tarjetas cargadas
+     * @throws ServiceException si hay otras réplicas en ejecución o las variaciones
+     *     pendientes no pudieron escribirse
+     */
+    public long rebuild() {
+
+        synchronized (flushLock) {
+            if (leaseRenewedAt == null && !acquireLease()) {
+                throw new ServiceException(
+                        "The card credit ledger is disabled while other replicas are running");
+            }
+
+            int expectedSize = size();
+            writeAll(true);
+
+            registeredDuringRebuild = ConcurrentHashMap.newKeySet();
+            CardCreditTable[] loaded = new CardCreditTable[STRIPES];
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                loaded[stripe] = new CardCreditTable(expectedSize / STRIPES);
+            }
+            try {
+                creditCardRepository.forEachActiveCardCredit(creditCard -> {
+                    if (CardCreditTable.isValidKey(creditCard.getId())
+                            && creditCard.getAvailableCredit() != null) {
+                        loaded[stripe(creditCard.getId())].put(creditCard.getId(),
+                                toUnits(creditCard.getAvailableCredit()),
+                                creditCard.getPaymentDate());
+                    }
+                });
+            } catch (RuntimeException e) {
+                registeredDuringRebuild = null;
+                throw e;
+            }
+
+            long cards = 0;
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                synchronized (stripeLocks[stripe]) {
+                    swap(stripe, loaded[stripe]);
+                }
+                cards += loaded[stripe].size();
+            }
+            registeredDuringRebuild = null;
+
+            log.info("Card credit ledger loaded: {} credit cards", cards);
+            return cards;
+        }
+    }
+
+    /**
+     * Descuenta un cargo del crédito disponible si la tarjeta cuenta con el crédito requerido.
+     *
+     * @param cardId ID de la tarjeta de crédito
+     * @param requiredCredit Crédito disponible mínimo exigido para autorizar el cargo
+     * @param chargeAmount Monto a descontar
+     * @return Nuevo crédito disponible en punto fijo, ABSENT si la tarjeta no está en el libro
+     *         o INSUFFICIENT_CREDIT si no tiene crédito suficiente
+     */
+    public long debit(String cardId, BigDecimal requiredCredit, BigDecimal chargeAmount) {
+
+        long requiredUnits = toUnits(requiredCredit);
+        long chargeUnits = toUnits(chargeAmount);
+        int stripe = stripe(cardId);
+
+        synchronized (stripeLocks[stripe]) {
+            CardCreditTable table = tables[stripe];
+            int slot = table.find(cardId);
+            if (slot < 0) {
+                return ABSENT;
+            }
+            if (table.available(slot) < requiredUnits) {
+                return INSUFFICIENT_CREDIT;
+            }
+            return table.add(slot, -chargeUnits);
+        }
+    }
+
+    /**
+     * Suma un monto al crédito disponible de una tarjeta.
+     *
+     * @param cardId ID de la tarjeta de crédito
+     * @param amount Monto a sumar
+     * @return Nuevo crédito disponible en punto fijo, o ABSENT si la tarjeta no está en el libro
+     */
+    public long credit(String cardId, BigDecimal amount) {
+
+        long units = toUnits(amount);
+        int stripe = stripe(cardId);
+
+        synchronized (stripeLocks[stripe]) {
+            CardCreditTable table = tables[stripe];
+            int slot = table.find(cardId);
+            return slot < 0 ? ABSENT : table.add(slot, units);
+        }
+    }
+
+    /**
+     * Obtiene el día de pago de una tarjeta.
+     *
+     * @param cardId ID de la tarjeta de crédito
+     * @return Día de pago, o -1 si la tarjeta no está en el libro
+     */
+    public int getPaymentDay(String cardId) {
+
+        int stripe = stripe(cardId);
+
+        synchronized (stripeLocks[stripe]) {
+            CardCreditTable table = tables[stripe];
+            int slot = table.find(cardId);
+            return slot < 0 ? -1 : table.paymentDay(slot);
+        }
+    }
+
+    /**
+     * Reemplaza el crédito disponible de una tarjeta leída de la base de datos por el del
+     * libro, que incluye las variaciones aún no escritas.
+     *
+     * @param creditCard Tarjeta de crédito leída de la base de datos
+     */
+    public void overlay(CreditCard creditCard) {
+
+        int stripe = stripe(creditCard.getId());
+        long units;
+        synchronized (stripeLocks[stripe]) {
+            CardCreditTable table = tables[stripe];
+            int slot = table.find(creditCard.getId());
+            if (slot < 0) {
+                return;
+            }
+            units = table.available(slot);
+        }
+        creditCard.setAvailableCredit(toAmount(units));
+    }
+
+    /**
+     * Agrega al libro una tarjeta ACTIVA recién creada. Con el libro desactivado la tarjeta
+     * no se agrega y sus operaciones se autorizan en la base de datos.
+     *
+     * @param creditCard Tarjeta de crédito guardada
+     */
+    public void register(CreditCard creditCard) {
+
+        if (creditCard.getStatus() != CardStatusEnum.ACTIVE
+                || !CardCreditTable.isValidKey(creditCard.getId())) {
+            return;
+        }
+        long units = toUnits(creditCard.getAvailableCredit());
+        int stripe = stripe(creditCard.getId());
+
+        synchronized (stripeLocks[stripe]) {
+            // Se comprueba dentro del bloqueo porque la desactivación vacía cada franja con él
+            if (leaseRenewedAt == null) {
+                return;
+            }
+            tables[stripe].put(creditCard.getId(), units, creditCard.getPaymentDate());
+            Set<String> registered = registeredDuringRebuild;
+            if (registered != null) {
+                registered.add(creditCard.getId());
+            }
+        }
+    }
+
+    /**
+     * Retira una tarjeta del libro, escribiendo antes su variación pendiente.
+     *
+     * @param cardId ID de la tarjeta de crédito
+     */
+    public void remove(String cardId) {
+
+        int stripe = stripe(cardId);
+
+        synchronized (flushLock) {
+            long delta;
+            synchronized (stripeLocks[stripe]) {
+                CardCreditTable table = tables[stripe];
+                int slot = table.find(cardId);
+                if (slot < 0) {
+                    return;
+                }
+                delta = table.remove(slot);
+            }
+            if (delta != 0) {
+                writeDeltas(Map.of(cardId, toAmount(delta)));
+            }
+        }
+    }
+
+    /**
+     * Renueva el latido de la réplica, escribe en MongoDB las variaciones pendientes del
+     * crédito disponible y renueva el arrendamiento del libro. Las variaciones que no
+     * pudieron escribirse vuelven a quedar pendientes. Si el arrendamiento se perdió o hay
+     * otras réplicas en ejecución, el libro se desactiva.
+     */
+    @Scheduled(fixedDelayString = "${credit.card-ledger.flush-millis:100}")
+    public void flush() {
+
+        synchronized (flushLock) {
+            LocalDateTime now = LocalDateTime.now();
+            if (now.isAfter(heartbeatAt.plusSeconds(leaseSeconds / 2))) {
+                heartbeat(now);
+            }
+            if (leaseRenewedAt == null) {
+                return;
+            }
+            if (!renewLease()) {
+                log.error("Card credit ledger disabled on instance {}: lease lost or other "
+                        + "replicas running", instanceId);
+                disable();
+                return;
+            }
+            writeAll(false);
+        }
+    }
+
+    /**
+     * Desactiva el libro, escribe sus variaciones pendientes, libera el arrendamiento y
+     * retira el latido de la réplica al detener la aplicación.
+     */
+    @PreDestroy
+    public void shutdown() {
+
+        synchronized (flushLock) {
+            disable();
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(instanceId)),
+                    REPLICA_COLLECTION);
+        }
+    }
+
+    /**
+     * Convierte un monto a punto fijo. Los montos con hasta SCALE decimales se convierten
+     * escalando su valor sin escala, sin crear un BigDecimal intermedio.
+     *
+     * @param amount Monto
+     * @return Monto en punto fijo
+     */
+    public static long toUnits(BigDecimal amount) {
+
+        int scale = amount.scale();
+        if (scale >= 0 && scale <= SCALE) {
+            return Math.multiplyExact(amount.unscaledValue().longValueExact(),
+                    POWERS_OF_TEN[SCALE - scale]);
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Convierte un monto en punto fijo a BigDecimal.
+     *
+     * @param units Monto en punto fijo
+     * @return Monto
+     */
+    public static BigDecimal toAmount(long units) {
+
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    /**
+     * Obtiene la franja de una tarjeta a partir del último dígito hexadecimal de su ObjectId,
+     * que proviene de su contador incremental.
+     *
+     * @param cardId ID de la tarjeta de crédito
+     * @return Índice de la franja
+     */
+    private static int stripe(String cardId) {
+
+        if (cardId == null || cardId.isEmpty()) {
+            return 0;
+        }
+        int digit = Character.digit(cardId.charAt(cardId.length() - 1), 16);
+        return digit < 0 ? 0 : digit & (STRIPES - 1);
+    }
+
+    /**
+     * Reemplaza una franja del libro por una recién cargada, aplicando las variaciones
+     * pendientes de la franja anterior y las tarjetas registradas durante la carga. Las
+     * variaciones se acumulan como pendientes en la franja nueva para escribirse en la
+     * siguiente escritura. Debe invocarse con el bloqueo de la franja.
+     *
+     * @param stripe Índice de la franja
+     * @param loaded Franja cargada desde la base de datos
+     */
+    private void swap(int stripe, CardCreditTable loaded) {
+
+        CardCreditTable table = tables[stripe];
+        Map<String, Long> deltas = new HashMap<>();
+        table.drainPending((high, low, deltaUnits) ->
+                deltas.put(CardCreditTable.toId(high, low), deltaUnits));
+
+        for (String cardId : registeredDuringRebuild) {
+            int slot = stripe(cardId) == stripe ? table.find(cardId) : -1;
+            if (slot >= 0) {
+                loaded.put(cardId, table.available(slot) - deltas.getOrDefault(cardId, 0L),
+                        table.paymentDay(slot));
+            }
+        }
+        deltas.forEach((cardId, deltaUnits) -> {
+            int slot = loaded.find(cardId);
+            if (slot >= 0) {
+                loaded.add(slot, deltaUnits);
+            } else {
+                log.error("Card credit ledger update lost for inactive credit card: {}", cardId);
+            }
+        });
+        tables[stripe] = loaded;
+    }
+
+    /**
+     * Desactiva el libro: vacía cada franja, de modo que las operaciones siguientes se
+     * autorizan en la base de datos, escribe las variaciones que contenían y libera el
+     * arrendamiento.
+     */
+    private void disable() {
+
+        leaseRenewedAt = null;
+        Map<String, BigDecimal> deltas = new HashMap<>();
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            CardCreditTable table;
+            synchronized (stripeLocks[stripe]) {
+                table = tables[stripe];
+                tables[stripe] = new CardCreditTable(0);
+            }
+            table.drainPending((high, low, deltaUnits) ->
+                    deltas.put(CardCreditTable.toId(high, low), toAmount(deltaUnits)));
+        }
+
+        Set<String> failed = writeDeltas(deltas);
+        if (!failed.isEmpty()) {
+            log.error("Card credit ledger disabled with {} updates not written: {}",
+                    failed.size(), failed);
+        }
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(LEASE_ID)
+                .and("owner").is(instanceId)), LEASE_COLLECTION);
+    }
+
+    /**
+     * Escribe todas las variaciones pendientes. Las que no pudieron escribirse vuelven a
+     * quedar pendientes.
+     *
+     * @param required true para fallar si alguna variación no pudo escribirse
+     * @throws ServiceException si required y alguna variación no pudo escribirse
+     */
+    private void writeAll(boolean required) {
+
+        Map<String, BigDecimal> deltas = new HashMap<>();
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            synchronized (stripeLocks[stripe]) {
+                tables[stripe].drainPending((high, low, deltaUnits) ->
+                        deltas.put(CardCreditTable.toId(high, low), toAmount(deltaUnits)));
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Set<String> failed = writeDeltas(deltas);
+        for (String cardId : failed) {
+            int stripe = stripe(cardId);
+            synchronized (stripeLocks[stripe]) {
+                if (!tables[stripe].restorePending(cardId, toUnits(deltas.get(cardId)))) {
+                    log.error("Card credit ledger update lost for removed credit card: {}",
+                            cardId);
+                }
+            }
+        }
+        if (required && !failed.isEmpty()) {
+            throw new ServiceException("Pending ledger updates could not be written");
+        }
+    }
+
+    private int size() {
+
+        int size = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            synchronized (stripeLocks[stripe]) {
+                size += tables[stripe].size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Publica el latido de la réplica, vigente durante un periodo de arrendamiento.
+     *
+     * @param now Instante actual
+     */
+    private void heartbeat(LocalDateTime now) {
+
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(instanceId)),
+                    new Update().set("expiresAt", now.plusSeconds(leaseSeconds)),
+                    REPLICA_COLLECTION);
+            heartbeatAt = now;
+        } catch (Exception e) {
+            log.error("Error publishing card credit ledger heartbeat: {}", e.getMessage());
+            if (heartbeatAt == null) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Verifica si hay otras réplicas con un latido vigente.
+     *
+     * @return true si otra réplica está en ejecución
+     */
+    private boolean otherReplicasRunning() {
+
+        return mongoTemplate.exists(Query.query(Criteria.where("_id").ne(instanceId)
+                .and("expiresAt").gt(LocalDateTime.now())), REPLICA_COLLECTION);
+    }
+
+    /**
+     * Reclama el arrendamiento del libro si no hay otras réplicas en ejecución y está libre,
+     * vencido o ya pertenece a esta instancia. Las réplicas se verifican de nuevo tras
+     * reclamarlo, ya que una réplica que arranca publica su latido antes de consultar el
+     * arrendamiento: al menos una de las dos observa a la otra.
+     *
+     * @return true si esta instancia retiene el arrendamiento
+     */
+    private boolean acquireLease() {
+
+        if (otherReplicasRunning()) {
+            return false;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(new Criteria().andOperator(
+                Criteria.where("_id").is(LEASE_ID),
+                new Criteria().orOperator(
+                        Criteria.where("owner").is(instanceId),
+                        Criteria.where("leaseExpiresAt").lt(now))));
+        Update update = new Update()
+                .set("owner", instanceId)
+                .set("leaseExpiresAt", now.plusSeconds(leaseSeconds));
+
+        try {
+            mongoTemplate.upsert(query, update, LEASE_COLLECTION);
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+
+        if (otherReplicasRunning()) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(LEASE_ID)
+                    .and("owner").is(instanceId)), LEASE_COLLECTION);
+            return false;
+        }
+        leaseRenewedAt = now;
+        log.info("Card credit ledger lease acquired by instance {}", instanceId);
+        return true;
+    }
+
+    /**
+     * Espera a que ninguna otra réplica retenga un arrendamiento vigente del libro,
+     * renovando mientras tanto el latido de la instancia.
+     *
+     * @throws IllegalStateException si el arrendamiento no se libera en dos periodos de
+     *     arrendamiento o la espera se interrumpe
+     */
+    private void awaitLeaseRelease() {
+
+        LocalDateTime deadline = LocalDateTime.now().plusSeconds(2 * leaseSeconds);
+
+        while (mongoTemplate.exists(Query.query(Criteria.where("_id").is(LEASE_ID)
+                        .and("owner").ne(instanceId)
+                        .and("leaseExpiresAt").gt(LocalDateTime.now())), LEASE_COLLECTION)) {
+            LocalDateTime now = LocalDateTime.now();
+            if (now.isAfter(deadline)) {
+                throw new IllegalStateException("The card credit ledger lease was not "
+                        + "released by the instance holding it");
+            }
+            heartbeat(now);
+            try {
+                Thread.sleep(LEASE_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(
+                        "Interrupted while waiting for the card credit ledger lease", e);
+            }
+        }
+    }
+
+    /**
+     * Renueva el arrendamiento del libro cuando transcurrió la mitad de su duración, siempre
+     * que no haya otras réplicas en ejecución.
+     *
+     * @return false si el arrendamiento ya no pertenece a esta instancia o hay otras réplicas
+     */
+    private boolean renewLease() {
+
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isBefore(leaseRenewedAt.plusSeconds(leaseSeconds / 2))) {
+            return true;
+        }
+
+        try {
+            if (otherReplicasRunning()) {
+                return false;
+            }
+            boolean renewed = mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(LEASE_ID).and("owner").is(instanceId)),
+                    new Update().set("leaseExpiresAt", now.plusSeconds(leaseSeconds)),
+                    LEASE_COLLECTION).getMatchedCount() == 1;
+            if (renewed) {
+                leaseRenewedAt = now;
+            }
+            return renewed;
+        } catch (Exception e) {
+            // Sin respuesta de la base de datos el arrendamiento se conserva hasta su vencimiento
+            log.error("Error renewing card credit ledger lease: {}", e.getMessage());
+            return now.isBefore(leaseRenewedAt.plusSeconds(leaseSeconds));
+        }
+    }
+
+    private Set<String> writeDeltas(Map<String, BigDecimal> deltas) {
+
+        if (deltas.isEmpty()) {
+            return Set.of();
+        }
+        try {
+            return creditCardRepository.applyAvailableCreditDeltas(deltas);
+        } catch (Exception e) {
+            log.error("Error writing {} card credit ledger updates: {}",
+                    deltas.size(), e.getMessage());
+            return deltas.keySet();
+        }
+    }
+}
@@ -1,23 +1,35 @@
 package com.bm_nttdata.credit_ms.service.impl;
 
+import com.bm_nttdata.credit_ms.dto.CardChargeDto;
 import com.bm_nttdata.credit_ms.dto.PaymentDetailsDto;
 import com.bm_nttdata.credit_ms.entity.CreditCardInstallment;
+import com.bm_nttdata.credit_ms.entity.CreditCardStatement;
 import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
 import com.bm_nttdata.credit_ms.exception.BusinessRuleException;
 import com.bm_nttdata.credit_ms.exception.CreditNotFoundException;
 import com.bm_nttdata.credit_ms.exception.ServiceException;
+import com.bm_nttdata.credit_ms.repository.BulkWriter;
 import com.bm_nttdata.credit_ms.repository.CreditCardInstallmentRepository;
+import com.bm_nttdata.credit_ms.repository.CreditCardStatementRepository;
+import com.bm_nttdata.credit_ms.scheduler.InstallmentDueDateEngine;
+import com.bm_nttdata.credit_ms.scheduler.InstallmentDueDateEngine.InstallmentKind;
 import com.bm_nttdata.credit_ms.service.CreditCardInstallmentService;
+import com.bm_nttdata.credit_ms.service.CustomerRiskProfileService;
 import com.bm_nttdata.credit_ms.util.Constants;
+import com.bm_nttdata.credit_ms.util.UnitOfWork;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +37,9 @@ import org.springframework.transaction.annotation.Transactional;
  * Implementación del servicio de gestión de cuotas de tarjetas de crédito.
  * Maneja la lógica de negocio para el procesamiento de cuotas, cálculo de pagos
  * y gestión de estados de las cuotas.
+ * Cada ciclo de facturación de una tarjeta tiene un estado de cuenta que se actualiza al
+ * crear los cargos, de modo que las cotizaciones y los pagos del mes leen los estados de
+ * cuenta en lugar de recorrer las cuotas no pagadas.
  */
 @Slf4j
 @Transactional
@@ -34,6 +49,20 @@ public class CreditCardInstallmentServiceImpl implements CreditCardInstallmentSe
     @Autowired
     private CreditCardInstallmentRepository cardInstallmentRepository;
 
+    @Autowired
+    private CreditCardStatementRepository statementRepository;
+
+    @Autowired
+    private InstallmentDueDateEngine dueDateEngine;
+
+    @Autowired
+    private BulkWriter bulkWriter;
+
+    @Autowired
+    private UnitOfWork unitOfWork;
+
+    @Autowired
+    private CustomerRiskProfileService riskProfileService;
 
     /**
      * Obtiene las cuotas de una tarjeta de crédito según su estado.
@@ -62,45 +91,41 @@ public class CreditCardInstallmentServiceImpl implements CreditCardInstallmentSe
     }
 
     /**
-     * Obtiene las cuotas vencidas del mes actual para una tarjeta de crédito.
+     * Obtiene los estados de cuenta no pagados de una tarjeta de crédito con vencimiento
+     * anterior a la fecha de pago del mes actual.
      *
      * @param creditCardId ID de la tarjeta de crédito
      * @param paymentDay Día de pago establecido
-     * @return Lista de cuotas vencidas
+     * @return Lista de estados de cuenta no pagados
      * @throws CreditNotFoundException si no existen deudas
      * @throws ServiceException si ocurre un error durante la búsqueda
      */
-    public List<CreditCardInstallment> getCurrentMonthDueInstallments(
+    public List<CreditCardStatement> getCurrentMonthStatements(
             String creditCardId, int paymentDay) {
 
         try {
-            LocalDate currentDate = LocalDate.now();
-            LocalDate dueDate =
-                    LocalDate.of(currentDate.getYear(), currentDate.getMonth(), paymentDay);
-
-            // Si la fecha de pago ya pasó este mes, obtener la del próximo mes
-            if (currentDate.isAfter(dueDate)) {
-                dueDate = dueDate.plusMonths(1);
-            }
-            List<CreditCardInstallment> creditCardInstallmentList =
-                    cardInstallmentRepository.findByCreditCardIdAndDueDateLessThanAndStatusNot(
-                            creditCardId, dueDate, InstallmentStatusEnum.PAID);
+            LocalDate dueDate = currentDueDate(paymentDay);
+            List<CreditCardStatement> statements = unitOfWork.find(
+                    CreditCardStatement.class, "due:" + creditCardId + ":" + dueDate,
+                    () -> statementRepository.findByCreditCardIdAndDueDateLessThanAndStatusIn(
+                            creditCardId, dueDate, Constants.OPEN_INSTALLMENT_STATUSES));
 
-            if (creditCardInstallmentList.isEmpty()) {
+            if (statements.isEmpty()) {
                 throw new CreditNotFoundException("No debt exists");
             }
 
-            return creditCardInstallmentList;
+            return statements;
 
         } catch (Exception e) {
-            log.error("Error getting current month due installments: {}", e.getMessage());
+            log.error("Error getting current month statements: {}", e.getMessage());
             throw new ServiceException(
-                    "Error retrieving current month installments" + e.getMessage());
+                    "Error retrieving current month statements: " + e.getMessage());
         }
     }
 
     /**
      * Calcula el pago del mes actual para una tarjeta de crédito específica.
+     * La cotización se obtiene de los estados de cuenta no pagados, sin leer las cuotas.
      *
      * @param creditCardId ID de la tarjeta de crédito
      * @param paymentDay Día de pago establecido
@@ -113,61 +138,7 @@ public class CreditCardInstallmentServiceImpl implements CreditCardInstallmentSe
         log.info("Calculating current month's credit card payment: {}", creditCardId);
 
         try {
-            List<CreditCardInstallment> creditCardInstallmentList =
-                    getCurrentMonthDueInstallments(creditCardId, paymentDay);
-
-            BigDecimal totalInstallment = BigDecimal.ZERO;
-            BigDecimal totalInterest = BigDecimal.ZERO;
-            PaymentDetailsDto paymentDetails = new PaymentDetailsDto();
-
-            for (CreditCardInstallment installment : creditCardInstallmentList) {
-                BigDecimal baseAmount = installment.getTotalAmount();
-                BigDecimal interestAmount = BigDecimal.ZERO;
-
-                // Calcular monto con intereses si aplica
-                if (isOverdue(installment)) {
-                    try {
-                        // Obtener días de retraso
-                        long daysOverdue =
-                                ChronoUnit.DAYS.between(installment.getDueDate(), LocalDate.now());
-
-                        // Calcular interés diario (interes anual / 365)
-                        BigDecimal dailyInterestRate =
-                                BigDecimal.valueOf(Constants.LATE_PAYMENT_INTEREST / 365.0);
-
-                        // Calcular monto de interés
-                        interestAmount = baseAmount
-                                .multiply(dailyInterestRate)
-                                .multiply(BigDecimal.valueOf(daysOverdue));
-
-                        // Actualizar estado de cuota mensual a VENCIDO, si aún no lo esta
-                        if (installment.getStatus() != InstallmentStatusEnum.OVERDUE) {
-                            installment.setStatus(InstallmentStatusEnum.OVERDUE);
-                        }
-                        installment.setTotalInterest(interestAmount);
-                        installment.setDaysOverdue(daysOverdue);
-                        installment.setUpdatedAt(LocalDateTime.now());
-
-                        cardInstallmentRepository.save(installment);
-
-                        totalInterest = totalInterest.add(interestAmount);
-                    } catch (Exception e) {
-                        log.error(
-                                "Error updating overdue installment {}: {}",
-                                installment.getId(), e.getMessage());
-                        throw new ServiceException(
-                                "Error updating overdue installment" + e.getMessage());
-                    }
-                }
-
-                totalInstallment = totalInstallment.add(baseAmount);
-            }
-
-            paymentDetails.setPaymentAmount(totalInstallment);
-            paymentDetails.setPaymentFee(totalInterest);
-            paymentDetails.setTotalPayment(totalInstallment.add(totalInterest));
-
-            return paymentDetails;
+            return summarizePayment(getCurrentMonthStatements(creditCardId, paymentDay));
 
         } catch (Exception e) {
             log.error("Error calculating current month payment: {}", e.getMessage());
@@ -189,23 +160,44 @@ public class CreditCardInstallmentServiceImpl implements CreditCardInstallmentSe
             BigDecimal installmentAmount, int totalInstallments,
             String creditCardId, int paymentDate) {
 
+        createChargeBatch(creditCardId, paymentDate, List.of(CardChargeDto.builder()
+                .installmentAmount(installmentAmount)
+                .totalInstallments(totalInstallments)
+                .build()));
+    }
+
+    /**
+     * Crea en una única escritura masiva las cuotas de varios cargos de una tarjeta de crédito,
+     * las agrega a los estados de cuenta de sus ciclos y recalcula el resumen de cobro de
+     * la tarjeta.
+     *
+     * @param creditCardId ID de la tarjeta de crédito
+     * @param paymentDate Día de pago mensual
+     * @param charges Cargos cuyas cuotas deben crearse
+     * @throws ServiceException si ocurre un error durante la creación de cargos
+     */
+    @Override
+    public void createChargeBatch(
+            String creditCardId, int paymentDate, List<CardChargeDto> charges) {
+
         log.info("Creating a list of credit card charges: {}", creditCardId);
 
         List<CreditCardInstallment> creditCardInstallmentList;
 
         try {
-            creditCardInstallmentList = IntStream.range(0, totalInstallments)
-                    .mapToObj(i -> CreditCardInstallment.builder()
-                            .creditCardId(creditCardId)
-                            .installmentNumber(i)
-                            .totalInstallments(totalInstallments)
-                            .totalAmount(installmentAmount)
-                            .dueDate(LocalDate.now().plusMonths(i + 1).withDayOfMonth(paymentDate))
-                            .status(InstallmentStatusEnum.PENDING)
-                            .createdAt(LocalDateTime.now())
-                            .updatedAt(LocalDateTime.now())
-                            .build()
-                    )
+            creditCardInstallmentList = charges.stream()
+                    .flatMap(charge -> IntStream.range(0, charge.getTotalInstallments())
+                            .mapToObj(i -> CreditCardInstallment.builder()
+                                    .creditCardId(creditCardId)
+                                    .installmentNumber(i)
+                                    .totalInstallments(charge.getTotalInstallments())
+                                    .totalAmount(charge.getInstallmentAmount())
+                                    .dueDate(LocalDate.now().plusMonths(i + 1)
+                                            .withDayOfMonth(paymentDate))
+                                    .status(InstallmentStatusEnum.PENDING)
+                                    .createdAt(LocalDateTime.now())
+                                    .updatedAt(LocalDateTime.now())
+                                    .build()))
                     .collect(Collectors.toList());
         } catch (Exception e) {
             log.error("Unexpected error while Creating a list of installments: {}", e.getMessage());
@@ -214,18 +206,25 @@ public class CreditCardInstallmentServiceImpl implements CreditCardInstallmentSe
         }
 
         try {
-            cardInstallmentRepository.saveAll(creditCardInstallmentList);
+            statementRepository.addInstallments(
+                    bulkWriter.insertAll(creditCardInstallmentList, CreditCardInstallment.class));
+            dueDateEngine.register(InstallmentKind.CREDIT_CARD, creditCardInstallmentList.stream()
+                    .map(CreditCardInstallment::getDueDate)
+                    .collect(Collectors.toList()));
         } catch (Exception e) {
             log.error(
                     "Unexpected error while saving the list of installments: {}", e.getMessage());
             throw new ServiceException(
                     "Unexpected error while saving the list of installments" + e.getMessage());
         }
+        refreshBillingSummary(creditCardId);
         log.info(" *** Successful creation *** ");
     }
 
     /**
      * Procesa el pago mensual de una tarjeta de crédito.
+     * Marca como pagados los estados de cuenta del mes y, en una escritura masiva, todas
+     * sus cuotas.
      *
      * @param installmentAmount Monto de la cuota a pagar
      * @param creditCardId ID de la tarjeta de crédito
@@ -241,26 +240,42 @@ public class CreditCardInstallmentServiceImpl implements CreditCardInstallmentSe
         log.info("Paying monthly credit card bill: {}", creditCardId);
 
         try {
-            List<CreditCardInstallment> cardInstallmentList =
-                    getCurrentMonthDueInstallments(creditCardId, paymentDay);
+            List<CreditCardStatement> statements =
+                    getCurrentMonthStatements(creditCardId, paymentDay);
 
-            BigDecimal amountPaid = BigDecimal.ZERO;
-            PaymentDetailsDto paymentDetails =
-                    calculateCurrentMonthPayment(creditCardId, paymentDay);
+            PaymentDetailsDto paymentDetails = summarizePayment(statements);
 
             if (installmentAmount.compareTo(paymentDetails.getTotalPayment()) != 0) {
                 throw new BusinessRuleException(
                         "Payment amount is different than monthly debt amount");
             }
 
-            for (CreditCardInstallment cardInstallment : cardInstallmentList) {
+            List<LocalDate> releasedDueDates = new ArrayList<>();
+            List<String> paidStatementIds = new ArrayList<>();
+            List<String> paidInstallmentIds = new ArrayList<>();
+            int paidOverdueInstallments = 0;
 
-                cardInstallment.setStatus(InstallmentStatusEnum.PAID);
-                cardInstallment.setUpdatedAt(LocalDateTime.now());
-                amountPaid = amountPaid.add(cardInstallment.getTotalAmount());
+            for (CreditCardStatement statement : statements) {
 
-                cardInstallmentRepository.save(cardInstallment);
+                int installments = statement.getInstallmentIds().size();
+                if (statement.getStatus() == InstallmentStatusEnum.PENDING) {
+                    releasedDueDates.addAll(
+                            Collections.nCopies(installments, statement.getDueDate()));
+                } else if (statement.getStatus() == InstallmentStatusEnum.OVERDUE) {
+                    paidOverdueInstallments += installments;
+                }
+                paidStatementIds.add(statement.getId());
+                paidInstallmentIds.addAll(statement.getInstallmentIds());
             }
+
+            Update paidUpdate = new Update()
+                    .set("status", InstallmentStatusEnum.PAID)
+                    .set("updatedAt", LocalDateTime.now());
+            unitOfWork.registerUpdate(paidStatementIds, paidUpdate, CreditCardStatement.class);
+            unitOfWork.registerUpdate(
+                    paidInstallmentIds, paidUpdate, CreditCardInstallment.class);
+            dueDateEngine.release(InstallmentKind.CREDIT_CARD, releasedDueDates);
+            paymentDetails.setPaidOverdueInstallments(paidOverdueInstallments);
             log.info(" *** Successful payment *** ");
 
             return paymentDetails;
@@ -273,36 +288,124 @@ public class CreditCardInstallmentServiceImpl implements CreditCardInstallmentSe
     }
 
     /**
-     * Verifica si existen cuotas vencidas para una tarjeta de crédito.
+     * Marca como vencidas las cuotas no pagadas cuya fecha de vencimiento ya pasó,
+     * recalculando sus días de retraso e interés moratorio mediante una única
+     * actualización masiva en el servidor. Las cuotas que pasan de pendientes a vencidas se
+     * cuentan antes por cliente y se suman a sus perfiles de riesgo.
      *
-     * @param creditId identificador de tarjeta de crédito
-     * @param status estatus de la cuota
-     * @return resultado si la tarjeta de credito cuenta con deudas vencidas
+     * @return Número de cuotas actualizadas
+     * @throws ServiceException si ocurre un error durante la actualización
      */
     @Override
-    public boolean getCustomerCreditCardDebts(String creditId, InstallmentStatusEnum status) {
-        try {
-            Long numberOverdueInstallments =
-                    cardInstallmentRepository.countByCreditCardIdAndStatus(creditId, status);
+    public long markOverdueInstallments() {
 
-            if (numberOverdueInstallments > 0) {
-                return true;
-            }
-            return false;
+        try {
+            LocalDate currentDate = LocalDate.now();
+            Map<String, Long> overdueByCustomer =
+                    cardInstallmentRepository.countPendingOverdueByCustomer(currentDate);
+            long updated = cardInstallmentRepository.markOverdueInstallments(
+                    currentDate, Constants.DAILY_LATE_PAYMENT_INTEREST);
+            riskProfileService.recordOverdueInstallments(
+                    InstallmentKind.CREDIT_CARD, overdueByCustomer);
+            return updated;
         } catch (Exception e) {
-            log.error("Error getting number of overdue installments : {}", e.getMessage());
+            log.error("Error marking overdue credit card installments: {}", e.getMessage());
             throw new ServiceException(
-                    "Error getting number of overdue installments" + e.getMessage());
+                    "Error marking overdue credit card installments" + e.getMessage());
+        }
+    }
+
+    /**
+     * Recalcula el resumen de cobro de una tarjeta de crédito desde sus estados de cuenta
+     * no pagados, después de registrar cargos o pagar estados de cuenta. Un error no
+     * interrumpe la operación, ya confirmada: se registra y la siguiente actualización de
+     * cuotas vencidas corrige la tarjeta.
+     *
+     * @param creditCardId ID de la tarjeta de crédito
+     */
+    @Override
+    public void refreshBillingSummary(String creditCardId) {
+
+        try {
+            statementRepository.refreshBillingSummaries(List.of(creditCardId));
+        } catch (Exception e) {
+            log.error("Error refreshing billing summary of credit card {}: {}",
+                    creditCardId, e.getMessage());
+        }
+    }
+
+    /**
+     * Calcula el interés moratorio de una cuota a la fecha actual.
+     *
+     * @param baseAmount Monto de la cuota
+     * @param dueDate Fecha de vencimiento de la cuota
+     * @return Interés moratorio acumulado
+     */
+    private BigDecimal calculateLateInterest(BigDecimal baseAmount, LocalDate dueDate) {
+
+        long daysOverdue = ChronoUnit.DAYS.between(dueDate, LocalDate.now());
+        return baseAmount
+                .multiply(Constants.DAILY_LATE_PAYMENT_INTEREST)
+                .multiply(BigDecimal.valueOf(daysOverdue));
+    }
+
+    /**
+     * Calcula el detalle del pago de estados de cuenta ya leídos, con el mismo cálculo que
+     * sobre cada una de sus cuotas: todas comparten la fecha de vencimiento del ciclo.
+     *
+     * @param statements Estados de cuenta no pagados
+     * @return Dto con el detalle a pagar
+     */
+    private PaymentDetailsDto summarizePayment(List<CreditCardStatement> statements) {
+
+        BigDecimal totalInstallment = BigDecimal.ZERO;
+        BigDecimal totalInterest = BigDecimal.ZERO;
+
+        for (CreditCardStatement statement : statements) {
+            BigDecimal principalDue = statement.getPrincipalDue();
+
+            // Calcular el interés moratorio vigente; el barrido nocturno lo persiste
+            if (isOverdue(statement)) {
+                totalInterest = totalInterest.add(
+                        calculateLateInterest(principalDue, statement.getDueDate()));
+            }
+
+            totalInstallment = totalInstallment.add(principalDue);
+        }
+
+        return PaymentDetailsDto.builder()
+                .paymentAmount(totalInstallment)
+                .paymentFee(totalInterest)
+                .totalPayment(totalInstallment.add(totalInterest))
+                .build();
+    }
+
+    /**
+     * Obtiene la fecha de vencimiento del mes en curso para un día de pago.
+     *
+     * @param paymentDay Día de pago establecido
+     * @return Fecha de pago de este mes, o del próximo si ya pasó
+     */
+    private LocalDate currentDueDate(int paymentDay) {
+
+        LocalDate currentDate = LocalDate.now();
+        LocalDate dueDate =
+                LocalDate.of(currentDate.getYear(), currentDate.getMonth(), paymentDay);
+
+        // Si la fecha de pago ya pasó este mes, obtener la del próximo mes
+        if (currentDate.isAfter(dueDate)) {
+            dueDate = dueDate.plusMonths(1);
         }
+        return dueDate;
     }
 
     /**
-     * Verifica si una cuota está vencida.
+     * Verifica si un estado de cuenta está vencido.
      *
-     * @param creditCardInstallment Cuota a verificar
-     * @return true si la cuota está vencida, false en caso contrario
+     * @param statement Estado de cuenta a verificar
+     * @return true si el estado de cuenta está vencido, false en caso contrario
      */
-    private boolean isOverdue(CreditCardInstallment creditCardInstallment) {
-        return LocalDate.now().isAfter(creditCardInstallment.getDueDate());
+    private boolean isOverdue(CreditCardStatement statement) {
+        return LocalDate.now().isAfter(statement.getDueDate());
     }
 }
@@ -1,6 +1,7 @@
 package com.bm_nttdata.credit_ms.service.impl;
 
 import com.bm_nttdata.credit_ms.client.CustomerClient;
+import com.bm_nttdata.credit_ms.dto.CardChargeDto;
 import com.bm_nttdata.credit_ms.dto.CustomerDto;
 import com.bm_nttdata.credit_ms.dto.OperationResponseDto;
 import com.bm_nttdata.credit_ms.dto.PaymentDetailsDto;
@@ -8,7 +9,6 @@ import com.bm_nttdata.credit_ms.entity.Credit;
 import com.bm_nttdata.credit_ms.entity.CreditCard;
 import com.bm_nttdata.credit_ms.entity.DailyCreditBalance;
 import com.bm_nttdata.credit_ms.enums.CardStatusEnum;
-import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
 import com.bm_nttdata.credit_ms.exception.ApiInvalidRequestException;
 import com.bm_nttdata.credit_ms.exception.BusinessRuleException;
 import com.bm_nttdata.credit_ms.exception.CreditNotFoundException;
@@ -19,23 +19,28 @@ import com.bm_nttdata.credit_ms.model.ChargueCreditCardRequestDto;
 import com.bm_nttdata.credit_ms.model.CreditCardRequestDto;
 import com.bm_nttdata.credit_ms.model.PaymentCreditProductRequestDto;
 import com.bm_nttdata.credit_ms.repository.CreditCardRepository;
-import com.bm_nttdata.credit_ms.repository.DailyCreditBalanceRepository;
+import com.bm_nttdata.credit_ms.scheduler.InstallmentDueDateEngine.InstallmentKind;
 import com.bm_nttdata.credit_ms.service.CreditCardInstallmentService;
 import com.bm_nttdata.credit_ms.service.CreditCardService;
+import com.bm_nttdata.credit_ms.service.CustomerRiskProfileService;
+import com.bm_nttdata.credit_ms.service.DailyBalanceService;
 import com.bm_nttdata.credit_ms.util.CardNumberGenerator;
+import com.bm_nttdata.credit_ms.util.KeyedBatcher;
 import com.bm_nttdata.credit_ms.util.MonthlyInstallmentCalculator;
+import com.bm_nttdata.credit_ms.util.UnitOfWork;
 import feign.FeignException;
+import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.YearMonth;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -43,6 +48,8 @@ import org.springframework.transaction.annotation.Transactional;
  * Implementación del servicio de gestión de tarjetas de crédito.
  * Maneja la lógica de negocio para las operaciones CRUD de tarjetas de crédito,
  * así como el procesamiento de cargos, pagos y actualizaciones de saldo.
+ * Opcionalmente agrupa los cargos concurrentes a una misma tarjeta para autorizarlos y
+ * registrarlos en lote.
  */
 @Slf4j
 @Transactional
@@ -53,7 +60,7 @@ public class CreditCardServiceImpl implements CreditCardService {
     private CreditCardRepository creditCardRepository;
 
     @Autowired
-    private DailyCreditBalanceRepository dailyCreditBalanceRepository;
+    private DailyBalanceService dailyBalanceService;
 
     @Autowired
     private CreditCardMapper creditCardMapper;
@@ -70,6 +77,38 @@ public class CreditCardServiceImpl implements CreditCardService {
     @Autowired
     private CreditCardInstallmentService cardInstallmentService;
 
+    @Autowired
+    private UnitOfWork unitOfWork;
+
+    @Autowired
+    private CustomerRiskProfileService riskProfileService;
+
+    @Autowired(required = false)
+    private CardCreditLedger cardLedger;
+
+    @Value("${credit.charge-batching.enabled:false}")
+    private boolean chargeBatchingEnabled;
+
+    @Value("${credit.charge-batching.window-millis:5}")
+    private long chargeBatchWindowMillis;
+
+    @Value("${credit.charge-batching.max-batch-size:50}")
+    private int chargeBatchMaxSize;
+
+    private KeyedBatcher<String, ChargueCreditCardRequestDto, OperationResponseDto> chargeBatcher;
+
+    /**
+     * Crea el agrupador de cargos concurrentes por tarjeta si está habilitado.
+     */
+    @PostConstruct
+    public void initializeChargeBatching() {
+
+        if (chargeBatchingEnabled) {
+            chargeBatcher = new KeyedBatcher<>(
+                    chargeBatchWindowMillis, chargeBatchMaxSize, this::processChargeBatch);
+        }
+    }
+
     /**
      * Obtiene todas las tarjetas de crédito de un cliente.
      *
@@ -84,7 +123,11 @@ public class CreditCardServiceImpl implements CreditCardService {
             throw new ApiInvalidRequestException("Customer id is required");
         }
 
-        return creditCardRepository.findByCustomerId(customerId);
+        List<CreditCard> creditCards = creditCardRepository.findByCustomerId(customerId);
+        if (cardLedger != null) {
+            creditCards.forEach(cardLedger::overlay);
+        }
+        return creditCards;
     }
 
     /**
@@ -98,9 +141,36 @@ public class CreditCardServiceImpl implements CreditCardService {
     public CreditCard getCreditCardById(String id) {
 
         log.info("Querying credit card data: {}", id);
-        return creditCardRepository.findById(id)
+        return unitOfWork.find(CreditCard.class, id, () -> {
+            CreditCard creditCard = creditCardRepository.findById(id)
+                    .orElseThrow(() ->
+                            new CreditNotFoundException("Credit Card not found with id: " + id));
+            if (cardLedger != null) {
+                cardLedger.overlay(creditCard);
+            }
+            return creditCard;
+        });
+    }
+
+    /**
+     * Obtiene una tarjeta de crédito con solo los campos de su saldo, en una lectura
+     * proyectada.
+     *
+     * @param id ID de la tarjeta de crédito
+     * @return Tarjeta de crédito con los campos del saldo
+     * @throws CreditNotFoundException si no se encuentra una tarjeta de crédito con el id enviado.
+     */
+    @Override
+    public CreditCard getCreditCardBalance(String id) {
+
+        log.info("Querying credit card balance: {}", id);
+        CreditCard creditCard = creditCardRepository.findBalanceById(id)
                 .orElseThrow(() ->
                         new CreditNotFoundException("Credit Card not found with id: " + id));
+        if (cardLedger != null) {
+            cardLedger.overlay(creditCard);
+        }
+        return creditCard;
     }
 
     /**
@@ -127,7 +197,13 @@ public class CreditCardServiceImpl implements CreditCardService {
                 creditCardMapper.creditCardRequestDtoToCreditCardEntity(creditCardRequest));
 
         try {
-            return creditCardRepository.save(creditCard);
+            creditCard = creditCardRepository.save(creditCard);
+            if (cardLedger != null) {
+                cardLedger.register(creditCard);
+            }
+            dailyBalanceService.recordBalanceChange(
+                    creditCard.getId(), creditCard.getAvailableCredit());
+            return creditCard;
         } catch (Exception e) {
             log.error("Unexpected error while saving credit card: {}", e.getMessage());
             throw new ServiceException("Unexpected error creating credit card" + e.getMessage());
@@ -147,48 +223,75 @@ public class CreditCardServiceImpl implements CreditCardService {
         log.info("Starting credit card charge process: {}",
                 chargueCreditCardRequest.getCreditCardId());
 
-        try {
-            CreditCard creditCard =
-                    getCreditCardById(chargueCreditCardRequest.getCreditCardId());
-            BigDecimal chargeAmount = chargueCreditCardRequest.getChargeAmount();
+        if (chargeBatcher != null) {
+            return chargeBatcher.submit(
+                    chargueCreditCardRequest.getCreditCardId(), chargueCreditCardRequest);
+        }
+        return processCharge(chargueCreditCardRequest);
+    }
 
-            if (creditCard.getAvailableCredit().compareTo(chargeAmount) < 0) {
+    /**
+     * Procesa un cargo individual a una tarjeta de crédito, autorizándolo con una
+     * actualización condicional atómica del crédito disponible.
+     *
+     * @param chargueCreditCardRequest DTO con la información del cargo
+     * @return Respuesta de la operación
+     */
+    private OperationResponseDto processCharge(
+            ChargueCreditCardRequestDto chargueCreditCardRequest) {
 
-                return OperationResponseDto.builder()
-                        .status("FAILED")
-                        .message("Unprocessed charge")
-                        .error("Insufficient available credit")
-                        .build();
-            }
+        try {
+            String creditCardId = chargueCreditCardRequest.getCreditCardId();
+            BigDecimal requestedAmount = chargueCreditCardRequest.getChargeAmount();
+            BigDecimal chargeAmount = requestedAmount;
 
             if (chargueCreditCardRequest.getTotalInstallment() > 1) {
+                CreditCard creditCard = getCreditCardById(creditCardId);
                 chargeAmount = installmentCalculator.calculateMonthlyPayment(
-                        chargueCreditCardRequest.getChargeAmount(),
+                        requestedAmount,
                         BigDecimal.valueOf(creditCard.getInterestRate()),
                         chargueCreditCardRequest.getTotalInstallment());
             }
 
-            cardInstallmentService.createCharges(
-                    chargeAmount, chargueCreditCardRequest.getTotalInstallment(),
-                    creditCard.getId(), creditCard.getPaymentDate());
+            // Verificar el crédito disponible y descontar el cargo en una única operación
+            Optional<CreditCard> authorizedCard =
+                    authorizeCharge(creditCardId, requestedAmount, chargeAmount);
 
-            BalanceUpdateRequestDto balanceUpdateRequest = new BalanceUpdateRequestDto();
-            balanceUpdateRequest.setTransactionAmount(chargeAmount);
-            balanceUpdateRequest.setTransactionType(
-                    BalanceUpdateRequestDto.TransactionTypeEnum.CREDIT_CHARGE);
+            if (authorizedCard.isEmpty()) {
+                // Distinguir una tarjeta inexistente de una sin crédito suficiente
+                getCreditCardById(creditCardId);
 
-            OperationResponseDto operationResponse =
-                    updateCreditCardBalance(creditCard.getId(), balanceUpdateRequest);
+                return OperationResponseDto.builder()
+                        .status("FAILED")
+                        .message("Unprocessed charge")
+                        .error("Insufficient available credit")
+                        .build();
+            }
 
-            if (!operationResponse.getStatus().equals("SUCCESS")) {
+            CreditCard creditCard = authorizedCard.get();
+
+            try {
+                cardInstallmentService.createCharges(
+                        chargeAmount, chargueCreditCardRequest.getTotalInstallment(),
+                        creditCard.getId(), creditCard.getPaymentDate());
+            } catch (Exception e) {
+                log.error("Error creating charges, reverting authorization on credit card: {}",
+                        creditCard.getId());
+                increaseAvailableCredit(creditCard.getId(), chargeAmount);
+                throw e;
+            }
 
-                return operationResponse;
+            if (chargeAmount.signum() != 0) {
+                dailyBalanceService.recordBalanceChange(
+                        creditCard.getId(), creditCard.getAvailableCredit());
             }
 
             log.info("Credit card charge processed successfully: {}", creditCard.getId());
-            operationResponse.setMessage("Charge successfully processed");
 
-            return operationResponse;
+            return OperationResponseDto.builder()
+                    .status("SUCCESS")
+                    .message("Charge successfully processed")
+                    .build();
 
         } catch (Exception e) {
             log.error("Unexpected error during credit card charge process: {}", e.getMessage());
@@ -214,29 +317,41 @@ public class CreditCardServiceImpl implements CreditCardService {
                 paymentCreditProductRequest.getCreditId());
 
         try {
-            CreditCard creditCard = getCreditCardById(paymentCreditProductRequest.getCreditId());
-            PaymentDetailsDto paymentDetails = cardInstallmentService.payBillMonth(
-                    paymentCreditProductRequest.getAmount(),
-                    creditCard.getId(),
-                    creditCard.getPaymentDate());
+            return unitOfWork.execute(() -> {
+                CreditCard creditCard =
+                        getCreditCardById(paymentCreditProductRequest.getCreditId());
+                PaymentDetailsDto paymentDetails = cardInstallmentService.payBillMonth(
+                        paymentCreditProductRequest.getAmount(),
+                        creditCard.getId(),
+                        creditCard.getPaymentDate());
+
+                // Las cuotas se marcan como pagadas antes de liberar el crédito de la tarjeta
+                unitOfWork.flush();
+                cardInstallmentService.refreshBillingSummary(creditCard.getId());
+                if (paymentDetails.getPaidOverdueInstallments() > 0) {
+                    riskProfileService.recordOverdueInstallments(InstallmentKind.CREDIT_CARD,
+                            Map.of(creditCard.getCustomerId(),
+                                    (long) -paymentDetails.getPaidOverdueInstallments()));
+                }
 
-            BalanceUpdateRequestDto balanceUpdateRequest = new BalanceUpdateRequestDto();
-            balanceUpdateRequest.setTransactionAmount(paymentDetails.getPaymentAmount());
-            balanceUpdateRequest.setTransactionType(
-                    BalanceUpdateRequestDto.TransactionTypeEnum.PAYMENT);
+                BalanceUpdateRequestDto balanceUpdateRequest = new BalanceUpdateRequestDto();
+                balanceUpdateRequest.setTransactionAmount(paymentDetails.getPaymentAmount());
+                balanceUpdateRequest.setTransactionType(
+                        BalanceUpdateRequestDto.TransactionTypeEnum.PAYMENT);
 
-            OperationResponseDto operationResponse =
-                    updateCreditCardBalance(creditCard.getId(), balanceUpdateRequest);
+                OperationResponseDto operationResponse =
+                        updateCreditCardBalance(creditCard.getId(), balanceUpdateRequest);
 
-            if (!operationResponse.getStatus().equals("SUCCESS")) {
+                if (!operationResponse.getStatus().equals("SUCCESS")) {
 
-                return operationResponse;
-            }
+                    return operationResponse;
+                }
 
-            log.info("Payment processed successfully: {}", creditCard.getId());
-            operationResponse.setMessage("Payment successfully processed");
+                log.info("Payment processed successfully: {}", creditCard.getId());
+                operationResponse.setMessage("Payment successfully processed");
 
-            return operationResponse;
+                return operationResponse;
+            });
 
         } catch (Exception e) {
             log.error("Unexpected error paying monthly credit card bill: {}", e.getMessage());
@@ -248,6 +363,22 @@ public class CreditCardServiceImpl implements CreditCardService {
         }
     }
 
+    /**
+     * Cotiza el pago de las cuotas no pagadas del mes en curso de una tarjeta de crédito.
+     *
+     * @param id ID de la tarjeta de crédito
+     * @return Detalle a pagar en el mes
+     * @throws CreditNotFoundException si la tarjeta no existe o no tiene deudas pendientes
+     */
+    @Override
+    public PaymentDetailsDto getPaymentQuote(String id) {
+
+        log.info("Quoting monthly payment of credit card: {}", id);
+        CreditCard creditCard = getCreditCardById(id);
+        return cardInstallmentService.calculateCurrentMonthPayment(
+                creditCard.getId(), creditCard.getPaymentDate());
+    }
+
     /**
      * Actualiza el saldo de una tarjeta de crédito.
      *
@@ -262,27 +393,25 @@ public class CreditCardServiceImpl implements CreditCardService {
         log.info("Initiating credit card balance update: {}", id);
 
         try {
-            CreditCard creditCard = getCreditCardById(id);
             String transactionType = balanceUpdateRequest.getTransactionType().getValue();
             BigDecimal transactionAmount = balanceUpdateRequest.getTransactionAmount();
+            Optional<CreditCard> updatedCard;
 
             switch (transactionType) {
                 case "PAYMENT":
-                    creditCard.setAvailableCredit(
-                            creditCard.getAvailableCredit().add(transactionAmount));
+                    updatedCard = increaseAvailableCredit(id, transactionAmount);
                     break;
 
                 case "CREDIT_CHARGE":
-                    if (creditCard.getAvailableCredit().compareTo(transactionAmount) < 0) {
+                    updatedCard = authorizeCharge(id, transactionAmount, transactionAmount);
+
+                    if (updatedCard.isEmpty() && creditCardRepository.existsById(id)) {
                         return OperationResponseDto.builder()
                                 .status("FAILED")
                                 .message("Unprocessed charge")
                                 .error("Insufficient available credit")
                                 .build();
                     }
-
-                    creditCard.setAvailableCredit(
-                            creditCard.getAvailableCredit().subtract(transactionAmount));
                     break;
 
                 default:
@@ -293,9 +422,14 @@ public class CreditCardServiceImpl implements CreditCardService {
                             .build();
             }
 
-            creditCard.setUpdatedAt(LocalDateTime.now());
+            CreditCard creditCard = updatedCard.orElseThrow(() ->
+                    new CreditNotFoundException("Credit Card not found with id: " + id));
+            unitOfWork.evict(CreditCard.class, id);
 
-            creditCardRepository.save(creditCard);
+            if (transactionAmount.signum() != 0) {
+                dailyBalanceService.recordBalanceChange(
+                        creditCard.getId(), creditCard.getAvailableCredit());
+            }
 
             log.info(" *** Balance update successful *** ");
 
@@ -326,6 +460,9 @@ public class CreditCardServiceImpl implements CreditCardService {
         try {
             CreditCard creditCard = getCreditCardById(id);
             validateCreditCardDeletion(creditCard);
+            if (cardLedger != null) {
+                cardLedger.remove(id);
+            }
 
             creditCardRepository.delete(creditCard);
         } catch (Exception e) {
@@ -346,25 +483,7 @@ public class CreditCardServiceImpl implements CreditCardService {
             String creditCardId, LocalDate searchMonth) {
 
         try {
-            YearMonth month = YearMonth.from(searchMonth);
-            LocalDate startDate = month.atDay(1);
-            LocalDate endDate = month.atEndOfMonth();
-
-            // Convertir LocalDate a ZonedDateTime en UTC
-            ZonedDateTime startDateTime = startDate.atStartOfDay(ZoneOffset.UTC);
-            ZonedDateTime endDateTime = endDate.atTime(LocalTime.MAX).atZone(ZoneOffset.UTC);
-
-            // Convertir a Date para la consulta
-            Date startDateMongo = Date.from(startDateTime.toInstant());
-            Date endDateMongo = Date.from(endDateTime.toInstant());
-
-            List<DailyCreditBalance> dailyBalanceList =
-                    dailyCreditBalanceRepository.findByCreditProductIdAndDateBetween(
-                            creditCardId,
-                            startDateMongo,
-                            endDateMongo);
-            log.info("Balances found: " + dailyBalanceList);
-            return dailyBalanceList;
+            return dailyBalanceService.getMonthlyBalances(creditCardId, searchMonth);
         } catch (Exception e) {
             log.error("Unexpected error while getting daily balances: {}", e.getMessage());
             throw new ServiceException(
@@ -381,18 +500,7 @@ public class CreditCardServiceImpl implements CreditCardService {
     @Override
     public Boolean getCustomerCreditCardDebts(String customerId) {
         try {
-            List<CreditCard> creditCardList =
-                    creditCardRepository.findByCustomerId(customerId);
-
-            for (CreditCard creditCard : creditCardList) {
-                boolean hasDebt =
-                        cardInstallmentService.getCustomerCreditCardDebts(
-                                creditCard.getId(), InstallmentStatusEnum.OVERDUE);
-                if (hasDebt) {
-                    return true;
-                }
-            }
-            return false;
+            return riskProfileService.getProfile(customerId).getOverdueCardInstallments() > 0;
         } catch (Exception e) {
             log.error("Unexpected error while getting customer credit card debts: {}",
                     e.getMessage());
@@ -401,6 +509,195 @@ public class CreditCardServiceImpl implements CreditCardService {
         }
     }
 
+    /**
+     * Procesa un lote de cargos concurrentes a una misma tarjeta de crédito.
+     * Los cargos se autorizan en orden de llegada contra una única lectura de la tarjeta; el
+     * total autorizado se descuenta con una única actualización condicional y las cuotas de
+     * todos los cargos se crean en una única escritura masiva. La actualización exige el
+     * mayor crédito disponible que habría requerido alguno de los cargos al procesarse en
+     * secuencia, es decir, lo descontado por los cargos anteriores más el monto del cargo.
+     * Si el crédito disponible cambió desde la lectura y ya no cumple esa condición, los
+     * cargos se procesan uno a uno.
+     *
+     * @param creditCardId ID de la tarjeta de crédito
+     * @param requests Cargos del lote
+     * @return Respuesta de cada cargo, en el mismo orden
+     */
+    private List<OperationResponseDto> processChargeBatch(
+            String creditCardId, List<ChargueCreditCardRequestDto> requests) {
+
+        if (requests.size() == 1) {
+            return List.of(processCharge(requests.get(0)));
+        }
+
+        log.info("Processing batch of {} charges on credit card: {}",
+                requests.size(), creditCardId);
+
+        OperationResponseDto[] responses = new OperationResponseDto[requests.size()];
+        CreditCard creditCard;
+
+        try {
+            creditCard = getCreditCardById(creditCardId);
+        } catch (Exception e) {
+            Arrays.fill(responses, failedCharge(
+                    "Error processing credit card charge" + e.getMessage()));
+            return Arrays.asList(responses);
+        }
+
+        BigDecimal availableCredit = creditCard.getAvailableCredit();
+        BigDecimal totalCharge = BigDecimal.ZERO;
+        BigDecimal requiredCredit = BigDecimal.ZERO;
+        List<CardChargeDto> charges = new ArrayList<>();
+        List<Integer> authorized = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            ChargueCreditCardRequestDto request = requests.get(i);
+            try {
+                if (availableCredit.compareTo(request.getChargeAmount()) < 0) {
+                    responses[i] = failedCharge("Insufficient available credit");
+                    continue;
+                }
+
+                BigDecimal chargeAmount = request.getChargeAmount();
+                if (request.getTotalInstallment() > 1) {
+                    chargeAmount = installmentCalculator.calculateMonthlyPayment(
+                            request.getChargeAmount(),
+                            BigDecimal.valueOf(creditCard.getInterestRate()),
+                            request.getTotalInstallment());
+                }
+
+                requiredCredit = requiredCredit.max(totalCharge.add(request.getChargeAmount()));
+                availableCredit = availableCredit.subtract(chargeAmount);
+                totalCharge = totalCharge.add(chargeAmount);
+                charges.add(CardChargeDto.builder()
+                        .installmentAmount(chargeAmount)
+                        .totalInstallments(request.getTotalInstallment())
+                        .build());
+                authorized.add(i);
+            } catch (Exception e) {
+                responses[i] = failedCharge(
+                        "Error processing credit card charge" + e.getMessage());
+            }
+        }
+
+        if (authorized.isEmpty()) {
+            return Arrays.asList(responses);
+        }
+
+        Optional<CreditCard> updatedCard =
+                authorizeCharge(creditCardId, requiredCredit, totalCharge);
+
+        if (updatedCard.isEmpty()) {
+            log.warn("Available credit changed during charge batch, processing charges "
+                    + "individually: {}", creditCardId);
+            authorized.forEach(i -> responses[i] = processCharge(requests.get(i)));
+            return Arrays.asList(responses);
+        }
+
+        try {
+            cardInstallmentService.createChargeBatch(
+                    creditCardId, creditCard.getPaymentDate(), charges);
+        } catch (Exception e) {
+            log.error("Error creating charges, reverting batch authorization on credit card: {}",
+                    creditCardId);
+            increaseAvailableCredit(creditCardId, totalCharge);
+            OperationResponseDto failed = failedCharge(
+                    "Error processing credit card charge" + e.getMessage());
+            authorized.forEach(i -> responses[i] = failed);
+            return Arrays.asList(responses);
+        }
+
+        if (totalCharge.signum() != 0) {
+            dailyBalanceService.recordBalanceChange(
+                    creditCardId, updatedCard.get().getAvailableCredit());
+        }
+
+        log.info("Batch of {} credit card charges processed successfully: {}",
+                authorized.size(), creditCardId);
+        authorized.forEach(i -> responses[i] = OperationResponseDto.builder()
+                .status("SUCCESS")
+                .message("Charge successfully processed")
+                .build());
+
+        return Arrays.asList(responses);
+    }
+
+    private OperationResponseDto failedCharge(String error) {
+
+        return OperationResponseDto.builder()
+                .status("FAILED")
+                .message("Unprocessed charge")
+                .error(error)
+                .build();
+    }
+
+    /**
+     * Autoriza un cargo descontándolo del crédito disponible. Si el libro en memoria está
+     * habilitado y contiene la tarjeta, el cargo se autoriza en memoria; en otro caso se
+     * autoriza en la base de datos con una actualización condicional atómica. El cargo
+     * autorizado se suma al crédito utilizado del perfil de riesgo del cliente.
+     *
+     * @param id ID de la tarjeta de crédito
+     * @param requiredCredit Crédito disponible mínimo exigido para autorizar el cargo
+     * @param chargeAmount Monto a descontar del crédito disponible
+     * @return Tarjeta con su nuevo crédito disponible, o vacío si no existe o no tiene
+     *         crédito suficiente
+     */
+    private Optional<CreditCard> authorizeCharge(
+            String id, BigDecimal requiredCredit, BigDecimal chargeAmount) {
+
+        if (cardLedger != null) {
+            long balance = cardLedger.debit(id, requiredCredit, chargeAmount);
+            if (balance == CardCreditLedger.INSUFFICIENT_CREDIT) {
+                return Optional.empty();
+            }
+            if (balance != CardCreditLedger.ABSENT) {
+                CreditCard creditCard = CreditCard.builder()
+                        .id(id)
+                        .paymentDate(cardLedger.getPaymentDay(id))
+                        .availableCredit(CardCreditLedger.toAmount(balance))
+                        .build();
+                riskProfileService.recordCardExposureChange(creditCard, chargeAmount);
+                return Optional.of(creditCard);
+            }
+        }
+
+        Optional<CreditCard> authorizedCard =
+                creditCardRepository.authorizeCharge(id, requiredCredit, chargeAmount);
+        authorizedCard.ifPresent(creditCard ->
+                riskProfileService.recordCardExposureChange(creditCard, chargeAmount));
+        return authorizedCard;
+    }
+
+    /**
+     * Suma un monto al crédito disponible, en el libro en memoria si contiene la tarjeta
+     * o en la base de datos en otro caso, y lo descuenta del crédito utilizado del perfil de
+     * riesgo del cliente.
+     *
+     * @param id ID de la tarjeta de crédito
+     * @param amount Monto a sumar al crédito disponible
+     * @return Tarjeta con su nuevo crédito disponible, o vacío si no existe
+     */
+    private Optional<CreditCard> increaseAvailableCredit(String id, BigDecimal amount) {
+
+        if (cardLedger != null) {
+            long balance = cardLedger.credit(id, amount);
+            if (balance != CardCreditLedger.ABSENT) {
+                CreditCard creditCard = CreditCard.builder()
+                        .id(id)
+                        .availableCredit(CardCreditLedger.toAmount(balance))
+                        .build();
+                riskProfileService.recordCardExposureChange(creditCard, amount.negate());
+                return Optional.of(creditCard);
+            }
+        }
+
+        Optional<CreditCard> updatedCard = creditCardRepository.increaseAvailableCredit(id, amount);
+        updatedCard.ifPresent(creditCard ->
+                riskProfileService.recordCardExposureChange(creditCard, amount.negate()));
+        return updatedCard;
+    }
+
     /**
      * Valida la eliminación de una tarjeta de crédito.
      * Verifica que la tarjeta no tenga saldo pendiente.
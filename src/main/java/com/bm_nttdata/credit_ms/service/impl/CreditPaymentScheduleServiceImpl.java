@@ -7,18 +7,29 @@ import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
 import com.bm_nttdata.credit_ms.exception.BusinessRuleException;
 import com.bm_nttdata.credit_ms.exception.CreditNotFoundException;
 import com.bm_nttdata.credit_ms.exception.ServiceException;
+import com.bm_nttdata.credit_ms.repository.BulkWriter;
 import com.bm_nttdata.credit_ms.repository.CreditPaymentScheduleRepository;
+import com.bm_nttdata.credit_ms.repository.CreditRepository;
+import com.bm_nttdata.credit_ms.scheduler.InstallmentDueDateEngine;
+import com.bm_nttdata.credit_ms.scheduler.InstallmentDueDateEngine.InstallmentKind;
 import com.bm_nttdata.credit_ms.service.CreditPaymentScheduleService;
+import com.bm_nttdata.credit_ms.service.CustomerRiskProfileService;
 import com.bm_nttdata.credit_ms.util.Constants;
+import com.bm_nttdata.credit_ms.util.UnitOfWork;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,18 +37,72 @@ import org.springframework.transaction.annotation.Transactional;
  * Implementación del servicio de cronograma de pagos de créditos.
  * Gestiona la creación y mantenimiento de cronogramas de pago, cálculo de cuotas
  * y procesamiento de pagos mensuales.
+ * Con credit.payment-schedule.mode=compact las cuotas se derivan de los parámetros del
+ * crédito y solo se almacenan las que vencen dentro de un horizonte de meses; una tarea
+ * diaria extiende el cronograma. Los pagos, cotizaciones y cuotas vencidas solo consultan
+ * cuotas con vencimiento anterior al horizonte, por lo que sus resultados no cambian.
  */
 @Slf4j
 @Transactional
 @Service
 public class CreditPaymentScheduleServiceImpl implements CreditPaymentScheduleService {
 
+    private static final String COMPACT_MODE = "compact";
+
     @Autowired
     private CreditPaymentScheduleRepository paymentScheduleRepository;
 
+    @Autowired
+    private InstallmentDueDateEngine dueDateEngine;
+
+    @Autowired
+    private BulkWriter bulkWriter;
+
+    @Autowired
+    private UnitOfWork unitOfWork;
+
+    @Autowired
+    private CustomerRiskProfileService riskProfileService;
+
+    @Autowired
+    private CreditRepository creditRepository;
+
+    @Value("${credit.payment-schedule.mode:full}")
+    private String scheduleMode;
+
+    @Value("${credit.payment-schedule.horizon-months:2}")
+    private int horizonMonths;
+
+    @Value("${credit.payment-schedule.materialize-batch-size:500}")
+    private int materializeBatchSize;
+
+    /**
+     * Prepara el cronograma de pagos de un crédito aún no guardado.
+     * En el cronograma compacto registra en el crédito las cuotas que vencen dentro del
+     * horizonte configurado, al menos la primera, y el vencimiento de la siguiente cuota.
+     *
+     * @param credit Crédito con su plazo y fecha de creación
+     */
+    @Override
+    public void initializePaymentSchedule(Credit credit) {
+
+        if (!COMPACT_MODE.equals(scheduleMode)) {
+            return;
+        }
+
+        LocalDate horizon = LocalDate.now().plusMonths(horizonMonths);
+        int installments = 1;
+        while (installments < credit.getTerm()
+                && !dueDate(credit, installments + 1).isAfter(horizon)) {
+            installments++;
+        }
+        setMaterializedInstallments(credit, installments);
+    }
+
     /**
      * Crea un cronograma de pagos para un crédito.
-     * Genera las cuotas mensuales para todo el período del crédito.
+     * Genera las cuotas mensuales para todo el período del crédito, o solo las ya
+     * registradas en el crédito si su cronograma es compacto.
      *
      * @param credit Crédito para el cual se creará el cronograma
      * @throws ServiceException si ocurre un error durante la generación o guardado del cronograma
@@ -47,21 +112,15 @@ public class CreditPaymentScheduleServiceImpl implements CreditPaymentScheduleSe
 
         log.info("Creating monthly payment list for customer: {} - credit: {}",
                 credit.getCustomerId(), credit.getId());
-        
+
         List<CreditPaymentSchedule> listMonthlyInstallments;
 
         try {
-            listMonthlyInstallments = IntStream.range(0, credit.getTerm())
-                    .mapToObj(i -> CreditPaymentSchedule.builder()
-                            .creditId(credit.getId())
-                            .creditAmount(credit.getAmount())
-                            .installmentNumber(i + 1)
-                            .installmentAmount(credit.getNextPaymentAmount())
-                            .dueDate(credit.getCreatedAt().toLocalDate().plusMonths(i + 1))
-                            .status(InstallmentStatusEnum.PENDING)
-                            .createdAt(LocalDateTime.now())
-                            .updatedAt(LocalDateTime.now())
-                            .build())
+            int installments = credit.getMaterializedInstallments() != null
+                    ? credit.getMaterializedInstallments()
+                    : credit.getTerm();
+            listMonthlyInstallments = IntStream.rangeClosed(1, installments)
+                    .mapToObj(number -> buildInstallment(credit, number))
                     .collect(Collectors.toList());
 
         } catch (Exception e) {
@@ -70,7 +129,10 @@ public class CreditPaymentScheduleServiceImpl implements CreditPaymentScheduleSe
         }
 
         try {
-            paymentScheduleRepository.saveAll(listMonthlyInstallments);
+            bulkWriter.insertAll(listMonthlyInstallments, CreditPaymentSchedule.class);
+            dueDateEngine.register(InstallmentKind.CREDIT, listMonthlyInstallments.stream()
+                    .map(CreditPaymentSchedule::getDueDate)
+                    .collect(Collectors.toList()));
         } catch (Exception e) {
             log.error("Unexpected error while saving monthly payment list: {}", e.getMessage());
             throw new ServiceException("Unexpected error while saving monthly payment list");
@@ -78,6 +140,53 @@ public class CreditPaymentScheduleServiceImpl implements CreditPaymentScheduleSe
         log.info(" *** Successful creation *** ");
     }
 
+    /**
+     * Almacena las cuotas de los cronogramas compactos que vencen dentro del horizonte
+     * configurado, por lotes de créditos. Las cuotas se insertan solo si no existen, por lo
+     * que una ejecución interrumpida antes de actualizar los créditos puede repetirse.
+     *
+     * @return Número de cuotas almacenadas
+     * @throws ServiceException si ocurre un error al almacenar las cuotas
+     */
+    @Override
+    public long materializeInstallments() {
+
+        LocalDate horizon = LocalDate.now().plusMonths(horizonMonths);
+        long materialized = 0;
+
+        try {
+            while (true) {
+                List<Credit> credits =
+                        creditRepository.findByNextMaterializationDueDateLessThanEqual(
+                                horizon, PageRequest.of(0, materializeBatchSize));
+                if (credits.isEmpty()) {
+                    return materialized;
+                }
+
+                List<CreditPaymentSchedule> installments = new ArrayList<>();
+                for (Credit credit : credits) {
+                    int number = credit.getMaterializedInstallments();
+                    while (number < credit.getTerm()
+                            && !dueDate(credit, number + 1).isAfter(horizon)) {
+                        installments.add(buildInstallment(credit, ++number));
+                    }
+                    setMaterializedInstallments(credit, number);
+                }
+
+                paymentScheduleRepository.insertMissingInstallments(installments);
+                creditRepository.updateMaterializedInstallments(credits);
+                dueDateEngine.register(InstallmentKind.CREDIT, installments.stream()
+                        .map(CreditPaymentSchedule::getDueDate)
+                        .collect(Collectors.toList()));
+                materialized += installments.size();
+            }
+        } catch (Exception e) {
+            log.error("Error materializing credit installments: {}", e.getMessage());
+            throw new ServiceException(
+                    "Error materializing credit installments" + e.getMessage());
+        }
+    }
+
     /**
      * Obtiene las cuotas mensuales pendientes de pago.
      *
@@ -90,18 +199,11 @@ public class CreditPaymentScheduleServiceImpl implements CreditPaymentScheduleSe
     public List<CreditPaymentSchedule> getMonthInstallments(String creditId, int paymentDay) {
 
         try {
-            LocalDate currentDate = LocalDate.now();
-            LocalDate dueDate =
-                    LocalDate.of(currentDate.getYear(), currentDate.getMonth(), paymentDay);
-
-            // Si la fecha de pago ya pasó este mes, obtener la del próximo mes
-            if (currentDate.isAfter(dueDate)) {
-                dueDate = dueDate.plusMonths(1);
-            }
-
-            List<CreditPaymentSchedule> paymentScheduleList =
-                    paymentScheduleRepository.findByCreditIdAndDueDateLessThanAndStatusNot(
-                            creditId, dueDate, InstallmentStatusEnum.PAID);
+            LocalDate dueDate = currentDueDate(paymentDay);
+            List<CreditPaymentSchedule> paymentScheduleList = unitOfWork.find(
+                    CreditPaymentSchedule.class, "due:" + creditId + ":" + dueDate,
+                    () -> paymentScheduleRepository.findByCreditIdAndDueDateLessThanAndStatusIn(
+                            creditId, dueDate, Constants.OPEN_INSTALLMENT_STATUSES));
 
             if (paymentScheduleList.isEmpty()) {
                 throw new CreditNotFoundException("No debt exists");
@@ -119,11 +221,13 @@ public class CreditPaymentScheduleServiceImpl implements CreditPaymentScheduleSe
     /**
      * Calcula el pago mensual considerando intereses por mora si aplica.
      * Si una cuota está vencida, calcula los intereses moratorios basados en los días de retraso.
+     * La cotización se agrega en MongoDB, sin transferir las cuotas no pagadas.
      *
      * @param creditId ID del crédito
-     * @param installmentNumber Número de cuota
+     * @param installmentNumber Día de pago establecido
      * @return Dto con el detalle a pagar en el mes
-     * @throws ServiceException si ocurre un error durante el cálculo
+     * @throws ServiceException si no existen deudas pendientes u ocurre un error durante
+     *     el cálculo
      */
     @Override
     public PaymentDetailsDto calculateMonthlyPayment(String creditId, int installmentNumber) {
@@ -131,61 +235,11 @@ public class CreditPaymentScheduleServiceImpl implements CreditPaymentScheduleSe
         log.info("Calculating the monthly payment.: {}", creditId);
 
         try {
+            return paymentScheduleRepository.quoteOpenInstallments(
+                            creditId, currentDueDate(installmentNumber), LocalDate.now(),
+                            Constants.DAILY_LATE_PAYMENT_INTEREST)
+                    .orElseThrow(() -> new CreditNotFoundException("No debt exists"));
 
-            List<CreditPaymentSchedule> creditInstallmentList =
-                    getMonthInstallments(creditId, installmentNumber);
-
-            BigDecimal totalInstallment = BigDecimal.ZERO;
-            BigDecimal totalInterest = BigDecimal.ZERO;
-            PaymentDetailsDto paymentDetails = new PaymentDetailsDto();
-
-            for (CreditPaymentSchedule creditInstallment : creditInstallmentList) {
-
-                BigDecimal installmentAmount = creditInstallment.getInstallmentAmount();
-                BigDecimal interestAmount;
-
-                if (isOverdue(creditInstallment)) {
-                    try {
-                        // Obtener días de retraso
-                        long daysOverdue = ChronoUnit.DAYS
-                                .between(creditInstallment.getDueDate(), LocalDate.now());
-
-                        // Calcular interés diario (interes anual / 365)
-                        BigDecimal dailyInterestRate =
-                                BigDecimal.valueOf(Constants.LATE_PAYMENT_INTEREST / 365.0);
-
-                        // Calcular monto de interés
-                        interestAmount = installmentAmount
-                                .multiply(dailyInterestRate)
-                                .multiply(BigDecimal.valueOf(daysOverdue));
-
-                        // Actualizar estado de cuota mensual a VENCIDO (OVERDUE), si aún no lo esta
-                        if (creditInstallment.getStatus() != InstallmentStatusEnum.OVERDUE) {
-                            creditInstallment.setStatus(InstallmentStatusEnum.OVERDUE);
-                        }
-                        creditInstallment.setInterest(interestAmount);
-                        creditInstallment.setDaysOverdue(daysOverdue);
-                        creditInstallment.setUpdatedAt(LocalDateTime.now());
-
-                        paymentScheduleRepository.save(creditInstallment);
-
-                        totalInterest = totalInterest.add(interestAmount);
-                    } catch (Exception e) {
-                        log.error("Error updating overdue installment {}: {}",
-                                creditInstallment.getId(), e.getMessage());
-                        throw new ServiceException(
-                                "Error updating overdue installment" + e.getMessage());
-                    }
-                }
-
-                totalInstallment = totalInstallment.add(installmentAmount);
-            }
-
-            paymentDetails.setPaymentAmount(totalInstallment);
-            paymentDetails.setPaymentFee(totalInterest);
-            paymentDetails.setTotalPayment(totalInstallment.add(totalInterest));
-
-            return paymentDetails;
         } catch (Exception e) {
             log.error("Error calculating monthly payment: {}", e.getMessage());
             throw new ServiceException("Error calculating monthly payment" + e.getMessage());
@@ -215,22 +269,34 @@ public class CreditPaymentScheduleServiceImpl implements CreditPaymentScheduleSe
                     getMonthInstallments(creditId, paymentDay);
 
             BigDecimal amountPaid = BigDecimal.ZERO;
-            PaymentDetailsDto paymentDetails = calculateMonthlyPayment(creditId, paymentDay);
+            PaymentDetailsDto paymentDetails = summarizePayment(creditInstallmentList);
 
             if (paymentAmount.compareTo(paymentDetails.getTotalPayment()) != 0) {
                 throw new BusinessRuleException(
                         "Payment amount is different than monthly debt amount");
             }
 
+            List<LocalDate> releasedDueDates = new ArrayList<>();
+            List<String> paidInstallmentIds = new ArrayList<>();
+            int paidOverdueInstallments = 0;
+
             for (CreditPaymentSchedule creditInstallment : creditInstallmentList) {
 
-                creditInstallment.setStatus(InstallmentStatusEnum.PAID);
-                creditInstallment.setUpdatedAt(LocalDateTime.now());
+                if (creditInstallment.getStatus() == InstallmentStatusEnum.PENDING) {
+                    releasedDueDates.add(creditInstallment.getDueDate());
+                } else if (creditInstallment.getStatus() == InstallmentStatusEnum.OVERDUE) {
+                    paidOverdueInstallments++;
+                }
+                paidInstallmentIds.add(creditInstallment.getId());
                 amountPaid = amountPaid.add(creditInstallment.getInstallmentAmount());
-
-                paymentScheduleRepository.save(creditInstallment);
             }
 
+            unitOfWork.registerUpdate(paidInstallmentIds, new Update()
+                    .set("status", InstallmentStatusEnum.PAID)
+                    .set("updatedAt", LocalDateTime.now()), CreditPaymentSchedule.class);
+            dueDateEngine.release(InstallmentKind.CREDIT, releasedDueDates);
+            paymentDetails.setPaidOverdueInstallments(paidOverdueInstallments);
+
             log.info(" *** Successful payment *** ");
 
             return paymentDetails;
@@ -243,28 +309,162 @@ public class CreditPaymentScheduleServiceImpl implements CreditPaymentScheduleSe
     }
 
     /**
-     * Verifica si existen cuotas vencidas para un crédito.
+     * Marca como vencidas las cuotas no pagadas cuya fecha de vencimiento ya pasó,
+     * recalculando sus días de retraso e interés moratorio mediante una única
+     * actualización masiva en el servidor. Las cuotas que pasan de pendientes a vencidas se
+     * cuentan antes por cliente y se suman a sus perfiles de riesgo.
      *
-     * @param creditId identificador de crédito
-     * @param status estatus de la cuota
-     * @return resultado si el credito cuenta con deudas vencidas
+     * @return Número de cuotas actualizadas
+     * @throws ServiceException si ocurre un error durante la actualización
      */
     @Override
-    public boolean getCustomerCreditDebts(String creditId, InstallmentStatusEnum status) {
+    public long markOverdueInstallments() {
 
         try {
-            Long numberOverdueInstallments =
-                    paymentScheduleRepository.countByCreditIdAndStatus(creditId, status);
-
-            if (numberOverdueInstallments > 0) {
-                return true;
-            }
-            return false;
+            LocalDate currentDate = LocalDate.now();
+            Map<String, Long> overdueByCustomer =
+                    paymentScheduleRepository.countPendingOverdueByCustomer(currentDate);
+            long updated = paymentScheduleRepository.markOverdueInstallments(
+                    currentDate, Constants.DAILY_LATE_PAYMENT_INTEREST);
+            riskProfileService.recordOverdueInstallments(InstallmentKind.CREDIT, overdueByCustomer);
+            return updated;
         } catch (Exception e) {
-            log.error("Error getting number of overdue installments : {}", e.getMessage());
+            log.error("Error marking overdue credit installments: {}", e.getMessage());
             throw new ServiceException(
-                    "Error getting number of overdue installments" + e.getMessage());
+                    "Error marking overdue credit installments" + e.getMessage());
+        }
+    }
+
+    /**
+     * Recalcula la fecha desde la que un crédito tiene cuotas vencidas, después de pagar
+     * cuotas vencidas. Un error no interrumpe el pago, ya confirmado: se registra y la
+     * siguiente actualización de cuotas vencidas corrige el crédito.
+     *
+     * @param creditId ID del crédito
+     */
+    @Override
+    public void refreshOverdueSince(String creditId) {
+
+        try {
+            paymentScheduleRepository.refreshOverdueSince(List.of(creditId));
+        } catch (Exception e) {
+            log.error("Error refreshing overdue date of credit {}: {}", creditId, e.getMessage());
+        }
+    }
+
+    /**
+     * Construye una cuota del cronograma de un crédito a partir de sus parámetros.
+     *
+     * @param credit Crédito de la cuota
+     * @param number Número de la cuota, desde 1
+     * @return Cuota pendiente
+     */
+    private CreditPaymentSchedule buildInstallment(Credit credit, int number) {
+
+        return CreditPaymentSchedule.builder()
+                .creditId(credit.getId())
+                .creditAmount(credit.getAmount())
+                .installmentNumber(number)
+                .installmentAmount(credit.getNextPaymentAmount())
+                .dueDate(dueDate(credit, number))
+                .status(InstallmentStatusEnum.PENDING)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Obtiene la fecha de vencimiento de una cuota: un mes por cuota desde la creación
+     * del crédito.
+     *
+     * @param credit Crédito de la cuota
+     * @param number Número de la cuota, desde 1
+     * @return Fecha de vencimiento de la cuota
+     */
+    private LocalDate dueDate(Credit credit, int number) {
+
+        return credit.getCreatedAt().toLocalDate().plusMonths(number);
+    }
+
+    /**
+     * Registra en un crédito el número de cuotas almacenadas de su cronograma compacto y el
+     * vencimiento de la siguiente, o ninguno si el cronograma está completo.
+     *
+     * @param credit Crédito con cronograma compacto
+     * @param installments Número de cuotas almacenadas
+     */
+    private void setMaterializedInstallments(Credit credit, int installments) {
+
+        credit.setMaterializedInstallments(installments);
+        credit.setNextMaterializationDueDate(installments < credit.getTerm()
+                ? dueDate(credit, installments + 1)
+                : null);
+    }
+
+    /**
+     * Calcula el interés moratorio de una cuota a la fecha actual.
+     *
+     * @param installmentAmount Monto de la cuota
+     * @param dueDate Fecha de vencimiento de la cuota
+     * @return Interés moratorio acumulado
+     */
+    private BigDecimal calculateLateInterest(BigDecimal installmentAmount, LocalDate dueDate) {
+
+        long daysOverdue = ChronoUnit.DAYS.between(dueDate, LocalDate.now());
+        return installmentAmount
+                .multiply(Constants.DAILY_LATE_PAYMENT_INTEREST)
+                .multiply(BigDecimal.valueOf(daysOverdue));
+    }
+
+    /**
+     * Calcula el detalle del pago de cuotas ya leídas, con el mismo cálculo que la cotización
+     * agregada en MongoDB.
+     *
+     * @param installments Cuotas no pagadas
+     * @return Dto con el detalle a pagar
+     */
+    private PaymentDetailsDto summarizePayment(List<CreditPaymentSchedule> installments) {
+
+        BigDecimal totalInstallment = BigDecimal.ZERO;
+        BigDecimal totalInterest = BigDecimal.ZERO;
+
+        for (CreditPaymentSchedule creditInstallment : installments) {
+
+            BigDecimal installmentAmount = creditInstallment.getInstallmentAmount();
+
+            // Calcular el interés moratorio vigente; el barrido nocturno lo persiste
+            if (isOverdue(creditInstallment)) {
+                totalInterest = totalInterest.add(calculateLateInterest(
+                        installmentAmount, creditInstallment.getDueDate()));
+            }
+
+            totalInstallment = totalInstallment.add(installmentAmount);
+        }
+
+        return PaymentDetailsDto.builder()
+                .paymentAmount(totalInstallment)
+                .paymentFee(totalInterest)
+                .totalPayment(totalInstallment.add(totalInterest))
+                .build();
+    }
+
+    /**
+     * Obtiene la fecha de vencimiento del mes en curso para un día de pago.
+     *
+     * @param paymentDay Día de pago establecido
+     * @return Fecha de pago de este mes, o del próximo si ya pasó
+     */
+    private LocalDate currentDueDate(int paymentDay) {
+
+        LocalDate currentDate = LocalDate.now();
+        LocalDate dueDate =
+                LocalDate.of(currentDate.getYear(), currentDate.getMonth(), paymentDay);
+
+        // Si la fecha de pago ya pasó este mes, obtener la del próximo mes
+        if (currentDate.isAfter(dueDate)) {
+            dueDate = dueDate.plusMonths(1);
         }
+        return dueDate;
     }
 
     /**
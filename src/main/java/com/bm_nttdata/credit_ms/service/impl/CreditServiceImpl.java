@@ -7,7 +7,6 @@ import com.bm_nttdata.credit_ms.dto.PaymentDetailsDto;
 import com.bm_nttdata.credit_ms.entity.Credit;
 import com.bm_nttdata.credit_ms.entity.DailyCreditBalance;
 import com.bm_nttdata.credit_ms.enums.CreditStatusEnum;
-import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
 import com.bm_nttdata.credit_ms.exception.ApiInvalidRequestException;
 import com.bm_nttdata.credit_ms.exception.BusinessRuleException;
 import com.bm_nttdata.credit_ms.exception.CreditNotFoundException;
@@ -17,22 +16,23 @@ import com.bm_nttdata.credit_ms.model.BalanceUpdateRequestDto;
 import com.bm_nttdata.credit_ms.model.CreditRequestDto;
 import com.bm_nttdata.credit_ms.model.PaymentCreditProductRequestDto;
 import com.bm_nttdata.credit_ms.repository.CreditRepository;
-import com.bm_nttdata.credit_ms.repository.DailyCreditBalanceRepository;
+import com.bm_nttdata.credit_ms.scheduler.InstallmentDueDateEngine.InstallmentKind;
 import com.bm_nttdata.credit_ms.service.CreditPaymentScheduleService;
 import com.bm_nttdata.credit_ms.service.CreditService;
+import com.bm_nttdata.credit_ms.service.CustomerRiskProfileService;
+import com.bm_nttdata.credit_ms.service.DailyBalanceService;
 import com.bm_nttdata.credit_ms.util.MonthlyInstallmentCalculator;
+import com.bm_nttdata.credit_ms.util.OptimisticLockRetry;
+import com.bm_nttdata.credit_ms.util.UnitOfWork;
 import feign.FeignException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.YearMonth;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
-import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -46,11 +46,13 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class CreditServiceImpl implements CreditService {
 
+    private static final String CREDIT_BALANCE_UPDATE = "credit-balance-update";
+
     @Autowired
     private CreditRepository creditRepository;
 
     @Autowired
-    private DailyCreditBalanceRepository dailyCreditBalanceRepository;
+    private DailyBalanceService dailyBalanceService;
 
     @Autowired
     private CreditMapper creditMapper;
@@ -62,6 +64,15 @@ public class CreditServiceImpl implements CreditService {
     @Autowired
     private MonthlyInstallmentCalculator installmentCalculator;
 
+    @Autowired
+    private OptimisticLockRetry optimisticLockRetry;
+
+    @Autowired
+    private UnitOfWork unitOfWork;
+
+    @Autowired
+    private CustomerRiskProfileService riskProfileService;
+
     /**
      * Obtiene todos los créditos de un cliente.
      *
@@ -90,7 +101,20 @@ public class CreditServiceImpl implements CreditService {
      */
     @Override
     public Credit getCreditById(String id) {
-        return creditRepository.findById(id)
+        return unitOfWork.find(Credit.class, id, () -> creditRepository.findById(id)
+                .orElseThrow(() -> new CreditNotFoundException("Credit not found with id: " + id)));
+    }
+
+    /**
+     * Obtiene un crédito con solo los campos de su saldo, en una lectura proyectada.
+     *
+     * @param id ID del crédito
+     * @return Crédito con los campos del saldo
+     * @throws CreditNotFoundException si no se encuentra un crédito con el id enviado.
+     */
+    @Override
+    public Credit getCreditBalance(String id) {
+        return creditRepository.findBalanceById(id)
                 .orElseThrow(() -> new CreditNotFoundException("Credit not found with id: " + id));
     }
 
@@ -121,10 +145,13 @@ public class CreditServiceImpl implements CreditService {
                         creditRequest.getTerm());
         Credit credit = initializeCredit(
                 creditMapper.creditRequestDtoToCreditEntity(creditRequest), monthlyPayment);
+        paymentScheduleService.initializePaymentSchedule(credit);
 
         try {
             credit = creditRepository.save(credit);
             paymentScheduleService.createPaymentSchedule(credit);
+            dailyBalanceService.recordBalanceChange(credit.getId(), credit.getBalance());
+            riskProfileService.recordCreditChange(credit.getCustomerId(), 1, credit.getBalance());
             return credit;
         } catch (Exception e) {
             log.error("Unexpected error while saving credit: {}", e.getMessage());
@@ -146,29 +173,40 @@ public class CreditServiceImpl implements CreditService {
                 paymentCreditProductRequest.getCreditId());
 
         try {
-            Credit credit = getCreditById(paymentCreditProductRequest.getCreditId());
-            PaymentDetailsDto paymentDetails = paymentScheduleService.payMonthlyInstallment(
-                    paymentCreditProductRequest.getAmount(),
-                    credit.getId(),
-                    credit.getPaymentDay());
+            return unitOfWork.execute(() -> {
+                Credit credit = getCreditById(paymentCreditProductRequest.getCreditId());
+                PaymentDetailsDto paymentDetails = paymentScheduleService.payMonthlyInstallment(
+                        paymentCreditProductRequest.getAmount(),
+                        credit.getId(),
+                        credit.getPaymentDay());
+
+                // Las cuotas se marcan como pagadas antes de actualizar el saldo del crédito
+                unitOfWork.flush();
+                if (paymentDetails.getPaidOverdueInstallments() > 0) {
+                    riskProfileService.recordOverdueInstallments(InstallmentKind.CREDIT, Map.of(
+                            credit.getCustomerId(),
+                            (long) -paymentDetails.getPaidOverdueInstallments()));
+                    paymentScheduleService.refreshOverdueSince(credit.getId());
+                }
 
-            BalanceUpdateRequestDto balanceUpdateRequest = new BalanceUpdateRequestDto();
-            balanceUpdateRequest.setTransactionAmount(paymentDetails.getPaymentAmount());
-            balanceUpdateRequest.setTransactionType(
-                    BalanceUpdateRequestDto.TransactionTypeEnum.PAYMENT);
+                BalanceUpdateRequestDto balanceUpdateRequest = new BalanceUpdateRequestDto();
+                balanceUpdateRequest.setTransactionAmount(paymentDetails.getPaymentAmount());
+                balanceUpdateRequest.setTransactionType(
+                        BalanceUpdateRequestDto.TransactionTypeEnum.PAYMENT);
 
-            OperationResponseDto operationResponse =
-                    updateCreditBalance(credit.getId(), balanceUpdateRequest);
+                OperationResponseDto operationResponse =
+                        updateCreditBalance(credit.getId(), balanceUpdateRequest);
 
-            if (!operationResponse.getStatus().equals("SUCCESS")) {
+                if (!operationResponse.getStatus().equals("SUCCESS")) {
 
-                return operationResponse;
-            }
+                    return operationResponse;
+                }
 
-            log.info("Payment processed successfully: {}", credit.getId());
-            operationResponse.setMessage("Payment successfully processed");
+                log.info("Payment processed successfully: {}", credit.getId());
+                operationResponse.setMessage("Payment successfully processed");
 
-            return operationResponse;
+                return operationResponse;
+            });
 
         } catch (Exception e) {
             log.error("Error when paying monthly payment : {}", e.getMessage());
@@ -180,6 +218,22 @@ public class CreditServiceImpl implements CreditService {
         }
     }
 
+    /**
+     * Cotiza el pago de las cuotas no pagadas del mes en curso de un crédito.
+     *
+     * @param id ID del crédito
+     * @return Detalle a pagar en el mes
+     * @throws CreditNotFoundException si el crédito no existe o no tiene deudas pendientes
+     */
+    @Override
+    public PaymentDetailsDto getPaymentQuote(String id) {
+
+        log.info("Quoting monthly payment of credit: {}", id);
+        Credit credit = getCreditById(id);
+        return paymentScheduleService.calculateMonthlyPayment(
+                credit.getId(), credit.getPaymentDay());
+    }
+
     /**
      * Actualiza el saldo de un crédito.
      *
@@ -194,7 +248,6 @@ public class CreditServiceImpl implements CreditService {
         log.info("Initiating credit balance update: {}", id);
 
         try {
-            Credit credit = getCreditById(id);
             String transactionType = balanceUpdateRequest.getTransactionType().getValue();
             BigDecimal transactionAmount = balanceUpdateRequest.getTransactionAmount();
 
@@ -206,12 +259,30 @@ public class CreditServiceImpl implements CreditService {
                         .build();
             }
 
-            credit.setBalance(credit.getBalance().subtract(transactionAmount));
-            credit.setNextPaymentDate(credit.getNextPaymentDate().plusMonths(1));
-            credit.setNextPaymentInstallment(credit.getNextPaymentInstallment() + 1);
-            credit.setUpdatedAt(LocalDateTime.now());
+            // El primer intento usa el crédito ya leído en la unidad de trabajo; ante un
+            // conflicto se descarta y el siguiente intento lee su última versión
+            Credit credit = optimisticLockRetry.execute(CREDIT_BALANCE_UPDATE, () -> {
+                Credit currentCredit = getCreditById(id);
+                Credit updatedCredit = creditRepository
+                        .applyPayment(currentCredit, transactionAmount)
+                        .orElseThrow(() -> {
+                            unitOfWork.evict(Credit.class, id);
+                            return new OptimisticLockingFailureException(
+                                    "Credit was modified concurrently: " + id);
+                        });
+                unitOfWork.put(Credit.class, id, updatedCredit);
+                return updatedCredit;
+            });
+
+            if (transactionAmount.signum() != 0) {
+                dailyBalanceService.recordBalanceChange(credit.getId(), credit.getBalance());
+            }
 
-            creditRepository.save(credit);
+            // Un pago que salda el crédito lo descuenta de los créditos con saldo pendiente
+            boolean settled = credit.getBalance().signum() <= 0
+                    && credit.getBalance().add(transactionAmount).signum() > 0;
+            riskProfileService.recordCreditChange(
+                    credit.getCustomerId(), settled ? -1 : 0, transactionAmount.negate());
 
             log.info(" *** Balance update successful *** ");
 
@@ -263,25 +334,7 @@ public class CreditServiceImpl implements CreditService {
             String creditId, LocalDate searchMonth) {
 
         try {
-            YearMonth month = YearMonth.from(searchMonth);
-            LocalDate startDate = month.atDay(1);
-            LocalDate endDate = month.atEndOfMonth();
-
-            // Convertir LocalDate a ZonedDateTime en UTC
-            ZonedDateTime startDateTime = startDate.atStartOfDay(ZoneOffset.UTC);
-            ZonedDateTime endDateTime = endDate.atTime(LocalTime.MAX).atZone(ZoneOffset.UTC);
-
-            // Convertir a Date para la consulta
-            Date startDateMongo = Date.from(startDateTime.toInstant());
-            Date endDateMongo = Date.from(endDateTime.toInstant());
-
-            List<DailyCreditBalance> dailyBalanceList =
-                    dailyCreditBalanceRepository.findByCreditProductIdAndDateBetween(
-                            creditId,
-                            startDateMongo,
-                            endDateMongo);
-            log.info("Balances found: " + dailyBalanceList);
-            return dailyBalanceList;
+            return dailyBalanceService.getMonthlyBalances(creditId, searchMonth);
         } catch (Exception e) {
             log.error("Unexpected error while getting daily balances: {}", e.getMessage());
             throw new ServiceException(
@@ -293,17 +346,7 @@ public class CreditServiceImpl implements CreditService {
     public boolean getCustomerCreditDebts(String customerId) {
 
         try {
-            List<Credit> creditList = creditRepository.findByCustomerId(customerId);
-
-            for (Credit credit : creditList) {
-                boolean hasDebt =
-                        paymentScheduleService.getCustomerCreditDebts(
-                                credit.getId(), InstallmentStatusEnum.OVERDUE);
-                if (hasDebt) {
-                    return true;
-                }
-            }
-            return false;
+            return riskProfileService.getProfile(customerId).getOverdueCreditInstallments() > 0;
         } catch (Exception e) {
             log.error("Unexpected error while getting customer credit debts: {}", e.getMessage());
             throw new ServiceException(
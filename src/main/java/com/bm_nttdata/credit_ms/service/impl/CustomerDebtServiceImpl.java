@@ -0,0 +1,86 @@
+package com.bm_nttdata.credit_ms.service.impl;
+
+import com.bm_nttdata.credit_ms.dto.CustomerDebtDetailsDto;
+import com.bm_nttdata.credit_ms.entity.CustomerRiskProfile;
+import com.bm_nttdata.credit_ms.exception.ApiInvalidRequestException;
+import com.bm_nttdata.credit_ms.service.CustomerDebtService;
+import com.bm_nttdata.credit_ms.service.CustomerRiskProfileService;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementación del servicio de deudas de clientes.
+ * Las deudas vencidas de créditos y de tarjetas de crédito se leen del perfil de riesgo de
+ * cada cliente, con una lectura por ID para un cliente o para un grupo de clientes.
+ */
+@Slf4j
+@Service
+public class CustomerDebtServiceImpl implements CustomerDebtService {
+
+    @Autowired
+    private CustomerRiskProfileService riskProfileService;
+
+    /**
+     * Verifica si un cliente tiene cuotas vencidas en sus créditos y en sus tarjetas de crédito.
+     *
+     * @param customerId identificador del cliente
+     * @return Deudas vencidas del cliente por tipo de producto
+     * @throws ApiInvalidRequestException si no se envia un Id de cliente
+     */
+    @Override
+    public CustomerDebtDetailsDto getCustomerDebts(String customerId) {
+
+        if (customerId == null || customerId.isBlank()) {
+            throw new ApiInvalidRequestException("Customer id is required");
+        }
+
+        log.info("Verifying credit and credit card debts of customer: {}", customerId);
+        CustomerRiskProfile profile = riskProfileService.getProfile(customerId);
+        boolean hasCreditDebts = profile.getOverdueCreditInstallments() > 0;
+        boolean hasCreditCardDebts = profile.getOverdueCardInstallments() > 0;
+
+        return CustomerDebtDetailsDto.builder()
+                .customerId(customerId)
+                .hasCreditDebts(hasCreditDebts)
+                .hasCreditCardDebts(hasCreditCardDebts)
+                .hasDebts(hasCreditDebts || hasCreditCardDebts)
+                .build();
+    }
+
+    /**
+     * Verifica si un grupo de clientes tiene cuotas vencidas en sus créditos o en sus tarjetas
+     * de crédito, con una única lectura de sus perfiles de riesgo.
+     *
+     * @param customerIds identificadores de los clientes
+     * @return Indicador de deuda vencida por cliente, en el orden recibido
+     * @throws ApiInvalidRequestException si no se envian Ids de clientes o alguno está vacío
+     */
+    @Override
+    public Map<String, Boolean> getCustomersDebts(List<String> customerIds) {
+
+        if (customerIds == null || customerIds.isEmpty()) {
+            throw new ApiInvalidRequestException("Customer ids are required");
+        }
+        if (customerIds.stream().anyMatch(id -> id == null || id.isBlank())) {
+            throw new ApiInvalidRequestException("Customer ids must not be blank");
+        }
+
+        Set<String> distinctIds = new LinkedHashSet<>(customerIds);
+        log.info("Verifying credit and credit card debts of {} customers", distinctIds.size());
+        Map<String, CustomerRiskProfile> profiles = riskProfileService.getProfiles(distinctIds);
+
+        Map<String, Boolean> debts = new LinkedHashMap<>();
+        distinctIds.forEach(id -> {
+            CustomerRiskProfile profile = profiles.get(id);
+            debts.put(id, profile.getOverdueCreditInstallments() > 0
+                    || profile.getOverdueCardInstallments() > 0);
+        });
+        return debts;
+    }
+}
@@ -0,0 +1,59 @@
+package com.bm_nttdata.credit_ms.service.impl;
+
+import com.bm_nttdata.credit_ms.dto.CustomerPortfolioDetailsDto;
+import com.bm_nttdata.credit_ms.exception.ApiInvalidRequestException;
+import com.bm_nttdata.credit_ms.exception.ServiceException;
+import com.bm_nttdata.credit_ms.repository.CreditRepository;
+import com.bm_nttdata.credit_ms.service.CustomerPortfolioService;
+import java.time.LocalDate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementación del servicio de portafolio de clientes.
+ * El portafolio se obtiene con una única agregación sobre los créditos, las tarjetas de
+ * crédito y las cuotas del cliente, en lugar de consultar cada producto por separado.
+ */
+@Slf4j
+@Service
+public class CustomerPortfolioServiceImpl implements CustomerPortfolioService {
+
+    @Autowired
+    private CreditRepository creditRepository;
+
+    /**
+     * Obtiene los créditos y tarjetas de crédito de un cliente con sus saldos, próximos pagos
+     * y cuotas vencidas.
+     *
+     * @param customerId identificador del cliente
+     * @return Portafolio del cliente
+     * @throws ApiInvalidRequestException si no se envia un Id de cliente
+     * @throws ServiceException si ocurre un error al obtener el portafolio
+     */
+    @Override
+    public CustomerPortfolioDetailsDto getCustomerPortfolio(String customerId) {
+
+        if (customerId == null || customerId.isBlank()) {
+            throw new ApiInvalidRequestException("Customer id is required");
+        }
+
+        log.info("Getting credit portfolio of customer: {}", customerId);
+        CustomerPortfolioDetailsDto portfolio;
+        try {
+            portfolio = creditRepository.findCustomerPortfolio(customerId, LocalDate.now());
+        } catch (Exception e) {
+            log.error("Unexpected error while getting customer portfolio: {}", e.getMessage());
+            throw new ServiceException(
+                    "Unexpected error while getting customer portfolio" + e.getMessage());
+        }
+
+        portfolio.setCustomerId(customerId);
+        portfolio.setHasDebts(
+                portfolio.getCredits().stream()
+                        .anyMatch(credit -> credit.getOverdueInstallments() > 0)
+                || portfolio.getCreditCards().stream()
+                        .anyMatch(creditCard -> creditCard.getOverdueInstallments() > 0));
+        return portfolio;
+    }
+}
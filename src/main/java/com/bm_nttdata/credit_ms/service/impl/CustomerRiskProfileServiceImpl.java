@@ -0,0 +1,159 @@
+package com.bm_nttdata.credit_ms.service.impl;
+
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import com.bm_nttdata.credit_ms.entity.CustomerRiskProfile;
+import com.bm_nttdata.credit_ms.exception.ServiceException;
+import com.bm_nttdata.credit_ms.repository.CreditCardRepository;
+import com.bm_nttdata.credit_ms.repository.CustomerRiskProfileRepository;
+import com.bm_nttdata.credit_ms.scheduler.InstallmentDueDateEngine.InstallmentKind;
+import com.bm_nttdata.credit_ms.service.CustomerRiskProfileService;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementación del servicio de perfiles de riesgo de clientes.
+ * Los cambios se aplican con incrementos atómicos sobre el perfil existente. Un error al
+ * registrar un cambio no interrumpe la operación que lo originó, ya confirmada en su propia
+ * colección: se registra y la reconciliación periódica corrige el perfil.
+ * El cliente titular de cada tarjeta se conserva en memoria, ya que no cambia, para no leer
+ * la tarjeta en cada cargo autorizado en el libro de crédito en memoria.
+ */
+@Slf4j
+@Service
+public class CustomerRiskProfileServiceImpl implements CustomerRiskProfileService {
+
+    @Autowired
+    private CustomerRiskProfileRepository riskProfileRepository;
+
+    @Autowired
+    private CreditCardRepository creditCardRepository;
+
+    @Value("${credit.risk-profile.reconcile-batch-size:500}")
+    private int reconcileBatchSize;
+
+    private final Map<String, String> cardOwners = new ConcurrentHashMap<>();
+
+    /**
+     * Obtiene el perfil de riesgo de un cliente, calculándolo desde sus productos si aún
+     * no existe.
+     *
+     * @param customerId ID del cliente
+     * @return Perfil de riesgo del cliente
+     * @throws ServiceException si ocurre un error al obtener o calcular el perfil
+     */
+    @Override
+    public CustomerRiskProfile getProfile(String customerId) {
+
+        return getProfiles(List.of(customerId)).get(customerId);
+    }
+
+    /**
+     * Obtiene los perfiles de riesgo de un grupo de clientes, calculando en un solo lote los
+     * que aún no existen.
+     *
+     * @param customerIds IDs de los clientes
+     * @return Perfil de riesgo por ID de cliente
+     * @throws ServiceException si ocurre un error al obtener o calcular los perfiles
+     */
+    @Override
+    public Map<String, CustomerRiskProfile> getProfiles(Collection<String> customerIds) {
+
+        try {
+            Map<String, CustomerRiskProfile> profiles = new HashMap<>();
+            riskProfileRepository.findAllById(customerIds)
+                    .forEach(profile -> profiles.put(profile.getCustomerId(), profile));
+
+            Set<String> missing = new LinkedHashSet<>(customerIds);
+            missing.removeAll(profiles.keySet());
+            if (!missing.isEmpty()) {
+                log.info("Building risk profiles of {} customers", missing.size());
+                List<CustomerRiskProfile> built = riskProfileRepository.computeProfiles(missing);
+                riskProfileRepository.replaceProfiles(built);
+                built.forEach(profile -> profiles.put(profile.getCustomerId(), profile));
+            }
+            return profiles;
+        } catch (Exception e) {
+            log.error("Unexpected error while getting risk profiles: {}", e.getMessage());
+            throw new ServiceException(
+                    "Unexpected error while getting risk profiles" + e.getMessage());
+        }
+    }
+
+    @Override
+    public void recordCreditChange(String customerId, long openCredits, BigDecimal creditBalance) {
+
+        try {
+            riskProfileRepository.incrementCredits(customerId, openCredits, creditBalance);
+        } catch (Exception e) {
+            log.error("Error updating credits of risk profile {}: {}", customerId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void recordCardExposureChange(CreditCard creditCard, BigDecimal cardExposure) {
+
+        if (cardExposure.signum() == 0) {
+            return;
+        }
+
+        try {
+            String customerId = creditCard.getCustomerId() != null
+                    ? cardOwners.computeIfAbsent(creditCard.getId(),
+                            id -> creditCard.getCustomerId())
+                    : cardOwners.computeIfAbsent(creditCard.getId(),
+                            id -> creditCardRepository.findCustomerIdById(id).orElse(null));
+            if (customerId != null) {
+                riskProfileRepository.incrementCardExposure(customerId, cardExposure);
+            }
+        } catch (Exception e) {
+            log.error("Error updating card exposure of risk profile for credit card {}: {}",
+                    creditCard.getId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void recordOverdueInstallments(
+            InstallmentKind kind, Map<String, Long> overdueByCustomer) {
+
+        try {
+            if (kind == InstallmentKind.CREDIT) {
+                riskProfileRepository.incrementOverdueCreditInstallments(overdueByCustomer);
+            } else {
+                riskProfileRepository.incrementOverdueCardInstallments(overdueByCustomer);
+            }
+        } catch (Exception e) {
+            log.error("Error updating overdue {} installments of {} risk profiles: {}",
+                    kind, overdueByCustomer.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public long reconcileProfiles() {
+
+        long reconciled = 0;
+        String lastCustomerId = null;
+
+        while (true) {
+            List<String> customerIds =
+                    riskProfileRepository.findCustomerIdsAfter(lastCustomerId, reconcileBatchSize);
+            if (customerIds.isEmpty()) {
+                return reconciled;
+            }
+
+            riskProfileRepository.replaceProfiles(
+                    riskProfileRepository.computeProfiles(customerIds));
+            reconciled += customerIds.size();
+            lastCustomerId = customerIds.get(customerIds.size() - 1);
+        }
+    }
+}
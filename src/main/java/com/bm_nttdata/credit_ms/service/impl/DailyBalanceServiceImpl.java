@@ -0,0 +1,558 @@
+package com.bm_nttdata.credit_ms.service.impl;
+
+import com.bm_nttdata.credit_ms.entity.Credit;
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import com.bm_nttdata.credit_ms.entity.DailyCreditBalance;
+import com.bm_nttdata.credit_ms.entity.MonthlyBalanceStats;
+import com.bm_nttdata.credit_ms.entity.SchedulerPartition;
+import com.bm_nttdata.credit_ms.enums.CardStatusEnum;
+import com.bm_nttdata.credit_ms.enums.CreditStatusEnum;
+import com.bm_nttdata.credit_ms.exception.ApiInvalidRequestException;
+import com.bm_nttdata.credit_ms.exception.ServiceException;
+import com.bm_nttdata.credit_ms.repository.DailyBalanceStore;
+import com.bm_nttdata.credit_ms.repository.impl.MonthlyBalanceStatsStore;
+import com.bm_nttdata.credit_ms.scheduler.SchedulerPartitionCoordinator;
+import com.bm_nttdata.credit_ms.service.DailyBalanceService;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementación del servicio de saldos diarios.
+ * Recorre los productos ACTIVOS mediante un cursor de MongoDB proyectando únicamente
+ * el identificador y el saldo, y escribe los registros en lotes desordenados de tamaño
+ * configurable, de modo que el consumo de memoria no depende del tamaño de la cartera.
+ * Cada saldo diario se escribe mediante un upsert sobre la clave natural producto y fecha,
+ * por lo que reprocesar una partición o un día no genera registros duplicados. La
+ * disposición física de los saldos depende del almacén de saldos diarios configurado.
+ * En modo delta la serie diaria de un mes se reconstruye arrastrando el último saldo
+ * registrado hasta el siguiente cambio.
+ */
+@Slf4j
+@Service
+public class DailyBalanceServiceImpl implements DailyBalanceService {
+
+    private static final String CREDIT_CHECKPOINT = "creditCheckpointId";
+
+    private static final String CARD_CHECKPOINT = "cardCheckpointId";
+
+    // Antigüedad máxima del último saldo registrado que se arrastra a un día faltante
+    private static final int CARRY_FORWARD_DAYS = 31;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DailyBalanceStore dailyBalanceStore;
+
+    @Autowired
+    private MonthlyBalanceStatsStore balanceStatsStore;
+
+    @Autowired
+    private SchedulerPartitionCoordinator partitionCoordinator;
+
+    @Value("${credit.daily-balance.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${credit.daily-balance.mode:full}")
+    private String snapshotMode;
+
+    @Value("${credit.daily-balance.backfill.parallelism:4}")
+    private int backfillParallelism;
+
+    @Value("${credit.daily-balance.backfill.max-days:366}")
+    private int backfillMaxDays;
+
+    /**
+     * Registra el saldo diario de los créditos y tarjetas de crédito ACTIVOS de una partición.
+     * Si la partición fue interrumpida, se reanuda desde su último punto de control.
+     *
+     * @param date Fecha del registro
+     * @param partition Partición con los rangos de identificadores a procesar
+     * @return Número de productos procesados
+     */
+    @Override
+    public long recordDailyBalances(LocalDate date, SchedulerPartition partition) {
+
+        long startTime = System.nanoTime();
+
+        long credits = recordProductBalances(
+                Credit.class, "balance",
+                withIdRange(Criteria.where("status").is(CreditStatusEnum.ACTIVE),
+                        partition.getCreditLowerId(), partition.getCreditCheckpointId(),
+                        partition.getCreditUpperId()),
+                Credit::getId, Credit::getBalance, date, partition, CREDIT_CHECKPOINT);
+
+        long creditCards = recordProductBalances(
+                CreditCard.class, "availableCredit",
+                withIdRange(Criteria.where("status").is(CardStatusEnum.ACTIVE),
+                        partition.getCardLowerId(), partition.getCardCheckpointId(),
+                        partition.getCardUpperId()),
+                CreditCard::getId, CreditCard::getAvailableCredit, date, partition,
+                CARD_CHECKPOINT);
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        long total = credits + creditCards;
+
+        log.info("Partition {}: {} credits, {} credit cards in {} ms ({} products/s)",
+                partition.getId(), credits, creditCards, elapsedMillis,
+                elapsedMillis == 0 ? total : total * 1000 / elapsedMillis);
+
+        return total;
+    }
+
+    /**
+     * Indica si en una fecha corresponde registrar el saldo de todos los productos.
+     *
+     * @param date Fecha del registro
+     * @return true en modo completo o, en modo delta, el primer día del mes
+     */
+    @Override
+    public boolean requiresFullSnapshot(LocalDate date) {
+
+        return !isDeltaMode() || date.getDayOfMonth() == 1;
+    }
+
+    /**
+     * Registra en modo delta el nuevo saldo de un producto como saldo del día siguiente.
+     *
+     * @param productId Identificador del producto de crédito
+     * @param balance Nuevo saldo del producto
+     */
+    @Override
+    public void recordBalanceChange(String productId, BigDecimal balance) {
+
+        if (!isDeltaMode()) {
+            return;
+        }
+
+        // Un fallo en la fotografía no revierte la operación; el backfill completa el hueco
+        try {
+            writeBalances(List.of(DailyCreditBalance.builder()
+                    .creditProductId(productId)
+                    .date(LocalDate.now().plusDays(1))
+                    .balance(balance)
+                    .build()));
+        } catch (Exception e) {
+            log.error("Error recording balance change for product {}: {}",
+                    productId, e.getMessage());
+        }
+    }
+
+    /**
+     * Completa los saldos diarios faltantes de un rango de fechas.
+     * Los días incompletos se procesan en paralelo; en cada uno se registra, para los
+     * productos sin saldo, el último saldo conocido anterior al día o, en su defecto,
+     * el saldo actual del producto.
+     *
+     * @param startDate Fecha inicial del rango
+     * @param endDate Fecha final del rango
+     * @return Número de saldos diarios procesados
+     * @throws ApiInvalidRequestException si el rango de fechas no es válido
+     * @throws ServiceException si el procesamiento de algún día falla
+     */
+    @Override
+    public long backfillDailyBalances(LocalDate startDate, LocalDate endDate) {
+
+        if (startDate.isAfter(endDate)) {
+            throw new ApiInvalidRequestException("Start date must not be after end date");
+        }
+        if (endDate.isAfter(LocalDate.now())) {
+            throw new ApiInvalidRequestException("End date must not be in the future");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= backfillMaxDays) {
+            throw new ApiInvalidRequestException(
+                    "Date range must not exceed " + backfillMaxDays + " days");
+        }
+
+        List<LocalDate> incompleteDays = findIncompleteDays(startDate, endDate);
+        log.info("Backfilling daily balances from {} to {}: {} incomplete days",
+                startDate, endDate, incompleteDays.size());
+
+        if (incompleteDays.isEmpty()) {
+            return 0;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(backfillParallelism, incompleteDays.size()));
+
+        try {
+            List<Future<Long>> results = incompleteDays.stream()
+                    .map(day -> executor.submit(() -> backfillDay(day)))
+                    .collect(Collectors.toList());
+
+            long total = 0;
+            for (Future<Long> result : results) {
+                total += result.get();
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("Daily balance backfill interrupted");
+        } catch (ExecutionException e) {
+            throw new ServiceException(
+                    "Error backfilling daily balances: " + e.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Obtiene los saldos diarios registrados de un producto durante un mes.
+     *
+     * @param productId Identificador del producto de crédito
+     * @param searchMonth Fecha dentro del mes de consulta
+     * @return Lista de saldos diarios del producto
+     */
+    @Override
+    public List<DailyCreditBalance> getMonthlyBalances(String productId, LocalDate searchMonth) {
+
+        YearMonth month = YearMonth.from(searchMonth);
+        List<DailyCreditBalance> dailyBalances = dailyBalanceStore.findMonth(productId, month);
+
+        if (isDeltaMode()) {
+            dailyBalances = carryForward(productId, dailyBalances, month);
+        }
+        log.info("Balances found: " + dailyBalances);
+        return dailyBalances;
+    }
+
+    /**
+     * Obtiene las estadísticas de saldo diario de un producto durante un mes.
+     * El último saldo pendiente de las estadísticas se acumula por los días que lleva
+     * vigente: un día en modo completo y hasta el día actual o el fin de mes en modo delta.
+     *
+     * @param productId Identificador del producto de crédito
+     * @param searchMonth Fecha dentro del mes de consulta
+     * @return Estadísticas del mes; sin días registrados si no existen saldos
+     */
+    @Override
+    public MonthlyBalanceStats getMonthlyStats(String productId, LocalDate searchMonth) {
+
+        YearMonth month = YearMonth.from(searchMonth);
+        MonthlyBalanceStats stats = balanceStatsStore.find(productId, month);
+
+        if (stats == null) {
+            return MonthlyBalanceStats.builder()
+                    .creditProductId(productId)
+                    .month(month.toString())
+                    .sum(BigDecimal.ZERO)
+                    .build();
+        }
+        if (stats.getLast() == null) {
+            return stats;
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate lastDay = month.atEndOfMonth().isAfter(today) ? today : month.atEndOfMonth();
+        long pendingDays = stats.getLastDate().isAfter(lastDay)
+                ? 0
+                : isDeltaMode() ? ChronoUnit.DAYS.between(stats.getLastDate(), lastDay) + 1 : 1;
+
+        if (pendingDays > 0) {
+            BigDecimal last = stats.getLast();
+            stats.setSum(stats.getSum() == null
+                    ? last.multiply(BigDecimal.valueOf(pendingDays))
+                    : stats.getSum().add(last.multiply(BigDecimal.valueOf(pendingDays))));
+            stats.setCount(stats.getCount() + pendingDays);
+            stats.setMin(stats.getMin() == null ? last : stats.getMin().min(last));
+            stats.setMax(stats.getMax() == null ? last : stats.getMax().max(last));
+        }
+        return stats;
+    }
+
+    /**
+     * Recorre los productos que cumplen el criterio en orden de identificador y registra
+     * su saldo en lotes. Tras cada lote se guarda el punto de control de la partición,
+     * renovando su arrendamiento.
+     *
+     * @param productType Clase del producto de crédito
+     * @param balanceField Nombre del campo de saldo a proyectar
+     * @param criteria Criterio de selección de productos
+     * @param idExtractor Función que obtiene el identificador del producto
+     * @param balanceExtractor Función que obtiene el saldo del producto
+     * @param date Fecha del registro
+     * @param partition Partición en proceso
+     * @param checkpointField Campo de punto de control del rango procesado
+     * @param <T> Tipo del producto de crédito
+     * @return Número de productos procesados
+     * @throws ServiceException si el arrendamiento de la partición se pierde
+     */
+    private <T> long recordProductBalances(
+            Class<T> productType, String balanceField, Criteria criteria,
+            Function<T, String> idExtractor, Function<T, BigDecimal> balanceExtractor,
+            LocalDate date, SchedulerPartition partition, String checkpointField) {
+
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "id"));
+        query.fields().include("id", balanceField);
+
+        return processInBatches(query, productType, batch -> {
+            int written = writeBalances(batch.stream()
+                    .map(product -> DailyCreditBalance.builder()
+                            .creditProductId(idExtractor.apply(product))
+                            .date(date)
+                            .balance(balanceExtractor.apply(product))
+                            .build())
+                    .collect(Collectors.toList()));
+
+            String lastProcessedId = idExtractor.apply(batch.get(batch.size() - 1));
+            if (!partitionCoordinator.checkpoint(partition, checkpointField, lastProcessedId)) {
+                throw new ServiceException("Lease lost for partition " + partition.getId());
+            }
+            return written;
+        });
+    }
+
+    /**
+     * Escribe saldos diarios reemplazando los existentes y actualiza sus estadísticas
+     * mensuales.
+     *
+     * @param balances Saldos diarios a escribir
+     * @return Número de saldos diarios procesados
+     */
+    private int writeBalances(List<DailyCreditBalance> balances) {
+
+        int written = dailyBalanceStore.write(balances);
+        balanceStatsStore.record(balances);
+        return written;
+    }
+
+    /**
+     * Completa los saldos diarios faltantes de un día para créditos y tarjetas de crédito.
+     *
+     * @param day Día a completar
+     * @return Número de saldos diarios procesados
+     */
+    private long backfillDay(LocalDate day) {
+
+        long credits = backfillProductBalances(
+                Credit.class, "balance", Criteria.where("status").is(CreditStatusEnum.ACTIVE),
+                Credit::getId, Credit::getBalance, day);
+
+        long creditCards = backfillProductBalances(
+                CreditCard.class, "availableCredit",
+                Criteria.where("status").is(CardStatusEnum.ACTIVE),
+                CreditCard::getId, CreditCard::getAvailableCredit, day);
+
+        log.info("Backfilled daily balances for {}: {} credits, {} credit cards",
+                day, credits, creditCards);
+
+        return credits + creditCards;
+    }
+
+    /**
+     * Registra el saldo de un día para los productos existentes en esa fecha que aún no
+     * lo tienen. Los saldos ya registrados no se modifican y solo los saldos registrados
+     * actualizan las estadísticas mensuales.
+     *
+     * @param productType Clase del producto de crédito
+     * @param balanceField Nombre del campo de saldo a proyectar
+     * @param statusCriteria Criterio de estado de los productos
+     * @param idExtractor Función que obtiene el identificador del producto
+     * @param balanceExtractor Función que obtiene el saldo actual del producto
+     * @param day Día a completar
+     * @param <T> Tipo del producto de crédito
+     * @return Número de saldos diarios registrados
+     */
+    private <T> long backfillProductBalances(
+            Class<T> productType, String balanceField, Criteria statusCriteria,
+            Function<T, String> idExtractor, Function<T, BigDecimal> balanceExtractor,
+            LocalDate day) {
+
+        Query query = new Query(statusCriteria.and("createdAt").lt(day.plusDays(1).atStartOfDay()));
+        query.fields().include("id", balanceField);
+
+        return processInBatches(query, productType, batch -> {
+            Map<String, BigDecimal> lastBalances = dailyBalanceStore.findLastBalancesBefore(
+                    batch.stream().map(idExtractor).collect(Collectors.toList()),
+                    day, day.minusDays(CARRY_FORWARD_DAYS));
+
+            List<DailyCreditBalance> inserted = dailyBalanceStore.insertMissing(batch.stream()
+                    .map(product -> {
+                        String productId = idExtractor.apply(product);
+                        return DailyCreditBalance.builder()
+                                .creditProductId(productId)
+                                .date(day)
+                                .balance(lastBalances.containsKey(productId)
+                                        ? lastBalances.get(productId)
+                                        : balanceExtractor.apply(product))
+                                .build();
+                    })
+                    .collect(Collectors.toList()));
+            balanceStatsStore.record(inserted);
+            return inserted.size();
+        });
+    }
+
+    /**
+     * Reconstruye la serie diaria de un mes a partir de los cambios de saldo registrados.
+     * Cada día sin registro toma el último saldo registrado anterior dentro del mes; la serie
+     * termina el día actual o el último día del mes.
+     *
+     * @param productId Identificador del producto de crédito
+     * @param recorded Saldos registrados del mes
+     * @param month Mes de consulta
+     * @return Serie de saldos diarios del mes
+     */
+    private List<DailyCreditBalance> carryForward(
+            String productId, List<DailyCreditBalance> recorded, YearMonth month) {
+
+        Map<LocalDate, DailyCreditBalance> recordedByDate = recorded.stream()
+                .collect(Collectors.toMap(
+                        DailyCreditBalance::getDate, Function.identity(),
+                        (first, second) -> second));
+        LocalDate today = LocalDate.now();
+        LocalDate lastDay = month.atEndOfMonth().isAfter(today) ? today : month.atEndOfMonth();
+
+        List<DailyCreditBalance> dailyBalances = new ArrayList<>();
+        BigDecimal lastBalance = null;
+        for (LocalDate day = month.atDay(1); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            DailyCreditBalance dailyBalance = recordedByDate.get(day);
+
+            if (dailyBalance != null) {
+                lastBalance = dailyBalance.getBalance();
+                dailyBalances.add(dailyBalance);
+            } else if (lastBalance != null) {
+                dailyBalances.add(DailyCreditBalance.builder()
+                        .id(productId + ":" + day)
+                        .creditProductId(productId)
+                        .date(day)
+                        .balance(lastBalance)
+                        .build());
+            }
+        }
+        return dailyBalances;
+    }
+
+    /**
+     * Recorre el resultado de una consulta mediante un cursor y lo entrega en lotes.
+     *
+     * @param query Consulta de productos
+     * @param productType Clase del producto de crédito
+     * @param batchHandler Procesador de un lote que retorna el número de elementos procesados
+     * @param <T> Tipo del producto de crédito
+     * @return Número de elementos procesados
+     */
+    private <T> long processInBatches(
+            Query query, Class<T> productType, ToLongFunction<List<T>> batchHandler) {
+
+        List<T> batch = new ArrayList<>(batchSize);
+        long processed = 0;
+
+        try (Stream<T> products = mongoTemplate.stream(
+                query.cursorBatchSize(batchSize), productType)) {
+            Iterator<T> iterator = products.iterator();
+
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+
+                if (batch.size() >= batchSize) {
+                    processed += batchHandler.applyAsLong(batch);
+                    batch.clear();
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            processed += batchHandler.applyAsLong(batch);
+        }
+        return processed;
+    }
+
+    /**
+     * Identifica los días de un rango con menos saldos registrados que productos ACTIVOS
+     * existentes en cada día.
+     *
+     * @param startDate Fecha inicial del rango
+     * @param endDate Fecha final del rango
+     * @return Lista de días incompletos
+     */
+    private List<LocalDate> findIncompleteDays(LocalDate startDate, LocalDate endDate) {
+
+        Map<LocalDate, Long> recordedByDay = dailyBalanceStore.countByDay(startDate, endDate);
+
+        return startDate.datesUntil(endDate.plusDays(1))
+                .filter(this::requiresFullSnapshot)
+                .filter(day -> recordedByDay.getOrDefault(day, 0L) < countActiveProducts(day))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Cuenta los créditos y tarjetas de crédito ACTIVOS creados hasta un día.
+     *
+     * @param day Día de referencia
+     * @return Número de productos
+     */
+    private long countActiveProducts(LocalDate day) {
+
+        LocalDateTime nextDay = day.plusDays(1).atStartOfDay();
+
+        return mongoTemplate.count(Query.query(Criteria.where("status")
+                        .is(CreditStatusEnum.ACTIVE).and("createdAt").lt(nextDay)), Credit.class)
+                + mongoTemplate.count(Query.query(Criteria.where("status")
+                        .is(CardStatusEnum.ACTIVE).and("createdAt").lt(nextDay)), CreditCard.class);
+    }
+
+    /**
+     * Indica si los saldos diarios se registran en modo delta.
+     *
+     * @return true si solo se registran los cambios de saldo
+     */
+    private boolean isDeltaMode() {
+
+        return "delta".equalsIgnoreCase(snapshotMode);
+    }
+
+    /**
+     * Restringe un criterio al rango de identificadores [lowerId, upperId).
+     * Si existe un punto de control, el rango comienza después del último identificador
+     * procesado. Un límite nulo indica que el rango no está acotado por ese extremo.
+     *
+     * @param criteria Criterio base
+     * @param lowerId Límite inferior inclusivo
+     * @param checkpointId Último identificador procesado, exclusivo
+     * @param upperId Límite superior exclusivo
+     * @return Criterio restringido al rango
+     */
+    private Criteria withIdRange(
+            Criteria criteria, String lowerId, String checkpointId, String upperId) {
+
+        if (checkpointId == null && lowerId == null && upperId == null) {
+            return criteria;
+        }
+
+        Criteria idCriteria = criteria.and("id");
+        if (checkpointId != null) {
+            idCriteria.gt(checkpointId);
+        } else if (lowerId != null) {
+            idCriteria.gte(lowerId);
+        }
+        if (upperId != null) {
+            idCriteria.lt(upperId);
+        }
+        return idCriteria;
+    }
+}
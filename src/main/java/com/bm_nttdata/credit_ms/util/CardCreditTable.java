@@ -0,0 +1,387 @@
+package com.bm_nttdata.credit_ms.util;
+
+import java.util.Arrays;
+
+/**
+ * Tabla hash de direccionamiento abierto con arreglos primitivos para el crédito disponible
+ * de tarjetas de crédito.
+ * Las claves son identificadores ObjectId en hexadecimal, almacenados como un long y un int
+ * sin crear objetos; los montos se guardan en punto fijo como long. Cada posición acumula
+ * además la variación aún no escrita en la base de datos y se encola como pendiente la
+ * primera vez que cambia.
+ * La tabla no es segura para hilos: quien la usa debe sincronizar el acceso.
+ */
+public class CardCreditTable {
+
+    private static final byte EMPTY = 0;
+
+    private static final byte FULL = 1;
+
+    private static final byte DELETED = 2;
+
+    private static final int KEY_LENGTH = 24;
+
+    private byte[] states;
+
+    private long[] keyHigh;
+
+    private int[] keyLow;
+
+    private long[] available;
+
+    private long[] pending;
+
+    private int[] paymentDays;
+
+    private boolean[] dirty;
+
+    private int[] dirtySlots;
+
+    private int dirtyCount;
+
+    private int size;
+
+    private int used;
+
+    /**
+     * Construye una tabla con capacidad para un número esperado de tarjetas.
+     *
+     * @param expectedSize Número esperado de tarjetas
+     */
+    public CardCreditTable(int expectedSize) {
+
+        allocate(capacityFor(Math.max(expectedSize, 16)));
+    }
+
+    /**
+     * Verifica si un identificador puede usarse como clave, es decir, si es un ObjectId
+     * en hexadecimal.
+     *
+     * @param id Identificador de la tarjeta
+     * @return true si el identificador es válido como clave
+     */
+    public static boolean isValidKey(String id) {
+
+        if (id == null || id.length() != KEY_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < KEY_LENGTH; i++) {
+            if (Character.digit(id.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Número de tarjetas de la tabla.
+     *
+     * @return Número de tarjetas
+     */
+    public int size() {
+
+        return size;
+    }
+
+    /**
+     * Busca la posición de una tarjeta.
+     *
+     * @param id Identificador de la tarjeta
+     * @return Posición de la tarjeta, o -1 si no está en la tabla
+     */
+    public int find(String id) {
+
+        if (!isValidKey(id)) {
+            return -1;
+        }
+        return findSlot(parseHigh(id), parseLow(id));
+    }
+
+    /**
+     * Agrega una tarjeta o reemplaza sus valores, descartando su variación pendiente.
+     *
+     * @param id Identificador de la tarjeta, que debe ser una clave válida
+     * @param availableUnits Crédito disponible en punto fijo
+     * @param paymentDay Día de pago de la tarjeta
+     */
+    public void put(String id, long availableUnits, int paymentDay) {
+
+        long high = parseHigh(id);
+        int low = parseLow(id);
+        int slot = findSlot(high, low);
+
+        if (slot < 0) {
+            if ((used + 1) * 2 > states.length) {
+                rehash(capacityFor(size + 1));
+            }
+            slot = insertionSlot(high, low);
+            if (states[slot] == EMPTY) {
+                used++;
+            }
+            states[slot] = FULL;
+            keyHigh[slot] = high;
+            keyLow[slot] = low;
+            size++;
+        }
+        available[slot] = availableUnits;
+        pending[slot] = 0;
+        dirty[slot] = false;
+        paymentDays[slot] = paymentDay;
+    }
+
+    /**
+     * Elimina una tarjeta de la tabla.
+     *
+     * @param slot Posición de la tarjeta
+     * @return Variación pendiente de escribir de la tarjeta eliminada
+     */
+    public long remove(int slot) {
+
+        final long delta = pending[slot];
+        states[slot] = DELETED;
+        pending[slot] = 0;
+        dirty[slot] = false;
+        size--;
+        return delta;
+    }
+
+    /**
+     * Crédito disponible de una tarjeta.
+     *
+     * @param slot Posición de la tarjeta
+     * @return Crédito disponible en punto fijo
+     */
+    public long available(int slot) {
+
+        return available[slot];
+    }
+
+    /**
+     * Día de pago de una tarjeta.
+     *
+     * @param slot Posición de la tarjeta
+     * @return Día de pago
+     */
+    public int paymentDay(int slot) {
+
+        return paymentDays[slot];
+    }
+
+    /**
+     * Suma una variación al crédito disponible de una tarjeta y la acumula como pendiente.
+     *
+     * @param slot Posición de la tarjeta
+     * @param deltaUnits Variación en punto fijo
+     * @return Nuevo crédito disponible en punto fijo
+     */
+    public long add(int slot, long deltaUnits) {
+
+        available[slot] += deltaUnits;
+        addPending(slot, deltaUnits);
+        return available[slot];
+    }
+
+    /**
+     * Vuelve a acumular como pendiente una variación cuya escritura falló,
+     * sin modificar el crédito disponible.
+     *
+     * @param id Identificador de la tarjeta
+     * @param deltaUnits Variación en punto fijo
+     * @return false si la tarjeta ya no está en la tabla
+     */
+    public boolean restorePending(String id, long deltaUnits) {
+
+        int slot = find(id);
+        if (slot < 0) {
+            return false;
+        }
+        addPending(slot, deltaUnits);
+        return true;
+    }
+
+    /**
+     * Extrae las variaciones pendientes de escribir, dejándolas en cero.
+     *
+     * @param consumer Receptor de cada variación pendiente distinta de cero
+     * @return Número de variaciones extraídas
+     */
+    public int drainPending(PendingConsumer consumer) {
+
+        int drained = 0;
+        for (int i = 0; i < dirtyCount; i++) {
+            int slot = dirtySlots[i];
+            if (states[slot] != FULL || !dirty[slot]) {
+                continue;
+            }
+            dirty[slot] = false;
+            if (pending[slot] != 0) {
+                consumer.accept(keyHigh[slot], keyLow[slot], pending[slot]);
+                pending[slot] = 0;
+                drained++;
+            }
+        }
+        dirtyCount = 0;
+        return drained;
+    }
+
+    /**
+     * Convierte una clave almacenada al identificador hexadecimal de la tarjeta.
+     *
+     * @param high Parte alta de la clave
+     * @param low Parte baja de la clave
+     * @return Identificador de la tarjeta
+     */
+    public static String toId(long high, int low) {
+
+        String highHex = Long.toHexString(high);
+        String lowHex = Integer.toHexString(low);
+        return "0".repeat(16 - highHex.length()) + highHex
+                + "0".repeat(8 - lowHex.length()) + lowHex;
+    }
+
+    private void addPending(int slot, long deltaUnits) {
+
+        pending[slot] += deltaUnits;
+        if (!dirty[slot]) {
+            if (dirtyCount == dirtySlots.length) {
+                compactDirtySlots();
+            }
+            dirty[slot] = true;
+            dirtySlots[dirtyCount++] = slot;
+        }
+    }
+
+    /**
+     * Descarta de la cola de pendientes las posiciones eliminadas que siguen encoladas.
+     */
+    private void compactDirtySlots() {
+
+        int kept = 0;
+        for (int i = 0; i < dirtyCount; i++) {
+            int slot = dirtySlots[i];
+            if (states[slot] == FULL && dirty[slot]) {
+                dirtySlots[kept++] = slot;
+            }
+        }
+        dirtyCount = kept;
+    }
+
+    private int findSlot(long high, int low) {
+
+        int mask = states.length - 1;
+        int slot = hash(high, low) & mask;
+
+        while (states[slot] != EMPTY) {
+            if (states[slot] == FULL && keyHigh[slot] == high && keyLow[slot] == low) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int insertionSlot(long high, int low) {
+
+        int mask = states.length - 1;
+        int slot = hash(high, low) & mask;
+
+        while (states[slot] == FULL) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+
+        byte[] oldStates = states;
+        long[] oldHigh = keyHigh;
+        int[] oldLow = keyLow;
+        long[] oldAvailable = available;
+        long[] oldPending = pending;
+        int[] oldPaymentDays = paymentDays;
+        boolean[] oldDirty = dirty;
+
+        allocate(capacity);
+        for (int i = 0; i < oldStates.length; i++) {
+            if (oldStates[i] != FULL) {
+                continue;
+            }
+            int slot = insertionSlot(oldHigh[i], oldLow[i]);
+            states[slot] = FULL;
+            keyHigh[slot] = oldHigh[i];
+            keyLow[slot] = oldLow[i];
+            available[slot] = oldAvailable[i];
+            paymentDays[slot] = oldPaymentDays[i];
+            if (oldDirty[i]) {
+                addPending(slot, oldPending[i]);
+            }
+            size++;
+            used++;
+        }
+    }
+
+    private void allocate(int capacity) {
+
+        states = new byte[capacity];
+        keyHigh = new long[capacity];
+        keyLow = new int[capacity];
+        available = new long[capacity];
+        pending = new long[capacity];
+        paymentDays = new int[capacity];
+        dirty = new boolean[capacity];
+        dirtySlots = new int[capacity];
+        Arrays.fill(states, EMPTY);
+        dirtyCount = 0;
+        size = 0;
+        used = 0;
+    }
+
+    private static int capacityFor(int entries) {
+
+        int capacity = Integer.highestOneBit(Math.max(entries * 2, 2) - 1) << 1;
+        return Math.max(capacity, 32);
+    }
+
+    private static int hash(long high, int low) {
+
+        long h = high * 0x9E3779B97F4A7C15L ^ low;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static long parseHigh(String id) {
+
+        long value = 0;
+        for (int i = 0; i < 16; i++) {
+            value = (value << 4) | Character.digit(id.charAt(i), 16);
+        }
+        return value;
+    }
+
+    private static int parseLow(String id) {
+
+        int value = 0;
+        for (int i = 16; i < KEY_LENGTH; i++) {
+            value = (value << 4) | Character.digit(id.charAt(i), 16);
+        }
+        return value;
+    }
+
+    /**
+     * Receptor de las variaciones pendientes extraídas de la tabla.
+     */
+    @FunctionalInterface
+    public interface PendingConsumer {
+
+        /**
+         * Recibe la variación pendiente de una tarjeta.
+         *
+         * @param high Parte alta de la clave
+         * @param low Parte baja de la clave
+         * @param deltaUnits Variación en punto fijo
+         */
+        void accept(long high, int low, long deltaUnits);
+    }
+}
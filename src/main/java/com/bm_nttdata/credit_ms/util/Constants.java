@@ -1,5 +1,9 @@
 package com.bm_nttdata.credit_ms.util;
 
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import java.math.BigDecimal;
+import java.util.List;
+
 /**
  * Clase de constantes para el microservicio de créditos.
  * Contiene valores constantes utilizados en diferentes partes de la aplicación
@@ -8,4 +12,12 @@ package com.bm_nttdata.credit_ms.util;
 public class Constants {
 
     public static final double LATE_PAYMENT_INTEREST = 0.12;
+
+    // Interés moratorio diario (interes anual / 365)
+    public static final BigDecimal DAILY_LATE_PAYMENT_INTEREST =
+            BigDecimal.valueOf(LATE_PAYMENT_INTEREST / 365.0);
+
+    // Estados de las cuotas no pagadas, cubiertos por los índices parciales de cuotas
+    public static final List<InstallmentStatusEnum> OPEN_INSTALLMENT_STATUSES =
+            List.of(InstallmentStatusEnum.PENDING, InstallmentStatusEnum.OVERDUE);
 }
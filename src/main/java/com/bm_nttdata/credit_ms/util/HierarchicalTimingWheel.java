@@ -0,0 +1,209 @@
+package com.bm_nttdata.credit_ms.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rueda de temporización jerárquica para programar vencimientos en memoria.
+ * El primer nivel divide el tiempo en ticks de duración fija; cada nivel superior tiene
+ * ticks tan largos como el intervalo completo del nivel inferior. Los elementos lejanos se
+ * ubican en niveles superiores y descienden al nivel inferior a medida que avanza el tiempo,
+ * por lo que programar, cancelar y avanzar un tick tienen un costo constante
+ * independientemente del número de elementos programados.
+ * Los elementos vencen con la precisión de un tick del primer nivel.
+ *
+ * @param <T> Tipo de los elementos programados
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+
+    private final int wheelSize;
+
+    private final List<Level<T>> levels = new ArrayList<>();
+
+    private final Map<T, Set<T>> bucketByElement = new HashMap<>();
+
+    private final Map<T, Long> deadlineByElement = new HashMap<>();
+
+    /**
+     * Construye una rueda de temporización.
+     *
+     * @param tickMillis Duración en milisegundos de un tick del primer nivel
+     * @param wheelSize Número de posiciones de cada nivel
+     * @param startMillis Instante inicial de la rueda en milisegundos
+     */
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+
+        if (tickMillis <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("Invalid timing wheel configuration");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levels.add(new Level<>(tickMillis, wheelSize, startMillis));
+    }
+
+    /**
+     * Programa el vencimiento de un elemento, reemplazando su programación anterior.
+     *
+     * @param element Elemento a programar
+     * @param deadlineMillis Instante de vencimiento en milisegundos
+     * @return false si el instante ya ha pasado y el elemento no fue programado
+     */
+    public synchronized boolean schedule(T element, long deadlineMillis) {
+
+        cancel(element);
+        if (!place(element, deadlineMillis)) {
+            return false;
+        }
+        deadlineByElement.put(element, deadlineMillis);
+        return true;
+    }
+
+    /**
+     * Cancela la programación de un elemento.
+     *
+     * @param element Elemento a cancelar
+     * @return true si el elemento estaba programado
+     */
+    public synchronized boolean cancel(T element) {
+
+        Set<T> bucket = bucketByElement.remove(element);
+        deadlineByElement.remove(element);
+        return bucket != null && bucket.remove(element);
+    }
+
+    /**
+     * Verifica si un elemento está programado.
+     *
+     * @param element Elemento a verificar
+     * @return true si el elemento está programado
+     */
+    public synchronized boolean contains(T element) {
+
+        return bucketByElement.containsKey(element);
+    }
+
+    /**
+     * Número de elementos programados.
+     *
+     * @return Número de elementos programados
+     */
+    public synchronized int size() {
+
+        return bucketByElement.size();
+    }
+
+    /**
+     * Avanza la rueda hasta un instante y retorna los elementos vencidos.
+     *
+     * @param nowMillis Instante actual en milisegundos
+     * @return Elementos cuyo vencimiento ya se alcanzó, en orden de vencimiento
+     */
+    public synchronized List<T> advance(long nowMillis) {
+
+        List<T> expired = new ArrayList<>();
+        Level<T> root = levels.get(0);
+
+        while (root.currentTime + tickMillis <= nowMillis) {
+            long time = root.currentTime + tickMillis;
+            for (Level<T> level : levels) {
+                if (time % level.tickMillis == 0) {
+                    level.currentTime = time;
+                }
+            }
+
+            // Los niveles superiores cuyo tick comienza en este instante descienden su posición,
+            // de arriba hacia abajo para que cada elemento llegue al nivel que le corresponde
+            for (int i = levels.size() - 1; i > 0; i--) {
+                Level<T> level = levels.get(i);
+                if (time % level.tickMillis == 0) {
+                    for (T element : level.takeBucket(time)) {
+                        bucketByElement.remove(element);
+                        if (!place(element, deadlineByElement.get(element))) {
+                            expired.add(element);
+                        }
+                    }
+                }
+            }
+
+            for (T element : root.takeBucket(time)) {
+                bucketByElement.remove(element);
+                expired.add(element);
+            }
+        }
+
+        expired.forEach(deadlineByElement::remove);
+        return expired;
+    }
+
+    /**
+     * Ubica un elemento en el nivel cuyo intervalo contiene su vencimiento.
+     *
+     * @param element Elemento a ubicar
+     * @param deadlineMillis Instante de vencimiento en milisegundos
+     * @return false si el elemento ya está vencido
+     */
+    private boolean place(T element, long deadlineMillis) {
+
+        Level<T> root = levels.get(0);
+        if (deadlineMillis < root.currentTime + tickMillis) {
+            return false;
+        }
+
+        for (int i = 0; ; i++) {
+            if (i == levels.size()) {
+                Level<T> upper = levels.get(i - 1);
+                levels.add(new Level<>(upper.intervalMillis, wheelSize, root.currentTime));
+            }
+            Level<T> level = levels.get(i);
+            if (deadlineMillis < level.currentTime + level.intervalMillis) {
+                Set<T> bucket = level.bucketFor(deadlineMillis);
+                bucket.add(element);
+                bucketByElement.put(element, bucket);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Nivel de la rueda de temporización.
+     *
+     * @param <T> Tipo de los elementos programados
+     */
+    private static final class Level<T> {
+
+        private final long tickMillis;
+
+        private final long intervalMillis;
+
+        private final List<Set<T>> buckets;
+
+        private long currentTime;
+
+        private Level(long tickMillis, int wheelSize, long startMillis) {
+            this.tickMillis = tickMillis;
+            this.intervalMillis = tickMillis * wheelSize;
+            this.currentTime = startMillis - (startMillis % tickMillis);
+            this.buckets = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new LinkedHashSet<>());
+            }
+        }
+
+        private Set<T> bucketFor(long timeMillis) {
+            return buckets.get((int) ((timeMillis / tickMillis) % buckets.size()));
+        }
+
+        private List<T> takeBucket(long timeMillis) {
+            Set<T> bucket = bucketFor(timeMillis);
+            List<T> elements = new ArrayList<>(bucket);
+            bucket.clear();
+            return elements;
+        }
+    }
+}
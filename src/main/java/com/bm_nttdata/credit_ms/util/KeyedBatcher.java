@@ -0,0 +1,156 @@
+package com.bm_nttdata.credit_ms.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Agrupador de peticiones concurrentes por clave.
+ * La primera petición de una clave abre un lote y espera durante una ventana de tiempo, o
+ * hasta alcanzar el tamaño máximo, a que lleguen otras peticiones de la misma clave. Después
+ * procesa el lote completo en su propio hilo y entrega a cada petición su resultado, sin
+ * requerir hilos adicionales. Las peticiones de un lote se procesan en orden de llegada.
+ *
+ * @param <K> Tipo de la clave de agrupación
+ * @param <T> Tipo de las peticiones
+ * @param <R> Tipo de los resultados
+ */
+public class KeyedBatcher<K, T, R> {
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    private final BiFunction<K, List<T>, List<R>> processor;
+
+    private final Map<K, Batch<T, R>> openBatches = new ConcurrentHashMap<>();
+
+    /**
+     * Construye un agrupador.
+     *
+     * @param windowMillis Tiempo máximo de espera de un lote en milisegundos
+     * @param maxBatchSize Número máximo de peticiones de un lote
+     * @param processor Procesador de un lote, que retorna un resultado por petición y en el
+     *                  mismo orden
+     */
+    public KeyedBatcher(
+            long windowMillis, int maxBatchSize, BiFunction<K, List<T>, List<R>> processor) {
+
+        if (windowMillis < 0 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("Invalid batcher configuration");
+        }
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.processor = processor;
+    }
+
+    /**
+     * Agrega una petición al lote abierto de su clave y espera su resultado.
+     *
+     * @param key Clave de agrupación
+     * @param request Petición
+     * @return Resultado de la petición
+     */
+    public R submit(K key, T request) {
+
+        CompletableFuture<R> result = new CompletableFuture<>();
+        Batch<T, R> batch;
+        boolean leader;
+
+        while (true) {
+            batch = openBatches.computeIfAbsent(key, k -> new Batch<>());
+            synchronized (batch) {
+                if (batch.closed) {
+                    continue;
+                }
+                batch.requests.add(request);
+                batch.results.add(result);
+                leader = batch.requests.size() == 1;
+                if (batch.requests.size() >= maxBatchSize) {
+                    close(key, batch);
+                }
+            }
+            break;
+        }
+
+        if (leader) {
+            process(key, batch);
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Espera la ventana del lote, lo cierra y lo procesa.
+     *
+     * @param key Clave del lote
+     * @param batch Lote abierto por la petición actual
+     */
+    private void process(K key, Batch<T, R> batch) {
+
+        List<T> requests;
+        List<CompletableFuture<R>> results;
+
+        synchronized (batch) {
+            long deadline = System.nanoTime() + windowNanos;
+            long remaining = windowNanos;
+            while (!batch.closed && remaining > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(batch, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                remaining = deadline - System.nanoTime();
+            }
+            close(key, batch);
+            requests = new ArrayList<>(batch.requests);
+            results = new ArrayList<>(batch.results);
+        }
+
+        try {
+            List<R> responses = processor.apply(key, requests);
+            for (int i = 0; i < results.size(); i++) {
+                results.get(i).complete(responses.get(i));
+            }
+        } catch (RuntimeException e) {
+            results.forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private void close(K key, Batch<T, R> batch) {
+
+        if (!batch.closed) {
+            batch.closed = true;
+            openBatches.remove(key, batch);
+            batch.notifyAll();
+        }
+    }
+
+    /**
+     * Lote de peticiones de una clave.
+     *
+     * @param <T> Tipo de las peticiones
+     * @param <R> Tipo de los resultados
+     */
+    private static final class Batch<T, R> {
+
+        private final List<T> requests = new ArrayList<>();
+
+        private final List<CompletableFuture<R>> results = new ArrayList<>();
+
+        private boolean closed;
+    }
+}
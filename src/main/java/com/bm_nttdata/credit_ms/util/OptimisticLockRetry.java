@@ -0,0 +1,109 @@
+package com.bm_nttdata.credit_ms.util;
+
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ejecutor de operaciones de lectura, modificación y escritura sobre documentos versionados.
+ * Si la escritura encuentra una versión distinta a la leída, la operación completa se repite
+ * con una espera exponencial aleatoria, hasta un número máximo de intentos.
+ * Publica por operación el número de intentos, de conflictos de versión y de operaciones que
+ * agotaron sus reintentos, de modo que la tasa de conflictos sea observable.
+ */
+@Slf4j
+@Component
+public class OptimisticLockRetry {
+
+    private static final String OPERATION_TAG = "operation";
+
+    @Value("${credit.optimistic-lock.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${credit.optimistic-lock.initial-backoff-millis:10}")
+    private long initialBackoffMillis;
+
+    @Value("${credit.optimistic-lock.max-backoff-millis:200}")
+    private long maxBackoffMillis;
+
+    @Autowired
+    private RetryRegistry retryRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Retry> retries = new ConcurrentHashMap<>();
+
+    /**
+     * Ejecuta una operación reintentándola ante conflictos de versión.
+     * La operación debe leer el documento en cada intento.
+     *
+     * @param operation Nombre de la operación, usado en las métricas
+     * @param action Operación a ejecutar
+     * @param <T> Tipo del resultado de la operación
+     * @return Resultado de la operación
+     * @throws OptimisticLockingFailureException si los conflictos persisten tras el último intento
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+
+        Counter attempts = Counter.builder("credit.optimistic-lock.attempts")
+                .description("Attempts of versioned read-modify-write operations")
+                .tag(OPERATION_TAG, operation)
+                .register(meterRegistry);
+
+        return retries.computeIfAbsent(operation, this::createRetry)
+                .executeSupplier(() -> {
+                    attempts.increment();
+                    return action.get();
+                });
+    }
+
+    private Retry createRetry(String operation) {
+
+        RetryConfig config = RetryConfig.custom()
+                .maxAttempts(maxAttempts)
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(
+                        Duration.ofMillis(initialBackoffMillis), 2.0, 0.5,
+                        Duration.ofMillis(maxBackoffMillis)))
+                .retryExceptions(OptimisticLockingFailureException.class)
+                .build();
+
+        Counter conflicts = Counter.builder("credit.optimistic-lock.conflicts")
+                .description("Version conflicts of versioned read-modify-write operations")
+                .tag(OPERATION_TAG, operation)
+                .register(meterRegistry);
+        Counter exhausted = Counter.builder("credit.optimistic-lock.exhausted")
+                .description("Versioned operations that failed after the last retry")
+                .tag(OPERATION_TAG, operation)
+                .register(meterRegistry);
+
+        Retry retry = retryRegistry.retry("optimistic-lock-" + operation, config);
+        retry.getEventPublisher()
+                .onRetry(event -> {
+                    conflicts.increment();
+                    log.warn("Version conflict on {}, retry {} in {} ms", operation,
+                            event.getNumberOfRetryAttempts(), event.getWaitInterval().toMillis());
+                })
+                .onError(event -> {
+                    if (event.getLastThrowable() instanceof OptimisticLockingFailureException) {
+                        conflicts.increment();
+                        exhausted.increment();
+                        log.error("Version conflict on {} persisted after {} attempts",
+                                operation, event.getNumberOfRetryAttempts());
+                    }
+                });
+        return retry;
+    }
+}
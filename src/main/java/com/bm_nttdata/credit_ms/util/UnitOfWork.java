@@ -0,0 +1,215 @@
+package com.bm_nttdata.credit_ms.util;
+
+import com.bm_nttdata.credit_ms.repository.BulkWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Unidad de trabajo asociada al hilo que atiende una petición.
+ * Mientras está activa funciona como mapa de identidad: cada documento o consulta se lee de la
+ * base de datos una sola vez y las siguientes lecturas reciben la misma instancia. Además
+ * acumula las actualizaciones de documentos y las escribe agrupadas, una escritura por
+ * colección y actualización, al vaciarse o al terminar la unidad; si la unidad termina con
+ * error, las actualizaciones pendientes se descartan.
+ * Fuera de una unidad activa, como en las tareas programadas, las lecturas y escrituras se
+ * ejecutan directamente.
+ */
+@Slf4j
+@Component
+public class UnitOfWork {
+
+    private final ThreadLocal<Context> current = new ThreadLocal<>();
+
+    @Autowired
+    private BulkWriter bulkWriter;
+
+    /**
+     * Ejecuta una operación dentro de una unidad de trabajo y escribe sus actualizaciones
+     * pendientes al terminar. Si ya existe una unidad activa en el hilo, la operación se
+     * une a ella y la escritura queda a cargo de la unidad exterior.
+     *
+     * @param work Operación a ejecutar
+     * @param <T> Tipo del resultado de la operación
+     * @return Resultado de la operación
+     */
+    public <T> T execute(Supplier<T> work) {
+
+        if (current.get() != null) {
+            return work.get();
+        }
+
+        Context context = new Context();
+        current.set(context);
+        try {
+            T result = work.get();
+            flush();
+            return result;
+        } finally {
+            if (!context.pendingUpdates.isEmpty()) {
+                log.warn("Discarding {} pending updates of a failed unit of work",
+                        context.pendingUpdates.size());
+            }
+            current.remove();
+        }
+    }
+
+    /**
+     * Obtiene un documento o resultado de consulta del mapa de identidad, cargándolo la
+     * primera vez que se solicita dentro de la unidad.
+     *
+     * @param type Clase de la entidad
+     * @param key Identificador del documento o de la consulta
+     * @param loader Lectura en la base de datos
+     * @param <T> Tipo del valor cargado
+     * @return Valor cargado en esta unidad, o leído directamente si no hay una unidad activa
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T find(Class<?> type, Object key, Supplier<T> loader) {
+
+        Context context = current.get();
+        if (context == null) {
+            return loader.get();
+        }
+
+        String identity = identity(type, key);
+        T value = (T) context.identityMap.get(identity);
+        if (value == null) {
+            value = loader.get();
+            context.identityMap.put(identity, value);
+        }
+        return value;
+    }
+
+    /**
+     * Reemplaza en el mapa de identidad la instancia de un documento, por ejemplo tras
+     * guardarlo.
+     *
+     * @param type Clase de la entidad
+     * @param key Identificador del documento
+     * @param value Nueva instancia del documento
+     */
+    public void put(Class<?> type, Object key, Object value) {
+
+        Context context = current.get();
+        if (context != null) {
+            context.identityMap.put(identity(type, key), value);
+        }
+    }
+
+    /**
+     * Descarta del mapa de identidad un documento que dejó de estar vigente, de modo que
+     * la siguiente lectura lo obtenga de la base de datos.
+     *
+     * @param type Clase de la entidad
+     * @param key Identificador del documento
+     */
+    public void evict(Class<?> type, Object key) {
+
+        Context context = current.get();
+        if (context != null) {
+            context.identityMap.remove(identity(type, key));
+        }
+    }
+
+    /**
+     * Registra una actualización de documentos por su identificador. Las actualizaciones
+     * iguales sobre una misma colección se agrupan en una sola escritura.
+     *
+     * @param ids Identificadores de los documentos
+     * @param update Actualización a aplicar
+     * @param entityClass Clase de la entidad
+     */
+    public void registerUpdate(Collection<String> ids, Update update, Class<?> entityClass) {
+
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        Context context = current.get();
+        if (context == null) {
+            bulkWriter.updateAllById(ids, update, entityClass);
+            return;
+        }
+
+        PendingUpdate pending = context.pendingUpdates.computeIfAbsent(
+                new PendingKey(entityClass, update.getUpdateObject()),
+                key -> new PendingUpdate(update));
+        pending.ids.addAll(ids);
+    }
+
+    /**
+     * Escribe las actualizaciones pendientes de la unidad activa, conservando su mapa de
+     * identidad. Permite fijar el orden de las escrituras respecto de otras operaciones.
+     *
+     * @return Número de documentos actualizados
+     */
+    public long flush() {
+
+        Context context = current.get();
+        if (context == null || context.pendingUpdates.isEmpty()) {
+            return 0;
+        }
+
+        List<Map.Entry<PendingKey, PendingUpdate>> pendingUpdates =
+                new ArrayList<>(context.pendingUpdates.entrySet());
+        long updated = 0;
+
+        for (Map.Entry<PendingKey, PendingUpdate> entry : pendingUpdates) {
+            PendingUpdate pending = entry.getValue();
+            updated += bulkWriter.updateAllById(
+                    pending.ids, pending.update, entry.getKey().entityClass());
+            context.pendingUpdates.remove(entry.getKey());
+        }
+        return updated;
+    }
+
+    private static String identity(Class<?> type, Object key) {
+
+        return type.getName() + ":" + key;
+    }
+
+    /**
+     * Estado de una unidad de trabajo activa.
+     */
+    private static final class Context {
+
+        private final Map<String, Object> identityMap = new HashMap<>();
+
+        private final Map<PendingKey, PendingUpdate> pendingUpdates = new LinkedHashMap<>();
+    }
+
+    /**
+     * Colección y contenido de una actualización pendiente, usados para agruparla.
+     *
+     * @param entityClass Clase de la entidad
+     * @param updateObject Documento de la actualización
+     */
+    private record PendingKey(Class<?> entityClass, Document updateObject) {
+    }
+
+    /**
+     * Actualización pendiente junto con los documentos a los que se aplica.
+     */
+    private static final class PendingUpdate {
+
+        private final Update update;
+
+        private final Set<String> ids = new LinkedHashSet<>();
+
+        private PendingUpdate(Update update) {
+            this.update = update;
+        }
+    }
+}
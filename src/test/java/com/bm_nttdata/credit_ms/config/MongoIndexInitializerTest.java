@@ -0,0 +1,104 @@
+package com.bm_nttdata.credit_ms.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.credit_ms.entity.Credit;
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import com.bm_nttdata.credit_ms.entity.CreditCardInstallment;
+import com.bm_nttdata.credit_ms.entity.CreditPaymentSchedule;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+/**
+ * Pruebas de la creación de los índices declarados en las entidades.
+ */
+@ExtendWith(MockitoExtension.class)
+class MongoIndexInitializerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private MongoIndexInitializer indexInitializer;
+
+    private final Map<Class<?>, List<IndexDefinition>> ensuredIndexes = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(
+                new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        when(mongoTemplate.getConverter()).thenReturn(
+                new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+        when(mongoTemplate.indexOps(any(Class.class))).thenAnswer(invocation -> {
+            Class<?> entityType = invocation.getArgument(0);
+            IndexOperations indexOperations = mock(IndexOperations.class);
+            when(indexOperations.ensureIndex(any())).thenAnswer(ensure -> {
+                IndexDefinition index = ensure.getArgument(0);
+                ensuredIndexes.computeIfAbsent(entityType, type -> new ArrayList<>()).add(index);
+                if (index.getIndexKeys().containsKey("customerId")
+                        && entityType == CreditCard.class) {
+                    throw new DataIntegrityViolationException("index build failed");
+                }
+                return "index";
+            });
+            return indexOperations;
+        });
+    }
+
+    @Test
+    void createsProductLookupIndexes() {
+
+        indexInitializer.run(null);
+
+        assertTrue(hasIndex(Credit.class, new Document("customerId", 1)));
+        assertTrue(hasIndex(Credit.class, new Document("status", 1)));
+        assertTrue(hasIndex(CreditCard.class, new Document("status", 1)));
+    }
+
+    @Test
+    void createsPartialIndexesOnOpenInstallments() {
+
+        indexInitializer.run(null);
+
+        for (Class<?> installmentType
+                : List.of(CreditCardInstallment.class, CreditPaymentSchedule.class)) {
+            IndexDefinition index = ensuredIndexes.get(installmentType).stream()
+                    .filter(definition -> "open_status_due_date_idx".equals(
+                            definition.getIndexOptions().get("name")))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals(new Document("status", 1).append("dueDate", 1), index.getIndexKeys());
+            assertEquals(Document.parse("{'status': {'$in': ['PENDING', 'OVERDUE']}}"),
+                    index.getIndexOptions().get("partialFilterExpression"));
+        }
+    }
+
+    private boolean hasIndex(Class<?> entityType, Document keys) {
+
+        return ensuredIndexes.getOrDefault(entityType, List.of()).stream()
+                .anyMatch(index -> keys.equals(index.getIndexKeys()));
+    }
+}
@@ -0,0 +1,367 @@
+package com.bm_nttdata.credit_ms.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bm_nttdata.credit_ms.config.MongoIndexInitializer;
+import com.bm_nttdata.credit_ms.entity.Credit;
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import com.bm_nttdata.credit_ms.entity.CreditCardInstallment;
+import com.bm_nttdata.credit_ms.entity.CreditCardStatement;
+import com.bm_nttdata.credit_ms.entity.CreditPaymentSchedule;
+import com.bm_nttdata.credit_ms.entity.DailyCreditBalance;
+import com.bm_nttdata.credit_ms.enums.CardStatusEnum;
+import com.bm_nttdata.credit_ms.enums.CreditStatusEnum;
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import com.bm_nttdata.credit_ms.util.Constants;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.LongSupplier;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Verifica que las consultas de los repositorios usen los índices declarados en las entidades.
+ * Cada consulta se ejecuta contra un mongod local con el perfilador activo y falla si el plan
+ * ganador recorre la colección completa o examina muchas más claves o documentos de los que
+ * retorna.
+ * Solo se ejecuta si la variable de entorno CREDIT_EXPLAIN_MONGODB_URI apunta a un mongod
+ * standalone de versión 6.0 o superior; usa y elimina la base de datos credit_ms_explain_test.
+ */
+@EnabledIfEnvironmentVariable(named = "CREDIT_EXPLAIN_MONGODB_URI", matches = ".+")
+@DataMongoTest(properties = {
+    "spring.data.mongodb.uri=${CREDIT_EXPLAIN_MONGODB_URI}",
+    "spring.data.mongodb.database=credit_ms_explain_test",
+    "spring.cloud.config.enabled=false"
+})
+@Import(MongoIndexInitializer.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryIndexUsageTest {
+
+    private static final int CUSTOMERS = 25;
+
+    private static final int CARDS_PER_CUSTOMER = 4;
+
+    private static final int INSTALLMENTS_PER_PRODUCT = 24;
+
+    private static final int OPEN_INSTALLMENTS_PER_PRODUCT = 4;
+
+    private static final int BALANCE_DAYS = 60;
+
+    // Claves o documentos examinados admitidos por documento retornado, más una holgura fija
+    private static final long MAX_EXAMINED_PER_RESULT = 2;
+
+    private static final long EXAMINED_SLACK = 2;
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 15);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexInitializer indexInitializer;
+
+    @Autowired
+    private CreditRepository creditRepository;
+
+    @Autowired
+    private CreditCardRepository creditCardRepository;
+
+    @Autowired
+    private CreditCardInstallmentRepository cardInstallmentRepository;
+
+    @Autowired
+    private CreditPaymentScheduleRepository paymentScheduleRepository;
+
+    @Autowired
+    private CreditCardStatementRepository statementRepository;
+
+    @Autowired
+    private DailyCreditBalanceRepository dailyBalanceRepository;
+
+    @BeforeAll
+    void setUp() {
+
+        mongoTemplate.getDb().drop();
+        indexInitializer.run(null);
+        seed();
+        mongoTemplate.getDb().runCommand(new Document("profile", 2));
+    }
+
+    @AfterAll
+    void tearDown() {
+
+        mongoTemplate.getDb().runCommand(new Document("profile", 0));
+        mongoTemplate.getDb().drop();
+    }
+
+    @Test
+    void findOpenCardInstallmentsUsesPartialIndex() {
+
+        assertIndexed("credit_card_installment", () -> cardInstallmentRepository
+                .findByCreditCardIdAndDueDateLessThanAndStatusIn(
+                        cardId(7), TODAY.plusYears(5), Constants.OPEN_INSTALLMENT_STATUSES)
+                .size(), OPEN_INSTALLMENTS_PER_PRODUCT);
+    }
+
+    @Test
+    void findOpenCardStatementsUsesPartialIndex() {
+
+        assertIndexed("credit_card_statements", () -> statementRepository
+                .findByCreditCardIdAndDueDateLessThanAndStatusIn(
+                        cardId(7), TODAY.plusYears(5), Constants.OPEN_INSTALLMENT_STATUSES)
+                .size(), OPEN_INSTALLMENTS_PER_PRODUCT);
+    }
+
+    @Test
+    void findCardInstallmentsByStatusUsesIndex() {
+
+        assertIndexed("credit_card_installment", () -> cardInstallmentRepository
+                .findByCreditCardIdAndStatus(cardId(7), InstallmentStatusEnum.PAID)
+                .size(), INSTALLMENTS_PER_PRODUCT - OPEN_INSTALLMENTS_PER_PRODUCT);
+    }
+
+    @Test
+    void countCardInstallmentsByStatusUsesIndex() {
+
+        assertIndexed("credit_card_installment", () -> cardInstallmentRepository
+                .countByCreditCardIdAndStatus(cardId(7), InstallmentStatusEnum.OVERDUE),
+                OPEN_INSTALLMENTS_PER_PRODUCT / 2);
+    }
+
+    @Test
+    void findOpenCreditInstallmentsUsesPartialIndex() {
+
+        assertIndexed("credit_payment_schedule", () -> paymentScheduleRepository
+                .findByCreditIdAndDueDateLessThanAndStatusIn(
+                        creditId(7), TODAY.plusYears(5), Constants.OPEN_INSTALLMENT_STATUSES)
+                .size(), OPEN_INSTALLMENTS_PER_PRODUCT);
+    }
+
+    @Test
+    void countCreditInstallmentsByStatusUsesIndex() {
+
+        assertIndexed("credit_payment_schedule", () -> paymentScheduleRepository
+                .countByCreditIdAndStatus(creditId(7), InstallmentStatusEnum.OVERDUE),
+                OPEN_INSTALLMENTS_PER_PRODUCT / 2);
+    }
+
+    @Test
+    void findCreditsByCustomerUsesIndex() {
+
+        assertIndexed("credits", () -> creditRepository
+                .findByCustomerId(customerId(3)).size(), CARDS_PER_CUSTOMER);
+    }
+
+    @Test
+    void findCreditsByStatusUsesIndex() {
+
+        assertIndexed("credits", () -> creditRepository
+                .findByStatus(CreditStatusEnum.DEFAULTED).size(), CUSTOMERS);
+    }
+
+    @Test
+    void countCreditsWithAmountByCustomerUsesIndex() {
+
+        assertIndexed("credits", () -> creditRepository
+                .countByCustomerIdAndAmountGreaterThan(customerId(3), BigDecimal.ZERO),
+                CARDS_PER_CUSTOMER);
+    }
+
+    @Test
+    void findCreditCardsByCustomerUsesIndex() {
+
+        assertIndexed("credit_cards", () -> creditCardRepository
+                .findByCustomerId(customerId(3)).size(), CARDS_PER_CUSTOMER);
+    }
+
+    @Test
+    void findCreditCardsByStatusUsesIndex() {
+
+        assertIndexed("credit_cards", () -> creditCardRepository
+                .findByStatus(CardStatusEnum.BLOCKED).size(), CUSTOMERS);
+    }
+
+    @Test
+    void findDailyBalancesByProductAndDateUsesIndex() {
+
+        LocalDate endDate = TODAY.minusDays(1);
+        LocalDate startDate = endDate.minusDays(9);
+
+        assertIndexed("daily_credit_balances", () -> dailyBalanceRepository
+                .findByCreditProductIdAndDateBetween(creditId(7), toDate(startDate),
+                        toDate(endDate)).size(), 8);
+    }
+
+    /**
+     * Ejecuta una consulta y verifica, a partir de su entrada en el perfilador, que su plan
+     * ganador use un índice y que no examine muchas más claves ni documentos de los que retorna.
+     *
+     * @param collection Colección consultada
+     * @param query Consulta, que retorna el número de documentos encontrados o contados
+     * @param expected Número de documentos esperado
+     */
+    private void assertIndexed(String collection, LongSupplier query, long expected) {
+
+        Date start = new Date();
+        long returned = query.getAsLong();
+        assertEquals(expected, returned, "Unexpected result size on " + collection);
+
+        Document profile = mongoTemplate.getCollection("system.profile")
+                .find(new Document("ns", mongoTemplate.getDb().getName() + "." + collection)
+                        .append("ts", new Document("$gte", start))
+                        .append("op", new Document("$in", List.of("query", "command"))))
+                .sort(new Document("ts", -1))
+                .first();
+        assertNotNull(profile, "No profiled operation found on " + collection);
+
+        String planSummary = profile.getString("planSummary");
+        long maxExamined = MAX_EXAMINED_PER_RESULT * returned + EXAMINED_SLACK;
+        final long keysExamined = profile.get("keysExamined", Number.class).longValue();
+        final long docsExamined = profile.get("docsExamined", Number.class).longValue();
+
+        assertNotNull(planSummary, "No plan summary profiled on " + collection);
+        assertFalse(planSummary.contains("COLLSCAN"),
+                "Collection scan on " + collection + ": " + planSummary);
+        assertTrue(keysExamined <= maxExamined, "Examined " + keysExamined + " keys for "
+                + returned + " results on " + collection + ": " + planSummary);
+        assertTrue(docsExamined <= maxExamined, "Examined " + docsExamined + " documents for "
+                + returned + " results on " + collection + ": " + planSummary);
+    }
+
+    /**
+     * Carga clientes con varios créditos y tarjetas cuyas cuotas están mayormente pagadas, de
+     * modo que una consulta sin índice o sobre un índice no selectivo examine muchos más
+     * documentos de los que retorna.
+     */
+    private void seed() {
+
+        List<Credit> credits = new ArrayList<>();
+        List<CreditCard> cards = new ArrayList<>();
+        List<CreditPaymentSchedule> schedules = new ArrayList<>();
+        List<CreditCardInstallment> installments = new ArrayList<>();
+        List<CreditCardStatement> statements = new ArrayList<>();
+        List<DailyCreditBalance> balances = new ArrayList<>();
+
+        for (int product = 0; product < CUSTOMERS * CARDS_PER_CUSTOMER; product++) {
+            String customerId = customerId(product % CUSTOMERS);
+            CreditStatusEnum creditStatus = product < CUSTOMERS
+                    ? CreditStatusEnum.DEFAULTED : CreditStatusEnum.ACTIVE;
+            CardStatusEnum cardStatus = product < CUSTOMERS
+                    ? CardStatusEnum.BLOCKED : CardStatusEnum.ACTIVE;
+
+            credits.add(Credit.builder()
+                    .id(creditId(product))
+                    .customerId(customerId)
+                    .amount(BigDecimal.valueOf(1000))
+                    .balance(BigDecimal.valueOf(1000))
+                    .status(creditStatus)
+                    .paymentDay(15)
+                    .build());
+            cards.add(CreditCard.builder()
+                    .id(cardId(product))
+                    .customerId(customerId)
+                    .creditLimit(BigDecimal.valueOf(1000))
+                    .availableCredit(BigDecimal.valueOf(1000))
+                    .paymentDate(15)
+                    .status(cardStatus)
+                    .build());
+
+            for (int number = 1; number <= INSTALLMENTS_PER_PRODUCT; number++) {
+                LocalDate dueDate = TODAY.minusMonths(
+                        INSTALLMENTS_PER_PRODUCT - OPEN_INSTALLMENTS_PER_PRODUCT / 2 - number);
+                InstallmentStatusEnum status = installmentStatus(number);
+
+                schedules.add(CreditPaymentSchedule.builder()
+                        .creditId(creditId(product))
+                        .installmentNumber(number)
+                        .installmentAmount(BigDecimal.TEN)
+                        .dueDate(dueDate)
+                        .status(status)
+                        .build());
+                installments.add(CreditCardInstallment.builder()
+                        .creditCardId(cardId(product))
+                        .installmentNumber(number)
+                        .totalInstallments(INSTALLMENTS_PER_PRODUCT)
+                        .totalAmount(BigDecimal.TEN)
+                        .dueDate(dueDate)
+                        .status(status)
+                        .build());
+                statements.add(CreditCardStatement.builder()
+                        .id(cardId(product) + ":" + dueDate)
+                        .creditCardId(cardId(product))
+                        .dueDate(dueDate)
+                        .installmentIds(List.of())
+                        .principalDue(BigDecimal.TEN)
+                        .status(status)
+                        .build());
+            }
+
+            for (int day = 1; day <= BALANCE_DAYS; day++) {
+                balances.add(DailyCreditBalance.builder()
+                        .creditProductId(creditId(product))
+                        .date(TODAY.minusDays(day))
+                        .balance(BigDecimal.valueOf(1000))
+                        .build());
+            }
+        }
+
+        mongoTemplate.insertAll(credits);
+        mongoTemplate.insertAll(cards);
+        mongoTemplate.insertAll(schedules);
+        mongoTemplate.insertAll(installments);
+        mongoTemplate.insertAll(statements);
+        mongoTemplate.insertAll(balances);
+    }
+
+    /**
+     * Estado de una cuota según su número: las primeras están pagadas, las dos siguientes
+     * vencidas y las últimas pendientes.
+     *
+     * @param number Número de la cuota
+     * @return Estado de la cuota
+     */
+    private static InstallmentStatusEnum installmentStatus(int number) {
+
+        int paid = INSTALLMENTS_PER_PRODUCT - OPEN_INSTALLMENTS_PER_PRODUCT;
+        if (number <= paid) {
+            return InstallmentStatusEnum.PAID;
+        }
+        return number <= paid + OPEN_INSTALLMENTS_PER_PRODUCT / 2
+                ? InstallmentStatusEnum.OVERDUE : InstallmentStatusEnum.PENDING;
+    }
+
+    private static String customerId(int index) {
+
+        return String.format("customer-%03d", index);
+    }
+
+    private static String creditId(int index) {
+
+        return String.format("%024x", 0x1000 + index);
+    }
+
+    private static String cardId(int index) {
+
+        return String.format("%024x", 0x2000 + index);
+    }
+
+    private static Date toDate(LocalDate date) {
+
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
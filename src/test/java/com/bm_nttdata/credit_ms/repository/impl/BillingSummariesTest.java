@@ -0,0 +1,81 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Pruebas de las agregaciones que recalculan el resumen de cobro de los productos.
+ */
+class BillingSummariesTest {
+
+    @Test
+    void mergesOverdueSinceIntoMatchingCredits() {
+
+        List<Document> pipeline = BillingSummaries.creditSummary(
+                        Criteria.where("overdueSince").ne(null))
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        assertEquals(5, pipeline.size());
+        assertEquals(new Document("productId", new Document("$toString", "$_id")),
+                pipeline.get(1).get("$project"));
+
+        Document lookup = pipeline.get(2).get("$lookup", Document.class);
+        assertEquals("credit_payment_schedule", lookup.get("from"));
+        Document installmentMatch = lookup.getList("pipeline", Document.class).get(0)
+                .get("$match", Document.class);
+        assertEquals(new Document("$in", List.of(InstallmentStatusEnum.OVERDUE.name())),
+                installmentMatch.get("status"));
+        assertEquals(new Document("$eq", List.of("$creditId", "$$productId")),
+                installmentMatch.get("$expr"));
+
+        assertEquals(List.of("overdueSince"),
+                List.copyOf(pipeline.get(3).get("$project", Document.class).keySet()));
+        assertMergedInto("credits", pipeline.get(4));
+    }
+
+    @Test
+    void mergesNextStatementIntoCardsOfChangedStatements() {
+
+        List<Document> pipeline = BillingSummaries.cardSummaryByStatements(
+                        Criteria.where("dueDate").exists(true))
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        assertEquals(6, pipeline.size());
+        assertEquals(new Document("_id", "$creditCardId"), pipeline.get(1).get("$group"));
+
+        // Los estados de cuenta guardan el ID de la tarjeta como texto
+        Document productId = pipeline.get(2).get("$project", Document.class);
+        assertEquals("objectId", productId.get("_id", Document.class)
+                .get("$convert", Document.class).get("to"));
+
+        assertEquals("credit_card_statements",
+                pipeline.get(3).get("$lookup", Document.class).get("from"));
+        Document summary = pipeline.get(4).get("$project", Document.class);
+        assertEquals(List.of("overdueSince", "nextPaymentDate", "nextPaymentAmount"),
+                List.copyOf(summary.keySet()));
+
+        // Sin estados de cuenta pendientes el resumen es nulo y $merge limpia el valor anterior
+        List<?> nextPaymentAmount = summary.get("nextPaymentAmount", Document.class)
+                .getList("$ifNull", Object.class);
+        assertEquals("principalDue", ((Document) nextPaymentAmount.get(0))
+                .get("$getField", Document.class).get("field"));
+        assertNull(nextPaymentAmount.get(1));
+        assertMergedInto("credit_cards", pipeline.get(5));
+    }
+
+    private static void assertMergedInto(String collection, Document stage) {
+
+        assertEquals(new Document()
+                .append("into", collection)
+                .append("on", "_id")
+                .append("whenMatched", "merge")
+                .append("whenNotMatched", "discard"), stage.get("$merge"));
+    }
+}
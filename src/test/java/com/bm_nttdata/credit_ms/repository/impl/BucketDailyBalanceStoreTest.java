@@ -0,0 +1,161 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.credit_ms.entity.DailyCreditBalance;
+import com.bm_nttdata.credit_ms.entity.MonthlyCreditBalance;
+import com.mongodb.bulk.BulkWriteResult;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Pruebas del almacén de saldos diarios con un documento por producto y mes.
+ */
+@ExtendWith(MockitoExtension.class)
+class BucketDailyBalanceStoreTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 15);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private DocumentDailyBalanceStore documentStore;
+
+    @Mock
+    private BulkOperations bucketOperations;
+
+    @Mock
+    private BulkOperations slotOperations;
+
+    @InjectMocks
+    private BucketDailyBalanceStore store;
+
+    @Test
+    void createsBucketOnInsertAndSetsOnlyTheDaySlot() {
+
+        stubBulkOperations(1);
+
+        int written = store.write(List.of(balance("c1", "150.00")));
+
+        assertEquals(1, written);
+
+        ArgumentCaptor<Update> bucketUpdate = ArgumentCaptor.forClass(Update.class);
+        verify(bucketOperations).upsert(any(Query.class), bucketUpdate.capture());
+        Document setOnInsert = bucketUpdate.getValue().getUpdateObject()
+                .get("$setOnInsert", Document.class);
+        assertEquals(Collections.nCopies(31, null), setOnInsert.get("balances"));
+        assertFalse(bucketUpdate.getValue().getUpdateObject().containsKey("$set"));
+
+        ArgumentCaptor<Query> slotQuery = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> slotUpdate = ArgumentCaptor.forClass(Update.class);
+        verify(slotOperations).updateOne(slotQuery.capture(), slotUpdate.capture());
+        assertEquals("c1:2024-06", slotQuery.getValue().getQueryObject().get("id"));
+        assertFalse(slotQuery.getValue().getQueryObject().containsKey("balances.14"));
+        Document set = slotUpdate.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(new Decimal128(new BigDecimal("150.00")), set.get("balances.14"));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void insertsOnlyEmptySlots() {
+
+        List<BigDecimal> slots = new ArrayList<>(Arrays.asList(new BigDecimal[31]));
+        slots.set(14, new BigDecimal("90.00"));
+        when(mongoTemplate.find(any(Query.class), eq(MonthlyCreditBalance.class)))
+                .thenReturn(List.of(MonthlyCreditBalance.builder()
+                        .id("c1:2024-06").creditProductId("c1").month("2024-06")
+                        .balances(slots).build()));
+        stubBulkOperations(1);
+
+        List<DailyCreditBalance> inserted = store.insertMissing(
+                List.of(balance("c1", "150.00"), balance("c2", "80.00")));
+
+        assertEquals(1, inserted.size());
+        assertEquals("c2", inserted.get(0).getCreditProductId());
+        ArgumentCaptor<Query> slotQuery = ArgumentCaptor.forClass(Query.class);
+        verify(slotOperations).updateOne(slotQuery.capture(), any(Update.class));
+        Document filter = slotQuery.getValue().getQueryObject();
+        assertEquals("c2:2024-06", filter.get("id"));
+        assertTrue(filter.containsKey("balances.14"));
+        assertNull(filter.get("balances.14"));
+    }
+
+    @Test
+    void createsEachMonthlyBucketOnce() {
+
+        stubBulkOperations(2);
+
+        store.write(List.of(balance("c1", "150.00"),
+                DailyCreditBalance.builder().creditProductId("c1").date(DAY.plusDays(1))
+                        .balance(new BigDecimal("140.00")).build()));
+
+        verify(bucketOperations, times(1)).upsert(any(Query.class), any(Update.class));
+        verify(slotOperations, times(2)).updateOne(any(Query.class), any(Update.class));
+    }
+
+    @Test
+    void readsMonthFromBucketSlots() {
+
+        List<BigDecimal> balances = new ArrayList<>(Arrays.asList(new BigDecimal[31]));
+        balances.set(0, new BigDecimal("100.00"));
+        balances.set(14, new BigDecimal("150.00"));
+        when(mongoTemplate.findById("c1:2024-06", MonthlyCreditBalance.class))
+                .thenReturn(MonthlyCreditBalance.builder()
+                        .id("c1:2024-06").creditProductId("c1").month("2024-06")
+                        .balances(balances).build());
+
+        List<DailyCreditBalance> month = store.findMonth("c1", YearMonth.of(2024, 6));
+
+        assertEquals(2, month.size());
+        assertEquals(LocalDate.of(2024, 6, 1), month.get(0).getDate());
+        assertEquals(DAY, month.get(1).getDate());
+        assertEquals(new BigDecimal("150.00"), month.get(1).getBalance());
+    }
+
+    private void stubBulkOperations(int matched) {
+
+        when(mongoTemplate.bulkOps(
+                eq(BulkOperations.BulkMode.UNORDERED), eq(MonthlyCreditBalance.class)))
+                .thenReturn(bucketOperations, slotOperations);
+        when(bucketOperations.execute()).thenReturn(mock(BulkWriteResult.class));
+        BulkWriteResult slotResult = mock(BulkWriteResult.class);
+        when(slotResult.getMatchedCount()).thenReturn(matched);
+        when(slotOperations.execute()).thenReturn(slotResult);
+    }
+
+    private static DailyCreditBalance balance(String productId, String amount) {
+
+        return DailyCreditBalance.builder()
+                .creditProductId(productId)
+                .date(DAY)
+                .balance(new BigDecimal(amount))
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.credit_ms.entity.Credit;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Pruebas de las actualizaciones parciales del repositorio de créditos.
+ */
+@ExtendWith(MockitoExtension.class)
+class CreditRepositoryCustomImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private CreditRepositoryCustomImpl creditRepository;
+
+    @Test
+    void appliesPaymentOnlyToReadVersion() {
+
+        Credit credit = Credit.builder()
+                .id("c1")
+                .version(3L)
+                .balance(new BigDecimal("1000.00"))
+                .nextPaymentDate(LocalDate.of(2024, 6, 15))
+                .build();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Credit.class))).thenReturn(credit);
+
+        assertTrue(creditRepository.applyPayment(credit, new BigDecimal("250.00")).isPresent());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(),
+                any(FindAndModifyOptions.class), eq(Credit.class));
+        assertEquals(3L, query.getValue().getQueryObject().get("version"));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(new BigDecimal("750.00"), set.get("balance"));
+        assertEquals(LocalDate.of(2024, 7, 15), set.get("nextPaymentDate"));
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertEquals(1, inc.get("version"));
+        assertEquals(1, inc.get("nextPaymentInstallment"));
+    }
+
+    @Test
+    void reportsConcurrentModificationAsEmpty() {
+
+        Credit credit = Credit.builder()
+                .id("c1")
+                .version(3L)
+                .balance(new BigDecimal("1000.00"))
+                .nextPaymentDate(LocalDate.of(2024, 6, 15))
+                .build();
+
+        assertFalse(creditRepository.applyPayment(credit, BigDecimal.TEN).isPresent());
+    }
+
+    @Test
+    void updatesOnlyMaterializationFields() {
+
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Credit.class))
+                .thenReturn(bulkOperations);
+
+        creditRepository.updateMaterializedInstallments(List.of(
+                Credit.builder().id("c1").materializedInstallments(12)
+                        .nextMaterializationDueDate(LocalDate.of(2025, 6, 15)).build(),
+                Credit.builder().id("c2").materializedInstallments(24).build()));
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2))
+                .updateOne(any(Query.class), updates.capture());
+        Document first = updates.getAllValues().get(0).getUpdateObject();
+        assertEquals(2, first.get("$set", Document.class).size());
+        Document second = updates.getAllValues().get(1).getUpdateObject();
+        assertEquals(1, second.get("$set", Document.class).size());
+        assertTrue(second.get("$unset", Document.class).containsKey("nextMaterializationDueDate"));
+        verify(bulkOperations).execute();
+    }
+}
@@ -0,0 +1,64 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import java.time.LocalDate;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+
+/**
+ * Pruebas de la agregación del portafolio de un cliente.
+ */
+class CustomerPortfoliosTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 15);
+
+    @Test
+    void joinsCreditsAndCardsOfCustomerInOneAggregation() {
+
+        List<Document> pipeline = CustomerPortfolios.portfolioAggregation("c1", TODAY)
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        assertEquals(7, pipeline.size());
+        assertEquals(new Document("customerId", "c1"), pipeline.get(0).get("$match"));
+        assertEquals("credit_payment_schedule", lookup(pipeline.get(2)).get("from"));
+
+        Document unionWith = pipeline.get(5).get("$unionWith", Document.class);
+        assertEquals("credit_cards", unionWith.get("coll"));
+        List<Document> cardStages = unionWith.getList("pipeline", Document.class);
+        assertEquals(new Document("customerId", "c1"), cardStages.get(0).get("$match"));
+        assertEquals("credit_card_installment", lookup(cardStages.get(2)).get("from"));
+
+        // $facet produce un único documento aunque el cliente no tenga productos
+        Document facet = pipeline.get(6).get("$facet", Document.class);
+        assertEquals(List.of("credits", "creditCards"), List.copyOf(facet.keySet()));
+    }
+
+    @Test
+    void summarizesOnlyOpenInstallmentsOfEachProduct() {
+
+        List<Document> pipeline = CustomerPortfolios.portfolioAggregation("c1", TODAY)
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        Document lookup = lookup(pipeline.get(2));
+        assertEquals(new Document("productId", new Document("$toString", "$_id")),
+                lookup.get("let"));
+        Document installmentMatch = lookup.getList("pipeline", Document.class).get(0)
+                .get("$match", Document.class);
+        List<?> statuses = installmentMatch.get("status", Document.class)
+                .getList("$in", Object.class);
+        assertTrue(statuses.contains(InstallmentStatusEnum.PENDING.name()));
+        assertTrue(statuses.contains(InstallmentStatusEnum.OVERDUE.name()));
+        assertEquals(new Document("$eq", List.of("$creditId", "$$productId")),
+                installmentMatch.get("$expr"));
+    }
+
+    private static Document lookup(Document stage) {
+
+        return stage.get("$lookup", Document.class);
+    }
+}
@@ -0,0 +1,102 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.credit_ms.entity.CreditCardInstallment;
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import com.mongodb.client.result.UpdateResult;
+import java.util.List;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Pruebas del escritor masivo de entidades sobre MongoTemplate.
+ */
+@ExtendWith(MockitoExtension.class)
+class MongoBulkWriterTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private MongoBulkWriter bulkWriter;
+
+    @Test
+    void insertsAllEntitiesInOneBulkWithAssignedIds() {
+
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(
+                new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        when(mongoTemplate.getConverter()).thenReturn(
+                new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+        when(mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.UNORDERED, CreditCardInstallment.class))
+                .thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        String existingId = new ObjectId().toHexString();
+
+        List<CreditCardInstallment> inserted = bulkWriter.insertAll(List.of(
+                        CreditCardInstallment.builder().installmentNumber(1).build(),
+                        CreditCardInstallment.builder().id(existingId).installmentNumber(2)
+                                .build()),
+                CreditCardInstallment.class);
+
+        assertEquals(2, inserted.size());
+        assertTrue(ObjectId.isValid(inserted.get(0).getId()));
+        assertEquals(existingId, inserted.get(1).getId());
+        verify(bulkOperations).insert(inserted);
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    void updatesAllEntitiesByIdInOneOperation() {
+
+        when(mongoTemplate.updateMulti(
+                any(Query.class), any(Update.class), eq(CreditCardInstallment.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null));
+
+        long updated = bulkWriter.updateAllById(List.of("i1", "i2"),
+                new Update().set("status", InstallmentStatusEnum.PAID),
+                CreditCardInstallment.class);
+
+        assertEquals(2, updated);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateMulti(
+                query.capture(), any(Update.class), eq(CreditCardInstallment.class));
+        assertEquals(new Document("$in", List.of("i1", "i2")),
+                query.getValue().getQueryObject().get("_id"));
+    }
+
+    @Test
+    void skipsEmptyBatches() {
+
+        assertTrue(bulkWriter.insertAll(List.of(), CreditCardInstallment.class).isEmpty());
+        assertEquals(0, bulkWriter.updateAllById(
+                List.of(), new Update().set("status", "PAID"), CreditCardInstallment.class));
+        verifyNoInteractions(mongoTemplate);
+    }
+}
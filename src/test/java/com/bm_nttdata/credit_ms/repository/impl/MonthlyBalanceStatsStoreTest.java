@@ -0,0 +1,99 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.credit_ms.entity.DailyCreditBalance;
+import com.bm_nttdata.credit_ms.entity.MonthlyBalanceStats;
+import com.mongodb.bulk.BulkWriteResult;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+/**
+ * Pruebas de la actualización de las estadísticas mensuales de saldo diario.
+ */
+@ExtendWith(MockitoExtension.class)
+class MonthlyBalanceStatsStoreTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 15);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private MonthlyBalanceStatsStore statsStore;
+
+    @Test
+    void upsertsMonthlyStatsPerBalance() {
+
+        when(mongoTemplate.bulkOps(
+                eq(BulkOperations.BulkMode.UNORDERED), eq(MonthlyBalanceStats.class)))
+                .thenReturn(bulkOperations);
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getMatchedCount()).thenReturn(2);
+        when(bulkOperations.execute()).thenReturn(result);
+
+        int recorded = statsStore.record(List.of(
+                balance("c1", DAY, "100.00"), balance("c1", DAY.plusMonths(1), "90.00")));
+
+        assertEquals(2, recorded);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(bulkOperations, times(2)).upsert(query.capture(), update.capture());
+        assertEquals("c1:2024-06", query.getAllValues().get(0).getQueryObject().get("id"));
+        assertEquals("c1:2024-07", query.getAllValues().get(1).getQueryObject().get("id"));
+
+        // La actualización por pipeline calcula los días vigentes, acumula y limpia
+        List<Document> pipeline =
+                ((AggregationUpdate) update.getAllValues().get(0)).toPipeline(null);
+        assertEquals(3, pipeline.size());
+        Document stats = pipeline.get(1).get("$set", Document.class);
+        assertEquals("2024-06", stats.get("month"));
+        assertEquals("foldDays", pipeline.get(2).get("$unset"));
+    }
+
+    @Test
+    void skipsBalancesWithoutAmount() {
+
+        when(mongoTemplate.bulkOps(
+                eq(BulkOperations.BulkMode.UNORDERED), eq(MonthlyBalanceStats.class)))
+                .thenReturn(bulkOperations);
+
+        int recorded = statsStore.record(List.of(balance("c1", DAY, null)));
+
+        assertEquals(0, recorded);
+        verify(bulkOperations, never()).upsert(any(Query.class), any(UpdateDefinition.class));
+        verify(bulkOperations, never()).execute();
+    }
+
+    private static DailyCreditBalance balance(String productId, LocalDate date, String amount) {
+
+        return DailyCreditBalance.builder()
+                .creditProductId(productId)
+                .date(date)
+                .balance(amount == null ? null : new BigDecimal(amount))
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+
+/**
+ * Pruebas de las agregaciones que cuentan las cuotas vencidas de los clientes.
+ */
+class OverdueCustomersTest {
+
+    @Test
+    void countsOverdueInstallmentsOfCustomerProducts() {
+
+        List<Document> pipeline = OverdueCustomers.overdueCountsAggregation(
+                List.of("c1", "c2"), "credit_payment_schedule", "creditId")
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        assertEquals(4, pipeline.size());
+        Document match = pipeline.get(0).get("$match", Document.class);
+        assertEquals(List.of("c1", "c2"),
+                match.get("customerId", Document.class).get("$in"));
+
+        // Las cuotas guardan el ID del producto como texto
+        Document lookup = pipeline.get(2).get("$lookup", Document.class);
+        assertEquals("credit_payment_schedule", lookup.get("from"));
+        assertEquals(new Document("productId", new Document("$toString", "$_id")),
+                lookup.get("let"));
+        Document installmentMatch = lookup.getList("pipeline", Document.class).get(0)
+                .get("$match", Document.class);
+        assertEquals(InstallmentStatusEnum.OVERDUE.name(), installmentMatch.get("status"));
+        assertEquals(new Document("$eq", List.of("$creditId", "$$productId")),
+                installmentMatch.get("$expr"));
+
+        assertEquals("$customerId", pipeline.get(3).get("$group", Document.class).get("_id"));
+    }
+
+    @Test
+    void mapsCountsByCustomerIgnoringUnknownCustomers() {
+
+        Map<String, Long> counts = OverdueCustomers.toCountByCustomer(List.of(
+                new Document("_id", "c1").append("count", 2),
+                new Document("_id", "c2").append("count", 0L),
+                new Document("_id", null).append("count", 5)));
+
+        assertEquals(Map.of("c1", 2L, "c2", 0L), counts);
+    }
+}
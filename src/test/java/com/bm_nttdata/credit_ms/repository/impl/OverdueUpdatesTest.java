@@ -0,0 +1,71 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de las consultas y actualizaciones masivas de cuotas vencidas.
+ */
+class OverdueUpdatesTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 15);
+
+    @Test
+    void selectsOpenInstallmentsDueBeforeDate() {
+
+        Document query = OverdueUpdates.overdueQuery(TODAY).getQueryObject();
+
+        assertTrue(query.get("status", Document.class).containsKey("$in"));
+        assertEquals(new Document("$lt", TODAY), query.get("dueDate"));
+    }
+
+    @Test
+    void computesLateInterestOnTheServer() {
+
+        List<Document> pipeline = OverdueUpdates.overdueUpdate(
+                TODAY, new BigDecimal("0.001"), "installmentAmount", "interest")
+                .toPipeline(null);
+
+        assertEquals(1, pipeline.size());
+        Document set = pipeline.get(0).get("$set", Document.class);
+        assertEquals(InstallmentStatusEnum.OVERDUE.name(), set.get("status"));
+        assertEquals("$$NOW", set.get("updatedAt"));
+
+        List<?> interest = set.get("interest", Document.class).getList("$multiply", Object.class);
+        assertEquals(new Document("$toDecimal", "$installmentAmount"), interest.get(0));
+        assertEquals(new Decimal128(new BigDecimal("0.001")), interest.get(1));
+        assertEquals(set.get("daysOverdue"), interest.get(2));
+    }
+
+    @Test
+    void selectsOnlyPendingInstallmentsDueOnDate() {
+
+        Document query = OverdueUpdates.pendingDueOnQuery(TODAY).getQueryObject();
+
+        assertEquals(InstallmentStatusEnum.PENDING, query.get("status"));
+        assertEquals(TODAY, query.get("dueDate"));
+    }
+
+    @Test
+    void groupsPendingCountsByLocalDueDate() {
+
+        Date dueDate = Date.from(TODAY.atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+        Map<LocalDate, Long> counts = OverdueUpdates.toCountByDueDate(List.of(
+                new Document("_id", dueDate).append("count", 3),
+                new Document("_id", null).append("count", 1)));
+
+        assertEquals(Map.of(TODAY, 3L), counts);
+    }
+}
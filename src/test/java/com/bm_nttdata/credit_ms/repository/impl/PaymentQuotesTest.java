@@ -0,0 +1,45 @@
+package com.bm_nttdata.credit_ms.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bm_nttdata.credit_ms.dto.PaymentDetailsDto;
+import java.math.BigDecimal;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de la conversión del resultado de la agregación de cotización.
+ */
+class PaymentQuotesTest {
+
+    @Test
+    void convertsDecimalTotals() {
+
+        PaymentDetailsDto quote = PaymentQuotes.toPaymentDetails(new Document()
+                        .append("paymentAmount", new Decimal128(new BigDecimal("501.50")))
+                        .append("paymentFee", new Decimal128(new BigDecimal("0.99"))))
+                .orElseThrow();
+
+        assertEquals(new BigDecimal("501.50"), quote.getPaymentAmount());
+        assertEquals(new BigDecimal("0.99"), quote.getPaymentFee());
+        assertEquals(new BigDecimal("502.49"), quote.getTotalPayment());
+    }
+
+    @Test
+    void treatsMissingFeeAsZero() {
+
+        PaymentDetailsDto quote = PaymentQuotes.toPaymentDetails(
+                new Document("paymentAmount", "120.00")).orElseThrow();
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(quote.getPaymentFee()));
+        assertEquals(new BigDecimal("120.00"), quote.getTotalPayment());
+    }
+
+    @Test
+    void returnsEmptyWithoutOpenInstallments() {
+
+        assertTrue(PaymentQuotes.toPaymentDetails(null).isEmpty());
+    }
+}
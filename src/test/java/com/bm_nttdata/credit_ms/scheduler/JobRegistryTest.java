@@ -0,0 +1,113 @@
+package com.bm_nttdata.credit_ms.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+
+import com.bm_nttdata.credit_ms.dto.JobDetailsDto;
+import com.bm_nttdata.credit_ms.exception.BusinessRuleException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Pruebas del registro de tareas programadas y de sus métricas.
+ */
+@ExtendWith(MockitoExtension.class)
+class JobRegistryTest {
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final JobRegistry jobRegistry = new JobRegistry();
+
+    @BeforeEach
+    void setUp() {
+
+        ReflectionTestUtils.setField(jobRegistry, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(jobRegistry, "taskScheduler", taskScheduler);
+    }
+
+    @Test
+    void publishesItemsAndDurationOfSuccessfulRuns() {
+
+        jobRegistry.register("daily-balance", "Daily balances", () -> 5);
+
+        assertTrue(jobRegistry.run("daily-balance"));
+
+        assertEquals(5.0, meterRegistry.get("credit.job.items")
+                .tag("job", "daily-balance").counter().count());
+        assertEquals(1, meterRegistry.get("credit.job.duration")
+                .tag("job", "daily-balance").timer().count());
+        JobDetailsDto details = jobRegistry.getJob("daily-balance");
+        assertEquals("SUCCESS", details.getLastStatus());
+        assertEquals(5, details.getLastItems());
+        assertFalse(details.isRunning());
+    }
+
+    @Test
+    void skipsRunWhileJobIsRunning() {
+
+        AtomicBoolean nestedRun = new AtomicBoolean(true);
+        jobRegistry.register("overdue-sweep", "Overdue sweep", () -> {
+            nestedRun.set(jobRegistry.run("overdue-sweep"));
+            assertThrows(BusinessRuleException.class,
+                    () -> jobRegistry.trigger("overdue-sweep"));
+            return 0;
+        });
+
+        assertTrue(jobRegistry.run("overdue-sweep"));
+
+        assertFalse(nestedRun.get());
+        assertEquals(2.0, meterRegistry.get("credit.job.skipped")
+                .tag("job", "overdue-sweep").counter().count());
+        assertEquals(1, jobRegistry.getJob("overdue-sweep").getExecutions());
+    }
+
+    @Test
+    void countsFailedRunsAndReleasesJob() {
+
+        jobRegistry.register("billing", "Billing", () -> {
+            throw new IllegalStateException("database unavailable");
+        });
+
+        assertTrue(jobRegistry.run("billing"));
+
+        assertEquals(1.0, meterRegistry.get("credit.job.failures")
+                .tag("job", "billing").counter().count());
+        JobDetailsDto details = jobRegistry.getJob("billing");
+        assertEquals("FAILED", details.getLastStatus());
+        assertEquals("database unavailable", details.getLastError());
+        assertEquals(0.0, meterRegistry.get("credit.job.running")
+                .tag("job", "billing").gauge().value());
+    }
+
+    @Test
+    void triggersJobOnTaskScheduler() {
+
+        jobRegistry.register("billing", "Billing", () -> 3);
+
+        JobDetailsDto details = jobRegistry.trigger("billing");
+
+        assertTrue(details.isRunning());
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(task.capture(), any(Instant.class));
+        task.getValue().run();
+        assertEquals(3, jobRegistry.getJob("billing").getLastItems());
+        assertFalse(jobRegistry.getJob("billing").isRunning());
+    }
+}
@@ -0,0 +1,220 @@
+package com.bm_nttdata.credit_ms.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.credit_ms.entity.SchedulerPartition;
+import com.bm_nttdata.credit_ms.enums.PartitionStatusEnum;
+import com.mongodb.client.result.UpdateResult;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Pruebas de la ejecución particionada de tareas con arrendamientos en MongoDB.
+ */
+@ExtendWith(MockitoExtension.class)
+class SchedulerPartitionCoordinatorTest {
+
+    private static final String JOB = "daily-balance";
+
+    private static final LocalDate DATE = LocalDate.of(2024, 6, 15);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private SchedulerPartitionCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+
+        ReflectionTestUtils.setField(coordinator, "totalPartitions", 2);
+        ReflectionTestUtils.setField(coordinator, "leaseSeconds", 1L);
+        ReflectionTestUtils.setField(coordinator, "pollSeconds", 0L);
+        ReflectionTestUtils.setField(coordinator, "maxWaitLeases", 1L);
+        ReflectionTestUtils.setField(coordinator, "maxAttempts", 3);
+    }
+
+    @Test
+    void completesClaimedPartitions() {
+
+        SchedulerPartition partition = partition(0);
+        when(mongoTemplate.exists(any(Query.class), eq(SchedulerPartition.class)))
+                .thenReturn(true, false);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(SchedulerPartition.class)))
+                .thenReturn(partition, (SchedulerPartition) null);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class),
+                eq(SchedulerPartition.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        long processed = coordinator.runPartitioned(JOB, DATE, claimed -> 7);
+
+        assertEquals(7, processed);
+        assertEquals(PartitionStatusEnum.COMPLETED, updateSet().get("status"));
+        assertEquals(7L, updateSet().get("processedItems"));
+    }
+
+    @Test
+    void releasesPartitionWhenProcessingFails() {
+
+        when(mongoTemplate.exists(any(Query.class), eq(SchedulerPartition.class)))
+                .thenReturn(true, false);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(SchedulerPartition.class)))
+                .thenReturn(partition(0), (SchedulerPartition) null);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class),
+                eq(SchedulerPartition.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        long processed = coordinator.runPartitioned(JOB, DATE, claimed -> {
+            throw new IllegalStateException("write failed");
+        });
+
+        assertEquals(0, processed);
+        assertEquals(PartitionStatusEnum.PENDING, updateSet().get("status"));
+        assertTrue(((LocalDateTime) updateSet().get("leaseExpiresAt"))
+                .isAfter(LocalDateTime.now()));
+        assertTrue(updateUnset().containsKey("owner"));
+    }
+
+    @Test
+    void marksPartitionFailedAfterMaxAttempts() {
+
+        when(mongoTemplate.exists(any(Query.class), eq(SchedulerPartition.class)))
+                .thenReturn(true, false);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(SchedulerPartition.class)))
+                .thenReturn(partition(0, 1), partition(0, 2), partition(0, 3), null);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class),
+                eq(SchedulerPartition.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.count(any(Query.class), eq(SchedulerPartition.class))).thenReturn(1L);
+
+        long processed = coordinator.runPartitioned(JOB, DATE, claimed -> {
+            throw new IllegalStateException("write failed");
+        });
+
+        assertEquals(0, processed);
+        List<Update> updates = updates(3);
+        assertEquals(PartitionStatusEnum.PENDING,
+                updates.get(1).getUpdateObject().get("$set", Document.class).get("status"));
+        Update last = updates.get(2);
+        assertEquals(PartitionStatusEnum.FAILED,
+                last.getUpdateObject().get("$set", Document.class).get("status"));
+        assertTrue(last.getUpdateObject().get("$unset", Document.class)
+                .containsKey("leaseExpiresAt"));
+    }
+
+    @Test
+    void endsRunWhenProcessorAlwaysThrows() {
+
+        when(mongoTemplate.exists(any(Query.class), eq(SchedulerPartition.class)))
+                .thenReturn(true);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(SchedulerPartition.class)))
+                .thenReturn(partition(0, 1));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class),
+                eq(SchedulerPartition.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        long start = System.nanoTime();
+        long processed = coordinator.runPartitioned(JOB, DATE, claimed -> {
+            throw new IllegalStateException("write failed");
+        });
+
+        assertEquals(0, processed);
+        // Los fallos no renuevan el plazo de espera, que vence tras un arrendamiento
+        assertTrue(System.nanoTime() - start < 10_000_000_000L);
+    }
+
+    @Test
+    void stopsWaitingForPartitionsHeldByOtherInstances() {
+
+        AtomicInteger processedPartitions = new AtomicInteger();
+        when(mongoTemplate.exists(any(Query.class), eq(SchedulerPartition.class)))
+                .thenReturn(true);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(SchedulerPartition.class)))
+                .thenReturn(null);
+
+        long start = System.nanoTime();
+        long processed = coordinator.runPartitioned(
+                JOB, DATE, claimed -> processedPartitions.incrementAndGet());
+
+        assertEquals(0, processed);
+        assertEquals(0, processedPartitions.get());
+        // La espera se limita a maxWaitLeases periodos de arrendamiento de un segundo
+        assertTrue(System.nanoTime() - start < 10_000_000_000L);
+    }
+
+    @Test
+    void reportsLostLeaseOnCheckpoint() {
+
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class),
+                eq(SchedulerPartition.class))).thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertFalse(coordinator.checkpoint(partition(0), "creditCheckpointId", "abc"));
+    }
+
+    private Document updateSet() {
+
+        return (Document) lastUpdate().getUpdateObject().get("$set");
+    }
+
+    private Document updateUnset() {
+
+        return (Document) lastUpdate().getUpdateObject().get("$unset");
+    }
+
+    private List<Update> updates(int count) {
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(count)).updateFirst(
+                any(Query.class), update.capture(), eq(SchedulerPartition.class));
+        return update.getAllValues();
+    }
+
+    private Update lastUpdate() {
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(
+                any(Query.class), update.capture(), eq(SchedulerPartition.class));
+        return update.getValue();
+    }
+
+    private static SchedulerPartition partition(int index) {
+
+        return partition(index, 1);
+    }
+
+    private static SchedulerPartition partition(int index, int attempts) {
+
+        return SchedulerPartition.builder()
+                .id(JOB + ":" + DATE + ":" + index)
+                .jobName(JOB)
+                .executionDate(DATE)
+                .partitionIndex(index)
+                .totalPartitions(2)
+                .status(PartitionStatusEnum.RUNNING)
+                .attempts(attempts)
+                .build();
+    }
+}
@@ -0,0 +1,136 @@
+package com.bm_nttdata.credit_ms.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import com.bm_nttdata.credit_ms.enums.CardStatusEnum;
+import com.bm_nttdata.credit_ms.repository.CreditCardRepository;
+import com.bm_nttdata.credit_ms.scheduler.JobRegistry;
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Pruebas del libro en memoria del crédito disponible de las tarjetas de crédito.
+ */
+@ExtendWith(MockitoExtension.class)
+class CardCreditLedgerTest {
+
+    private static final String CARD_ID = "65f0a1b2c3d4e5f601234567";
+
+    private static final String REPLICAS = "card_ledger_replicas";
+
+    private static final String LEASES = "card_ledger_leases";
+
+    @Mock
+    private CreditCardRepository creditCardRepository;
+
+    @Mock
+    private JobRegistry jobRegistry;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private CardCreditLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+
+        ReflectionTestUtils.setField(ledger, "leaseSeconds", 30L);
+    }
+
+    @Test
+    void authorizesChargesInMemoryWhenSingleReplica() {
+
+        when(mongoTemplate.exists(any(Query.class), eq(REPLICAS))).thenReturn(false);
+        doAnswer(invocation -> {
+            invocation.<Consumer<CreditCard>>getArgument(0).accept(card("100.00"));
+            return null;
+        }).when(creditCardRepository).forEachActiveCardCredit(any());
+
+        ledger.initialize();
+
+        assertEquals(CardCreditLedger.toUnits(new BigDecimal("60.00")), ledger.debit(
+                CARD_ID, new BigDecimal("40.00"), new BigDecimal("40.00")));
+        assertEquals(CardCreditLedger.INSUFFICIENT_CREDIT, ledger.debit(
+                CARD_ID, new BigDecimal("70.00"), new BigDecimal("70.00")));
+        assertEquals(15, ledger.getPaymentDay(CARD_ID));
+    }
+
+    @Test
+    void authorizesInDatabaseWhenOtherReplicasAreRunning() {
+
+        when(mongoTemplate.exists(any(Query.class), eq(REPLICAS))).thenReturn(true);
+        when(mongoTemplate.exists(any(Query.class), eq(LEASES))).thenReturn(false);
+
+        ledger.initialize();
+
+        assertEquals(CardCreditLedger.ABSENT, ledger.debit(
+                CARD_ID, BigDecimal.ONE, BigDecimal.ONE));
+        ledger.register(card("100.00"));
+        assertEquals(CardCreditLedger.ABSENT, ledger.credit(CARD_ID, BigDecimal.ONE));
+        verify(creditCardRepository, never()).forEachActiveCardCredit(any());
+    }
+
+    @Test
+    void failsStartupWhenLeaseHolderKeepsTheLedger() {
+
+        ReflectionTestUtils.setField(ledger, "leaseSeconds", 0L);
+        when(mongoTemplate.exists(any(Query.class), eq(REPLICAS))).thenReturn(true);
+        when(mongoTemplate.exists(any(Query.class), eq(LEASES))).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> ledger.initialize());
+    }
+
+    @Test
+    void disablesLedgerWhenInitialLoadFails() {
+
+        when(mongoTemplate.exists(any(Query.class), eq(REPLICAS))).thenReturn(false);
+        doThrow(new DataAccessResourceFailureException("cursor failed"))
+                .when(creditCardRepository).forEachActiveCardCredit(any());
+
+        ledger.initialize();
+
+        ledger.register(card("100.00"));
+        assertEquals(CardCreditLedger.ABSENT, ledger.debit(
+                CARD_ID, BigDecimal.ONE, BigDecimal.ONE));
+        verify(mongoTemplate).remove(any(Query.class), eq(LEASES));
+    }
+
+    @Test
+    void convertsAmountsToFixedPoint() {
+
+        assertEquals(1_234_500L, CardCreditLedger.toUnits(new BigDecimal("123.45")));
+        assertEquals(1_000_000L, CardCreditLedger.toUnits(new BigDecimal("1E+2")));
+        assertEquals(2L, CardCreditLedger.toUnits(new BigDecimal("0.00015")));
+        assertEquals(new BigDecimal("123.4500"), CardCreditLedger.toAmount(1_234_500L));
+    }
+
+    private static CreditCard card(String availableCredit) {
+
+        return CreditCard.builder()
+                .id(CARD_ID)
+                .status(CardStatusEnum.ACTIVE)
+                .availableCredit(new BigDecimal(availableCredit))
+                .paymentDate(15)
+                .build();
+    }
+}
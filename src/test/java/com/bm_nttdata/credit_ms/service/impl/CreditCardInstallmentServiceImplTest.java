@@ -0,0 +1,156 @@
+package com.bm_nttdata.credit_ms.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.credit_ms.dto.CardChargeDto;
+import com.bm_nttdata.credit_ms.dto.PaymentDetailsDto;
+import com.bm_nttdata.credit_ms.entity.CreditCardInstallment;
+import com.bm_nttdata.credit_ms.entity.CreditCardStatement;
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import com.bm_nttdata.credit_ms.exception.BusinessRuleException;
+import com.bm_nttdata.credit_ms.exception.ServiceException;
+import com.bm_nttdata.credit_ms.repository.BulkWriter;
+import com.bm_nttdata.credit_ms.repository.CreditCardStatementRepository;
+import com.bm_nttdata.credit_ms.scheduler.InstallmentDueDateEngine;
+import com.bm_nttdata.credit_ms.scheduler.InstallmentDueDateEngine.InstallmentKind;
+import com.bm_nttdata.credit_ms.util.UnitOfWork;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Pruebas de la facturación de cuotas de tarjetas de crédito en estados de cuenta.
+ */
+@ExtendWith(MockitoExtension.class)
+class CreditCardInstallmentServiceImplTest {
+
+    private static final String CARD_ID = "65f1a2b3c4d5e6f708192a3b";
+
+    private static final int PAYMENT_DAY = 15;
+
+    @Mock
+    private CreditCardStatementRepository statementRepository;
+
+    @Mock
+    private InstallmentDueDateEngine dueDateEngine;
+
+    @Mock
+    private BulkWriter bulkWriter;
+
+    @Mock
+    private UnitOfWork unitOfWork;
+
+    @InjectMocks
+    private CreditCardInstallmentServiceImpl cardInstallmentService;
+
+    @Test
+    void billsEveryInstallmentOfBatchIntoStatements() {
+
+        when(bulkWriter.insertAll(any(), eq(CreditCardInstallment.class)))
+                .thenAnswer(invocation -> List.copyOf(invocation.getArgument(0)));
+
+        cardInstallmentService.createChargeBatch(CARD_ID, PAYMENT_DAY, List.of(
+                CardChargeDto.builder()
+                        .installmentAmount(BigDecimal.valueOf(100))
+                        .totalInstallments(3)
+                        .build(),
+                CardChargeDto.builder()
+                        .installmentAmount(BigDecimal.valueOf(50))
+                        .totalInstallments(1)
+                        .build()));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<CreditCardInstallment>> billed =
+                ArgumentCaptor.forClass(Collection.class);
+        verify(statementRepository).addInstallments(billed.capture());
+        assertEquals(4, billed.getValue().size());
+        assertTrue(billed.getValue().stream().allMatch(installment ->
+                installment.getDueDate().getDayOfMonth() == PAYMENT_DAY
+                        && installment.getStatus() == InstallmentStatusEnum.PENDING));
+        verify(dueDateEngine).register(eq(InstallmentKind.CREDIT_CARD), any());
+        verify(statementRepository).refreshBillingSummaries(List.of(CARD_ID));
+    }
+
+    @Test
+    void paysQuotedAmountAndMarksStatementsPaid() {
+
+        LocalDate pendingDueDate = LocalDate.now().plusDays(1);
+        stubStatements(List.of(
+                statement("s1", pendingDueDate, InstallmentStatusEnum.PENDING, 100,
+                        List.of("i1", "i2")),
+                statement("s2", LocalDate.now().minusDays(10), InstallmentStatusEnum.OVERDUE, 50,
+                        List.of("i3"))));
+
+        PaymentDetailsDto quote =
+                cardInstallmentService.calculateCurrentMonthPayment(CARD_ID, PAYMENT_DAY);
+        PaymentDetailsDto payment = cardInstallmentService.payBillMonth(
+                quote.getTotalPayment(), CARD_ID, PAYMENT_DAY);
+
+        assertEquals(0, BigDecimal.valueOf(150).compareTo(quote.getPaymentAmount()));
+        assertTrue(quote.getPaymentFee().signum() > 0);
+        assertEquals(quote.getTotalPayment(), payment.getTotalPayment());
+        assertEquals(1, payment.getPaidOverdueInstallments());
+        verify(unitOfWork).registerUpdate(
+                eq(List.of("s1", "s2")), any(), eq(CreditCardStatement.class));
+        verify(unitOfWork).registerUpdate(
+                eq(List.of("i1", "i2", "i3")), any(), eq(CreditCardInstallment.class));
+        verify(dueDateEngine).release(
+                InstallmentKind.CREDIT_CARD, List.of(pendingDueDate, pendingDueDate));
+    }
+
+    @Test
+    void rejectsPaymentDifferentFromQuote() {
+
+        stubStatements(List.of(statement("s1", LocalDate.now().plusDays(1),
+                InstallmentStatusEnum.PENDING, 100, List.of("i1"))));
+
+        assertThrows(BusinessRuleException.class, () -> cardInstallmentService.payBillMonth(
+                BigDecimal.valueOf(99), CARD_ID, PAYMENT_DAY));
+        verify(unitOfWork, never()).registerUpdate(any(), any(), any());
+    }
+
+    @Test
+    void wrapsMissingDebtInServiceException() {
+
+        stubStatements(List.of());
+
+        assertThrows(ServiceException.class,
+                () -> cardInstallmentService.calculateCurrentMonthPayment(CARD_ID, PAYMENT_DAY));
+    }
+
+    private void stubStatements(List<CreditCardStatement> statements) {
+
+        when(unitOfWork.find(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+        when(statementRepository.findByCreditCardIdAndDueDateLessThanAndStatusIn(
+                eq(CARD_ID), any(), any())).thenReturn(statements);
+    }
+
+    private static CreditCardStatement statement(String id, LocalDate dueDate,
+            InstallmentStatusEnum status, long principalDue, List<String> installmentIds) {
+
+        return CreditCardStatement.builder()
+                .id(id)
+                .creditCardId(CARD_ID)
+                .dueDate(dueDate)
+                .status(status)
+                .principalDue(BigDecimal.valueOf(principalDue))
+                .installmentIds(installmentIds)
+                .build();
+    }
+}
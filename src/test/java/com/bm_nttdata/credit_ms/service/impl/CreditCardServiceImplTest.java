@@ -0,0 +1,139 @@
+package com.bm_nttdata.credit_ms.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.credit_ms.dto.OperationResponseDto;
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import com.bm_nttdata.credit_ms.model.ChargueCreditCardRequestDto;
+import com.bm_nttdata.credit_ms.repository.CreditCardRepository;
+import com.bm_nttdata.credit_ms.service.CreditCardInstallmentService;
+import com.bm_nttdata.credit_ms.service.CustomerRiskProfileService;
+import com.bm_nttdata.credit_ms.service.DailyBalanceService;
+import com.bm_nttdata.credit_ms.util.MonthlyInstallmentCalculator;
+import com.bm_nttdata.credit_ms.util.UnitOfWork;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Pruebas del procesamiento en lote de cargos a una tarjeta de crédito.
+ */
+@ExtendWith(MockitoExtension.class)
+class CreditCardServiceImplTest {
+
+    private static final String CARD_ID = "65f1a2b3c4d5e6f708192a3b";
+
+    @Mock
+    private CreditCardRepository creditCardRepository;
+
+    @Mock
+    private DailyBalanceService dailyBalanceService;
+
+    @Mock
+    private MonthlyInstallmentCalculator installmentCalculator;
+
+    @Mock
+    private CreditCardInstallmentService cardInstallmentService;
+
+    @Mock
+    private UnitOfWork unitOfWork;
+
+    @Mock
+    private CustomerRiskProfileService riskProfileService;
+
+    @InjectMocks
+    private CreditCardServiceImpl creditCardService;
+
+    @BeforeEach
+    void setUp() {
+
+        when(unitOfWork.find(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+        when(creditCardRepository.findById(CARD_ID)).thenReturn(Optional.of(CreditCard.builder()
+                .id(CARD_ID)
+                .availableCredit(BigDecimal.valueOf(1000))
+                .interestRate(24.0)
+                .paymentDate(15)
+                .build()));
+    }
+
+    @Test
+    void batchRequiresCreditOfLargestSequentialCharge() {
+
+        when(installmentCalculator.calculateMonthlyPayment(
+                eq(BigDecimal.valueOf(800)), any(), anyInt()))
+                .thenReturn(BigDecimal.valueOf(210));
+        when(creditCardRepository.authorizeCharge(any(), any(), any()))
+                .thenReturn(Optional.of(CreditCard.builder()
+                        .id(CARD_ID)
+                        .availableCredit(BigDecimal.valueOf(690))
+                        .build()));
+
+        List<OperationResponseDto> responses =
+                processBatch(charge(800, 4), charge(100, 1));
+
+        // El primer cargo exige 800 de crédito disponible aunque solo descuente su cuota
+        verify(creditCardRepository).authorizeCharge(
+                CARD_ID, BigDecimal.valueOf(800), BigDecimal.valueOf(310));
+        verify(cardInstallmentService).createChargeBatch(eq(CARD_ID), eq(15), any());
+        assertEquals(List.of("SUCCESS", "SUCCESS"),
+                responses.stream().map(OperationResponseDto::getStatus).toList());
+    }
+
+    @Test
+    void batchRejectsChargesAboveRemainingCredit() {
+
+        when(creditCardRepository.authorizeCharge(any(), any(), any()))
+                .thenReturn(Optional.of(CreditCard.builder()
+                        .id(CARD_ID)
+                        .availableCredit(BigDecimal.valueOf(100))
+                        .build()));
+
+        List<OperationResponseDto> responses =
+                processBatch(charge(600, 1), charge(500, 1), charge(300, 1));
+
+        verify(creditCardRepository).authorizeCharge(
+                CARD_ID, BigDecimal.valueOf(900), BigDecimal.valueOf(900));
+        assertEquals(List.of("SUCCESS", "FAILED", "SUCCESS"),
+                responses.stream().map(OperationResponseDto::getStatus).toList());
+    }
+
+    @Test
+    void batchWithoutAuthorizedChargesDoesNotWrite() {
+
+        List<OperationResponseDto> responses = processBatch(charge(1500, 1), charge(2000, 1));
+
+        verify(creditCardRepository, never()).authorizeCharge(any(), any(), any());
+        assertEquals(List.of("FAILED", "FAILED"),
+                responses.stream().map(OperationResponseDto::getStatus).toList());
+    }
+
+    private List<OperationResponseDto> processBatch(ChargueCreditCardRequestDto... requests) {
+
+        return ReflectionTestUtils.invokeMethod(
+                creditCardService, "processChargeBatch", CARD_ID, List.of(requests));
+    }
+
+    private static ChargueCreditCardRequestDto charge(long amount, int installments) {
+
+        ChargueCreditCardRequestDto request = new ChargueCreditCardRequestDto();
+        request.setCreditCardId(CARD_ID);
+        request.setChargeAmount(BigDecimal.valueOf(amount));
+        request.setTotalInstallment(installments);
+        return request;
+    }
+}
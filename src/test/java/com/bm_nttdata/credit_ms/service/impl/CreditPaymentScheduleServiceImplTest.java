@@ -0,0 +1,137 @@
+package com.bm_nttdata.credit_ms.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.credit_ms.dto.PaymentDetailsDto;
+import com.bm_nttdata.credit_ms.entity.CreditPaymentSchedule;
+import com.bm_nttdata.credit_ms.enums.InstallmentStatusEnum;
+import com.bm_nttdata.credit_ms.exception.BusinessRuleException;
+import com.bm_nttdata.credit_ms.exception.ServiceException;
+import com.bm_nttdata.credit_ms.repository.CreditPaymentScheduleRepository;
+import com.bm_nttdata.credit_ms.scheduler.InstallmentDueDateEngine;
+import com.bm_nttdata.credit_ms.scheduler.InstallmentDueDateEngine.InstallmentKind;
+import com.bm_nttdata.credit_ms.util.Constants;
+import com.bm_nttdata.credit_ms.util.UnitOfWork;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Pruebas de la cotización y el pago de las cuotas mensuales de créditos.
+ */
+@ExtendWith(MockitoExtension.class)
+class CreditPaymentScheduleServiceImplTest {
+
+    private static final String CREDIT_ID = "credit-1";
+
+    private static final int PAYMENT_DAY = 10;
+
+    private static final long DAYS_OVERDUE = 12;
+
+    @Mock
+    private CreditPaymentScheduleRepository paymentScheduleRepository;
+
+    @Mock
+    private InstallmentDueDateEngine dueDateEngine;
+
+    @Mock
+    private UnitOfWork unitOfWork;
+
+    @InjectMocks
+    private CreditPaymentScheduleServiceImpl paymentScheduleService;
+
+    @Test
+    void quotesWithServerAggregation() {
+
+        PaymentDetailsDto quote = PaymentDetailsDto.builder()
+                .paymentAmount(BigDecimal.TEN)
+                .paymentFee(BigDecimal.ONE)
+                .totalPayment(BigDecimal.valueOf(11))
+                .build();
+        when(paymentScheduleRepository.quoteOpenInstallments(eq(CREDIT_ID), any(),
+                eq(LocalDate.now()), eq(Constants.DAILY_LATE_PAYMENT_INTEREST)))
+                .thenReturn(Optional.of(quote));
+
+        assertEquals(quote, paymentScheduleService.calculateMonthlyPayment(CREDIT_ID, PAYMENT_DAY));
+    }
+
+    @Test
+    void reportsMissingDebtOnQuote() {
+
+        when(paymentScheduleRepository.quoteOpenInstallments(any(), any(), any(), any()))
+                .thenReturn(Optional.empty());
+
+        assertThrows(ServiceException.class,
+                () -> paymentScheduleService.calculateMonthlyPayment(CREDIT_ID, PAYMENT_DAY));
+    }
+
+    @Test
+    void acceptsPaymentEqualToServerQuote() {
+
+        LocalDate pendingDueDate = LocalDate.now().plusDays(1);
+        stubInstallments(List.of(
+                installment("i1", LocalDate.now().minusDays(DAYS_OVERDUE),
+                        InstallmentStatusEnum.OVERDUE, "250.75"),
+                installment("i2", pendingDueDate, InstallmentStatusEnum.PENDING, "250.75")));
+
+        // Totales que calcula la agregación de cotización: monto por tasa diaria por días
+        BigDecimal amount = new BigDecimal("501.50");
+        BigDecimal fee = new BigDecimal("250.75")
+                .multiply(Constants.DAILY_LATE_PAYMENT_INTEREST)
+                .multiply(BigDecimal.valueOf(DAYS_OVERDUE));
+
+        PaymentDetailsDto payment = paymentScheduleService.payMonthlyInstallment(
+                amount.add(fee), CREDIT_ID, PAYMENT_DAY);
+
+        assertEquals(0, amount.compareTo(payment.getPaymentAmount()));
+        assertEquals(0, fee.compareTo(payment.getPaymentFee()));
+        assertEquals(1, payment.getPaidOverdueInstallments());
+        verify(unitOfWork).registerUpdate(
+                eq(List.of("i1", "i2")), any(), eq(CreditPaymentSchedule.class));
+        verify(dueDateEngine).release(InstallmentKind.CREDIT, List.of(pendingDueDate));
+    }
+
+    @Test
+    void rejectsPaymentWithoutLateInterest() {
+
+        stubInstallments(List.of(installment("i1", LocalDate.now().minusDays(DAYS_OVERDUE),
+                InstallmentStatusEnum.OVERDUE, "250.75")));
+
+        assertThrows(BusinessRuleException.class, () -> paymentScheduleService
+                .payMonthlyInstallment(new BigDecimal("250.75"), CREDIT_ID, PAYMENT_DAY));
+        verify(unitOfWork, never()).registerUpdate(any(), any(), any());
+    }
+
+    private void stubInstallments(List<CreditPaymentSchedule> installments) {
+
+        when(unitOfWork.find(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+        when(paymentScheduleRepository.findByCreditIdAndDueDateLessThanAndStatusIn(
+                eq(CREDIT_ID), any(), any())).thenReturn(installments);
+    }
+
+    private static CreditPaymentSchedule installment(
+            String id, LocalDate dueDate, InstallmentStatusEnum status, String amount) {
+
+        return CreditPaymentSchedule.builder()
+                .id(id)
+                .creditId(CREDIT_ID)
+                .dueDate(dueDate)
+                .status(status)
+                .installmentAmount(new BigDecimal(amount))
+                .build();
+    }
+}
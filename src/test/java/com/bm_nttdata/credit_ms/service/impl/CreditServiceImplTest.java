@@ -0,0 +1,106 @@
+package com.bm_nttdata.credit_ms.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.credit_ms.client.CustomerClient;
+import com.bm_nttdata.credit_ms.dto.CustomerDto;
+import com.bm_nttdata.credit_ms.exception.BusinessRuleException;
+import com.bm_nttdata.credit_ms.model.CreditRequestDto;
+import com.bm_nttdata.credit_ms.repository.CreditRepository;
+import com.bm_nttdata.credit_ms.service.CustomerRiskProfileService;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Pruebas de las reglas de negocio de la creación de créditos.
+ */
+@ExtendWith(MockitoExtension.class)
+class CreditServiceImplTest {
+
+    private static final String CUSTOMER_ID = "customer-1";
+
+    @Mock
+    private CreditRepository creditRepository;
+
+    @Mock
+    private CustomerClient customerClient;
+
+    @Mock
+    private CustomerRiskProfileService riskProfileService;
+
+    @InjectMocks
+    private CreditServiceImpl creditService;
+
+    @Test
+    void rejectsSecondPersonalCreditEvenWhenFirstIsPaidOff() {
+
+        when(customerClient.getCustomerById(CUSTOMER_ID)).thenReturn(customer("PERSONAL"));
+        when(creditRepository.countByCustomerIdAndAmountGreaterThan(
+                CUSTOMER_ID, BigDecimal.valueOf(0L))).thenReturn(1L);
+
+        BusinessRuleException exception = assertThrows(BusinessRuleException.class,
+                () -> creditService.createCredit(
+                        creditRequest(CreditRequestDto.CreditTypeEnum.PERSONAL)));
+
+        // La regla cuenta los créditos por monto, sin importar su saldo pendiente
+        assertEquals("Customer already has a credit with an outstanding balance",
+                exception.getMessage());
+        verifyNoInteractions(riskProfileService);
+        verify(creditRepository, never()).save(any());
+    }
+
+    @Test
+    void checksCreditTypeWhenPersonalCustomerHasNoCredits() {
+
+        when(customerClient.getCustomerById(CUSTOMER_ID)).thenReturn(customer("PERSONAL"));
+        when(creditRepository.countByCustomerIdAndAmountGreaterThan(
+                CUSTOMER_ID, BigDecimal.valueOf(0L))).thenReturn(0L);
+
+        BusinessRuleException exception = assertThrows(BusinessRuleException.class,
+                () -> creditService.createCredit(
+                        creditRequest(CreditRequestDto.CreditTypeEnum.BUSINESS)));
+
+        assertEquals("Personal client can't apply for Business credit", exception.getMessage());
+    }
+
+    @Test
+    void doesNotCountCreditsOfBusinessCustomers() {
+
+        when(customerClient.getCustomerById(CUSTOMER_ID)).thenReturn(customer("BUSINESS"));
+
+        assertThrows(BusinessRuleException.class,
+                () -> creditService.createCredit(
+                        creditRequest(CreditRequestDto.CreditTypeEnum.PERSONAL)));
+
+        verify(creditRepository, never()).countByCustomerIdAndAmountGreaterThan(any(), any());
+    }
+
+    private static CustomerDto customer(String customerType) {
+
+        return CustomerDto.builder()
+                .id(CUSTOMER_ID)
+                .customerType(customerType)
+                .build();
+    }
+
+    private static CreditRequestDto creditRequest(CreditRequestDto.CreditTypeEnum creditType) {
+
+        CreditRequestDto request = new CreditRequestDto();
+        request.setCustomerId(CUSTOMER_ID);
+        request.setCreditType(creditType);
+        request.setAmount(BigDecimal.valueOf(5000));
+        request.setTerm(12);
+        request.setInterestRate(BigDecimal.valueOf(15));
+        return request;
+    }
+}
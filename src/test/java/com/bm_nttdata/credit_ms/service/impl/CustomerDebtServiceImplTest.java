@@ -0,0 +1,103 @@
+package com.bm_nttdata.credit_ms.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.credit_ms.dto.CustomerDebtDetailsDto;
+import com.bm_nttdata.credit_ms.entity.CustomerRiskProfile;
+import com.bm_nttdata.credit_ms.exception.ApiInvalidRequestException;
+import com.bm_nttdata.credit_ms.service.CustomerRiskProfileService;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Pruebas de la verificación de deudas vencidas de los clientes.
+ */
+@ExtendWith(MockitoExtension.class)
+class CustomerDebtServiceImplTest {
+
+    private static final String CUSTOMER_ID = "customer-1";
+
+    @Mock
+    private CustomerRiskProfileService riskProfileService;
+
+    @InjectMocks
+    private CustomerDebtServiceImpl customerDebtService;
+
+    @Test
+    void reportsDebtsPerProductType() {
+
+        when(riskProfileService.getProfile(CUSTOMER_ID))
+                .thenReturn(profile(CUSTOMER_ID, 0, 2));
+
+        CustomerDebtDetailsDto debts = customerDebtService.getCustomerDebts(CUSTOMER_ID);
+
+        assertFalse(debts.getHasCreditDebts());
+        assertTrue(debts.getHasCreditCardDebts());
+        assertTrue(debts.getHasDebts());
+    }
+
+    @Test
+    void reportsNoDebtsWithoutOverdueInstallments() {
+
+        when(riskProfileService.getProfile(CUSTOMER_ID))
+                .thenReturn(profile(CUSTOMER_ID, 0, 0));
+
+        CustomerDebtDetailsDto debts = customerDebtService.getCustomerDebts(CUSTOMER_ID);
+
+        assertFalse(debts.getHasCreditDebts());
+        assertFalse(debts.getHasCreditCardDebts());
+        assertFalse(debts.getHasDebts());
+    }
+
+    @Test
+    void rejectsBlankCustomerId() {
+
+        assertThrows(ApiInvalidRequestException.class,
+                () -> customerDebtService.getCustomerDebts(" "));
+        verifyNoInteractions(riskProfileService);
+    }
+
+    @Test
+    void reportsDebtsOfDistinctCustomersInRequestOrder() {
+
+        when(riskProfileService.getProfiles(Set.of("c2", "c1"))).thenReturn(Map.of(
+                "c1", profile("c1", 0, 0),
+                "c2", profile("c2", 1, 0)));
+
+        Map<String, Boolean> debts = customerDebtService.getCustomersDebts(
+                List.of("c2", "c1", "c2"));
+
+        assertEquals(List.of("c2", "c1"), List.copyOf(debts.keySet()));
+        assertTrue(debts.get("c2"));
+        assertFalse(debts.get("c1"));
+    }
+
+    @Test
+    void rejectsBlankCustomerIdInBatch() {
+
+        assertThrows(ApiInvalidRequestException.class,
+                () -> customerDebtService.getCustomersDebts(List.of("c1", "")));
+        verifyNoInteractions(riskProfileService);
+    }
+
+    private static CustomerRiskProfile profile(
+            String customerId, long overdueCredit, long overdueCard) {
+
+        return CustomerRiskProfile.builder()
+                .customerId(customerId)
+                .overdueCreditInstallments(overdueCredit)
+                .overdueCardInstallments(overdueCard)
+                .build();
+    }
+}
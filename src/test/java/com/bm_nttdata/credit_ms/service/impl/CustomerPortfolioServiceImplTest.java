@@ -0,0 +1,81 @@
+package com.bm_nttdata.credit_ms.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.credit_ms.dto.CreditCardPortfolioDetailsDto;
+import com.bm_nttdata.credit_ms.dto.CreditPortfolioDetailsDto;
+import com.bm_nttdata.credit_ms.dto.CustomerPortfolioDetailsDto;
+import com.bm_nttdata.credit_ms.exception.ServiceException;
+import com.bm_nttdata.credit_ms.repository.CreditRepository;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+/**
+ * Pruebas de la obtención del portafolio de créditos de los clientes.
+ */
+@ExtendWith(MockitoExtension.class)
+class CustomerPortfolioServiceImplTest {
+
+    private static final String CUSTOMER_ID = "customer-1";
+
+    @Mock
+    private CreditRepository creditRepository;
+
+    @InjectMocks
+    private CustomerPortfolioServiceImpl customerPortfolioService;
+
+    @Test
+    void reportsDebtsWhenAnyCardHasOverdueInstallments() {
+
+        when(creditRepository.findCustomerPortfolio(eq(CUSTOMER_ID), any(LocalDate.class)))
+                .thenReturn(portfolio(0, 1));
+
+        CustomerPortfolioDetailsDto portfolio =
+                customerPortfolioService.getCustomerPortfolio(CUSTOMER_ID);
+
+        assertEquals(CUSTOMER_ID, portfolio.getCustomerId());
+        assertTrue(portfolio.getHasDebts());
+    }
+
+    @Test
+    void reportsNoDebtsWithoutOverdueInstallments() {
+
+        when(creditRepository.findCustomerPortfolio(eq(CUSTOMER_ID), any(LocalDate.class)))
+                .thenReturn(portfolio(0, 0));
+
+        assertFalse(customerPortfolioService.getCustomerPortfolio(CUSTOMER_ID).getHasDebts());
+    }
+
+    @Test
+    void wrapsAggregationErrors() {
+
+        when(creditRepository.findCustomerPortfolio(eq(CUSTOMER_ID), any(LocalDate.class)))
+                .thenThrow(new DataAccessResourceFailureException("aggregation failed"));
+
+        assertThrows(ServiceException.class,
+                () -> customerPortfolioService.getCustomerPortfolio(CUSTOMER_ID));
+    }
+
+    private static CustomerPortfolioDetailsDto portfolio(
+            long creditOverdueInstallments, long cardOverdueInstallments) {
+
+        return CustomerPortfolioDetailsDto.builder()
+                .credits(List.of(CreditPortfolioDetailsDto.builder()
+                        .overdueInstallments(creditOverdueInstallments).build()))
+                .creditCards(List.of(CreditCardPortfolioDetailsDto.builder()
+                        .overdueInstallments(cardOverdueInstallments).build()))
+                .build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.bm_nttdata.credit_ms.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.credit_ms.entity.Credit;
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import com.bm_nttdata.credit_ms.entity.DailyCreditBalance;
+import com.bm_nttdata.credit_ms.entity.SchedulerPartition;
+import com.bm_nttdata.credit_ms.exception.ServiceException;
+import com.bm_nttdata.credit_ms.repository.DailyBalanceStore;
+import com.bm_nttdata.credit_ms.repository.impl.MonthlyBalanceStatsStore;
+import com.bm_nttdata.credit_ms.scheduler.SchedulerPartitionCoordinator;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Pruebas del registro y el backfill de saldos diarios en lotes de upserts.
+ */
+@ExtendWith(MockitoExtension.class)
+class DailyBalanceServiceImplTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 6, 15);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private DailyBalanceStore dailyBalanceStore;
+
+    @Mock
+    private MonthlyBalanceStatsStore balanceStatsStore;
+
+    @Mock
+    private SchedulerPartitionCoordinator partitionCoordinator;
+
+    @InjectMocks
+    private DailyBalanceServiceImpl dailyBalanceService;
+
+    @BeforeEach
+    void setUp() {
+
+        ReflectionTestUtils.setField(dailyBalanceService, "batchSize", 2);
+        ReflectionTestUtils.setField(dailyBalanceService, "snapshotMode", "full");
+    }
+
+    @Test
+    void upsertsBalancesInBatchesWithCheckpoints() {
+
+        SchedulerPartition partition = SchedulerPartition.builder().id("p0").build();
+        when(mongoTemplate.stream(any(Query.class), eq(Credit.class))).thenReturn(Stream.of(
+                credit("c1", 100), credit("c2", 200), credit("c3", 300)));
+        when(mongoTemplate.stream(any(Query.class), eq(CreditCard.class)))
+                .thenReturn(Stream.empty());
+        when(dailyBalanceStore.write(any()))
+                .thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+        when(partitionCoordinator.checkpoint(eq(partition), anyString(), anyString()))
+                .thenReturn(true);
+
+        long recorded = dailyBalanceService.recordDailyBalances(DATE, partition);
+
+        assertEquals(3, recorded);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<DailyCreditBalance>> batches = ArgumentCaptor.forClass(List.class);
+        verify(dailyBalanceStore, times(2)).write(batches.capture());
+        assertEquals(List.of(2, 1), batches.getAllValues().stream().map(List::size).toList());
+        assertEquals(DATE, batches.getAllValues().get(1).get(0).getDate());
+        verify(balanceStatsStore, times(2)).record(any());
+        verify(partitionCoordinator).checkpoint(partition, "creditCheckpointId", "c2");
+        verify(partitionCoordinator).checkpoint(partition, "creditCheckpointId", "c3");
+    }
+
+    @Test
+    void stopsWhenPartitionLeaseIsLost() {
+
+        SchedulerPartition partition = SchedulerPartition.builder().id("p0").build();
+        when(mongoTemplate.stream(any(Query.class), eq(Credit.class))).thenReturn(Stream.of(
+                credit("c1", 100), credit("c2", 200), credit("c3", 300)));
+        when(partitionCoordinator.checkpoint(eq(partition), anyString(), anyString()))
+                .thenReturn(false);
+
+        assertThrows(ServiceException.class,
+                () -> dailyBalanceService.recordDailyBalances(DATE, partition));
+        verify(dailyBalanceStore, times(1)).write(any());
+    }
+
+    @Test
+    void recordsBalanceChangesOnlyInDeltaMode() {
+
+        dailyBalanceService.recordBalanceChange("c1", BigDecimal.TEN);
+        verifyNoInteractions(dailyBalanceStore);
+
+        ReflectionTestUtils.setField(dailyBalanceService, "snapshotMode", "delta");
+        dailyBalanceService.recordBalanceChange("c1", BigDecimal.TEN);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<DailyCreditBalance>> written = ArgumentCaptor.forClass(List.class);
+        verify(dailyBalanceStore).write(written.capture());
+        assertEquals(LocalDate.now().plusDays(1), written.getValue().get(0).getDate());
+        verify(dailyBalanceStore, never()).insertMissing(any());
+    }
+
+    @Test
+    void recordsStatsOnlyForBackfilledBalances() {
+
+        ReflectionTestUtils.setField(dailyBalanceService, "backfillParallelism", 1);
+        ReflectionTestUtils.setField(dailyBalanceService, "backfillMaxDays", 31);
+        LocalDate day = LocalDate.now().minusDays(1);
+        when(dailyBalanceStore.countByDay(day, day)).thenReturn(Map.of(day, 1L));
+        when(mongoTemplate.count(any(Query.class), eq(Credit.class))).thenReturn(2L);
+        when(mongoTemplate.count(any(Query.class), eq(CreditCard.class))).thenReturn(0L);
+        when(mongoTemplate.stream(any(Query.class), eq(Credit.class)))
+                .thenReturn(Stream.of(credit("c1", 100), credit("c2", 200)));
+        when(mongoTemplate.stream(any(Query.class), eq(CreditCard.class)))
+                .thenReturn(Stream.empty());
+        when(dailyBalanceStore.findLastBalancesBefore(any(), eq(day), any()))
+                .thenReturn(Map.of());
+        when(dailyBalanceStore.insertMissing(any())).thenAnswer(invocation -> invocation
+                .<List<DailyCreditBalance>>getArgument(0).subList(1, 2));
+
+        long backfilled = dailyBalanceService.backfillDailyBalances(day, day);
+
+        assertEquals(1, backfilled);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<DailyCreditBalance>> recorded = ArgumentCaptor.forClass(List.class);
+        verify(balanceStatsStore).record(recorded.capture());
+        assertEquals(1, recorded.getValue().size());
+        assertEquals("c2", recorded.getValue().get(0).getCreditProductId());
+        verify(dailyBalanceStore, never()).write(any());
+    }
+
+    private static Credit credit(String id, long balance) {
+
+        return Credit.builder().id(id).balance(BigDecimal.valueOf(balance)).build();
+    }
+}
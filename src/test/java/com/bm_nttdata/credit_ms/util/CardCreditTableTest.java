@@ -0,0 +1,130 @@
+package com.bm_nttdata.credit_ms.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de la tabla de crédito disponible de tarjetas de crédito.
+ */
+class CardCreditTableTest {
+
+    private static final String CARD_ID = "65f1a2b3c4d5e6f708192a3b";
+
+    private static final String OTHER_CARD_ID = "65f1a2b3c4d5e6f708192a3c";
+
+    @Test
+    void acceptsOnlyHexadecimalObjectIds() {
+
+        assertTrue(CardCreditTable.isValidKey(CARD_ID));
+        assertTrue(CardCreditTable.isValidKey(CARD_ID.toUpperCase()));
+        assertFalse(CardCreditTable.isValidKey(null));
+        assertFalse(CardCreditTable.isValidKey("65f1a2b3c4d5e6f708192a3"));
+        assertFalse(CardCreditTable.isValidKey("65f1a2b3c4d5e6f708192a3g"));
+    }
+
+    @Test
+    void findsStoredCards() {
+
+        CardCreditTable table = new CardCreditTable(0);
+        table.put(CARD_ID, 150_000, 15);
+
+        int slot = table.find(CARD_ID);
+        assertTrue(slot >= 0);
+        assertEquals(150_000, table.available(slot));
+        assertEquals(15, table.paymentDay(slot));
+        assertEquals(-1, table.find(OTHER_CARD_ID));
+        assertEquals(-1, table.find("not-an-object-id"));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void drainsAccumulatedDeltasOnce() {
+
+        CardCreditTable table = new CardCreditTable(0);
+        table.put(CARD_ID, 100_000, 5);
+        int slot = table.find(CARD_ID);
+
+        assertEquals(70_000, table.add(slot, -30_000));
+        assertEquals(80_000, table.add(slot, 10_000));
+
+        Map<String, Long> drained = drain(table);
+        assertEquals(Map.of(CARD_ID, -20_000L), drained);
+        assertEquals(80_000, table.available(slot));
+        assertTrue(drain(table).isEmpty());
+    }
+
+    @Test
+    void skipsDeltasThatCancelOut() {
+
+        CardCreditTable table = new CardCreditTable(0);
+        table.put(CARD_ID, 100_000, 5);
+        int slot = table.find(CARD_ID);
+        table.add(slot, -5_000);
+        table.add(slot, 5_000);
+
+        assertEquals(0, table.drainPending((high, low, delta) -> { }));
+    }
+
+    @Test
+    void restoresFailedDeltasWithoutChangingAvailableCredit() {
+
+        CardCreditTable table = new CardCreditTable(0);
+        table.put(CARD_ID, 100_000, 5);
+        int slot = table.find(CARD_ID);
+        table.add(slot, -10_000);
+        drain(table);
+
+        assertTrue(table.restorePending(CARD_ID, -10_000));
+        assertFalse(table.restorePending(OTHER_CARD_ID, -10_000));
+        assertEquals(90_000, table.available(slot));
+        assertEquals(Map.of(CARD_ID, -10_000L), drain(table));
+    }
+
+    @Test
+    void returnsPendingDeltaOnRemove() {
+
+        CardCreditTable table = new CardCreditTable(0);
+        table.put(CARD_ID, 100_000, 5);
+        table.add(table.find(CARD_ID), -1_000);
+
+        assertEquals(-1_000, table.remove(table.find(CARD_ID)));
+        assertEquals(-1, table.find(CARD_ID));
+        assertEquals(0, table.size());
+        assertTrue(drain(table).isEmpty());
+
+        table.put(CARD_ID, 50_000, 5);
+        assertEquals(50_000, table.available(table.find(CARD_ID)));
+    }
+
+    @Test
+    void keepsCardsWhenGrowingBeyondExpectedSize() {
+
+        CardCreditTable table = new CardCreditTable(4);
+        for (int i = 0; i < 1_000; i++) {
+            String id = String.format("%024x", i);
+            table.put(id, i, 1);
+            table.add(table.find(id), 1);
+        }
+
+        assertEquals(1_000, table.size());
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i + 1, table.available(table.find(String.format("%024x", i))));
+        }
+        Map<String, Long> drained = drain(table);
+        assertEquals(1_000, drained.size());
+        assertEquals(1L, drained.get(String.format("%024x", 999)));
+    }
+
+    private static Map<String, Long> drain(CardCreditTable table) {
+
+        Map<String, Long> drained = new HashMap<>();
+        table.drainPending((high, low, delta) ->
+                drained.put(CardCreditTable.toId(high, low), delta));
+        return drained;
+    }
+}
@@ -0,0 +1,78 @@
+package com.bm_nttdata.credit_ms.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de la rueda de temporización jerárquica.
+ */
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 1_000;
+
+    private static final long START = 1_000_000;
+
+    @Test
+    void rejectsInvalidConfiguration() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new HierarchicalTimingWheel<String>(0, 8, START));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HierarchicalTimingWheel<String>(TICK, 1, START));
+    }
+
+    @Test
+    void expiresElementsInDeadlineOrder() {
+
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 8, START);
+        assertTrue(wheel.schedule("late", START + 5 * TICK));
+        assertTrue(wheel.schedule("early", START + 2 * TICK));
+
+        assertTrue(wheel.advance(START + TICK).isEmpty());
+        assertEquals(List.of("early"), wheel.advance(START + 3 * TICK));
+        assertEquals(List.of("late"), wheel.advance(START + 10 * TICK));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesDistantDeadlinesFromUpperLevels() {
+
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 4, START);
+        long deadline = START + 50 * TICK;
+        assertTrue(wheel.schedule("distant", deadline));
+
+        assertTrue(wheel.advance(deadline - TICK).isEmpty());
+        assertTrue(wheel.contains("distant"));
+        assertEquals(List.of("distant"), wheel.advance(deadline));
+        assertFalse(wheel.contains("distant"));
+    }
+
+    @Test
+    void rejectsPastDeadlines() {
+
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 8, START);
+
+        assertFalse(wheel.schedule("past", START - TICK));
+        assertFalse(wheel.contains("past"));
+    }
+
+    @Test
+    void cancelsAndReschedulesElements() {
+
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 8, START);
+        wheel.schedule("cancelled", START + 2 * TICK);
+        wheel.schedule("moved", START + 2 * TICK);
+        wheel.schedule("moved", START + 20 * TICK);
+
+        assertTrue(wheel.cancel("cancelled"));
+        assertFalse(wheel.cancel("cancelled"));
+        assertEquals(1, wheel.size());
+        assertTrue(wheel.advance(START + 5 * TICK).isEmpty());
+        assertEquals(List.of("moved"), wheel.advance(START + 20 * TICK));
+    }
+}
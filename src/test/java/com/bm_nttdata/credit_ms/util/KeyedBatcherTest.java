@@ -0,0 +1,109 @@
+package com.bm_nttdata.credit_ms.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas del agrupador de peticiones concurrentes por clave.
+ */
+class KeyedBatcherTest {
+
+    @Test
+    void rejectsInvalidConfiguration() {
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new KeyedBatcher<String, Integer, Integer>(-1, 1, (key, batch) -> batch));
+        assertThrows(IllegalArgumentException.class,
+                () -> new KeyedBatcher<String, Integer, Integer>(0, 0, (key, batch) -> batch));
+    }
+
+    @Test
+    void processesSingleRequestAfterWindow() {
+
+        List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+        KeyedBatcher<String, Integer, Integer> batcher = new KeyedBatcher<>(1, 10,
+                (key, batch) -> {
+                    batches.add(batch);
+                    return batch.stream().map(value -> value * 2).toList();
+                });
+
+        assertEquals(14, batcher.submit("card", 7));
+        assertEquals(List.of(List.of(7)), batches);
+    }
+
+    @Test
+    void groupsConcurrentRequestsOfSameKey() throws Exception {
+
+        int requests = 4;
+        List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+        KeyedBatcher<String, Integer, Integer> batcher = new KeyedBatcher<>(10_000, requests,
+                (key, batch) -> {
+                    batches.add(batch);
+                    return batch.stream().map(value -> value + 100).toList();
+                });
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                int request = i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return batcher.submit("card", request);
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < requests; i++) {
+                assertEquals(i + 100, results.get(i).get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // El lote se cierra al alcanzar su tamaño máximo, sin esperar la ventana completa
+        assertEquals(1, batches.size());
+        assertEquals(requests, batches.get(0).size());
+    }
+
+    @Test
+    void separatesBatchesByKey() {
+
+        List<String> keys = Collections.synchronizedList(new ArrayList<>());
+        KeyedBatcher<String, Integer, Integer> batcher = new KeyedBatcher<>(0, 10,
+                (key, batch) -> {
+                    keys.add(key);
+                    return batch;
+                });
+
+        assertEquals(1, batcher.submit("first", 1));
+        assertEquals(2, batcher.submit("second", 2));
+        assertEquals(List.of("first", "second"), keys);
+    }
+
+    @Test
+    void propagatesProcessorFailureToEveryRequest() {
+
+        IllegalStateException failure = new IllegalStateException("write failed");
+        KeyedBatcher<String, Integer, Integer> batcher = new KeyedBatcher<>(0, 10,
+                (key, batch) -> {
+                    throw failure;
+                });
+
+        IllegalStateException thrown =
+                assertThrows(IllegalStateException.class, () -> batcher.submit("card", 1));
+        assertSame(failure, thrown);
+    }
+}
@@ -0,0 +1,91 @@
+package com.bm_nttdata.credit_ms.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Pruebas del ejecutor de operaciones sobre documentos versionados.
+ */
+class OptimisticLockRetryTest {
+
+    private MeterRegistry meterRegistry;
+
+    private OptimisticLockRetry optimisticLockRetry;
+
+    @BeforeEach
+    void setUp() {
+
+        meterRegistry = new SimpleMeterRegistry();
+        optimisticLockRetry = new OptimisticLockRetry();
+        ReflectionTestUtils.setField(optimisticLockRetry, "maxAttempts", 3);
+        ReflectionTestUtils.setField(optimisticLockRetry, "initialBackoffMillis", 1L);
+        ReflectionTestUtils.setField(optimisticLockRetry, "maxBackoffMillis", 2L);
+        ReflectionTestUtils.setField(optimisticLockRetry, "retryRegistry",
+                RetryRegistry.ofDefaults());
+        ReflectionTestUtils.setField(optimisticLockRetry, "meterRegistry", meterRegistry);
+    }
+
+    @Test
+    void retriesVersionConflictsUntilSuccess() {
+
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = optimisticLockRetry.execute("update", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("version changed");
+            }
+            return "saved";
+        });
+
+        assertEquals("saved", result);
+        assertEquals(3, calls.get());
+        assertEquals(3, count("credit.optimistic-lock.attempts"));
+        assertEquals(2, count("credit.optimistic-lock.conflicts"));
+        assertEquals(0, count("credit.optimistic-lock.exhausted"));
+    }
+
+    @Test
+    void failsAfterLastAttempt() {
+
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> optimisticLockRetry.execute("update", () -> {
+                    calls.incrementAndGet();
+                    throw new OptimisticLockingFailureException("version changed");
+                }));
+
+        assertEquals(3, calls.get());
+        assertEquals(3, count("credit.optimistic-lock.conflicts"));
+        assertEquals(1, count("credit.optimistic-lock.exhausted"));
+    }
+
+    @Test
+    void doesNotRetryOtherFailures() {
+
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class,
+                () -> optimisticLockRetry.execute("update", () -> {
+                    calls.incrementAndGet();
+                    throw new IllegalStateException("invalid state");
+                }));
+
+        assertEquals(1, calls.get());
+        assertEquals(0, count("credit.optimistic-lock.exhausted"));
+    }
+
+    private double count(String meter) {
+
+        return meterRegistry.counter(meter, "operation", "update").count();
+    }
+}
@@ -0,0 +1,130 @@
+package com.bm_nttdata.credit_ms.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.credit_ms.entity.Credit;
+import com.bm_nttdata.credit_ms.entity.CreditCard;
+import com.bm_nttdata.credit_ms.repository.BulkWriter;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Pruebas de la unidad de trabajo asociada al hilo.
+ */
+@ExtendWith(MockitoExtension.class)
+class UnitOfWorkTest {
+
+    @Mock
+    private BulkWriter bulkWriter;
+
+    @InjectMocks
+    private UnitOfWork unitOfWork;
+
+    @Test
+    void loadsEachDocumentOncePerUnit() {
+
+        AtomicInteger loads = new AtomicInteger();
+
+        unitOfWork.execute(() -> {
+            Credit first = unitOfWork.find(Credit.class, "c1", () -> load(loads));
+            Credit second = unitOfWork.find(Credit.class, "c1", () -> load(loads));
+            assertSame(first, second);
+            unitOfWork.find(CreditCard.class, "c1", () -> new CreditCard());
+            return null;
+        });
+        unitOfWork.find(Credit.class, "c1", () -> load(loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void reloadsEvictedDocuments() {
+
+        AtomicInteger loads = new AtomicInteger();
+
+        unitOfWork.execute(() -> {
+            unitOfWork.find(Credit.class, "c1", () -> load(loads));
+            unitOfWork.evict(Credit.class, "c1");
+            unitOfWork.find(Credit.class, "c1", () -> load(loads));
+            return null;
+        });
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void groupsEqualUpdatesIntoOneWrite() {
+
+        Update update = new Update().set("status", "PAID");
+        when(bulkWriter.updateAllById(any(), any(), eq(Credit.class))).thenReturn(3L);
+
+        unitOfWork.execute(() -> {
+            unitOfWork.registerUpdate(List.of("c1", "c2"), update, Credit.class);
+            unitOfWork.registerUpdate(List.of("c2", "c3"),
+                    new Update().set("status", "PAID"), Credit.class);
+            verifyNoInteractions(bulkWriter);
+            return null;
+        });
+
+        verify(bulkWriter).updateAllById(Set.of("c1", "c2", "c3"), update, Credit.class);
+    }
+
+    @Test
+    void discardsPendingUpdatesOfFailedUnit() {
+
+        assertThrows(IllegalStateException.class, () -> unitOfWork.execute(() -> {
+            unitOfWork.registerUpdate(List.of("c1"), new Update().set("status", "PAID"),
+                    Credit.class);
+            throw new IllegalStateException("payment failed");
+        }));
+
+        verify(bulkWriter, never()).updateAllById(any(), any(), any());
+    }
+
+    @Test
+    void writesDirectlyOutsideUnit() {
+
+        Update update = new Update().set("status", "PAID");
+
+        unitOfWork.registerUpdate(List.of("c1"), update, Credit.class);
+
+        verify(bulkWriter).updateAllById(List.of("c1"), update, Credit.class);
+    }
+
+    @Test
+    void nestedUnitLeavesWriteToOuterUnit() {
+
+        unitOfWork.execute(() -> {
+            unitOfWork.execute(() -> {
+                unitOfWork.registerUpdate(List.of("c1"), new Update().set("status", "PAID"),
+                        Credit.class);
+                return null;
+            });
+            verifyNoInteractions(bulkWriter);
+            return null;
+        });
+
+        verify(bulkWriter).updateAllById(any(), any(), eq(Credit.class));
+    }
+
+    private static Credit load(AtomicInteger loads) {
+
+        loads.incrementAndGet();
+        return new Credit();
+    }
+}